@@ -0,0 +1,59 @@
+package com.fitness.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fitness.entity.User;
+import com.fitness.service.AuthService;
+
+/**
+ * JWT issue (login/register) and verification ({@code getUserIdFromToken},
+ * called by every authenticated AI endpoint) with the production HS256 setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthJwtBenchmark {
+
+    private final AuthService authService = new AuthService();
+
+    private MethodHandle buildJwt;
+    private User user;
+    private String authorization;
+
+    @Setup
+    public void setup() throws Throwable {
+        BenchSupport.inject(authService, "jwtSignKey", "benchmark-signing-key-0123456789abcdef-0123456789abcdef");
+        buildJwt = BenchSupport.method(AuthService.class, "buildJwt", String.class, User.class);
+
+        user = new User();
+        user.id = 48_213L;
+        user.email = "bench.user@fitness.local";
+        user.name = "Bench User";
+        authorization = "Bearer " + (String) buildJwt.invokeExact(authService, user);
+    }
+
+    @Benchmark
+    public String build() throws Throwable {
+        return (String) buildJwt.invokeExact(authService, user);
+    }
+
+    @Benchmark
+    public Long verify() {
+        return authService.getUserIdFromToken(authorization);
+    }
+}
@@ -0,0 +1,55 @@
+package com.fitness.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fitness.service.AuthRateLimiter;
+
+/**
+ * Contention on {@link AuthRateLimiter}: eight threads hitting one IP (a
+ * credential-stuffing burst behind a single NAT) vs eight distinct IPs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class AuthRateLimiterBenchmark {
+
+    @Param({"SHARED_IP", "DISTINCT_IPS"})
+    String traffic;
+
+    private final AuthRateLimiter limiter = new AuthRateLimiter();
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class Client {
+        String ip;
+
+        @Setup
+        public void setup(AuthRateLimiterBenchmark benchmark) {
+            int id = benchmark.threadIds.incrementAndGet();
+            ip = "SHARED_IP".equals(benchmark.traffic) ? "203.0.113.7" : "198.51.100." + id;
+        }
+    }
+
+    @Benchmark
+    public boolean allowLogin(Client client) {
+        return limiter.allowLogin(client.ip);
+    }
+}
@@ -0,0 +1,44 @@
+package com.fitness.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Access to package-private service internals from the benchmarks, so the
+ * measured code is the production method itself rather than a copy.
+ * Lookups happen once in {@code @Setup}; an {@code invokeExact} call through
+ * the resulting {@link MethodHandle} costs a few nanoseconds, well below the
+ * measured work.
+ */
+final class BenchSupport {
+
+    private BenchSupport() {
+    }
+
+    static MethodHandle method(Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+            MethodType type = MethodType.methodType(returnType, parameterTypes);
+            try {
+                return lookup.findStatic(owner, name, type);
+            } catch (NoSuchMethodException | IllegalAccessException notStatic) {
+                return lookup.findVirtual(owner, name, type);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Benchmark target not found: " + owner.getSimpleName() + "." + name, e);
+        }
+    }
+
+    /** Sets an {@code @Inject}/{@code @ConfigProperty} field on a bean created with {@code new}. */
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + fieldName, e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.fitness.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of {@code target/benchmarks.jar}. Same arguments as
+ * {@code org.openjdk.jmh.Main}, but results are written as JSON by default
+ * ({@code target/jmh/<label>.json}) so two commits can be compared with
+ * {@link JmhCompare}. The label is {@code JMH_LABEL} (e.g. the commit hash)
+ * or a timestamp; an explicit {@code -rf}/{@code -rff} wins.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        boolean informational = jmhArgs.stream().anyMatch(arg -> arg.equals("-h") || arg.equals("-l")
+                || arg.equals("-lp") || arg.equals("-lprof") || arg.equals("-lrf"));
+        if (!informational && !jmhArgs.contains("-rf") && !jmhArgs.contains("-rff")) {
+            Path out = resultFile();
+            jmhArgs.add("-rf");
+            jmhArgs.add("json");
+            jmhArgs.add("-rff");
+            jmhArgs.add(out.toString());
+            System.out.println("# JMH results → " + out);
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(String[]::new));
+    }
+
+    private static Path resultFile() throws IOException {
+        String label = System.getenv("JMH_LABEL");
+        if (label == null || label.isBlank()) {
+            label = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        }
+        Path dir = Path.of("target", "jmh");
+        Files.createDirectories(dir);
+        return dir.resolve(label.replaceAll("[^A-Za-z0-9._-]", "_") + ".json");
+    }
+}
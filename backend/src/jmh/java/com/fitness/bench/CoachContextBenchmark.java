@@ -0,0 +1,46 @@
+package com.fitness.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fitness.dto.AiCoachRequest;
+import com.fitness.service.AiCoachContextBuilder;
+import com.fitness.service.CoachPromptContext;
+
+/**
+ * Per-request part of {@link AiCoachContextBuilder#build}: recovery snapshot
+ * and coaching-signal formatting from the daily summary. Profile and progress
+ * snapshots come from the per-user cache and are not measured here.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoachContextBenchmark {
+
+    private final AiCoachContextBuilder builder = new AiCoachContextBuilder();
+
+    private AiCoachRequest.DailySummaryDto summary;
+
+    @Setup
+    public void setup() {
+        summary = PromptFixtures.coachRequest().dailySummary;
+    }
+
+    @Benchmark
+    public CoachPromptContext build() {
+        return builder.build(null, summary);
+    }
+}
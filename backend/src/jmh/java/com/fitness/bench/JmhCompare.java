@@ -0,0 +1,83 @@
+package com.fitness.bench;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares two JMH JSON result files (baseline vs candidate) and prints the
+ * relative change per benchmark and parameter set.
+ * <pre>
+ * java -cp target/benchmarks.jar com.fitness.bench.JmhCompare target/jmh/base.json target/jmh/head.json [threshold%]
+ * </pre>
+ * A change is a regression when it is worse than the threshold (default 10%)
+ * <em>and</em> larger than the two runs' combined score error; the exit code
+ * is 1 if any regression is found, so the check can gate a CI step.
+ */
+public final class JmhCompare {
+
+    private JmhCompare() {
+    }
+
+    record Score(double value, double error, boolean higherIsBetter) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: JmhCompare <baseline.json> <candidate.json> [threshold%]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100.0 : 0.10;
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> candidate = read(Path.of(args[1]));
+
+        int regressions = 0;
+        System.out.printf(Locale.US, "%-90s %14s %14s %9s%n", "Benchmark", "baseline", "candidate", "change");
+        for (Map.Entry<String, Score> entry : candidate.entrySet()) {
+            Score head = entry.getValue();
+            Score base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.printf(Locale.US, "%-90s %14s %14.3f %9s%n", entry.getKey(), "-", head.value(), "new");
+                continue;
+            }
+            double change = base.value() == 0 ? 0 : (head.value() - base.value()) / base.value();
+            double worse = head.higherIsBetter() ? -change : change;
+            boolean beyondNoise = Math.abs(head.value() - base.value()) > base.error() + head.error();
+            boolean regression = worse > threshold && beyondNoise;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf(Locale.US, "%-90s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), base.value(),
+                    head.value(), change * 100, regression ? "  REGRESSION" : "");
+        }
+        System.out.printf(Locale.US, "%d regression(s) above %.0f%%%n", regressions, threshold * 100);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    static Map<String, Score> read(Path file) throws IOException {
+        JsonNode results = new ObjectMapper().readTree(file.toFile());
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            JsonNode params = result.path("params");
+            for (Map.Entry<String, JsonNode> param : params.properties()) {
+                key.append(key.indexOf("[") < 0 ? " [" : ", ").append(param.getKey()).append('=')
+                        .append(param.getValue().asText());
+            }
+            if (params.size() > 0) {
+                key.append(']');
+            }
+            String mode = result.path("mode").asText();
+            JsonNode metric = result.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(key.toString(), new Score(metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error, "thrpt".equals(mode)));
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,76 @@
+package com.fitness.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fitness.dto.AiCoachResponse;
+import com.fitness.dto.NutritionAiResponse;
+import com.fitness.service.LlmJsonExtractor;
+
+/**
+ * Single-pass extraction + streaming binding vs the previous substring/tree parsing.
+ * Run with {@code mvn -Pjmh package && java -jar target/benchmarks.jar JsonExtractionBenchmark -prof gc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonExtractionBenchmark {
+
+    /** BARE: plain JSON, FENCED: markdown fence, PROSE: text before and after the object. */
+    @Param({"BARE", "FENCED", "PROSE"})
+    String wrapping;
+
+    private final LegacyLlmJsonParsing legacy = new LegacyLlmJsonParsing();
+
+    private String coachOutput;
+    private String nutritionOutput;
+
+    @Setup
+    public void setup() {
+        coachOutput = wrap(PromptFixtures.coachOutputJson());
+        nutritionOutput = wrap(PromptFixtures.nutritionOutputJson());
+    }
+
+    @Benchmark
+    public AiCoachResponse coachStreaming() throws IOException {
+        return LlmJsonExtractor.readCoachResponse(coachOutput);
+    }
+
+    @Benchmark
+    public AiCoachResponse coachLegacy() throws IOException {
+        return legacy.coach(coachOutput);
+    }
+
+    @Benchmark
+    public NutritionAiResponse nutritionStreaming() throws IOException {
+        return LlmJsonExtractor.readNutritionResponse(nutritionOutput);
+    }
+
+    @Benchmark
+    public NutritionAiResponse nutritionLegacy() throws IOException {
+        return legacy.nutrition(nutritionOutput);
+    }
+
+    private String wrap(String json) {
+        return switch (wrapping) {
+            case "FENCED" -> "```json\n" + json + "\n```";
+            case "PROSE" -> "İşte bugünkü planın:\n\n" + json + "\n\nBaşka bir sorun olursa yaz!";
+            default -> json;
+        };
+    }
+}
@@ -0,0 +1,262 @@
+package com.fitness.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.dto.AiCoachResponse;
+import com.fitness.dto.NutritionAiResponse;
+
+/**
+ * Baseline for {@link JsonExtractionBenchmark}: the string-scanning extraction
+ * and JsonNode tree walking used before {@code LlmJsonExtractor}, copied verbatim.
+ */
+public class LegacyLlmJsonParsing {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public AiCoachResponse coach(String outputText) throws IOException {
+        return parseResponse(objectMapper.readTree(extractJsonFromResponse(outputText)));
+    }
+
+    public NutritionAiResponse nutrition(String outputText) throws IOException {
+        return parseResponse(outputText);
+    }
+
+    private String extractJsonFromResponse(String rawResponse) {
+        if (rawResponse == null)
+            return "{}";
+        String trimmed = rawResponse.trim();
+        int firstBrace = trimmed.indexOf('{');
+        int lastBrace = trimmed.lastIndexOf('}');
+        if (firstBrace >= 0 && lastBrace > firstBrace) {
+            return trimmed.substring(firstBrace, lastBrace + 1);
+        }
+        return trimmed;
+    }
+
+    private AiCoachResponse parseResponse(JsonNode parsed) {
+        AiCoachResponse response = new AiCoachResponse();
+        response.todayFocus = parsed.path("todayFocus").asText("").trim();
+        response.nutritionNote = parsed.path("nutritionNote").asText("").trim();
+        response.actionItems = parseActionItems(parsed.path("actionItems"));
+
+        // V5: Rich Data Parsing
+        response.isAchievement = parsed.path("isAchievement").asBoolean(false);
+        response.actions = parseActions(parsed.path("actions"));
+        response.media = parseMedia(parsed.path("media"));
+
+        return response;
+    }
+
+    private List<AiCoachResponse.AiCoachAction> parseActions(JsonNode actionsNode) {
+        List<AiCoachResponse.AiCoachAction> actions = new ArrayList<>();
+        if (actionsNode != null && actionsNode.isArray()) {
+            for (JsonNode node : actionsNode) {
+                AiCoachResponse.AiCoachAction action = new AiCoachResponse.AiCoachAction();
+                action.label = node.path("label").asText("");
+                action.type = node.path("type").asText("");
+                action.data = node.path("data").asText("");
+                if (!action.type.isEmpty())
+                    actions.add(action);
+            }
+        }
+        return actions;
+    }
+
+    private List<AiCoachResponse.AiCoachMedia> parseMedia(JsonNode mediaNode) {
+        List<AiCoachResponse.AiCoachMedia> mediaList = new ArrayList<>();
+        if (mediaNode != null && mediaNode.isArray()) {
+            for (JsonNode node : mediaNode) {
+                AiCoachResponse.AiCoachMedia media = new AiCoachResponse.AiCoachMedia();
+                media.type = node.path("type").asText("");
+                media.url = node.path("url").asText("");
+                media.title = node.path("title").asText("");
+                if (!media.type.isEmpty())
+                    mediaList.add(media);
+            }
+        }
+        return mediaList;
+    }
+
+    private List<String> parseActionItems(JsonNode items) {
+        List<String> result = new ArrayList<>();
+        if (items == null || !items.isArray()) {
+            return result;
+        }
+
+        for (JsonNode node : items) {
+            String value;
+            if (node.isTextual()) {
+                value = node.asText();
+            } else if (node.isObject() && node.has("text")) {
+                value = node.path("text").asText();
+            } else if (node.isNumber() || node.isBoolean()) {
+                value = node.asText();
+            } else {
+                continue;
+            }
+
+            if (value != null && !value.trim().isEmpty()) {
+                result.add(value.trim());
+            }
+        }
+
+        return result;
+    }
+
+    private NutritionAiResponse parseResponse(String rawResponse) throws IOException {
+        String raw = cleanResponse(rawResponse);
+
+        try {
+            String jsonText = extractJson(raw);
+            JsonNode parsed = objectMapper.readTree(jsonText);
+
+            if (!parsed.isObject()) {
+                throw new IOException("Response is not a JSON object");
+            }
+
+            NutritionAiResponse response = new NutritionAiResponse();
+
+            // Parse reply (optional field)
+            response.reply = parsed.path("reply").asText("");
+
+            // Parse meals array
+            response.meals = parseMeals(parsed.path("meals"));
+
+            // Parse shoppingList
+            response.shoppingList = parseStringList(parsed.path("shoppingList"));
+
+            // Parse followUpQuestions
+            response.followUpQuestions = parseStringList(parsed.path("followUpQuestions"));
+
+            return response;
+        } catch (IOException e) {
+            throw e;
+        }
+    }
+
+    private List<NutritionAiResponse.SuggestedMeal> parseMeals(JsonNode arrayNode) {
+        List<NutritionAiResponse.SuggestedMeal> meals = new ArrayList<>();
+        if (arrayNode == null || !arrayNode.isArray()) {
+            return meals;
+        }
+
+        for (JsonNode node : arrayNode) {
+            if (!node.isObject()) {
+                continue;
+            }
+            String name = node.path("name").asText("").trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+
+            NutritionAiResponse.SuggestedMeal meal = new NutritionAiResponse.SuggestedMeal();
+            meal.name = name;
+            meal.reason = node.path("reason").asText("").trim();
+            meal.ingredients = parseStringList(node.path("ingredients"));
+            meal.steps = parseStringList(node.path("steps"));
+            meal.tags = parseStringList(node.path("tags"));
+            meal.warnings = parseStringList(node.path("warnings"));
+
+            // Parse prepMinutes
+            JsonNode prepNode = node.path("prepMinutes");
+            if (prepNode.isInt() || prepNode.isLong()) {
+                meal.prepMinutes = prepNode.asInt();
+            }
+
+            // Parse macros
+            JsonNode macrosNode = node.path("macros");
+            if (macrosNode.isObject()) {
+                NutritionAiResponse.MealMacros macros = new NutritionAiResponse.MealMacros();
+                JsonNode kcalNode = macrosNode.path("kcal");
+                JsonNode proteinNode = macrosNode.path("proteinG");
+                JsonNode carbsNode = macrosNode.path("carbsG");
+                JsonNode fatNode = macrosNode.path("fatG");
+
+                if (kcalNode.isInt() || kcalNode.isLong()) {
+                    macros.kcal = kcalNode.asInt();
+                }
+                if (proteinNode.isInt() || proteinNode.isLong()) {
+                    macros.proteinG = proteinNode.asInt();
+                }
+                if (carbsNode.isInt() || carbsNode.isLong()) {
+                    macros.carbsG = carbsNode.asInt();
+                }
+                if (fatNode.isInt() || fatNode.isLong()) {
+                    macros.fatG = fatNode.asInt();
+                }
+                meal.macros = macros;
+            }
+
+            meals.add(meal);
+        }
+        return meals;
+    }
+
+    private List<String> parseStringList(JsonNode arrayNode) {
+        List<String> result = new ArrayList<>();
+        if (arrayNode == null || !arrayNode.isArray()) {
+            return result;
+        }
+
+        for (JsonNode node : arrayNode) {
+            if (node.isTextual()) {
+                String value = node.asText("").trim();
+                if (!value.isEmpty()) {
+                    result.add(value);
+                }
+            }
+        }
+        return result;
+    }
+
+    private String cleanResponse(String raw) {
+        String cleaned = raw.trim();
+        // Strip markdown code blocks
+        if (cleaned.startsWith("```")) {
+            int firstNewline = cleaned.indexOf('\n');
+            if (firstNewline > 0) {
+                cleaned = cleaned.substring(firstNewline + 1);
+            }
+            int lastTripleBacktick = cleaned.lastIndexOf("```");
+            if (lastTripleBacktick > 0) {
+                cleaned = cleaned.substring(0, lastTripleBacktick);
+            }
+        }
+        return cleaned.trim();
+    }
+
+    private String extractJson(String raw) {
+        // More robust extraction
+        String trimmed = raw.trim();
+
+        // Strip known markdown blocks first if exist
+        if (trimmed.startsWith("```json")) {
+            trimmed = trimmed.substring(7);
+        } else if (trimmed.startsWith("```")) {
+            trimmed = trimmed.substring(3);
+        }
+        if (trimmed.endsWith("```")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 3);
+        }
+
+        trimmed = trimmed.trim();
+
+        // Try to find JSON object
+        int firstBrace = trimmed.indexOf('{');
+        if (firstBrace < 0) {
+            // No JSON found, return raw for fallback
+            return trimmed;
+        }
+
+        int lastBrace = trimmed.lastIndexOf('}');
+        if (lastBrace < 0 || lastBrace <= firstBrace) {
+            return trimmed;
+        }
+
+        return trimmed.substring(firstBrace, lastBrace + 1);
+    }
+}
@@ -0,0 +1,78 @@
+package com.fitness.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fitness.dto.AiCoachRequest;
+import com.fitness.dto.NutritionAiRequest;
+import com.fitness.service.CoachContextCache;
+import com.fitness.service.CoachPromptBuilder;
+import com.fitness.service.CoachPromptContext;
+import com.fitness.service.NutritionPromptBuilder;
+
+/**
+ * Template-based prompt builders vs the previous String.format implementations.
+ * Run with {@code mvn -Pjmh package && java -jar target/benchmarks.jar PromptBuilderBenchmark -prof gc}
+ * to see allocation per call alongside latency.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromptBuilderBenchmark {
+
+    @Param({"CHAT", "SUGGESTION_REASONING", "EXTRACT_FOOD_ITEMS"})
+    String nutritionTask;
+
+    private final CoachPromptBuilder coachBuilder = new CoachPromptBuilder();
+    private final LegacyCoachPromptBuilder legacyCoachBuilder = new LegacyCoachPromptBuilder();
+    private final NutritionPromptBuilder nutritionBuilder = new NutritionPromptBuilder();
+    private final LegacyNutritionPromptBuilder legacyNutritionBuilder = new LegacyNutritionPromptBuilder();
+
+    private AiCoachRequest coachRequest;
+    private List<CoachContextCache.InsightLine> insights;
+    private CoachPromptContext context;
+    private NutritionAiRequest nutritionRequest;
+
+    @Setup
+    public void setup() {
+        coachRequest = PromptFixtures.coachRequest();
+        insights = PromptFixtures.insights();
+        context = PromptFixtures.coachContext();
+        nutritionRequest = PromptFixtures.nutritionRequest(nutritionTask);
+    }
+
+    @Benchmark
+    public String coachTemplate() {
+        return coachBuilder.buildPrompt(coachRequest, insights, context);
+    }
+
+    @Benchmark
+    public String coachLegacy() {
+        return legacyCoachBuilder.buildPrompt(coachRequest, insights, context);
+    }
+
+    @Benchmark
+    public String nutritionTemplate() {
+        return nutritionBuilder.buildPrompt(nutritionRequest);
+    }
+
+    @Benchmark
+    public String nutritionLegacy() {
+        return legacyNutritionBuilder.buildPrompt(nutritionRequest);
+    }
+}
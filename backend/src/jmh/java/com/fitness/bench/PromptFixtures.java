@@ -0,0 +1,130 @@
+package com.fitness.bench;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fitness.dto.AiCoachRequest;
+import com.fitness.dto.NutritionAiRequest;
+import com.fitness.service.CoachContextCache;
+import com.fitness.service.CoachPromptContext;
+
+/**
+ * Representative payloads shared by the prompt benchmarks: a fully populated
+ * coach request (active user, three insights, six meals) and a chat-style
+ * nutrition request with every context field set.
+ */
+public final class PromptFixtures {
+
+    private PromptFixtures() {
+    }
+
+    public static AiCoachRequest coachRequest() {
+        AiCoachRequest request = new AiCoachRequest();
+        request.goal = "cut";
+        request.question = "Bugün antrenman yapmalı mıyım yoksa dinlenmeli miyim?";
+        request.personality = "scientist";
+
+        AiCoachRequest.DailySummaryDto s = new AiCoachRequest.DailySummaryDto();
+        s.steps = 8423;
+        s.calories = 2140;
+        s.waterLiters = 1.75;
+        s.sleepHours = 6.4;
+        s.workouts = 1;
+        s.workoutMinutes = 62;
+        s.workoutHighlights = List.of("Squat 5x5 @ 100kg", "Romanian deadlift", "Walking lunges");
+        s.avgStepsLast7Days = 7600;
+        s.avgCaloriesLast7Days = 2290;
+        s.avgWaterLast7Days = 2.1;
+        s.targetCalories = 2050;
+        s.currentWeightKg = 84.35;
+        s.targetWeightKg = 78.0;
+        s.bmi = 26.04;
+        s.proteinGrams = 148;
+        s.carbsGrams = 210;
+        s.fatGrams = 71;
+        s.mealNames = List.of("Yulaf ezmesi", "Tavuk göğsü salata", "Mercimek çorbası",
+                "Yoğurt", "Ton balıklı makarna", "Badem");
+        s.weeklyWeightChangeKg = -0.45;
+        s.weightStreak = 5;
+        s.userAge = 31;
+        s.userHeightCm = 180.0;
+        s.userGender = "MALE";
+        s.activityLevel = "MODERATE";
+        s.tdee = 2650;
+        request.dailySummary = s;
+        return request;
+    }
+
+    public static List<CoachContextCache.InsightLine> insights() {
+        LocalDateTime base = LocalDateTime.of(2026, 3, 1, 0, 0);
+        return List.of(
+                new CoachContextCache.InsightLine("WEEKLY_PROGRESS", base,
+                        "Haftada 4 antrenman, kalori ortalaması hedefin 120 kcal üstünde; kilo -0.4 kg."),
+                new CoachContextCache.InsightLine("WEEKLY_PROGRESS", base.minusWeeks(1),
+                        "Uyku ortalaması 6.1 saat, toparlanma zayıf; hacim düşürüldü."),
+                new CoachContextCache.InsightLine("NUTRITION_TREND", base.minusWeeks(2),
+                        "Protein hedefi 5/7 gün tutturuldu, hafta sonu kalori sapması yüksek."));
+    }
+
+    public static CoachPromptContext coachContext() {
+        return new CoachPromptContext(
+                "Name: Test User | Gender: MALE | Age: 31 | Height: 180.0 cm | Current weight: 84.4 kg | Target weight: 78.0 kg",
+                "Sleep: 6.4 h (moderate) | Hydration: 1.8 L (fair) | Training load today: 1 workouts / 62 min | Steps: 8423",
+                "Latest weight: 84.4 kg | Weight delta vs previous check-in: -0.3 kg | Latest waist: 91.0 cm | Latest chest: 104.5 cm",
+                "- Distance to target weight: -6.4 kg.\n- Use progress signals to explain whether the user is trending toward the goal.");
+    }
+
+    public static NutritionAiRequest nutritionRequest(String task) {
+        NutritionAiRequest request = new NutritionAiRequest();
+        request.task = task;
+        request.message = "Akşam için yüksek proteinli, 30 dakikada hazırlanan bir şey önerir misin?";
+        NutritionAiRequest.NutritionContext context = new NutritionAiRequest.NutritionContext();
+        context.goal = "CUT";
+        context.mealType = "dinner";
+        context.dietaryRestrictions = List.of("laktozsuz");
+        context.availableIngredients = List.of("tavuk", "brokoli", "bulgur", "yumurta", "domates");
+        context.summaryText = "Bugün 1450 kcal, 96 g protein alındı.";
+        NutritionAiRequest.DailySummary daily = new NutritionAiRequest.DailySummary();
+        daily.steps = 9120;
+        daily.calories = 1450;
+        daily.water = 2.2;
+        daily.sleep = 7.1;
+        context.dailySummary = daily;
+        request.context = context;
+        return request;
+    }
+
+    /** Typical coach model output (all fields, three action items, one action and media entry). */
+    public static String coachOutputJson() {
+        return """
+                {
+                  "todayFocus": "Bugün bacak antrenmanının ardından toparlanmaya odaklan.",
+                  "actionItems": [
+                    "Akşam yemeğinde en az 40 g protein al.",
+                    {"text": "Yatmadan önce 10 dakika esneme yap."},
+                    "Gün sonuna kadar 1 litre daha su iç."
+                  ],
+                  "nutritionNote": "Kalori hedefinin 90 kcal altındasın; bir avuç badem yeterli.",
+                  "isAchievement": false,
+                  "actions": [{"label": "Su ekle", "type": "ADD_WATER", "data": "250"}],
+                  "media": [{"type": "TABLE", "url": "", "title": "Haftalık protein"}]
+                }""";
+    }
+
+    /** Typical nutrition chat output with three fully populated meals. */
+    public static String nutritionOutputJson() {
+        String meal = """
+                    {
+                      "name": "Fırında tavuk ve bulgur",
+                      "reason": "Yüksek protein, orta karbonhidrat; 30 dakikada hazır.",
+                      "ingredients": ["tavuk göğsü", "bulgur", "brokoli", "zeytinyağı", "domates"],
+                      "steps": ["Fırını ısıt.", "Tavuğu baharatla.", "25 dk pişir.", "Bulguru haşla."],
+                      "macros": {"kcal": 540, "proteinG": 48, "carbsG": 52, "fatG": 14},
+                      "prepMinutes": 30,
+                      "tags": ["cut", "high-protein"],
+                      "warnings": []
+                    }""";
+        return "{\n  \"reply\": \"Üç öneri hazırladım.\",\n  \"meals\": [\n" + meal + ",\n" + meal + ",\n" + meal
+                + "\n  ],\n  \"shoppingList\": [\"tavuk\", \"bulgur\", \"brokoli\"],\n  \"followUpQuestions\": []\n}";
+    }
+}
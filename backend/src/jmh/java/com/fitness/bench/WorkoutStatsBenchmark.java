@@ -0,0 +1,103 @@
+package com.fitness.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fitness.dto.WorkoutRequest;
+import com.fitness.dto.WorkoutSetDto;
+import com.fitness.entity.Workout;
+import com.fitness.service.WorkoutService;
+
+/**
+ * 1RM resolution on workout save and the stats aggregation behind
+ * {@code GET /api/workouts/stats}, over a user's full workout history.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkoutStatsBenchmark {
+
+    /** Workouts in the user's history (a few weeks vs several years of logging). */
+    @Param({"50", "2000"})
+    int historySize;
+
+    private static final String[] MUSCLE_GROUPS = {"CHEST", "BACK", "LEGS", "SHOULDERS", "ARMS", "CORE"};
+    private static final String[] NAMES = {"Bench Press", "Squat", "Deadlift", "Overhead Press", "Barbell Row",
+            "Pull Up", "Leg Press", "Lateral Raise"};
+
+    private MethodHandle resolveOneRepMax;
+    private MethodHandle aggregateStats;
+    private WorkoutRequest detailedRequest;
+    private WorkoutRequest summaryRequest;
+    private List<Workout> history;
+
+    @Setup
+    public void setup() {
+        resolveOneRepMax = BenchSupport.method(WorkoutService.class, "resolveOneRepMax", Double.class,
+                WorkoutRequest.class);
+        aggregateStats = BenchSupport.method(WorkoutService.class, "aggregateStats", Map.class, List.class);
+
+        detailedRequest = new WorkoutRequest();
+        detailedRequest.name = "Squat";
+        detailedRequest.setDetails = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            detailedRequest.setDetails.add(new WorkoutSetDto(i, i <= 2 ? "WARMUP" : "NORMAL", 12 - i, 60.0 + i * 7.5));
+        }
+        summaryRequest = new WorkoutRequest();
+        summaryRequest.name = "Bench Press";
+        summaryRequest.weight = 82.5;
+        summaryRequest.reps = 6;
+
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 18, 0);
+        history = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            Workout w = new Workout();
+            w.name = NAMES[random.nextInt(NAMES.length)];
+            w.muscleGroup = random.nextInt(10) == 0 ? null : MUSCLE_GROUPS[random.nextInt(MUSCLE_GROUPS.length)];
+            w.sets = random.nextInt(2, 6);
+            w.reps = random.nextInt(3, 13);
+            w.weight = random.nextInt(10) == 0 ? null : 20.0 + random.nextInt(0, 160);
+            w.caloriesBurned = random.nextInt(80, 600);
+            w.oneRepMax = w.weight == null ? null : w.weight * (1 + w.reps / 30.0);
+            w.workoutDate = start.plusDays(i / 2);
+            history.add(w);
+        }
+    }
+
+    @Benchmark
+    public Double oneRepMaxFromSets() throws Throwable {
+        return (Double) resolveOneRepMax.invokeExact(detailedRequest);
+    }
+
+    @Benchmark
+    public Double oneRepMaxFromSummary() throws Throwable {
+        return (Double) resolveOneRepMax.invokeExact(summaryRequest);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> stats() throws Throwable {
+        return (Map<String, Object>) aggregateStats.invokeExact(history);
+    }
+}
@@ -2,10 +2,12 @@ package com.fitness.controller;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 import org.jboss.logging.Logger;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fitness.dto.AiCoachRequest;
 import com.fitness.dto.AiCoachResponse;
@@ -13,6 +15,7 @@ import com.fitness.service.AiCoachRateLimiter;
 import com.fitness.service.AiCoachServiceException;
 import com.fitness.service.AiEntitlementService;
 import com.fitness.service.AuthService;
+import com.fitness.service.CoachStreamParser;
 import com.fitness.service.GeminiCoachService;
 
 import jakarta.enterprise.context.ApplicationScoped;
@@ -26,6 +29,8 @@ import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 import org.jboss.resteasy.reactive.RestForm;
 import org.jboss.resteasy.reactive.multipart.FileUpload;
 
@@ -156,6 +161,106 @@ public class AiCoachController {
         }
     }
 
+    /**
+     * Streaming variant of /coach over Server-Sent Events.
+     * Events: "delta" (raw partial text), "field" (a completed top-level JSON field),
+     * "actionItem" (each completed actionItems element), then "done" with the same
+     * body /coach returns, or "error" with {status, error[, retryAfterSeconds]}.
+     * A comment is flushed immediately so the client gets the first byte without
+     * waiting for the model.
+     */
+    @POST
+    @Path("/coach/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void coachStream(@Context HttpHeaders headers, @Context SseEventSink sink, @Context Sse sse,
+            AiCoachRequest request) {
+        long startNs = System.nanoTime();
+        Long userId = null;
+        boolean consumedFreeEntitlement = false;
+
+        try {
+            sink.send(sse.newEventBuilder().comment("open").build());
+            userId = resolveUserId(headers);
+            boolean isPremium = entitlementService.isPremium(userId);
+
+            if (!isPremium) {
+                if (!entitlementService.tryConsumeFreeCoachRequest(userId)) {
+                    Map<String, Object> payload = new HashMap<>();
+                    payload.put("status", 403);
+                    payload.put("error", "Gunluk 2 ucretsiz AI koç hakkin doldu. Premium ile sinirsiz devam edebilirsin.");
+                    payload.put("upgradeRequired", true);
+                    sendEvent(sink, sse, "error", payload);
+                    logResult("stream_forbidden", userId, startNs);
+                    return;
+                }
+                consumedFreeEntitlement = true;
+            }
+
+            if (!rateLimiter.tryAcquire(userId, isPremium)) {
+                if (consumedFreeEntitlement) {
+                    entitlementService.refundFreeCoachRequest(userId);
+                    consumedFreeEntitlement = false;
+                }
+                int retryAfterSeconds = rateLimiter.retryAfterSeconds(userId, isPremium);
+                sendError(sink, sse, 429, "Rate limit exceeded for AI coach", retryAfterSeconds);
+                logResult("stream_rate_limited", userId, startNs);
+                return;
+            }
+
+            AiCoachResponse response = geminiCoachService.streamCoachResponse(userId, request,
+                    new CoachStreamParser.Listener() {
+                        @Override
+                        public void onDelta(String text) {
+                            if (sink.isClosed()) {
+                                throw new CancellationException("Client disconnected");
+                            }
+                            sendEvent(sink, sse, "delta", Map.of("text", text));
+                        }
+
+                        @Override
+                        public void onField(String name, JsonNode value) {
+                            sendEvent(sink, sse, "field", Map.of("name", name, "value", value));
+                        }
+
+                        @Override
+                        public void onActionItem(int index, String text) {
+                            sendEvent(sink, sse, "actionItem", Map.of("index", index, "text", text));
+                        }
+                    });
+            sendEvent(sink, sse, "done", response);
+            logResult("stream_ok", userId, startNs);
+        } catch (SecurityException e) {
+            sendError(sink, sse, 401, e.getMessage(), null);
+            logResult("stream_unauthorized", userId, startNs);
+        } catch (IllegalArgumentException e) {
+            if (consumedFreeEntitlement) {
+                entitlementService.refundFreeCoachRequest(userId);
+            }
+            sendError(sink, sse, 400, e.getMessage(), null);
+            logResult("stream_bad_request", userId, startNs);
+        } catch (AiCoachServiceException e) {
+            if (consumedFreeEntitlement) {
+                entitlementService.refundFreeCoachRequest(userId);
+            }
+            sendError(sink, sse, e.getStatusCode(), e.getMessage(), e.getRetryAfterSeconds());
+            logResult("stream_service_error", userId, startNs);
+        } catch (IllegalStateException e) {
+            if (consumedFreeEntitlement) {
+                entitlementService.refundFreeCoachRequest(userId);
+            }
+            sendError(sink, sse, 503, e.getMessage(), null);
+            logResult("stream_service_unavailable", userId, startNs);
+        } catch (RuntimeException e) {
+            if (consumedFreeEntitlement) {
+                entitlementService.refundFreeCoachRequest(userId);
+            }
+            sendError(sink, sse, 502, e.getMessage(), null);
+            logResult("stream_bad_gateway", userId, startNs);
+        } finally {
+            sink.close();
+        }
+    }
+
     @POST
     @Path("/vision")
     @Consumes(MediaType.MULTIPART_FORM_DATA)
@@ -260,6 +365,30 @@ public class AiCoachController {
         }
     }
 
+    private void sendError(SseEventSink sink, Sse sse, int status, String message, Integer retryAfterSeconds) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("status", status);
+        payload.put("error", message != null ? message : "");
+        if (retryAfterSeconds != null && retryAfterSeconds > 0) {
+            payload.put("retryAfterSeconds", retryAfterSeconds);
+        }
+        sendEvent(sink, sse, "error", payload);
+    }
+
+    private void sendEvent(SseEventSink sink, Sse sse, String name, Object payload) {
+        if (sink.isClosed()) {
+            return;
+        }
+        try {
+            sink.send(sse.newEventBuilder()
+                    .name(name)
+                    .data(objectMapper.writeValueAsString(payload))
+                    .build());
+        } catch (JsonProcessingException e) {
+            LOG.warnf("AI coach stream: event serialization failed name=%s", name);
+        }
+    }
+
     private void logResult(String status, Long userId, long startNs) {
         long elapsedMs = (System.nanoTime() - startNs) / 1_000_000;
         LOG.infof("AI coach endpoint status=%s userId=%s latencyMs=%d",
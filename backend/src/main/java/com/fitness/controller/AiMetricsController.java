@@ -0,0 +1,140 @@
+package com.fitness.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fitness.dto.AiTokenUsageSummary;
+import com.fitness.repository.AiTokenUsageRepository;
+import com.fitness.service.AiTelemetry;
+import com.fitness.service.CoachContextCache;
+import com.fitness.service.RetentionPurgeJob;
+import com.fitness.service.StructuredOutputStats;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Operational AI telemetry for Prometheus and cost reviews; not used by the app.
+ * <p>
+ * Every endpoint needs {@code Authorization: Bearer <token>} matching
+ * {@code ai.telemetry.metrics.token}. Without a configured token the endpoints
+ * fail closed with 403, so an unset variable never exposes them publicly.
+ */
+@ApplicationScoped
+@Path("/api/internal/metrics")
+public class AiMetricsController {
+
+    private static final String MISSING_TOKEN_SENTINEL = "__MISSING__";
+    private static final MediaType PROMETHEUS_TEXT = MediaType.valueOf("text/plain; version=0.0.4; charset=utf-8");
+
+    @Inject
+    AiTelemetry telemetry;
+
+    @Inject
+    AiTokenUsageRepository usageRepository;
+
+    @Inject
+    RetentionPurgeJob retentionPurgeJob;
+
+    @Inject
+    CoachContextCache coachContextCache;
+
+    @Inject
+    StructuredOutputStats structuredOutputStats;
+
+    @ConfigProperty(name = "ai.telemetry.metrics.token", defaultValue = MISSING_TOKEN_SENTINEL)
+    String metricsToken;
+
+    /**
+     * GET /api/internal/metrics/ai — Prometheus scrape target (AI calls, structured output parsing
+     * and the coach context cache).
+     */
+    @GET
+    @Path("/ai")
+    @Produces(MediaType.TEXT_PLAIN)
+    public Response aiMetrics(@HeaderParam(HttpHeaders.AUTHORIZATION) String authorization) {
+        Response denied = checkAccess(authorization);
+        if (denied != null) {
+            return denied;
+        }
+        String body = telemetry.renderPrometheus() + structuredOutputStats.renderPrometheus()
+                + coachContextCache.renderPrometheus();
+        return Response.ok(body, PROMETHEUS_TEXT).build();
+    }
+
+    /**
+     * GET /api/internal/metrics/retention — TTL purge counters (Prometheus).
+     */
+    @GET
+    @Path("/retention")
+    @Produces(MediaType.TEXT_PLAIN)
+    public Response retentionMetrics(@HeaderParam(HttpHeaders.AUTHORIZATION) String authorization) {
+        Response denied = checkAccess(authorization);
+        if (denied != null) {
+            return denied;
+        }
+        return Response.ok(retentionPurgeJob.renderPrometheus(), PROMETHEUS_TEXT).build();
+    }
+
+    /**
+     * GET /api/internal/metrics/ai/top-consumers?days=7&limit=20 — heaviest token consumers.
+     */
+    @GET
+    @Path("/ai/top-consumers")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response topConsumers(
+            @HeaderParam(HttpHeaders.AUTHORIZATION) String authorization,
+            @QueryParam("days") @DefaultValue("7") int days,
+            @QueryParam("limit") @DefaultValue("20") int limit) {
+        Response denied = checkAccess(authorization);
+        if (denied != null) {
+            return denied;
+        }
+        int safeDays = Math.max(1, Math.min(days, 90));
+        int safeLimit = Math.max(1, Math.min(limit, 200));
+        LocalDate today = LocalDate.now();
+        // Bellekteki son birikimler de listeye girsin
+        telemetry.flushUsage();
+        List<AiTokenUsageSummary> top = usageRepository.topConsumers(today.minusDays(safeDays - 1L), today, safeLimit);
+        return Response.ok(top).build();
+    }
+
+    /** Token tanımlı değilse 403, yanlış/eksik Bearer için 401; erişim serbestse null. */
+    private Response checkAccess(String authorization) {
+        if (!tokenConfigured()) {
+            return Response.status(Response.Status.FORBIDDEN)
+                    .entity(Map.of("error", "ai.telemetry.metrics.token tanımlı değil"))
+                    .build();
+        }
+        if (!authorized(authorization)) {
+            return Response.status(Response.Status.UNAUTHORIZED).build();
+        }
+        return null;
+    }
+
+    private boolean tokenConfigured() {
+        return metricsToken != null && !metricsToken.isBlank() && !MISSING_TOKEN_SENTINEL.equals(metricsToken);
+    }
+
+    private boolean authorized(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return false;
+        }
+        byte[] presented = authorization.substring(7).trim().getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(presented, metricsToken.getBytes(StandardCharsets.UTF_8));
+    }
+}
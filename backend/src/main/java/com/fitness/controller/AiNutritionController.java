@@ -16,6 +16,8 @@ import com.fitness.service.AiNutritionRateLimiter;
 import com.fitness.service.AiProviderRouter;
 import com.fitness.service.AuthService;
 import com.fitness.service.GeminiNutritionService;
+import com.fitness.service.TraceSpan;
+import com.fitness.service.Tracing;
 import com.fitness.service.UserMealPreferenceService;
 
 import io.quarkus.security.Authenticated;
@@ -60,21 +62,47 @@ public class AiNutritionController {
     @Inject
     AiEntitlementService entitlementService;
 
+    @Inject
+    Tracing tracing;
+
     @POST
     @Path("/nutrition")
     public Response nutrition(@Context HttpHeaders headers, NutritionAiRequest request) {
+        try (TraceSpan trace = tracing.startTrace("POST /api/ai/nutrition")) {
+            trace.setAttribute("http.route", "/api/ai/nutrition");
+            Response response = handleNutrition(headers, request, trace);
+            trace.setAttribute("http.response.status_code", response.getStatus());
+            if (response.getStatus() >= 500) {
+                trace.recordError("HTTP " + response.getStatus());
+            }
+            return response;
+        }
+    }
+
+    private Response handleNutrition(HttpHeaders headers, NutritionAiRequest request, TraceSpan trace) {
         long startNs = System.nanoTime();
         Long userId = null;
 
         try {
-            userId = resolveUserId(headers);
-            boolean isPremium = aiProviderRouter.isPremium(userId);
-            if (isPremiumTask(request)) {
-                entitlementService.ensurePremium(userId, "AI destekli premium planlama");
-                isPremium = true;
+            try (TraceSpan span = tracing.startSpan("auth.jwt")) {
+                userId = resolveUserId(headers);
             }
+            boolean isPremium;
+            try (TraceSpan span = tracing.startSpan("entitlement")) {
+                isPremium = aiProviderRouter.isPremium(userId);
+                if (isPremiumTask(request)) {
+                    entitlementService.ensurePremium(userId, "AI destekli premium planlama");
+                    isPremium = true;
+                }
+            }
+            trace.setAttribute("user.tier", isPremium ? "premium" : "free");
 
-            if (!rateLimiter.tryAcquire(userId, isPremium)) {
+            boolean acquired;
+            try (TraceSpan span = tracing.startSpan("rate_limit")) {
+                acquired = rateLimiter.tryAcquire(userId, isPremium);
+                span.setAttribute("rate_limit.acquired", acquired);
+            }
+            if (!acquired) {
                 int retryAfterSeconds = rateLimiter.retryAfterSeconds(userId, isPremium);
                 logResult("rate_limited", userId, startNs);
                 Map<String, Object> payload = new HashMap<>();
@@ -89,6 +117,7 @@ public class AiNutritionController {
             GeminiNutritionService.NutritionGenerationResult result = geminiNutritionService
                     .generateNutritionResponse(userId, request);
             NutritionAiResponse response = result.response();
+            trace.setAttribute("ai.model", result.modelUsed());
 
             logResult("ok", userId, startNs);
             return Response.ok(response).build();
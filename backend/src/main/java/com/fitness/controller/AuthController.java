@@ -1,5 +1,9 @@
 package com.fitness.controller;
 
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
 import com.fitness.dto.AuthResponse;
 import com.fitness.dto.ChangePasswordRequest;
 import com.fitness.dto.LoginRequest;
@@ -9,6 +13,8 @@ import com.fitness.dto.UserResponse;
 import com.fitness.dto.ForgotPasswordRequest;
 import com.fitness.dto.VerifyResetCodeRequest;
 import com.fitness.dto.ResetPasswordRequest;
+import com.fitness.entity.AccountDeletion;
+import com.fitness.service.AccountDeletionService;
 import com.fitness.service.AuthRateLimiter;
 import com.fitness.service.AuthService;
 
@@ -23,6 +29,7 @@ import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
@@ -35,12 +42,17 @@ import jakarta.ws.rs.core.UriInfo;
 @Consumes(MediaType.APPLICATION_JSON)
 public class AuthController {
 
+    private static final int DELETION_POLL_AFTER_SECONDS = 5;
+
     @Inject
     AuthService authService;
 
     @Inject
     AuthRateLimiter rateLimiter;
 
+    @Inject
+    AccountDeletionService accountDeletionService;
+
     @Context
     UriInfo uriInfo;
     
@@ -130,15 +142,66 @@ public class AuthController {
 
     /**
      * Hesabı ve ilişkili tüm kullanıcı verilerini siler.
-     * DELETE /api/auth/me
+     * DELETE /api/auth/me[?async=true]
+     *
+     * Küçük hesaplar hemen silinir (204). Büyük hesaplar ya da async=true için
+     * 202 döner; istemci {@code pollUrl}'i DONE / FAILED olana kadar sorgular.
      */
     @DELETE
     @Path("/me")
-    public Response deleteMe(@Context HttpHeaders headers) {
+    public Response deleteMe(@Context HttpHeaders headers, @QueryParam("async") boolean async) {
         String auth = headers.getHeaderString(HttpHeaders.AUTHORIZATION);
         Long userId = authService.getUserIdFromToken(auth);
-        authService.deleteAccount(userId);
-        return Response.noContent().build();
+        AccountDeletion deletion = authService.deleteAccount(userId, async);
+        if (deletion == null) {
+            return Response.noContent().build();
+        }
+        return Response.status(Response.Status.ACCEPTED)
+                .header("Retry-After", DELETION_POLL_AFTER_SECONDS)
+                .location(URI.create(deletionPollUrl(deletion)))
+                .entity(deletionMap(deletion))
+                .build();
+    }
+
+    /**
+     * Arka plan hesap silme işinin ilerlemesi. Kullanıcı satırı silindikten
+     * sonra da (token geçerli kaldığı sürece) okunabilir.
+     * GET /api/auth/me/deletion/{id}
+     */
+    @GET
+    @Path("/me/deletion/{id}")
+    public Response getDeletion(@Context HttpHeaders headers, @PathParam("id") Long id) {
+        String auth = headers.getHeaderString(HttpHeaders.AUTHORIZATION);
+        Long userId = authService.getUserIdFromToken(auth);
+        AccountDeletion deletion = accountDeletionService.find(id, userId);
+        if (deletion == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("{\"error\": \"Silme işlemi bulunamadı.\"}")
+                    .build();
+        }
+        Response.ResponseBuilder response = Response.ok(deletionMap(deletion));
+        if (!deletion.isTerminal()) {
+            response.header("Retry-After", DELETION_POLL_AFTER_SECONDS);
+        }
+        return response.build();
+    }
+
+    private static Map<String, Object> deletionMap(AccountDeletion deletion) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("id", deletion.id);
+        m.put("status", deletion.status);
+        m.put("currentStep", deletion.currentStep);
+        m.put("deletedRows", deletion.deletedRows);
+        m.put("estimatedRows", deletion.estimatedRows);
+        m.put("progress", deletion.progressPercent());
+        m.put("createdAt", deletion.createdAt);
+        m.put("completedAt", deletion.completedAt);
+        m.put("pollUrl", deletionPollUrl(deletion));
+        return m;
+    }
+
+    private static String deletionPollUrl(AccountDeletion deletion) {
+        return "/api/auth/me/deletion/" + deletion.id;
     }
 
     /**
@@ -2,16 +2,24 @@ package com.fitness.controller;
 
 import java.util.List;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
 import com.fitness.dto.ExerciseResponse;
+import com.fitness.service.ExerciseCatalog;
 import com.fitness.service.ExerciseService;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 
 @ApplicationScoped
@@ -22,15 +30,18 @@ public class ExerciseController {
     @Inject
     ExerciseService exerciseService;
 
+    /** Katalog nadiren değişir; süre dolunca istemci If-None-Match ile 304 alır. */
+    @ConfigProperty(name = "exercise.catalog.cache-max-age-seconds", defaultValue = "3600")
+    int cacheMaxAgeSeconds;
+
     /**
      * Tüm kas gruplarını getirir (bölge seçimi için).
      * GET /api/exercises/groups
      */
     @GET
     @Path("/groups")
-    public Response getMuscleGroups() {
-        List<String> groups = exerciseService.getMuscleGroups();
-        return Response.ok(groups).build();
+    public Response getMuscleGroups(@Context Request request) {
+        return cached(request, exerciseService.getMuscleGroups());
     }
 
     /**
@@ -38,14 +49,31 @@ public class ExerciseController {
      * GET /api/exercises?muscleGroup=CHEST
      */
     @GET
-    public Response getExercises(@QueryParam("muscleGroup") String muscleGroup) {
+    public Response getExercises(@QueryParam("muscleGroup") String muscleGroup, @Context Request request) {
         if (muscleGroup == null || muscleGroup.isBlank()) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity("{\"error\": \"muscleGroup gerekli\"}")
                     .build();
         }
-        List<ExerciseResponse> exercises = exerciseService.getExercisesByMuscleGroup(muscleGroup.trim());
-        return Response.ok(exercises).build();
+        ExerciseCatalog.Listing<List<ExerciseResponse>> exercises = exerciseService
+                .getExercisesByMuscleGroup(muscleGroup.trim());
+        return cached(request, exercises);
+    }
+
+    /**
+     * Egzersiz adında hata toleranslı arama ("sinav", "bnech pres" gibi).
+     * GET /api/exercises/search?q=squat&limit=20
+     */
+    @GET
+    @Path("/search")
+    public Response searchExercises(@QueryParam("q") String query,
+            @QueryParam("limit") @DefaultValue("20") int limit) {
+        if (query == null || query.isBlank()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("{\"error\": \"q gerekli\"}")
+                    .build();
+        }
+        return Response.ok(exerciseService.searchExercises(query, limit)).build();
     }
 
     /**
@@ -70,4 +98,22 @@ public class ExerciseController {
                 .entity("{\"error\": \"Egzersiz katalog guncellemesi API uzerinden kapatildi.\"}")
                 .build();
     }
+
+    /**
+     * Katalog yanıtlarını ETag ve Cache-Control ile döner; If-None-Match
+     * eşleşirse gövdesiz 304 döner.
+     */
+    private Response cached(Request request, ExerciseCatalog.Listing<?> listing) {
+        EntityTag tag = new EntityTag(listing.etag());
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setMaxAge(cacheMaxAgeSeconds);
+        cacheControl.setPrivate(false);
+        cacheControl.setNoTransform(false);
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.tag(tag).cacheControl(cacheControl).build();
+        }
+        return Response.ok(listing.body()).tag(tag).cacheControl(cacheControl).build();
+    }
 }
@@ -1,22 +1,28 @@
 package com.fitness.controller;
 
-import java.util.List;
+import java.util.Map;
 
-import com.fitness.entity.Notification;
+import com.fitness.dto.NotificationPage;
 import com.fitness.service.AuthService;
+import com.fitness.service.NotificationPushService;
+import com.fitness.service.NotificationService;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.PATCH;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 
 @ApplicationScoped
 @Path("/api/notifications")
@@ -24,15 +30,82 @@ import jakarta.ws.rs.core.Response;
 @Consumes(MediaType.APPLICATION_JSON)
 public class NotificationController {
 
+    /** Sonraki sayfanın cursor'ı; son sayfada gönderilmez. */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Inject
     AuthService authService;
 
+    @Inject
+    NotificationService notificationService;
+
+    @Inject
+    NotificationPushService pushService;
+
+    /**
+     * En yeni bildirimlerden başlayarak bir sayfa döner. Gövde eskisi gibi dizi;
+     * sonraki sayfa için X-Next-Cursor header'ı ?cursor= olarak geri gönderilir.
+     * GET /api/notifications?limit=20&cursor=...&unreadOnly=false
+     */
     @GET
-    public Response getNotifications(@Context HttpHeaders headers) {
+    public Response getNotifications(
+            @Context HttpHeaders headers,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("unreadOnly") boolean unreadOnly) {
         try {
             Long userId = resolveUserId(headers);
-            List<Notification> notifications = Notification.find("user.id = ?1 order by createdAt desc", userId).list();
-            return Response.ok(notifications).build();
+            NotificationPage page = notificationService.getPage(userId, cursor, limit, unreadOnly);
+            Response.ResponseBuilder builder = Response.ok(page.items);
+            if (page.nextCursor != null) {
+                builder.header(NEXT_CURSOR_HEADER, page.nextCursor);
+            }
+            return builder.build();
+        } catch (SecurityException e) {
+            return Response.status(Response.Status.UNAUTHORIZED).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(Map.of("error", e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * Yeni bildirimleri Server-Sent Events ile iter; istemcinin polling yapmasına gerek kalmaz.
+     * Olay adı "notification", id bildirim id'si, data NotificationResponse JSON'u.
+     * Yeniden bağlanırken Last-Event-ID gönderilirse arada kaçırılanlar önce iletilir.
+     * GET /api/notifications/stream
+     */
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void stream(
+            @Context HttpHeaders headers,
+            @Context SseEventSink sink,
+            @Context Sse sse,
+            @HeaderParam("Last-Event-ID") String lastEventId) {
+        // Geçersiz token'da RuntimeException -> GlobalExceptionMapper 401 döner
+        Long userId = resolveUserId(headers);
+        Long lastSeenId = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                lastSeenId = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException ignored) {
+                // bilinmeyen id: replay yapılmaz
+            }
+        }
+        pushService.subscribe(userId, sink, sse, lastSeenId);
+    }
+
+    /**
+     * GET /api/notifications/unread-count
+     */
+    @GET
+    @Path("/unread-count")
+    public Response getUnreadCount(@Context HttpHeaders headers) {
+        try {
+            Long userId = resolveUserId(headers);
+            return Response.ok(Map.of("unreadCount", notificationService.countUnread(userId))).build();
         } catch (SecurityException e) {
             return Response.status(Response.Status.UNAUTHORIZED).build();
         }
@@ -43,18 +116,31 @@ public class NotificationController {
     public Response markAsRead(@Context HttpHeaders headers, @PathParam("id") Long id) {
         try {
             Long userId = resolveUserId(headers);
-            Notification n = Notification.findById(id);
-            if (n == null || !n.user.id.equals(userId)) {
+            if (!notificationService.markAsRead(userId, id)) {
                 return Response.status(Response.Status.NOT_FOUND).build();
             }
-            n.isRead = true;
-            n.persist();
             return Response.noContent().build();
         } catch (SecurityException e) {
             return Response.status(Response.Status.UNAUTHORIZED).build();
         }
     }
 
+    /**
+     * Tüm okunmamış bildirimleri tek UPDATE ile okundu yapar.
+     * PATCH /api/notifications/read-all
+     */
+    @PATCH
+    @Path("/read-all")
+    public Response markAllAsRead(@Context HttpHeaders headers) {
+        try {
+            Long userId = resolveUserId(headers);
+            int updated = notificationService.markAllAsRead(userId);
+            return Response.ok(Map.of("updated", updated)).build();
+        } catch (SecurityException e) {
+            return Response.status(Response.Status.UNAUTHORIZED).build();
+        }
+    }
+
     private Long resolveUserId(HttpHeaders headers) {
         String authStr = headers.getHeaderString(HttpHeaders.AUTHORIZATION);
         return authService.getUserIdFromToken(authStr);
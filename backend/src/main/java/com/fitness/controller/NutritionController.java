@@ -2,9 +2,12 @@ package com.fitness.controller;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import com.fitness.dto.MealRequest;
 import com.fitness.dto.MealResponse;
+import com.fitness.dto.NutritionAverageResponse;
+import com.fitness.dto.NutritionRangeResponse;
 import com.fitness.service.AuthService;
 import com.fitness.service.NutritionService;
 
@@ -13,6 +16,7 @@ import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
@@ -67,6 +71,23 @@ public class NutritionController {
                 .build();
     }
     
+    /**
+     * Yemek adında hata toleranslı arama
+     * GET /api/nutrition/me/meals/search?q=yulaf&limit=20
+     */
+    @GET
+    @Path("/me/meals/search")
+    public Response searchMeals(
+            @Context HttpHeaders headers,
+            @QueryParam("q") String query,
+            @QueryParam("limit") @DefaultValue("20") int limit) {
+        Long userId = authService.getUserIdFromToken(headers.getHeaderString(HttpHeaders.AUTHORIZATION));
+        List<MealResponse> meals = nutritionService.searchMeals(userId, query, limit);
+        return Response.ok()
+                .entity(meals)
+                .build();
+    }
+    
     /**
      * Belirli bir tarihteki yemekleri getir
      * GET /api/nutrition/me/meals/date?date=2024-01-26
@@ -101,6 +122,41 @@ public class NutritionController {
                 .build();
     }
     
+    /**
+     * Tarih aralığındaki günlük toplamlar (uçlar dahil, en fazla 366 gün)
+     * GET /api/nutrition/me/totals?from=2024-01-01&to=2024-01-31
+     */
+    @GET
+    @Path("/me/totals")
+    public Response getTotals(
+            @Context HttpHeaders headers,
+            @QueryParam("from") String fromString,
+            @QueryParam("to") String toString) {
+        Long userId = authService.getUserIdFromToken(headers.getHeaderString(HttpHeaders.AUTHORIZATION));
+        if (fromString == null || toString == null) {
+            throw new IllegalArgumentException("from ve to zorunludur.");
+        }
+        NutritionRangeResponse response = nutritionService.getTotals(
+                userId, LocalDate.parse(fromString), LocalDate.parse(toString));
+        return Response.ok()
+                .entity(response)
+                .build();
+    }
+
+    /**
+     * Son 7 ve 30 günün günlük ortalamaları
+     * GET /api/nutrition/me/averages
+     */
+    @GET
+    @Path("/me/averages")
+    public Response getAverages(@Context HttpHeaders headers) {
+        Long userId = authService.getUserIdFromToken(headers.getHeaderString(HttpHeaders.AUTHORIZATION));
+        Map<String, NutritionAverageResponse> averages = nutritionService.getAverages(userId, LocalDate.now());
+        return Response.ok()
+                .entity(averages)
+                .build();
+    }
+    
     /**
      * Yemek kaydını güncelle
      * PUT /api/nutrition/me/meals/{mealId}
@@ -0,0 +1,28 @@
+package com.fitness.controller;
+
+import com.fitness.service.PasswordHasher;
+
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+import org.jboss.logging.Logger;
+
+/**
+ * Şifre hash havuzu dolduğunda 503 + Retry-After döner (GlobalExceptionMapper
+ * bunu 400 olarak yorumlardı).
+ */
+@Provider
+public class PasswordHasherBusyExceptionMapper implements ExceptionMapper<PasswordHasher.BusyException> {
+
+    private static final Logger LOG = Logger.getLogger(PasswordHasherBusyExceptionMapper.class);
+
+    @Override
+    public Response toResponse(PasswordHasher.BusyException exception) {
+        LOG.warnf("password_hash rejected: %s", exception.getMessage());
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", exception.getRetryAfterSeconds())
+                .entity(String.format("{\"error\": \"%s\"}", exception.getMessage()))
+                .type("application/json")
+                .build();
+    }
+}
@@ -1,16 +1,17 @@
 package com.fitness.controller;
 
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.jboss.logging.Logger;
 
+import com.fitness.entity.IapVerification;
 import com.fitness.entity.User;
 import com.fitness.service.AuthService;
-import com.fitness.service.IapVerificationService;
+import com.fitness.service.IapVerificationQueue;
 import com.fitness.service.IapVerificationService.IapVerifyRequest;
-import com.fitness.service.IapVerificationService.IapVerifyResult;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -19,6 +20,7 @@ import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.HttpHeaders;
@@ -36,11 +38,14 @@ public class PremiumController {
 
     private static final Logger LOG = Logger.getLogger(PremiumController.class);
 
+    /** İstemcinin doğrulama sonucunu tekrar sorması için önerilen bekleme (sn). */
+    private static final int POLL_AFTER_SECONDS = 2;
+
     @Inject
     AuthService authService;
 
     @Inject
-    IapVerificationService iapVerificationService;
+    IapVerificationQueue iapVerificationQueue;
 
     // ─── Premium Status ───────────────────────────────────────────────────────
 
@@ -107,19 +112,20 @@ public class PremiumController {
     // ─── Upgrade via IAP (App Store / Google Play) ────────────────────────────
 
     /**
-     * Flutter'dan gelen App Store / Google Play satın alma tokenini doğrular
-     * ve premium aktifleştirir.
+     * Flutter'dan gelen App Store / Google Play satın alma tokenini doğrulama
+     * kuyruğuna alır. Mağaza çağrısı arka planda yapılır; istemci dönen
+     * {@code pollUrl}'i sonuç VERIFIED / REJECTED / FAILED olana kadar sorgular.
+     * Aynı receipt tekrar gönderilirse mevcut doğrulama kaydı döner.
      *
      * Body alanları:
      *   platform      — "ios" | "android"
      *   planId        — "premium_monthly" | "premium_yearly"
      *   purchaseToken — Android: Google Play purchase token
      *   receiptData   — iOS: base64 App Store receipt
-     *   transactionId — opsiyonel, loglama için
+     *   transactionId — iOS: opsiyonel; receipt'te premium'u veren aboneliğe ait olmalıdır
      */
     @POST
     @Path("/upgrade-premium/iap")
-    @Transactional
     public Response upgradeViaIap(@Context HttpHeaders headers, Map<String, Object> body) {
         try {
             Long userId = resolveUserId(headers);
@@ -137,7 +143,7 @@ public class PremiumController {
                 return Response.ok(buildStatusMap(user, "Premium zaten aktif.")).build();
             }
 
-            String platform      = getString(body, "platform");
+            String platform      = getString(body, "platform").toLowerCase();
             String planId        = getString(body, "planId");
             String purchaseToken = getString(body, "purchaseToken");
             String receiptData   = getString(body, "receiptData");
@@ -148,34 +154,40 @@ public class PremiumController {
                         .entity(Map.of("error", "platform ve planId zorunludur."))
                         .build();
             }
+            if (!"ios".equals(platform) && !"android".equals(platform)) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(Map.of("error", "Desteklenmeyen platform."))
+                        .build();
+            }
+            if ("ios".equals(platform) ? receiptData.isBlank() : purchaseToken.isBlank()) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                        .entity(Map.of("error", "Satın alma token'ı boş."))
+                        .build();
+            }
 
-            // Apple / Google doğrulama
             IapVerifyRequest verifyReq = new IapVerifyRequest(
                     platform, planId, purchaseToken, receiptData, transactionId);
-            IapVerifyResult result = iapVerificationService.verify(verifyReq);
+            IapVerification verification = iapVerificationQueue.submit(userId, verifyReq);
 
-            if (!result.valid()) {
-                LOG.warnf("IAP doğrulama başarısız — userId=%d reason=%s", userId, result.errorMessage());
-                return Response.status(402)
-                        .entity(Map.of("error", result.errorMessage()))
+            if (!verification.userId.equals(userId)) {
+                LOG.warnf("IAP receipt başka kullanıcıya ait — userId=%d owner=%d verificationId=%d",
+                        userId, verification.userId, verification.id);
+                return Response.status(Response.Status.CONFLICT)
+                        .entity(Map.of("error", "Bu satın alma başka bir hesaba ait."))
                         .build();
             }
 
-            // Doğrulama başarılı → premium aktifleştir
-            int months = "yearly".equalsIgnoreCase(result.planId()) ? 12 : 1;
-            user.premiumTier = "premium";
-            user.premiumPlan = result.planId();
-            user.premiumExpiresAt = LocalDateTime.now().plusMonths(months);
-            user.premiumCancelAtPeriodEnd = false;
-            user.premiumCanceledAt = null;
-            user.persist();
-
-            LOG.infof("IAP premium aktif — userId=%d plan=%s until=%s platform=%s txId=%s",
-                    userId, result.planId(), user.premiumExpiresAt, platform, transactionId);
-
-            Map<String, Object> resp = buildStatusMap(user, "Premium aktivasyonu başarılı!");
-            resp.put("transactionId", transactionId);
-            return Response.ok(resp).build();
+            return switch (verification.status) {
+                case IapVerification.STATUS_VERIFIED ->
+                        Response.ok(verificationMap(verification, userId)).build();
+                case IapVerification.STATUS_REJECTED ->
+                        Response.status(402).entity(verificationMap(verification, userId)).build();
+                default -> Response.status(Response.Status.ACCEPTED)
+                        .header("Retry-After", POLL_AFTER_SECONDS)
+                        .location(URI.create(pollUrl(verification)))
+                        .entity(verificationMap(verification, userId))
+                        .build();
+            };
 
         } catch (SecurityException e) {
             return Response.status(Response.Status.UNAUTHORIZED)
@@ -189,6 +201,34 @@ public class PremiumController {
         }
     }
 
+    /**
+     * IAP doğrulama sonucunu döner. VERIFIED olduğunda güncel premium durumu
+     * da eklenir; PENDING / PROCESSING için {@code Retry-After} önerilir.
+     */
+    @GET
+    @Path("/upgrade-premium/iap/{id}")
+    public Response getIapVerification(@Context HttpHeaders headers, @PathParam("id") Long id) {
+        try {
+            Long userId = resolveUserId(headers);
+            IapVerification verification = iapVerificationQueue.find(id);
+            if (verification == null || !verification.userId.equals(userId)) {
+                return Response.status(Response.Status.NOT_FOUND)
+                        .entity(Map.of("error", "Doğrulama kaydı bulunamadı."))
+                        .build();
+            }
+            Response.ResponseBuilder response = Response.ok(verificationMap(verification, userId));
+            if (!verification.isTerminal()) {
+                response.header("Retry-After", POLL_AFTER_SECONDS);
+            }
+            return response.build();
+
+        } catch (SecurityException e) {
+            return Response.status(Response.Status.UNAUTHORIZED)
+                    .entity(Map.of("error", e.getMessage()))
+                    .build();
+        }
+    }
+
     // ─── Downgrade ────────────────────────────────────────────────────────────
 
     @POST
@@ -271,6 +311,30 @@ public class PremiumController {
         return m;
     }
 
+    private Map<String, Object> verificationMap(IapVerification verification, Long userId) {
+        Map<String, Object> m = new HashMap<>();
+        if (IapVerification.STATUS_VERIFIED.equals(verification.status)) {
+            User user = User.findById(userId);
+            if (user != null) {
+                m.putAll(buildStatusMap(user, "Premium aktivasyonu başarılı!"));
+            }
+        } else if (IapVerification.STATUS_REJECTED.equals(verification.status)
+                || IapVerification.STATUS_FAILED.equals(verification.status)) {
+            m.put("error", verification.lastError);
+        } else {
+            m.put("message", "Satın alma doğrulanıyor.");
+        }
+        m.put("verificationId", verification.id);
+        m.put("status", verification.status);
+        m.put("pollUrl", pollUrl(verification));
+        m.put("transactionId", verification.transactionId);
+        return m;
+    }
+
+    private static String pollUrl(IapVerification verification) {
+        return "/api/user/upgrade-premium/iap/" + verification.id;
+    }
+
     private Long resolveUserId(HttpHeaders headers) {
         String authorization = headers == null ? null
                 : headers.getHeaderString(HttpHeaders.AUTHORIZATION);
@@ -8,13 +8,17 @@ public class AiCoachResponse {
     public String nutritionNote;
     
     // V5: Rich Data
+    @OptionalOutput
     public List<AiCoachAction> actions;
+    @OptionalOutput
     public List<AiCoachMedia> media;
+    @OptionalOutput
     public Boolean isAchievement;
 
     public static class AiCoachAction {
         public String label;
         public String type; // START_WORKOUT, ADD_WATER, TRACK_WEIGHT
+        @OptionalOutput
         public String data;
     }
 
@@ -0,0 +1,23 @@
+package com.fitness.dto;
+
+public class AiTokenUsageSummary {
+    public Long userId;
+    public long requestCount;
+    public long inputTokens;
+    public long cachedInputTokens;
+    public long outputTokens;
+    public double estimatedCostUsd;
+
+    public AiTokenUsageSummary() {
+    }
+
+    public AiTokenUsageSummary(Long userId, Long requestCount, Long inputTokens, Long cachedInputTokens,
+            Long outputTokens, Long estimatedCostMicroUsd) {
+        this.userId = userId;
+        this.requestCount = requestCount != null ? requestCount : 0;
+        this.inputTokens = inputTokens != null ? inputTokens : 0;
+        this.cachedInputTokens = cachedInputTokens != null ? cachedInputTokens : 0;
+        this.outputTokens = outputTokens != null ? outputTokens : 0;
+        this.estimatedCostUsd = estimatedCostMicroUsd != null ? estimatedCostMicroUsd / 1_000_000.0 : 0.0;
+    }
+}
@@ -0,0 +1,25 @@
+package com.fitness.dto;
+
+import java.time.LocalDate;
+
+public class DailyNutritionTotalResponse {
+    public LocalDate date;
+    public long calories;
+    public double protein;
+    public double carbs;
+    public double fat;
+    public int mealCount;
+
+    public DailyNutritionTotalResponse() {
+    }
+
+    public DailyNutritionTotalResponse(LocalDate date, long calories, double protein, double carbs, double fat,
+            int mealCount) {
+        this.date = date;
+        this.calories = calories;
+        this.protein = protein;
+        this.carbs = carbs;
+        this.fat = fat;
+        this.mealCount = mealCount;
+    }
+}
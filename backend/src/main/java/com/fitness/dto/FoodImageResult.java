@@ -12,6 +12,8 @@ public class FoodImageResult {
     public Double carb;
     public Double fat;
     public Double confidence;
+    @OptionalOutput
     public List<String> detectedIngredients;
+    @OptionalOutput
     public String mealType; // BREAKFAST, LUNCH, DINNER, SNACK
 }
@@ -0,0 +1,13 @@
+package com.fitness.dto;
+
+import java.util.List;
+
+public class NotificationPage {
+    public List<NotificationResponse> items;
+    public String nextCursor; // null ise son sayfa
+
+    public NotificationPage(List<NotificationResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
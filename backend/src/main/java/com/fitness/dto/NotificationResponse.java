@@ -0,0 +1,24 @@
+package com.fitness.dto;
+
+import java.time.LocalDateTime;
+
+public class NotificationResponse {
+    public Long id;
+    public String title;
+    public String message;
+    public boolean isRead;
+    public String type;
+    public LocalDateTime createdAt;
+
+    public NotificationResponse() {
+    }
+
+    public NotificationResponse(Long id, String title, String message, boolean isRead, String type, LocalDateTime createdAt) {
+        this.id = id;
+        this.title = title;
+        this.message = message;
+        this.isRead = isRead;
+        this.type = type;
+        this.createdAt = createdAt;
+    }
+}
@@ -5,7 +5,9 @@ import java.util.List;
 public class NutritionAiResponse {
     public String reply;
     public List<SuggestedMeal> meals;
+    @OptionalOutput
     public List<String> shoppingList;
+    @OptionalOutput
     public List<String> followUpQuestions;
     public Integer retryAfterSeconds;
 
@@ -24,8 +26,11 @@ public class NutritionAiResponse {
         public List<String> ingredients;
         public List<String> steps;
         public MealMacros macros;
+        @OptionalOutput
         public Integer prepMinutes;
+        @OptionalOutput
         public List<String> tags;
+        @OptionalOutput
         public List<String> warnings;
 
         // Backwards compatibility
@@ -0,0 +1,14 @@
+package com.fitness.dto;
+
+/**
+ * Son N günün ortalamaları. Ortalamalar yemek kaydı olan günlere (loggedDays) bölünür;
+ * kayıt girilmeyen günler 0 kalori sayılmaz.
+ */
+public class NutritionAverageResponse {
+    public int days;
+    public int loggedDays;
+    public double avgCalories;
+    public double avgProtein;
+    public double avgCarbs;
+    public double avgFat;
+}
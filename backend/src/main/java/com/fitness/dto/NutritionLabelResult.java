@@ -5,14 +5,19 @@ package com.fitness.dto;
  * All numeric values are per 100g unless servingSize specifies otherwise.
  */
 public class NutritionLabelResult {
+    @OptionalOutput
     public String productName;
     public Double kcal;
     public Double protein;
     public Double carb;
     public Double fat;
+    @OptionalOutput
     public Double fiber;
+    @OptionalOutput
     public Double sugar;
+    @OptionalOutput
     public Double servingSize;
+    @OptionalOutput
     public String servingUnit;
     public Double confidence;
 }
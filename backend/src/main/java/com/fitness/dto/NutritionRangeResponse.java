@@ -0,0 +1,18 @@
+package com.fitness.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Tarih aralığı toplamları; days yalnızca yemek kaydı olan günleri içerir.
+ */
+public class NutritionRangeResponse {
+    public LocalDate from;
+    public LocalDate to;
+    public long calories;
+    public double protein;
+    public double carbs;
+    public double fat;
+    public int mealCount;
+    public List<DailyNutritionTotalResponse> days;
+}
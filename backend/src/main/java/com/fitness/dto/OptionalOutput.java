@@ -0,0 +1,16 @@
+package com.fitness.dto;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field of an AI response DTO that the model may leave out.
+ * OutputSchema lists it under {@code properties} but not under {@code required},
+ * so schema-constrained output does not force the model to invent a value.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface OptionalOutput {
+}
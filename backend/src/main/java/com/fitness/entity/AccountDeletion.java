@@ -0,0 +1,71 @@
+package com.fitness.entity;
+
+import java.time.LocalDateTime;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * Progress of an asynchronous account deletion. Rows are created by
+ * AccountDeletionService and worked off chunk by chunk; the client polls the
+ * row (it outlives the user row) until it reaches DONE or FAILED.
+ */
+@Entity
+@Table(name = "account_deletions")
+public class AccountDeletion extends PanacheEntity {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_DONE = "DONE";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Column(name = "user_id", nullable = false)
+    public Long userId;
+
+    @Column(nullable = false, length = 20)
+    public String status = STATUS_PENDING;
+
+    @Column(name = "current_step", length = 40)
+    public String currentStep;
+
+    @Column(name = "estimated_rows", nullable = false)
+    public Long estimatedRows = 0L;
+
+    @Column(name = "deleted_rows", nullable = false)
+    public Long deletedRows = 0L;
+
+    @Column(nullable = false)
+    public Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    public LocalDateTime nextAttemptAt;
+
+    @Column(name = "claimed_at")
+    public LocalDateTime claimedAt;
+
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    public LocalDateTime completedAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    public String lastError;
+
+    public boolean isTerminal() {
+        return STATUS_DONE.equals(status) || STATUS_FAILED.equals(status);
+    }
+
+    /** 0-100; tahmini satır sayısı eksik kalabileceği için DONE olmadan 99'u geçmez. */
+    public int progressPercent() {
+        if (STATUS_DONE.equals(status)) {
+            return 100;
+        }
+        if (estimatedRows == null || estimatedRows <= 0) {
+            return 0;
+        }
+        return (int) Math.min(99, deletedRows * 100 / estimatedRows);
+    }
+}
@@ -0,0 +1,74 @@
+package com.fitness.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * Per-user, per-day AI token usage; incremented in batches by AiTelemetry.
+ * Cost is an estimate from the configured model prices, in micro-USD.
+ */
+@Entity
+@Table(name = "ai_token_usage_daily")
+@IdClass(AiTokenUsageDaily.Key.class)
+public class AiTokenUsageDaily extends PanacheEntityBase {
+
+    @Id
+    @Column(name = "user_id")
+    public Long userId;
+
+    @Id
+    @Column(name = "date")
+    public LocalDate date;
+
+    @Column(name = "request_count", nullable = false)
+    public int requestCount;
+
+    @Column(name = "input_tokens", nullable = false)
+    public long inputTokens;
+
+    @Column(name = "cached_input_tokens", nullable = false)
+    public long cachedInputTokens;
+
+    @Column(name = "output_tokens", nullable = false)
+    public long outputTokens;
+
+    @Column(name = "estimated_cost_micro_usd", nullable = false)
+    public long estimatedCostMicroUsd;
+
+    @Column(name = "updated_at", nullable = false)
+    public LocalDateTime updatedAt;
+
+    public static class Key implements Serializable {
+        public Long userId;
+        public LocalDate date;
+
+        public Key() {
+        }
+
+        public Key(Long userId, LocalDate date) {
+            this.userId = userId;
+            this.date = date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return Objects.equals(userId, other.userId) && Objects.equals(date, other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, date);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.fitness.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * Per-user, per-day nutrition rollup maintained by DailyNutritionTotalRepository.
+ * Never written directly; always recomputed from meals.
+ */
+@Entity
+@Table(name = "daily_nutrition_totals")
+@IdClass(DailyNutritionTotal.Key.class)
+public class DailyNutritionTotal extends PanacheEntityBase {
+
+    @Id
+    @Column(name = "user_id")
+    public Long userId;
+
+    @Id
+    @Column(name = "date")
+    public LocalDate date;
+
+    @Column(nullable = false)
+    public long calories;
+
+    @Column(nullable = false)
+    public double protein;
+
+    @Column(nullable = false)
+    public double carbs;
+
+    @Column(nullable = false)
+    public double fat;
+
+    @Column(name = "meal_count", nullable = false)
+    public int mealCount;
+
+    @Column(name = "updated_at", nullable = false)
+    public LocalDateTime updatedAt;
+
+    public static class Key implements Serializable {
+        public Long userId;
+        public LocalDate date;
+
+        public Key() {
+        }
+
+        public Key(Long userId, LocalDate date) {
+            this.userId = userId;
+            this.date = date;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return Objects.equals(userId, other.userId) && Objects.equals(date, other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, date);
+        }
+    }
+}
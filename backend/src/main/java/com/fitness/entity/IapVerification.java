@@ -0,0 +1,81 @@
+package com.fitness.entity;
+
+import java.time.LocalDateTime;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * A submitted App Store / Google Play purchase. Rows are inserted by
+ * PremiumController and verified by IapVerificationQueue's worker; the
+ * client polls the row until it reaches a terminal status.
+ */
+@Entity
+@Table(name = "iap_verifications")
+public class IapVerification extends PanacheEntity {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_VERIFIED = "VERIFIED";
+    public static final String STATUS_REJECTED = "REJECTED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Column(name = "user_id", nullable = false)
+    public Long userId;
+
+    @Column(nullable = false, length = 10)
+    public String platform;
+
+    @Column(name = "plan_id", nullable = false, length = 60)
+    public String planId;
+
+    @Column(name = "dedup_key", nullable = false, length = 100)
+    public String dedupKey;
+
+    @Column(name = "transaction_id", length = 120)
+    public String transactionId;
+
+    /** Mağaza yanıtında görülen işlem kimliği (iOS); istemcinin iddiası değil. */
+    @Column(name = "verified_transaction_id", length = 120)
+    public String verifiedTransactionId;
+
+    /** Premium'u veren aboneliğin kimliği (iOS); yenilemelerde değişmez, tek bir hesaba aittir. */
+    @Column(name = "original_transaction_id", length = 120)
+    public String originalTransactionId;
+
+    @Column(name = "purchase_token", columnDefinition = "TEXT")
+    public String purchaseToken;
+
+    @Column(name = "receipt_data", columnDefinition = "TEXT")
+    public String receiptData;
+
+    @Column(nullable = false, length = 20)
+    public String status = STATUS_PENDING;
+
+    @Column(name = "verified_plan", length = 20)
+    public String verifiedPlan;
+
+    @Column(nullable = false)
+    public Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    public LocalDateTime nextAttemptAt;
+
+    @Column(name = "claimed_at")
+    public LocalDateTime claimedAt;
+
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    public LocalDateTime completedAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    public String lastError;
+
+    public boolean isTerminal() {
+        return STATUS_VERIFIED.equals(status) || STATUS_REJECTED.equals(status) || STATUS_FAILED.equals(status);
+    }
+}
@@ -0,0 +1,64 @@
+package com.fitness.entity;
+
+import java.time.LocalDateTime;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * Outgoing e-mail. Rows are inserted in the same transaction as the data
+ * they announce (e.g. a password reset token) and sent by MailOutboxWorker.
+ */
+@Entity
+@Table(name = "mail_outbox")
+public class MailOutbox extends PanacheEntity {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_DEAD = "DEAD";
+
+    public static final String KIND_PASSWORD_RESET = "PASSWORD_RESET";
+
+    @Column(name = "user_id")
+    public Long userId;
+
+    @Column(nullable = false, length = 40)
+    public String kind;
+
+    @Column(nullable = false, length = 255)
+    public String recipient;
+
+    @Column(nullable = false, length = 255)
+    public String subject;
+
+    @Column(name = "html_body", columnDefinition = "TEXT")
+    public String htmlBody;
+
+    @Column(nullable = false, length = 20)
+    public String status = STATUS_PENDING;
+
+    /** İçerik bu andan sonra geçersizdir (ör. sıfırlama kodu); null ise süresiz. */
+    @Column(name = "expires_at")
+    public LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    public Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    public LocalDateTime nextAttemptAt;
+
+    @Column(name = "claimed_at")
+    public LocalDateTime claimedAt;
+
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    public LocalDateTime sentAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    public String lastError;
+}
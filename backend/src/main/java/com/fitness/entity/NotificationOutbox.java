@@ -0,0 +1,61 @@
+package com.fitness.entity;
+
+import java.time.LocalDateTime;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * Pending AI notification work. Rows are inserted by the scheduler and
+ * claimed/delivered by NotificationOutboxWorker.
+ */
+@Entity
+@Table(name = "notification_outbox")
+public class NotificationOutbox extends PanacheEntity {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_PROCESSING = "PROCESSING";
+    public static final String STATUS_DONE = "DONE";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Column(name = "user_id", nullable = false)
+    public Long userId;
+
+    @Column(nullable = false, length = 50)
+    public String type; // e.g., "PROTEIN_DEFICIENCY", "MISSED_WORKOUT"
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    public String context;
+
+    @Column(name = "dedup_key", nullable = false, length = 120)
+    public String dedupKey;
+
+    @Column(nullable = false, length = 20)
+    public String status = STATUS_PENDING;
+
+    @Column(nullable = false)
+    public Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    public LocalDateTime nextAttemptAt;
+
+    @Column(name = "claimed_at")
+    public LocalDateTime claimedAt;
+
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+
+    @Column(name = "delivered_at")
+    public LocalDateTime deliveredAt;
+
+    @Column(name = "latency_ms")
+    public Long latencyMs;
+
+    @Column(name = "notification_id")
+    public Long notificationId;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    public String lastError;
+}
@@ -0,0 +1,44 @@
+package com.fitness.entity;
+
+import java.time.LocalDateTime;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Per-user meal preference profile: the last N feedback entries as an encoded
+ * ring (see MealPreferenceRing), decayed tag and meal-type weights (see
+ * TasteProfile) and the prompt summary derived from the weights.
+ */
+@Entity
+@Table(name = "user_meal_profiles")
+public class UserMealProfile extends PanacheEntityBase {
+
+    @Id
+    @Column(name = "user_id")
+    public Long userId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    public String recent = "";
+
+    @Column(columnDefinition = "TEXT")
+    public String summary; // null: migration'dan gelen satır, özet recent'ten hesaplanır
+
+    @Column(name = "tag_weights", columnDefinition = "TEXT")
+    public String tagWeights; // TasteProfile; null: henüz recent'ten başlatılmadı
+
+    @Column(name = "meal_type_weights", columnDefinition = "TEXT")
+    public String mealTypeWeights;
+
+    @Column(name = "weights_at")
+    public LocalDateTime weightsAt;
+
+    @Column(name = "feedback_count", nullable = false)
+    public Long feedbackCount = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    public LocalDateTime updatedAt;
+}
@@ -0,0 +1,61 @@
+package com.fitness.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fitness.entity.AccountDeletion;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class AccountDeletionRepository implements PanacheRepository<AccountDeletion> {
+
+    /** Kullanıcının bekleyen ya da işlenen silme işi; yoksa null. */
+    public AccountDeletion findActiveByUserId(Long userId) {
+        return find("userId = ?1 and status in ?2", userId,
+                List.of(AccountDeletion.STATUS_PENDING, AccountDeletion.STATUS_PROCESSING)).firstResult();
+    }
+
+    /**
+     * Vadesi gelmiş işleri kilitler ve PROCESSING olarak işaretler
+     * (NotificationOutboxRepository.claimBatch ile aynı SKIP LOCKED + lease düzeni).
+     * Worker her parçada claimed_at'i yeniler; lease yalnızca duran bir replikanın
+     * işini devralmak için dolar. Aktif transaction içinde çağrılmalıdır.
+     */
+    @SuppressWarnings("unchecked")
+    public List<AccountDeletion> claimBatch(int limit, LocalDateTime now, LocalDateTime leaseCutoff) {
+        List<Number> ids = getEntityManager()
+                .createNativeQuery("""
+                        SELECT id FROM account_deletions
+                        WHERE (status = 'PENDING' AND next_attempt_at <= ?1)
+                           OR (status = 'PROCESSING' AND claimed_at < ?2)
+                        ORDER BY next_attempt_at
+                        LIMIT ?3
+                        FOR UPDATE SKIP LOCKED
+                        """)
+                .setParameter(1, now)
+                .setParameter(2, leaseCutoff)
+                .setParameter(3, limit)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> claimedIds = ids.stream().map(Number::longValue).toList();
+        update("status = ?1, claimedAt = ?2, attempts = attempts + 1 where id in ?3",
+                AccountDeletion.STATUS_PROCESSING, now, claimedIds);
+        return list("id in ?1", claimedIds);
+    }
+
+    /**
+     * Bir parçanın ilerlemesini yazar ve lease'i yeniler. {@code attempts} her
+     * claim'de arttığı için sahiplik işareti olarak kullanılır: iş başka bir
+     * worker'a geçmişse 0 döner; çağıran durmalıdır.
+     */
+    public int recordChunk(Long id, int attempts, String step, long deleted, LocalDateTime now) {
+        return update("currentStep = ?1, deletedRows = deletedRows + ?2, claimedAt = ?3"
+                + " where id = ?4 and status = ?5 and attempts = ?6",
+                step, deleted, now, id, AccountDeletion.STATUS_PROCESSING, attempts);
+    }
+}
@@ -0,0 +1,66 @@
+package com.fitness.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fitness.dto.AiTokenUsageSummary;
+import com.fitness.entity.AiTokenUsageDaily;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class AiTokenUsageRepository implements PanacheRepositoryBase<AiTokenUsageDaily, AiTokenUsageDaily.Key> {
+
+    /**
+     * Günün satırına artımlı ekler; satır yoksa oluşturur. Birden çok replika aynı
+     * satıra yazabildiği için değerler üzerine yazılmaz, toplanır.
+     * Aktif transaction içinde çağrılmalıdır.
+     */
+    public void addUsage(Long userId, LocalDate date, int requests, long inputTokens, long cachedInputTokens,
+            long outputTokens, long costMicroUsd) {
+        getEntityManager()
+                .createNativeQuery("""
+                        INSERT INTO ai_token_usage_daily
+                            (user_id, date, request_count, input_tokens, cached_input_tokens, output_tokens,
+                             estimated_cost_micro_usd, updated_at)
+                        SELECT ?1, ?2, ?3, ?4, ?5, ?6, ?7, NOW()
+                        WHERE EXISTS (SELECT 1 FROM users WHERE id = ?1)
+                        ON CONFLICT (user_id, date) DO UPDATE SET
+                            request_count = ai_token_usage_daily.request_count + EXCLUDED.request_count,
+                            input_tokens = ai_token_usage_daily.input_tokens + EXCLUDED.input_tokens,
+                            cached_input_tokens = ai_token_usage_daily.cached_input_tokens + EXCLUDED.cached_input_tokens,
+                            output_tokens = ai_token_usage_daily.output_tokens + EXCLUDED.output_tokens,
+                            estimated_cost_micro_usd = ai_token_usage_daily.estimated_cost_micro_usd
+                                + EXCLUDED.estimated_cost_micro_usd,
+                            updated_at = EXCLUDED.updated_at
+                        """)
+                .setParameter(1, userId)
+                .setParameter(2, date)
+                .setParameter(3, requests)
+                .setParameter(4, inputTokens)
+                .setParameter(5, cachedInputTokens)
+                .setParameter(6, outputTokens)
+                .setParameter(7, costMicroUsd)
+                .executeUpdate();
+    }
+
+    /**
+     * [from, to] aralığında en çok token tüketen kullanıcılar (girdi + çıktı), azalan.
+     */
+    public List<AiTokenUsageSummary> topConsumers(LocalDate from, LocalDate to, int limit) {
+        return getEntityManager()
+                .createQuery("""
+                        SELECT new com.fitness.dto.AiTokenUsageSummary(
+                            u.userId, SUM(u.requestCount), SUM(u.inputTokens), SUM(u.cachedInputTokens),
+                            SUM(u.outputTokens), SUM(u.estimatedCostMicroUsd))
+                        FROM AiTokenUsageDaily u
+                        WHERE u.date >= :from AND u.date <= :to
+                        GROUP BY u.userId
+                        ORDER BY SUM(u.inputTokens) + SUM(u.outputTokens) DESC""", AiTokenUsageSummary.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
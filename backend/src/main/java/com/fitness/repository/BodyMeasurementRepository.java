@@ -16,6 +16,11 @@ public class BodyMeasurementRepository implements PanacheRepository<BodyMeasurem
         return find("userId = ?1 ORDER BY date DESC", userId).list();
     }
 
+    /** En son ölçüm; (user_id, date) unique index'i üzerinden tek satır okur. */
+    public BodyMeasurement findLatestByUserId(Long userId) {
+        return find("userId = ?1 ORDER BY date DESC", userId).firstResult();
+    }
+
     public Optional<BodyMeasurement> findByUserIdAndDate(Long userId, LocalDate date) {
         return find("userId = ?1 AND date = ?2", userId, date).firstResultOptional();
     }
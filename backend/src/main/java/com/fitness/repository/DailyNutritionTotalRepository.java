@@ -0,0 +1,131 @@
+package com.fitness.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fitness.dto.DailyNutritionTotalResponse;
+import com.fitness.entity.DailyNutritionTotal;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class DailyNutritionTotalRepository
+        implements PanacheRepositoryBase<DailyNutritionTotal, DailyNutritionTotal.Key> {
+
+    /** pg_advisory_xact_lock(int, int) ad alanı; diğer advisory lock kullanımlarıyla çakışmasın. */
+    private static final int LOCK_NAMESPACE = 0x4E555452; // "NUTR"
+
+    /**
+     * Tarih aralığındaki günlük toplamlar, tarihe göre artan. Yalnızca kayıt olan günler döner.
+     * Satırlar native SQL ile güncellendiği için entity yerine DTO projeksiyonu döner;
+     * böylece aynı session'da önceden yüklenmiş bayat bir entity okunmaz.
+     */
+    public List<DailyNutritionTotalResponse> findRange(Long userId, LocalDate from, LocalDate to) {
+        return getEntityManager()
+                .createQuery("""
+                        SELECT new com.fitness.dto.DailyNutritionTotalResponse(
+                            t.date, t.calories, t.protein, t.carbs, t.fat, t.mealCount)
+                        FROM DailyNutritionTotal t
+                        WHERE t.userId = :userId AND t.date >= :from AND t.date <= :to
+                        ORDER BY t.date""", DailyNutritionTotalResponse.class)
+                .setParameter("userId", userId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    /**
+     * Tek günün toplamı; o gün yemek yoksa null.
+     */
+    public DailyNutritionTotalResponse findDay(Long userId, LocalDate date) {
+        List<DailyNutritionTotalResponse> rows = findRange(userId, date, date);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Kullanıcının bir gününü meals tablosundan yeniden hesaplar (yemek yoksa satırı siler).
+     * Aynı kullanıcı için eşzamanlı yazımlar birbirinin yemeğini kaçırmasın diye
+     * transaction süresince kullanıcı bazlı advisory lock alınır; sorgu lock'tan sonra
+     * başladığı için önceki commit'leri görür. Aktif transaction içinde çağrılmalıdır.
+     */
+    public void recomputeDay(Long userId, LocalDate date) {
+        getEntityManager().flush();
+        getEntityManager()
+                .createNativeQuery("SELECT pg_advisory_xact_lock(?1, ?2)")
+                .setParameter(1, LOCK_NAMESPACE)
+                .setParameter(2, (int) (userId ^ (userId >>> 32)))
+                .getSingleResult();
+
+        getEntityManager()
+                .createNativeQuery("""
+                        INSERT INTO daily_nutrition_totals
+                            (user_id, date, calories, protein, carbs, fat, meal_count, updated_at)
+                        SELECT ?1, ?2, COALESCE(SUM(calories), 0), COALESCE(SUM(protein), 0),
+                               COALESCE(SUM(carbs), 0), COALESCE(SUM(fat), 0), COUNT(*), NOW()
+                        FROM meals
+                        WHERE user_id = ?1 AND meal_date >= ?3 AND meal_date < ?4
+                        ON CONFLICT (user_id, date) DO UPDATE SET
+                            calories = EXCLUDED.calories,
+                            protein = EXCLUDED.protein,
+                            carbs = EXCLUDED.carbs,
+                            fat = EXCLUDED.fat,
+                            meal_count = EXCLUDED.meal_count,
+                            updated_at = EXCLUDED.updated_at
+                        """)
+                .setParameter(1, userId)
+                .setParameter(2, date)
+                .setParameter(3, date.atStartOfDay())
+                .setParameter(4, date.plusDays(1).atStartOfDay())
+                .executeUpdate();
+
+        getEntityManager()
+                .createNativeQuery("DELETE FROM daily_nutrition_totals WHERE user_id = ?1 AND date = ?2 AND meal_count = 0")
+                .setParameter(1, userId)
+                .setParameter(2, date)
+                .executeUpdate();
+    }
+
+    /**
+     * Backfill: (fromUserId, toUserId] aralığındaki kullanıcılar için eksik günleri ekler.
+     * Var olan satırlara dokunmaz; canlı yazımlar her zaman günün tamamını hesapladığı
+     * için mevcut bir satır zaten doğrudur. Tekrar çalıştırmak güvenlidir.
+     *
+     * @return eklenen gün sayısı
+     */
+    public int backfillUsers(long fromUserIdExclusive, long toUserIdInclusive) {
+        return getEntityManager()
+                .createNativeQuery("""
+                        INSERT INTO daily_nutrition_totals
+                            (user_id, date, calories, protein, carbs, fat, meal_count, updated_at)
+                        SELECT user_id, CAST(meal_date AS DATE), COALESCE(SUM(calories), 0),
+                               COALESCE(SUM(protein), 0), COALESCE(SUM(carbs), 0), COALESCE(SUM(fat), 0),
+                               COUNT(*), NOW()
+                        FROM meals
+                        WHERE user_id > ?1 AND user_id <= ?2
+                        GROUP BY user_id, CAST(meal_date AS DATE)
+                        ON CONFLICT (user_id, date) DO NOTHING
+                        """)
+                .setParameter(1, fromUserIdExclusive)
+                .setParameter(2, toUserIdInclusive)
+                .executeUpdate();
+    }
+
+    public boolean isBackfillCompleted(String name) {
+        return !getEntityManager()
+                .createNativeQuery("SELECT 1 FROM completed_backfills WHERE name = ?1")
+                .setParameter(1, name)
+                .getResultList()
+                .isEmpty();
+    }
+
+    public void markBackfillCompleted(String name) {
+        getEntityManager()
+                .createNativeQuery("""
+                        INSERT INTO completed_backfills (name, completed_at) VALUES (?1, NOW())
+                        ON CONFLICT (name) DO NOTHING
+                        """)
+                .setParameter(1, name)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,76 @@
+package com.fitness.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fitness.entity.IapVerification;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class IapVerificationRepository implements PanacheRepository<IapVerification> {
+
+    /**
+     * Doğrulama kuyruğuna satır ekler. Aynı dedup_key zaten varsa (uygulamanın
+     * tekrar denemesi, eşzamanlı iki istek) hiçbir şey yapmaz; çağıran mevcut
+     * satırı {@link #findByDedupKey} ile okur.
+     */
+    public void enqueue(IapVerification entry, LocalDateTime now) {
+        getEntityManager()
+                .createNativeQuery("""
+                        INSERT INTO iap_verifications
+                            (user_id, platform, plan_id, dedup_key, transaction_id, purchase_token, receipt_data,
+                             status, attempts, next_attempt_at, created_at)
+                        VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, 'PENDING', 0, ?8, ?8)
+                        ON CONFLICT (dedup_key) DO NOTHING
+                        """)
+                .setParameter(1, entry.userId)
+                .setParameter(2, entry.platform)
+                .setParameter(3, entry.planId)
+                .setParameter(4, entry.dedupKey)
+                .setParameter(5, entry.transactionId)
+                .setParameter(6, entry.purchaseToken)
+                .setParameter(7, entry.receiptData)
+                .setParameter(8, now)
+                .executeUpdate();
+    }
+
+    public IapVerification findByDedupKey(String dedupKey) {
+        return find("dedupKey", dedupKey).firstResult();
+    }
+
+    public IapVerification findByOriginalTransactionId(String originalTransactionId) {
+        return find("originalTransactionId", originalTransactionId).firstResult();
+    }
+
+    /**
+     * Vadesi gelmiş satırları kilitler ve PROCESSING olarak işaretler
+     * (NotificationOutboxRepository.claimBatch ile aynı SKIP LOCKED + lease düzeni).
+     * Aktif transaction içinde çağrılmalıdır.
+     */
+    @SuppressWarnings("unchecked")
+    public List<IapVerification> claimBatch(int limit, LocalDateTime now, LocalDateTime leaseCutoff) {
+        List<Number> ids = getEntityManager()
+                .createNativeQuery("""
+                        SELECT id FROM iap_verifications
+                        WHERE (status = 'PENDING' AND next_attempt_at <= ?1)
+                           OR (status = 'PROCESSING' AND claimed_at < ?2)
+                        ORDER BY next_attempt_at
+                        LIMIT ?3
+                        FOR UPDATE SKIP LOCKED
+                        """)
+                .setParameter(1, now)
+                .setParameter(2, leaseCutoff)
+                .setParameter(3, limit)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> claimedIds = ids.stream().map(Number::longValue).toList();
+        update("status = ?1, claimedAt = ?2, attempts = attempts + 1 where id in ?3",
+                IapVerification.STATUS_PROCESSING, now, claimedIds);
+        return list("id in ?1", claimedIds);
+    }
+}
@@ -0,0 +1,43 @@
+package com.fitness.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fitness.entity.MailOutbox;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class MailOutboxRepository implements PanacheRepository<MailOutbox> {
+
+    /**
+     * Vadesi gelmiş satırları kilitler ve PROCESSING olarak işaretler
+     * (NotificationOutboxRepository.claimBatch ile aynı SKIP LOCKED + lease düzeni).
+     * Aktif transaction içinde çağrılmalıdır.
+     */
+    @SuppressWarnings("unchecked")
+    public List<MailOutbox> claimBatch(int limit, LocalDateTime now, LocalDateTime leaseCutoff) {
+        List<Number> ids = getEntityManager()
+                .createNativeQuery("""
+                        SELECT id FROM mail_outbox
+                        WHERE (status = 'PENDING' AND next_attempt_at <= ?1)
+                           OR (status = 'PROCESSING' AND claimed_at < ?2)
+                        ORDER BY next_attempt_at
+                        LIMIT ?3
+                        FOR UPDATE SKIP LOCKED
+                        """)
+                .setParameter(1, now)
+                .setParameter(2, leaseCutoff)
+                .setParameter(3, limit)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> claimedIds = ids.stream().map(Number::longValue).toList();
+        update("status = ?1, claimedAt = ?2, attempts = attempts + 1 where id in ?3",
+                MailOutbox.STATUS_PROCESSING, now, claimedIds);
+        return list("id in ?1", claimedIds);
+    }
+}
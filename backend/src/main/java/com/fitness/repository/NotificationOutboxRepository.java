@@ -0,0 +1,67 @@
+package com.fitness.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fitness.entity.NotificationOutbox;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class NotificationOutboxRepository implements PanacheRepository<NotificationOutbox> {
+
+    /**
+     * Outbox'a iş ekler. Aynı dedup_key zaten varsa (ör. başka replika aynı gün
+     * aynı uyarıyı eklediyse) hiçbir şey yapmaz.
+     *
+     * @return eklendiyse true
+     */
+    public boolean enqueue(Long userId, String type, String context, String dedupKey, LocalDateTime now) {
+        int inserted = getEntityManager()
+                .createNativeQuery("""
+                        INSERT INTO notification_outbox
+                            (user_id, type, context, dedup_key, status, attempts, next_attempt_at, created_at)
+                        VALUES (?1, ?2, ?3, ?4, 'PENDING', 0, ?5, ?5)
+                        ON CONFLICT (dedup_key) DO NOTHING
+                        """)
+                .setParameter(1, userId)
+                .setParameter(2, type)
+                .setParameter(3, context)
+                .setParameter(4, dedupKey)
+                .setParameter(5, now)
+                .executeUpdate();
+        return inserted > 0;
+    }
+
+    /**
+     * Vadesi gelmiş satırları kilitler ve PROCESSING olarak işaretler.
+     * SKIP LOCKED sayesinde birden fazla worker/replika aynı satırı almaz;
+     * lease süresi dolmuş PROCESSING satırları (çöken worker) yeniden alınır.
+     * Aktif transaction içinde çağrılmalıdır.
+     */
+    @SuppressWarnings("unchecked")
+    public List<NotificationOutbox> claimBatch(int limit, LocalDateTime now, LocalDateTime leaseCutoff) {
+        List<Number> ids = getEntityManager()
+                .createNativeQuery("""
+                        SELECT id FROM notification_outbox
+                        WHERE (status = 'PENDING' AND next_attempt_at <= ?1)
+                           OR (status = 'PROCESSING' AND claimed_at < ?2)
+                        ORDER BY next_attempt_at
+                        LIMIT ?3
+                        FOR UPDATE SKIP LOCKED
+                        """)
+                .setParameter(1, now)
+                .setParameter(2, leaseCutoff)
+                .setParameter(3, limit)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> claimedIds = ids.stream().map(Number::longValue).toList();
+        update("status = ?1, claimedAt = ?2, attempts = attempts + 1 where id in ?3",
+                NotificationOutbox.STATUS_PROCESSING, now, claimedIds);
+        return list("id in ?1", claimedIds);
+    }
+}
@@ -0,0 +1,36 @@
+package com.fitness.repository;
+
+import java.time.LocalDateTime;
+
+import com.fitness.entity.UserMealProfile;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+
+@ApplicationScoped
+public class UserMealProfileRepository implements PanacheRepositoryBase<UserMealProfile, Long> {
+
+    /**
+     * Profili satır kilidiyle okur; aynı kullanıcının eşzamanlı geri bildirimleri
+     * sıraya girer ve hiçbiri kaybolmaz. İlk geri bildirimde satırı oluşturur.
+     * Aktif transaction içinde çağrılmalıdır.
+     */
+    public UserMealProfile findOrCreateForUpdate(Long userId, LocalDateTime now) {
+        UserMealProfile profile = findById(userId, LockModeType.PESSIMISTIC_WRITE);
+        if (profile != null) {
+            return profile;
+        }
+        // Eşzamanlı ilk iki istekten biri satırı ekler, diğeri mevcut satırı kilitler
+        getEntityManager()
+                .createNativeQuery("""
+                        INSERT INTO user_meal_profiles (user_id, recent, feedback_count, updated_at)
+                        VALUES (?1, '', 0, ?2)
+                        ON CONFLICT (user_id) DO NOTHING
+                        """)
+                .setParameter(1, userId)
+                .setParameter(2, now)
+                .executeUpdate();
+        return findById(userId, LockModeType.PESSIMISTIC_WRITE);
+    }
+}
@@ -1,5 +1,7 @@
 package com.fitness.repository;
 
+import java.util.List;
+
 import com.fitness.entity.User;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
@@ -19,4 +21,15 @@ public class UserRepository implements PanacheRepository<User> {
         String normalized = email.trim().toLowerCase();
         return find("LOWER(email) = ?1", normalized).firstResult();
     }
-}
\ No newline at end of file
+
+    /**
+     * Keyset ile id sırasında sonraki en fazla {@code limit} kullanıcı id'si (toplu arka plan işleri için).
+     */
+    public List<Long> findIdsAfter(long afterId, int limit) {
+        return getEntityManager()
+                .createQuery("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id", Long.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
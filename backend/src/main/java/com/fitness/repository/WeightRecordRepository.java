@@ -23,6 +23,13 @@ public class WeightRecordRepository implements PanacheRepository<WeightRecord> {
         return find("user.id = ?1 ORDER BY recordedAt DESC, id DESC", userId).firstResult();
     }
 
+    /** En yeni {@code limit} kayıt; (user_id, recorded_at) index'i üzerinden, geçmiş uzunluğundan bağımsız. */
+    public List<WeightRecord> findLatestByUserId(Long userId, int limit) {
+        return find("user.id = ?1 ORDER BY recordedAt DESC, id DESC", userId)
+                .page(Page.ofSize(limit))
+                .list();
+    }
+
     public List<WeightRecord> findWithFilters(Long userId, LocalDateTime startDate, LocalDateTime endDate, int pageIndex, int pageSize) {
         StringBuilder query = new StringBuilder("user.id = :userId");
         Parameters params = Parameters.with("userId", userId);
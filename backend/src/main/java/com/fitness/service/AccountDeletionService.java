@@ -0,0 +1,341 @@
+package com.fitness.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fitness.entity.AccountDeletion;
+import com.fitness.repository.AccountDeletionRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Account deletion with set-based SQL instead of per-entity deletes.
+ * <p>
+ * Small accounts are deleted in one short transaction: ai_rate_limits, the
+ * only table without a foreign key to users, is cleared explicitly and
+ * everything else goes with the users row through the
+ * {@code ON DELETE CASCADE} foreign keys.
+ * <p>
+ * Accounts above {@code async-threshold-rows} (or when the client asks for it)
+ * get an account_deletions job instead. Login is closed in the same
+ * transaction that creates the job; a background worker then deletes the
+ * user's rows table by table in chunks of {@code chunk-size}, each chunk in
+ * its own transaction together with its progress update, and finally deletes
+ * the users row. Jobs are claimed with {@code FOR UPDATE SKIP LOCKED} like the
+ * outbox workers and resume where they stopped after a crash, since every
+ * chunk only deletes rows that still exist.
+ */
+@ApplicationScoped
+public class AccountDeletionService {
+
+    private static final Logger LOG = Logger.getLogger(AccountDeletionService.class);
+    private static final long MAX_BACKOFF_SECONDS = 60 * 60;
+
+    /** BCrypt hash'i olarak tanınmaz: silme işi başladığı anda şifreyle giriş kapanır. */
+    static final String DELETING_PASSWORD = "!account-deletion";
+
+    /** Silme sırası; workout_sets workouts'tan önce, FK'siz ai_rate_limits dahil. */
+    static final List<String> STEPS = List.of(
+            "workout_sets", "workouts", "meals", "daily_nutrition_totals", "weight_records",
+            "body_measurements", "notifications", "notification_outbox", "ai_insights",
+            "ai_rate_limits", "ai_token_usage_daily", "iap_verifications", "mail_outbox",
+            "password_reset_token");
+
+    /** Tüm adımların satır sayısı tek sorguda; her alt sorgu user_id indeksini kullanır. */
+    private static final String ESTIMATE_SQL = STEPS.stream()
+            .map(table -> "(SELECT count(*) FROM " + from(table) + ")")
+            .reduce((a, b) -> a + " + " + b)
+            .map(sum -> "SELECT " + sum)
+            .orElseThrow();
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    AccountDeletionRepository deletionRepository;
+
+    @Inject
+    CoachContextCache coachContextCache;
+
+    @ConfigProperty(name = "account.deletion.async-threshold-rows", defaultValue = "20000")
+    long asyncThresholdRows;
+
+    @ConfigProperty(name = "account.deletion.chunk-size", defaultValue = "1000")
+    int chunkSize;
+
+    @ConfigProperty(name = "account.deletion.pause-ms", defaultValue = "20")
+    long pauseMs;
+
+    @ConfigProperty(name = "account.deletion.max-attempts", defaultValue = "5")
+    int maxAttempts;
+
+    @ConfigProperty(name = "account.deletion.backoff-base-seconds", defaultValue = "30")
+    long backoffBaseSeconds;
+
+    @ConfigProperty(name = "account.deletion.lease-seconds", defaultValue = "300")
+    long leaseSeconds;
+
+    /** Yeni iş gelince zamanlayıcıyı beklemeden başlatır; kuyrukta bir tetik yeterli. */
+    private ThreadPoolExecutor kickExecutor;
+
+    /** İş başka bir worker'a geçti (lease doldu); bu worker parçayı geri alıp durur. */
+    private static final class LeaseLostException extends RuntimeException {
+        LeaseLostException() {
+            super("lease lost", null, false, false);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        kickExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), runnable -> {
+                    Thread thread = new Thread(runnable, "account-deletion-kick");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        kickExecutor.shutdownNow();
+    }
+
+    /**
+     * Deletes the account now, or schedules a background job when it is large
+     * or {@code forceAsync} is set. A job already running for the user is
+     * returned as is.
+     *
+     * @return the job, or {@code null} when the account was deleted synchronously
+     */
+    public AccountDeletion deleteOrSchedule(Long userId, boolean forceAsync) {
+        AccountDeletion active = QuarkusTransaction.requiringNew().call(
+                () -> deletionRepository.findActiveByUserId(userId));
+        if (active != null) {
+            return active;
+        }
+
+        long estimatedRows = estimateRows(userId);
+        if (!forceAsync && estimatedRows <= asyncThresholdRows) {
+            deleteNow(userId);
+            return null;
+        }
+        return schedule(userId, estimatedRows);
+    }
+
+    /** Deletes the account in a single transaction, relying on the cascading foreign keys. */
+    public void deleteNow(Long userId) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            if (deleteUserRow(userId) == 0) {
+                throw new RuntimeException("Kullanici bulunamadi!");
+            }
+        });
+        coachContextCache.invalidate(userId);
+    }
+
+    /** Number of rows the account owns across all deletion steps. */
+    public long estimateRows(Long userId) {
+        return QuarkusTransaction.requiringNew().call(() -> ((Number) entityManager
+                .createNativeQuery(ESTIMATE_SQL)
+                .setParameter(1, userId)
+                .getSingleResult()).longValue());
+    }
+
+    public AccountDeletion find(Long id, Long userId) {
+        return QuarkusTransaction.requiringNew().call(
+                () -> deletionRepository.find("id = ?1 and userId = ?2", id, userId).firstResult());
+    }
+
+    private AccountDeletion schedule(Long userId, long estimatedRows) {
+        AccountDeletion job = QuarkusTransaction.requiringNew().call(() -> {
+            AccountDeletion active = deletionRepository.findActiveByUserId(userId);
+            if (active != null) {
+                return active;
+            }
+            int users = entityManager.createNativeQuery("UPDATE users SET password = ?2 WHERE id = ?1")
+                    .setParameter(1, userId)
+                    .setParameter(2, DELETING_PASSWORD)
+                    .executeUpdate();
+            if (users == 0) {
+                throw new RuntimeException("Kullanici bulunamadi!");
+            }
+            entityManager.createNativeQuery("DELETE FROM password_reset_token WHERE user_id = ?1")
+                    .setParameter(1, userId)
+                    .executeUpdate();
+
+            LocalDateTime now = LocalDateTime.now();
+            AccountDeletion entry = new AccountDeletion();
+            entry.userId = userId;
+            entry.estimatedRows = estimatedRows;
+            entry.nextAttemptAt = now;
+            entry.createdAt = now;
+            deletionRepository.persist(entry);
+            return entry;
+        });
+        coachContextCache.invalidate(userId);
+        LOG.infof("account_deletion status=scheduled id=%d userId=%d estimatedRows=%d",
+                job.id, userId, estimatedRows);
+        kick();
+        return job;
+    }
+
+    /** Starts pending jobs now instead of at the next poll; call after the job committed. */
+    public void kick() {
+        kickExecutor.execute(() -> {
+            try {
+                poll();
+            } catch (Exception e) {
+                // Zamanlayıcı bir sonraki turda tekrar dener
+                LOG.warnf("account_deletion kick failed: %s", e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(every = "${account.deletion.poll-interval:30s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void poll() {
+        while (processNext()) {
+            // işler uzun sürebilir; her seferinde tek iş claim edilir
+        }
+    }
+
+    /**
+     * Claims one due job and runs it to completion (or until it fails or
+     * loses its lease).
+     *
+     * @return {@code false} when no job was due
+     */
+    public boolean processNext() {
+        LocalDateTime claimTime = LocalDateTime.now();
+        List<AccountDeletion> claimed = QuarkusTransaction.requiringNew().call(() -> deletionRepository.claimBatch(
+                1, claimTime, claimTime.minusSeconds(leaseSeconds)));
+        if (claimed.isEmpty()) {
+            return false;
+        }
+        run(claimed.get(0));
+        return true;
+    }
+
+    private void run(AccountDeletion job) {
+        Long jobId = job.id;
+        Long userId = job.userId;
+        int attempts = job.attempts;
+        long startNs = System.nanoTime();
+        try {
+            // Devralınan iş tamamlanmış adımları atlar
+            int resumeAt = job.currentStep != null ? STEPS.indexOf(job.currentStep) : -1;
+            for (String step : STEPS.subList(Math.max(resumeAt, 0), STEPS.size())) {
+                deleteInChunks(jobId, attempts, userId, step);
+            }
+
+            QuarkusTransaction.requiringNew().run(() -> {
+                // Silme sürerken eklenen satırlar users satırıyla birlikte (cascade) gider
+                int deleted = deleteUserRow(userId);
+                if (deletionRepository.update("status = ?1, completedAt = ?2, claimedAt = null, currentStep = null,"
+                        + " deletedRows = deletedRows + ?3, lastError = null where id = ?4 and attempts = ?5",
+                        AccountDeletion.STATUS_DONE, LocalDateTime.now(), (long) deleted, jobId, attempts) == 0) {
+                    throw new LeaseLostException();
+                }
+            });
+            coachContextCache.invalidate(userId);
+            LOG.infof("account_deletion status=done id=%d userId=%d durationMs=%d",
+                    jobId, userId, (System.nanoTime() - startNs) / 1_000_000);
+        } catch (LeaseLostException e) {
+            LOG.infof("account_deletion status=lease_lost id=%d attempts=%d", jobId, attempts);
+        } catch (InterruptedException e) {
+            // Lease dolunca iş başka bir turda kaldığı yerden devam eder
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            fail(jobId, attempts, e);
+        }
+    }
+
+    private void deleteInChunks(Long jobId, int attempts, Long userId, String step) throws InterruptedException {
+        String sql = chunkSql(step);
+        int deleted;
+        do {
+            deleted = QuarkusTransaction.requiringNew().call(() -> {
+                int rows = entityManager.createNativeQuery(sql)
+                        .setParameter(1, userId)
+                        .setParameter(2, chunkSize)
+                        .executeUpdate();
+                // İlerleme aynı transaction'da yazılır: sayaç silinen satırlarla her zaman tutarlı
+                if (deletionRepository.recordChunk(jobId, attempts, step, rows, LocalDateTime.now()) == 0) {
+                    throw new LeaseLostException();
+                }
+                return rows;
+            });
+            if (deleted >= chunkSize && pauseMs > 0) {
+                // Replikasyon ve autovacuum'a nefes aldır
+                Thread.sleep(pauseMs);
+            }
+        } while (deleted >= chunkSize);
+    }
+
+    private void fail(Long jobId, int attempts, RuntimeException error) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            AccountDeletion entry = deletionRepository.findById(jobId);
+            if (entry == null || !AccountDeletion.STATUS_PROCESSING.equals(entry.status)
+                    || entry.attempts != attempts) {
+                return;
+            }
+            entry.claimedAt = null;
+            entry.lastError = error.getClass().getSimpleName() + ": " + error.getMessage();
+            if (entry.attempts >= maxAttempts) {
+                entry.status = AccountDeletion.STATUS_FAILED;
+                entry.completedAt = LocalDateTime.now();
+                LOG.errorf("account_deletion status=failed id=%d userId=%d attempts=%d error=%s",
+                        entry.id, entry.userId, entry.attempts, entry.lastError);
+            } else {
+                entry.status = AccountDeletion.STATUS_PENDING;
+                entry.nextAttemptAt = LocalDateTime.now().plusSeconds(backoffSeconds(entry.attempts));
+                LOG.warnf("account_deletion status=retry id=%d userId=%d attempts=%d error=%s",
+                        entry.id, entry.userId, entry.attempts, entry.lastError);
+            }
+        });
+    }
+
+    /** FK'si olmayan ai_rate_limits'i temizler ve users satırını siler; kalan her şey cascade ile gider. */
+    private int deleteUserRow(Long userId) {
+        entityManager.createNativeQuery("DELETE FROM ai_rate_limits WHERE user_id = ?1")
+                .setParameter(1, userId)
+                .executeUpdate();
+        return entityManager.createNativeQuery("DELETE FROM users WHERE id = ?1")
+                .setParameter(1, userId)
+                .executeUpdate();
+    }
+
+    private long backoffSeconds(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(backoffBaseSeconds << exponent, MAX_BACKOFF_SECONDS);
+    }
+
+    /**
+     * Bir parçayı ctid ile siler: alt sorgu user_id indeksinden en fazla ?2
+     * satır seçer, dış DELETE bunlara doğrudan (Tid Scan) gider.
+     */
+    static String chunkSql(String table) {
+        String alias = "workout_sets".equals(table) ? "s" : "t";
+        return "DELETE FROM " + table + " WHERE ctid = ANY(ARRAY(SELECT " + alias + ".ctid FROM " + from(table)
+                + " LIMIT ?2))";
+    }
+
+    /** Kullanıcının satırlarını seçen FROM/WHERE parçası; workout_sets'in user_id'si workouts'tadır. */
+    private static String from(String table) {
+        if ("workout_sets".equals(table)) {
+            return "workout_sets s JOIN workouts w ON w.id = s.workout_id WHERE w.user_id = ?1";
+        }
+        return table + " t WHERE t.user_id = ?1";
+    }
+}
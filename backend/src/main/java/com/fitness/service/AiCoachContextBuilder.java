@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Locale;
 
 import com.fitness.dto.AiCoachRequest;
+import com.fitness.entity.AiInsight;
 import com.fitness.entity.BodyMeasurement;
 import com.fitness.entity.User;
 import com.fitness.entity.WeightRecord;
@@ -19,6 +20,9 @@ import jakarta.inject.Inject;
 @ApplicationScoped
 public class AiCoachContextBuilder {
 
+    /** Coach prompt en fazla bu kadar geçmiş içgörü kullanır. */
+    static final int CACHED_INSIGHTS = 3;
+
     @Inject
     UserRepository userRepository;
 
@@ -28,15 +32,56 @@ public class AiCoachContextBuilder {
     @Inject
     BodyMeasurementRepository bodyMeasurementRepository;
 
+    @Inject
+    CoachContextCache cache;
+
     public CoachPromptContext build(Long userId, AiCoachRequest.DailySummaryDto summary) {
-        User user = userId == null ? null : userRepository.findById(userId);
-        String profileSnapshot = buildProfileSnapshot(user);
+        // Profil ve ilerleme kısmı kullanıcı başına önbellekten; günlük özet her istekte değişir
+        CoachContextCache.Snapshot snapshot = userId == null ? null : cache.get(userId, this::loadSnapshot);
+        String profileSnapshot = snapshot == null ? buildProfileSnapshot(null) : snapshot.profileSnapshot();
         String recoverySnapshot = buildRecoverySnapshot(summary);
-        String progressSnapshot = buildProgressSnapshot(userId);
-        String coachingSignals = buildCoachingSignals(user, summary, progressSnapshot);
+        String progressSnapshot = snapshot == null ? buildProgressSnapshot(null) : snapshot.progressSnapshot();
+        String coachingSignals = buildCoachingSignals(snapshot, summary, progressSnapshot);
         return new CoachPromptContext(profileSnapshot, recoverySnapshot, progressSnapshot, coachingSignals);
     }
 
+    /**
+     * Most recent long-term memory insights, newest first, served from the same cache entry.
+     */
+    public List<CoachContextCache.InsightLine> recentInsights(Long userId, int limit) {
+        if (userId == null || limit <= 0) {
+            return List.of();
+        }
+        if (limit > CACHED_INSIGHTS) {
+            return toLines(AiInsight.findRecentByUser(userId, limit));
+        }
+        CoachContextCache.Snapshot snapshot = cache.get(userId, this::loadSnapshot);
+        if (snapshot == null) {
+            return List.of();
+        }
+        List<CoachContextCache.InsightLine> insights = snapshot.insights();
+        return insights.size() <= limit ? insights : insights.subList(0, limit);
+    }
+
+    private CoachContextCache.Snapshot loadSnapshot(long userId) {
+        User user = userRepository.findById(userId);
+        if (user == null) {
+            return null;
+        }
+        return new CoachContextCache.Snapshot(
+                buildProfileSnapshot(user),
+                buildProgressSnapshot(userId),
+                user.weight,
+                user.targetWeight,
+                toLines(AiInsight.findRecentByUser(userId, CACHED_INSIGHTS)));
+    }
+
+    private List<CoachContextCache.InsightLine> toLines(List<AiInsight> insights) {
+        return insights.stream()
+                .map(i -> new CoachContextCache.InsightLine(i.type, i.createdAt, i.summary))
+                .toList();
+    }
+
     private String buildProfileSnapshot(User user) {
         if (user == null) {
             return "Profile data unavailable.";
@@ -102,13 +147,13 @@ public class AiCoachContextBuilder {
             return "Progress signals unavailable.";
         }
 
-        List<WeightRecord> weights = weightRecordRepository.findByUserIdOrderByRecordedAtDesc(userId);
+        // Yalnızca son iki tartı ve son ölçüm okunur; geçmiş uzunluğundan bağımsız
+        List<WeightRecord> weights = weightRecordRepository.findLatestByUserId(userId, 2);
         Double latestWeight = weights.isEmpty() ? null : weights.get(0).weight;
         Double previousWeight = weights.size() > 1 ? weights.get(1).weight : null;
         Double delta = latestWeight != null && previousWeight != null ? latestWeight - previousWeight : null;
 
-        List<BodyMeasurement> measurements = bodyMeasurementRepository.findByUserIdOrderByDateDesc(userId);
-        BodyMeasurement latestMeasurement = measurements.isEmpty() ? null : measurements.get(0);
+        BodyMeasurement latestMeasurement = bodyMeasurementRepository.findLatestByUserId(userId);
 
         return String.format(
                 Locale.US,
@@ -119,7 +164,7 @@ public class AiCoachContextBuilder {
                 latestMeasurement == null ? "n/a" : formatNumber(latestMeasurement.getChest(), 1));
     }
 
-    private String buildCoachingSignals(User user, AiCoachRequest.DailySummaryDto summary, String progressSnapshot) {
+    private String buildCoachingSignals(CoachContextCache.Snapshot user, AiCoachRequest.DailySummaryDto summary, String progressSnapshot) {
         StringBuilder signals = new StringBuilder();
 
         if (summary != null && summary.sleepHours != null && summary.sleepHours < 6.0) {
@@ -155,8 +200,8 @@ public class AiCoachContextBuilder {
                         .append(" steps.\n");
             }
         }
-        if (user != null && user.weight != null && user.targetWeight != null) {
-            double remaining = user.targetWeight - user.weight;
+        if (user != null && user.weight() != null && user.targetWeight() != null) {
+            double remaining = user.targetWeight() - user.weight();
             if (Math.abs(remaining) >= 0.5) {
                 signals.append("- Distance to target weight: ")
                         .append(String.format(Locale.US, "%.1f", remaining))
@@ -28,6 +28,9 @@ public class AiMemoryService {
     @Inject
     AiProviderRouter aiRouter;
 
+    @Inject
+    CoachContextCache coachContextCache;
+
     /**
      * Weekly summary every Sunday at midnight.
      */
@@ -70,6 +73,7 @@ public class AiMemoryService {
                 insight.type = "WEEKLY_PROGRESS";
                 insight.summary = result.getOutputText();
                 insight.persist();
+                coachContextCache.invalidate(user.id);
                 LOG.infof("Weekly insight saved for user %d", user.id);
             }
         } catch (Exception e) {
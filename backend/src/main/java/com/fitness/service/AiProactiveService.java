@@ -5,10 +5,11 @@ import java.util.List;
 
 import org.jboss.logging.Logger;
 
-import com.fitness.entity.Meal;
-import com.fitness.entity.Notification;
+import com.fitness.dto.DailyNutritionTotalResponse;
 import com.fitness.entity.User;
 import com.fitness.entity.Workout;
+import com.fitness.repository.DailyNutritionTotalRepository;
+import com.fitness.repository.NotificationOutboxRepository;
 
 import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -16,7 +17,8 @@ import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
 /**
- * Scheduled service that periodically analyzes user data and generates proactive AI feedback.
+ * Scheduled service that periodically analyzes user data and queues proactive AI feedback.
+ * AI generation and delivery happen asynchronously in NotificationOutboxWorker.
  */
 @ApplicationScoped
 public class AiProactiveService {
@@ -24,10 +26,10 @@ public class AiProactiveService {
     private static final Logger LOG = Logger.getLogger(AiProactiveService.class);
 
     @Inject
-    AiProviderRouter aiRouter;
+    NotificationOutboxRepository outboxRepository;
 
     @Inject
-    CoachPromptBuilder promptBuilder;
+    DailyNutritionTotalRepository dailyTotalRepository;
 
     /**
      * Daily check at 21:00 to see if the user met their goals.
@@ -53,12 +55,8 @@ public class AiProactiveService {
         java.time.LocalDateTime startOfDay = today.atStartOfDay();
         java.time.LocalDateTime endOfDay = today.plusDays(1).atStartOfDay();
         
-        // Fetch data
-        List<Meal> meals = Meal.find(
-                "user.id = ?1 and mealDate >= ?2 and mealDate < ?3",
-                user.id,
-                startOfDay,
-                endOfDay).list();
+        // Fetch data (beslenme toplamı daily_nutrition_totals'tan tek satır)
+        DailyNutritionTotalResponse nutrition = dailyTotalRepository.findDay(user.id, today);
         List<Workout> workouts = Workout.find(
                 "user.id = ?1 and workoutDate >= ?2 and workoutDate < ?3",
                 user.id,
@@ -66,36 +64,21 @@ public class AiProactiveService {
                 endOfDay).list();
         
         // Simple logic for protein check (example)
-        double totalProtein = meals.stream().mapToDouble(m -> m.protein).sum();
+        double totalProtein = nutrition != null ? nutrition.protein : 0;
         double proteinGoal = 150.0; // Mock goal, should be dynamic
         
-        if (totalProtein < proteinGoal * 0.7 && !meals.isEmpty()) {
-            generateAiAlerter(user, "PROTEIN_DEFICIENCY", "Kullanıcı bugün protein hedefinin çok gerisinde kaldı. Nazikçe uyar ve akşam için protein içeriği yüksek bir atıştırmalık öner.");
+        if (totalProtein < proteinGoal * 0.7 && nutrition != null && nutrition.mealCount > 0) {
+            enqueueAlert(user, today, "PROTEIN_DEFICIENCY", "Kullanıcı bugün protein hedefinin çok gerisinde kaldı. Nazikçe uyar ve akşam için protein içeriği yüksek bir atıştırmalık öner.");
         } else if (workouts.isEmpty() && today.getDayOfWeek().getValue() >= 5) {
             // If weekend and no workouts
-            generateAiAlerter(user, "MISSED_WORKOUT", "Kullanıcı haftasonu henüz antrenman yapmadı. Onu motive et.");
+            enqueueAlert(user, today, "MISSED_WORKOUT", "Kullanıcı haftasonu henüz antrenman yapmadı. Onu motive et.");
         }
     }
 
-    private void generateAiAlerter(User user, String type, String context) {
-        String prompt = "Sen akıllı bir fitness koçusun. Senaryo: " + context + 
-                        "\nKullanıcı adı: " + user.name + 
-                        "\nYalnızca kısa, motive edici ve aksiyon odaklı bir mesaj üret (maks 2 cümle).";
-        
-        try {
-            GeminiClientResult result = aiRouter.generateText("proactive_alert", user.id, "gemini-2.0-flash", "gemini-1.5-flash", prompt, false);
-            
-            if (result.isSuccess()) {
-                Notification notification = new Notification();
-                notification.user = user;
-                notification.title = "AI Koç Tavsiyesi";
-                notification.message = result.getOutputText();
-                notification.type = "AI_COACH";
-                notification.persist();
-                LOG.infof("Proactive notification sent to user %d: %s", user.id, type);
-            }
-        } catch (Exception e) {
-            LOG.error("Failed to generate proactive AI notification", e);
+    private void enqueueAlert(User user, LocalDate day, String type, String context) {
+        String dedupKey = user.id + ":" + type + ":" + day;
+        if (outboxRepository.enqueue(user.id, type, context, dedupKey, java.time.LocalDateTime.now())) {
+            LOG.infof("Proactive notification queued for user %d: %s", user.id, type);
         }
     }
 }
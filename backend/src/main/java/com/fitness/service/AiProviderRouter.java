@@ -1,7 +1,10 @@
 package com.fitness.service;
 
 import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import com.fitness.entity.User;
@@ -28,6 +31,15 @@ public class AiProviderRouter {
     @Inject
     ClaudeClient claudeClient;
 
+    @Inject
+    AiTelemetry telemetry;
+
+    @Inject
+    Tracing tracing;
+
+    @ConfigProperty(name = "ai.structured-output.enabled", defaultValue = "true")
+    boolean structuredOutputEnabled;
+
     /**
      * Check if a user has active premium subscription.
      */
@@ -50,7 +62,11 @@ public class AiProviderRouter {
      * Get the user's premium tier string.
      */
     public String getTier(Long userId) {
-        return isPremium(userId) ? "premium" : "free";
+        return tierOf(isPremium(userId));
+    }
+
+    private static String tierOf(boolean premium) {
+        return premium ? "premium" : "free";
     }
 
     // ─── Text generation routing ─────────────────────────────────
@@ -66,15 +82,115 @@ public class AiProviderRouter {
             String fallbackModel,
             String prompt,
             boolean expectJson) {
+        return generateText(endpointName, userId, primaryModel, fallbackModel, PromptParts.of(prompt), expectJson);
+    }
 
-        if (isPremium(userId) && claudeClient.isAvailable()) {
-            LOG.infof("Routing to Claude (premium) endpoint=%s userId=%d", endpointName, userId);
-            return claudeClient.generateText(endpointName, userId, prompt, expectJson);
-        }
+    /**
+     * Same routing for a prompt split into a static prefix and a dynamic suffix.
+     */
+    public GeminiClientResult generateText(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            PromptParts prompt,
+            boolean expectJson) {
+        return route(endpointName, userId, primaryModel, fallbackModel, prompt, expectJson, null);
+    }
+
+    /**
+     * JSON generation constrained to {@code schema} (Gemini responseSchema / Claude forced tool use).
+     */
+    public GeminiClientResult generateText(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            PromptParts prompt,
+            OutputSchema schema) {
+        return route(endpointName, userId, primaryModel, fallbackModel, prompt, true, structured(schema));
+    }
+
+    private GeminiClientResult route(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            PromptParts prompt,
+            boolean expectJson,
+            OutputSchema schema) {
+
+        boolean premium = isPremium(userId);
+        return traced(endpointName, userId, premium, primaryModel, () -> {
+            if (premium && claudeClient.isAvailable()) {
+                LOG.infof("Routing to Claude (premium) endpoint=%s userId=%d", endpointName, userId);
+                return claudeClient.generateText(endpointName, userId, prompt, expectJson, schema);
+            } else {
+                // Free tier → Gemini, or premium when Claude is not configured
+                geminiClient.validateApiKey();
+                return geminiClient.generateText(endpointName, userId, primaryModel, fallbackModel, prompt,
+                        expectJson, schema);
+            }
+        });
+    }
+
+    /**
+     * Streaming counterpart of {@link #generateText}; partial text is passed to {@code onDelta}.
+     */
+    public GeminiClientResult streamText(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            String prompt,
+            boolean expectJson,
+            Consumer<String> onDelta) {
+        return streamText(endpointName, userId, primaryModel, fallbackModel, PromptParts.of(prompt), expectJson, onDelta);
+    }
 
-        // Free tier → Gemini, or premium when Claude is not configured
-        geminiClient.validateApiKey();
-        return geminiClient.generateText(endpointName, userId, primaryModel, fallbackModel, prompt, expectJson);
+    public GeminiClientResult streamText(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            PromptParts prompt,
+            boolean expectJson,
+            Consumer<String> onDelta) {
+        return routeStream(endpointName, userId, primaryModel, fallbackModel, prompt, expectJson, null, onDelta);
+    }
+
+    public GeminiClientResult streamText(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            PromptParts prompt,
+            OutputSchema schema,
+            Consumer<String> onDelta) {
+        return routeStream(endpointName, userId, primaryModel, fallbackModel, prompt, true, structured(schema), onDelta);
+    }
+
+    private GeminiClientResult routeStream(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            PromptParts prompt,
+            boolean expectJson,
+            OutputSchema schema,
+            Consumer<String> onDelta) {
+
+        boolean premium = isPremium(userId);
+        return traced(endpointName, userId, premium, primaryModel, () -> {
+            if (premium && claudeClient.isAvailable()) {
+                LOG.infof("Routing stream to Claude (premium) endpoint=%s userId=%d", endpointName, userId);
+                return claudeClient.streamText(endpointName, userId, prompt, expectJson, schema, onDelta);
+            } else {
+                geminiClient.validateApiKey();
+                return geminiClient.streamText(endpointName, userId, primaryModel, fallbackModel, prompt, expectJson,
+                        schema, onDelta);
+            }
+        });
     }
 
     /**
@@ -89,25 +205,85 @@ public class AiProviderRouter {
             byte[] imageBytes,
             String mimeType,
             boolean expectJson) {
+        return routeImage(endpointName, userId, primaryModel, fallbackModel, prompt, imageBytes, mimeType,
+                expectJson, null);
+    }
 
-        if (isPremium(userId) && claudeClient.isAvailable()) {
-            LOG.infof("Routing to Claude Vision (premium) endpoint=%s userId=%d", endpointName, userId);
-            return claudeClient.generateWithImage(endpointName, userId, prompt, imageBytes, mimeType, expectJson);
-        }
+    public GeminiClientResult generateWithImage(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            String prompt,
+            byte[] imageBytes,
+            String mimeType,
+            OutputSchema schema) {
+        return routeImage(endpointName, userId, primaryModel, fallbackModel, prompt, imageBytes, mimeType,
+                true, structured(schema));
+    }
 
-        // Free tier → Gemini, or premium when Claude is not configured
-        geminiClient.validateApiKey();
-        return geminiClient.generateWithImage(
-                endpointName, userId, primaryModel, fallbackModel, prompt, imageBytes, mimeType, expectJson);
+    private GeminiClientResult routeImage(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            String prompt,
+            byte[] imageBytes,
+            String mimeType,
+            boolean expectJson,
+            OutputSchema schema) {
+
+        boolean premium = isPremium(userId);
+        return traced(endpointName, userId, premium, primaryModel, () -> {
+            if (premium && claudeClient.isAvailable()) {
+                LOG.infof("Routing to Claude Vision (premium) endpoint=%s userId=%d", endpointName, userId);
+                return claudeClient.generateWithImage(endpointName, userId, prompt, imageBytes, mimeType, expectJson,
+                        schema);
+            } else {
+                // Free tier → Gemini, or premium when Claude is not configured
+                geminiClient.validateApiKey();
+                return geminiClient.generateWithImage(
+                        endpointName, userId, primaryModel, fallbackModel, prompt, imageBytes, mimeType, expectJson,
+                        schema);
+            }
+        });
     }
 
     /**
-     * Extract JSON from raw response (provider-agnostic).
+     * Runs one provider call inside an {@code ai.call} span and records its
+     * latency, tokens and cost in {@link AiTelemetry}.
      */
-    public String extractJsonFromResponse(Long userId, String rawResponse) {
-        if (isPremium(userId) && claudeClient.isAvailable()) {
-            return claudeClient.extractJsonFromResponse(rawResponse);
+    private GeminiClientResult traced(
+            String endpointName,
+            Long userId,
+            boolean premium,
+            String primaryModel,
+            Supplier<GeminiClientResult> call) {
+        try (TraceSpan span = tracing.startSpan("ai.call")) {
+            span.setAttribute("ai.endpoint", endpointName).setAttribute("user.tier", tierOf(premium));
+            GeminiClientResult result;
+            try {
+                result = call.get();
+            } catch (RuntimeException e) {
+                span.recordError(e);
+                throw e;
+            }
+            telemetry.recordCall(endpointName, tierOf(premium), userId, primaryModel, result);
+            String model = result.getModelUsed();
+            span.setAttribute("ai.provider", model != null && model.startsWith("claude:") ? "claude" : "gemini")
+                    .setAttribute("ai.model", model)
+                    .setAttribute("ai.fallback", model != null && primaryModel != null
+                            && model.startsWith("gemini") && !model.equals(primaryModel))
+                    .setAttribute("ai.status", result.getStatusCode());
+            if (!result.isSuccess()) {
+                span.recordError(result.getError());
+            }
+            return result;
         }
-        return geminiClient.extractJsonFromResponse(rawResponse);
+    }
+
+    /** Schema enforcement can be switched off (plain JSON mode) if a provider rejects a schema. */
+    private OutputSchema structured(OutputSchema schema) {
+        return structuredOutputEnabled ? schema : null;
     }
 }
@@ -0,0 +1,345 @@
+package com.fitness.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fitness.repository.AiTokenUsageRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * In-process telemetry for AI provider calls, recorded by {@link AiProviderRouter}.
+ * <ul>
+ *   <li>Latency histogram per endpoint / provider / model / status.</li>
+ *   <li>Model fallback and 429 counters.</li>
+ *   <li>Input, cached input and output token counters per provider / model.</li>
+ *   <li>Estimated cost per tier from {@code ai.telemetry.prices}.</li>
+ * </ul>
+ * Everything is exposed in Prometheus text format by {@link #renderPrometheus()}.
+ * Per-user daily usage is summed in memory and written to {@code ai_token_usage_daily}
+ * in one transaction every {@code usage-flush-interval}, so AI calls never wait on the DB.
+ */
+@ApplicationScoped
+public class AiTelemetry {
+
+    private static final Logger LOG = Logger.getLogger(AiTelemetry.class);
+
+    /** Histogram bucket upper bounds in milliseconds (+Inf is implicit). */
+    static final long[] LATENCY_BOUNDS_MS = {100, 250, 500, 1_000, 2_000, 5_000, 10_000, 30_000};
+
+    private final Map<CallKey, Histogram> latency = new ConcurrentHashMap<>();
+    private final Map<FallbackKey, LongAdder> fallbacks = new ConcurrentHashMap<>();
+    private final Map<ModelKey, LongAdder> rateLimited = new ConcurrentHashMap<>();
+    private final Map<ModelKey, TokenCounters> tokens = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> costMicroUsdByTier = new ConcurrentHashMap<>();
+    private final LongAdder unpricedCalls = new LongAdder();
+    private final Map<UsageKey, UsageDelta> pendingUsage = new ConcurrentHashMap<>();
+    private final Map<String, ModelPrice> prices = new HashMap<>();
+
+    @Inject
+    AiTokenUsageRepository usageRepository;
+
+    @ConfigProperty(name = "ai.telemetry.prices",
+            defaultValue = "gemini-2.0-flash=0.10/0.40,gemini-1.5-flash=0.075/0.30,claude-haiku-4-5-20251001=1.00/5.00")
+    List<String> priceEntries;
+
+    @ConfigProperty(name = "ai.telemetry.cached-input-price-ratio", defaultValue = "0.25")
+    double cachedInputPriceRatio;
+
+    @ConfigProperty(name = "ai.telemetry.usage-persist.enabled", defaultValue = "true")
+    boolean persistUsage;
+
+    /** USD per one million input / output tokens. */
+    record ModelPrice(double inputPerMillion, double outputPerMillion) {
+    }
+
+    @PostConstruct
+    void init() {
+        // "model=input/output" girdileri; hatalı olanlar atlanır, maliyet 0 sayılır
+        for (String entry : priceEntries) {
+            int eq = entry.indexOf('=');
+            int slash = entry.indexOf('/', eq + 1);
+            if (eq <= 0 || slash < 0) {
+                LOG.warnf("ai_telemetry invalid price entry ignored: %s", entry);
+                continue;
+            }
+            try {
+                prices.put(entry.substring(0, eq).trim(), new ModelPrice(
+                        Double.parseDouble(entry.substring(eq + 1, slash).trim()),
+                        Double.parseDouble(entry.substring(slash + 1).trim())));
+            } catch (NumberFormatException e) {
+                LOG.warnf("ai_telemetry invalid price entry ignored: %s", entry);
+            }
+        }
+    }
+
+    /**
+     * Records one routed call. {@code primaryModel} is what the caller asked for;
+     * a different successful/failed model on the Gemini path means the fallback was used.
+     */
+    public void recordCall(String endpoint, String tier, Long userId, String primaryModel, GeminiClientResult result) {
+        String modelUsed = result.getModelUsed() != null ? result.getModelUsed() : "unknown";
+        String provider = modelUsed.startsWith("claude:") ? "claude" : "gemini";
+        String model = "claude".equals(provider) ? modelUsed.substring("claude:".length()) : modelUsed;
+        String status = result.isSuccess() ? "ok" : "error";
+
+        latency.computeIfAbsent(new CallKey(endpoint, provider, model, status), k -> new Histogram())
+                .observe(result.getLatencyMs());
+
+        if ("gemini".equals(provider) && primaryModel != null && !primaryModel.equals(model)) {
+            fallbacks.computeIfAbsent(new FallbackKey(endpoint, primaryModel, model), k -> new LongAdder()).increment();
+        }
+        if (result.getStatusCode() == 429) {
+            rateLimited.computeIfAbsent(new ModelKey(provider, model), k -> new LongAdder()).increment();
+        }
+
+        TokenUsage usage = result.getUsage();
+        if (usage == null || usage == TokenUsage.UNKNOWN) {
+            return;
+        }
+        tokens.computeIfAbsent(new ModelKey(provider, model), k -> new TokenCounters()).add(usage);
+
+        long costMicroUsd = estimateCostMicroUsd(model, usage);
+        costMicroUsdByTier.computeIfAbsent(tier, k -> new LongAdder()).add(costMicroUsd);
+
+        if (userId != null && persistUsage) {
+            // compute, aynı anahtar için flush'taki remove ile atomik; artış kaybolmaz
+            pendingUsage.compute(new UsageKey(userId, LocalDate.now()), (key, delta) -> {
+                UsageDelta target = delta != null ? delta : new UsageDelta();
+                target.add(usage, costMicroUsd);
+                return target;
+            });
+        }
+    }
+
+    long estimateCostMicroUsd(String model, TokenUsage usage) {
+        ModelPrice price = prices.get(model);
+        if (price == null) {
+            unpricedCalls.increment();
+            return 0;
+        }
+        double micro = usage.freshInputTokens() * price.inputPerMillion()
+                + usage.cachedInputTokens() * price.inputPerMillion() * cachedInputPriceRatio
+                + usage.outputTokens() * price.outputPerMillion();
+        return Math.round(micro);
+    }
+
+    /**
+     * Writes buffered per-user usage. Rows that fail to persist are merged back and retried next time.
+     */
+    @Scheduled(every = "${ai.telemetry.usage-flush-interval:30s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public void flushUsage() {
+        if (pendingUsage.isEmpty()) {
+            return;
+        }
+        Map<UsageKey, UsageDelta> batch = new HashMap<>();
+        for (UsageKey key : new ArrayList<>(pendingUsage.keySet())) {
+            UsageDelta delta = pendingUsage.remove(key);
+            if (delta != null) {
+                batch.put(key, delta);
+            }
+        }
+        try {
+            QuarkusTransaction.requiringNew().run(() -> batch.forEach((key, delta) -> usageRepository.addUsage(
+                    key.userId(), key.date(), delta.requests, delta.inputTokens, delta.cachedInputTokens,
+                    delta.outputTokens, delta.costMicroUsd)));
+        } catch (RuntimeException e) {
+            LOG.warnf("ai_telemetry usage flush failed rows=%d error=%s", batch.size(), e.getMessage());
+            batch.forEach((key, delta) -> pendingUsage.merge(key, delta, UsageDelta::plus));
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        flushUsage();
+    }
+
+    /** Prometheus text exposition format (version 0.0.4). */
+    public String renderPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+
+        out.append("# HELP ai_request_duration_seconds AI provider call latency.\n")
+                .append("# TYPE ai_request_duration_seconds histogram\n");
+        for (Map.Entry<CallKey, Histogram> entry : sorted(latency).entrySet()) {
+            CallKey key = entry.getKey();
+            String labels = "endpoint=\"" + escape(key.endpoint()) + "\",provider=\"" + key.provider()
+                    + "\",model=\"" + escape(key.model()) + "\",status=\"" + key.status() + "\"";
+            entry.getValue().render(out, "ai_request_duration_seconds", labels);
+        }
+
+        out.append("# HELP ai_model_fallback_total Calls served by the fallback model.\n")
+                .append("# TYPE ai_model_fallback_total counter\n");
+        for (Map.Entry<FallbackKey, LongAdder> entry : sorted(fallbacks).entrySet()) {
+            FallbackKey key = entry.getKey();
+            sample(out, "ai_model_fallback_total", "endpoint=\"" + escape(key.endpoint()) + "\",primary_model=\""
+                    + escape(key.primaryModel()) + "\",model=\"" + escape(key.model()) + "\"", entry.getValue().sum());
+        }
+
+        out.append("# HELP ai_rate_limited_total Provider responses with HTTP 429.\n")
+                .append("# TYPE ai_rate_limited_total counter\n");
+        for (Map.Entry<ModelKey, LongAdder> entry : sorted(rateLimited).entrySet()) {
+            sample(out, "ai_rate_limited_total", entry.getKey().labels(), entry.getValue().sum());
+        }
+
+        out.append("# HELP ai_tokens_total Tokens reported by the provider.\n")
+                .append("# TYPE ai_tokens_total counter\n");
+        for (Map.Entry<ModelKey, TokenCounters> entry : sorted(tokens).entrySet()) {
+            String labels = entry.getKey().labels();
+            TokenCounters counters = entry.getValue();
+            sample(out, "ai_tokens_total", labels + ",type=\"input\"", counters.input.sum());
+            sample(out, "ai_tokens_total", labels + ",type=\"cached_input\"", counters.cachedInput.sum());
+            sample(out, "ai_tokens_total", labels + ",type=\"output\"", counters.output.sum());
+        }
+
+        out.append("# HELP ai_estimated_cost_usd_total Estimated provider cost from configured prices.\n")
+                .append("# TYPE ai_estimated_cost_usd_total counter\n");
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(costMicroUsdByTier).entrySet()) {
+            out.append("ai_estimated_cost_usd_total{tier=\"").append(escape(entry.getKey())).append("\"} ")
+                    .append(String.format(Locale.US, "%.6f", entry.getValue().sum() / 1_000_000.0)).append('\n');
+        }
+
+        out.append("# HELP ai_unpriced_calls_total Calls whose model has no configured price.\n")
+                .append("# TYPE ai_unpriced_calls_total counter\n");
+        sample(out, "ai_unpriced_calls_total", null, unpricedCalls.sum());
+        return out.toString();
+    }
+
+    /** Test hook: drops all in-memory series and buffered usage. */
+    public void reset() {
+        latency.clear();
+        fallbacks.clear();
+        rateLimited.clear();
+        tokens.clear();
+        costMicroUsdByTier.clear();
+        unpricedCalls.reset();
+        pendingUsage.clear();
+    }
+
+    /** Stable series order so consecutive scrapes diff cleanly. */
+    private static <K, V> Map<K, V> sorted(Map<K, V> map) {
+        Map<K, V> sorted = new TreeMap<>(Comparator.comparing(Object::toString));
+        sorted.putAll(map);
+        return sorted;
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    // ─── Series keys and counters ────────────────────────────────
+
+    private record CallKey(String endpoint, String provider, String model, String status) {
+    }
+
+    private record FallbackKey(String endpoint, String primaryModel, String model) {
+    }
+
+    private record ModelKey(String provider, String model) {
+        String labels() {
+            return "provider=\"" + provider + "\",model=\"" + escape(model) + "\"";
+        }
+    }
+
+    private record UsageKey(Long userId, LocalDate date) {
+    }
+
+    private static final class Histogram {
+        final LongAdder[] buckets = new LongAdder[LATENCY_BOUNDS_MS.length + 1];
+        final LongAdder sumMs = new LongAdder();
+        final LongAdder count = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void observe(long latencyMs) {
+            int index = 0;
+            while (index < LATENCY_BOUNDS_MS.length && latencyMs > LATENCY_BOUNDS_MS[index]) {
+                index++;
+            }
+            buckets[index].increment();
+            sumMs.add(latencyMs);
+            count.increment();
+        }
+
+        void render(StringBuilder out, String name, String labels) {
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i].sum();
+                String le = i < LATENCY_BOUNDS_MS.length
+                        ? String.format(Locale.US, "%.3f", LATENCY_BOUNDS_MS[i] / 1000.0)
+                        : "+Inf";
+                out.append(name).append("_bucket{").append(labels).append(",le=\"").append(le).append("\"} ")
+                        .append(cumulative).append('\n');
+            }
+            out.append(name).append("_sum{").append(labels).append("} ")
+                    .append(String.format(Locale.US, "%.3f", sumMs.sum() / 1000.0)).append('\n');
+            out.append(name).append("_count{").append(labels).append("} ").append(count.sum()).append('\n');
+        }
+    }
+
+    private static final class TokenCounters {
+        final LongAdder input = new LongAdder();
+        final LongAdder cachedInput = new LongAdder();
+        final LongAdder output = new LongAdder();
+
+        void add(TokenUsage usage) {
+            input.add(usage.inputTokens());
+            cachedInput.add(usage.cachedInputTokens());
+            output.add(usage.outputTokens());
+        }
+    }
+
+    /** Only mutated inside {@code ConcurrentHashMap.compute}/{@code merge} for its key. */
+    private static final class UsageDelta {
+        int requests;
+        long inputTokens;
+        long cachedInputTokens;
+        long outputTokens;
+        long costMicroUsd;
+
+        void add(TokenUsage usage, long cost) {
+            requests++;
+            inputTokens += usage.inputTokens();
+            cachedInputTokens += usage.cachedInputTokens();
+            outputTokens += usage.outputTokens();
+            costMicroUsd += cost;
+        }
+
+        UsageDelta plus(UsageDelta other) {
+            requests += other.requests;
+            inputTokens += other.inputTokens;
+            cachedInputTokens += other.cachedInputTokens;
+            outputTokens += other.outputTokens;
+            costMicroUsd += other.costMicroUsd;
+            return this;
+        }
+    }
+}
@@ -13,16 +13,10 @@ import com.fitness.dto.ProfileUpdateRequest;
 import com.fitness.dto.RegisterRequest;
 import com.fitness.dto.UserResponse;
 import com.fitness.dto.WeightRecordRequest;
-import com.fitness.entity.AiInsight;
-import com.fitness.entity.AiRateLimit;
-import com.fitness.entity.AiUserPreference;
-import com.fitness.entity.Meal;
-import com.fitness.entity.Notification;
+import com.fitness.entity.AccountDeletion;
+import com.fitness.entity.MailOutbox;
 import com.fitness.entity.PasswordResetToken;
 import com.fitness.entity.User;
-import com.fitness.entity.WeightRecord;
-import com.fitness.entity.Workout;
-import com.fitness.repository.BodyMeasurementRepository;
 import com.fitness.repository.UserRepository;
 import com.fitness.dto.ForgotPasswordRequest;
 import com.fitness.dto.VerifyResetCodeRequest;
@@ -30,13 +24,11 @@ import com.fitness.dto.ResetPasswordRequest;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import io.quarkus.mailer.Mail;
-import io.quarkus.mailer.Mailer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
-import org.mindrot.jbcrypt.BCrypt;
 import java.security.SecureRandom;
 
 @ApplicationScoped
@@ -52,10 +44,19 @@ public class AuthService {
     TrackingService trackingService;
 
     @Inject
-    BodyMeasurementRepository bodyMeasurementRepository;
+    AccountDeletionService accountDeletionService;
 
     @Inject
-    Mailer mailer;
+    CoachContextCache coachContextCache;
+
+    @Inject
+    MealSearchIndex mealSearchIndex;
+
+    @Inject
+    MailOutboxWorker mailOutbox;
+
+    @Inject
+    PasswordHasher passwordHasher;
 
     @Inject
     @ConfigProperty(name = "smallrye.jwt.sign.key")
@@ -65,28 +66,36 @@ public class AuthService {
      * Kullanıcı kaydı - şifre BCrypt ile hash'lenir, cevap JWT döner.
      * Email küçük harfe normalize edilir; istemci tarafındaki hesap ayırımı
      * (suffix) ile uyumlu olur.
+     * Hash transaction dışında, PasswordHasher havuzunda hesaplanır; DB
+     * bağlantısı yalnızca kısa insert süresince tutulur.
      */
-    @Transactional
     public AuthResponse register(RegisterRequest request) {
         String emailNorm = request.email == null ? null : request.email.trim().toLowerCase();
         if (emailNorm == null || emailNorm.isBlank()) {
             throw new RuntimeException("Email gerekli!");
         }
-        User existingUser = userRepository.findByEmail(emailNorm);
-        if (existingUser != null) {
+        if (userRepository.findByEmail(emailNorm) != null) {
             throw new RuntimeException("Bu email zaten kullanılıyor!");
         }
 
-        User user = new User();
-        user.email = emailNorm;
-        user.password = BCrypt.hashpw(request.password, BCrypt.gensalt());
-        user.name = request.name != null ? request.name.trim() : "";
+        String hashed = passwordHasher.hash(request.password);
 
-        userRepository.persist(user);
+        return QuarkusTransaction.requiringNew().call(() -> {
+            // Hash beklenirken aynı email ile kayıt tamamlanmış olabilir
+            if (userRepository.findByEmail(emailNorm) != null) {
+                throw new RuntimeException("Bu email zaten kullanılıyor!");
+            }
+            User user = new User();
+            user.email = emailNorm;
+            user.password = hashed;
+            user.name = request.name != null ? request.name.trim() : "";
 
-        String token = buildJwt(user);
-        UserResponse userResponse = toUserResponse(user);
-        return new AuthResponse(token, userResponse);
+            userRepository.persist(user);
+
+            String token = buildJwt(user);
+            UserResponse userResponse = toUserResponse(user);
+            return new AuthResponse(token, userResponse);
+        });
     }
 
     /**
@@ -96,8 +105,9 @@ public class AuthService {
      * yükseltilir.
      * Email büyük/küçük harf duyarsız aranır; dönen user her zaman giriş yapan
      * hesaba aittir (istemci hesap başına profil için buna güvenir).
+     * Saklı hash'in cost'u güncel cost'tan farklıysa şifre arka planda
+     * yeniden hash'lenir; giriş bunu beklemez.
      */
-    @Transactional
     public AuthResponse login(LoginRequest request) {
         if (request.email == null || request.email.isBlank()) {
             throw new RuntimeException("Email gerekli!");
@@ -108,23 +118,23 @@ public class AuthService {
         }
 
         // Yalnızca BCrypt hash'lenmiş şifreler kabul edilir
-        if (!isBcryptHash(user.password) || !BCrypt.checkpw(request.password, user.password)) {
+        if (!passwordHasher.verify(request.password, user.password)) {
             throw new RuntimeException("Email veya şifre hatalı!");
         }
+        if (passwordHasher.needsRehash(user.password)) {
+            Long userId = user.id;
+            String previous = user.password;
+            passwordHasher.rehashAsync(request.password, rehashed -> QuarkusTransaction.requiringNew().run(() ->
+                    // Arada şifre değiştiyse yeni şifrenin üzerine yazma
+                    userRepository.update("password = ?1 where id = ?2 and password = ?3",
+                            rehashed, userId, previous)));
+        }
 
         String token = buildJwt(user);
         UserResponse userResponse = toUserResponse(user);
         return new AuthResponse(token, userResponse);
     }
 
-    /** BCrypt hash "$2a$", "$2b$", "$2y$" ile başlar. */
-    private static boolean isBcryptHash(String stored) {
-        return stored != null && stored.length() >= 4
-                && stored.startsWith("$2")
-                && (stored.charAt(2) == 'a' || stored.charAt(2) == 'b' || stored.charAt(2) == 'y')
-                && stored.charAt(3) == '$';
-    }
-
     private String buildJwt(User user) {
         if (jwtSignKey == null || jwtSignKey.isBlank()) {
             throw new IllegalStateException("JWT_SECRET_KEY ortam değişkeni ayarlanmamış!");
@@ -222,10 +232,10 @@ public class AuthService {
         if (request.gender != null)
             user.gender = request.gender.trim();
         userRepository.persist(user);
+        coachContextCache.invalidate(userId);
         return toUserResponse(user);
     }
 
-    @Transactional
     public void changePassword(Long userId, ChangePasswordRequest request) {
         User user = userRepository.findById(userId);
         if (user == null) {
@@ -245,35 +255,34 @@ public class AuthService {
             throw new RuntimeException("Yeni sifre en az 8 karakter olmali!");
         }
 
-        if (!isBcryptHash(user.password) || !BCrypt.checkpw(current, user.password)) {
+        if (!passwordHasher.verify(current, user.password)) {
             throw new RuntimeException("Mevcut sifre hatali!");
         }
         if (current.equals(next)) {
             throw new RuntimeException("Yeni sifre mevcut sifre ile ayni olamaz!");
         }
 
-        user.password = BCrypt.hashpw(next, BCrypt.gensalt());
-        userRepository.persist(user);
+        String hashed = passwordHasher.hash(next);
+        QuarkusTransaction.requiringNew().run(() -> {
+            User managed = userRepository.findById(userId);
+            if (managed == null) {
+                throw new RuntimeException("Kullanici bulunamadi!");
+            }
+            managed.password = hashed;
+        });
     }
 
-    @Transactional
-    public void deleteAccount(Long userId) {
-        User user = userRepository.findById(userId);
-        if (user == null) {
-            throw new RuntimeException("Kullanici bulunamadi!");
-        }
-
-        PasswordResetToken.delete("user.id", userId);
-        Notification.delete("user.id", userId);
-        AiInsight.delete("user.id", userId);
-        AiRateLimit.delete("userId", userId);
-        AiUserPreference.delete("userId", userId);
-        bodyMeasurementRepository.delete("userId", userId);
-        WeightRecord.delete("user.id", userId);
-        Meal.delete("user.id", userId);
-        Workout.delete("user.id", userId);
-
-        userRepository.delete(user);
+    /**
+     * Hesabı ve ilişkili tüm verileri siler. Küçük hesaplar tek kısa
+     * transaction'da (FK cascade) silinir; büyük hesaplar ya da
+     * {@code async} istenirse arka planda parça parça silinir.
+     *
+     * @return arka plan işi; hesap hemen silindiyse null
+     */
+    public AccountDeletion deleteAccount(Long userId, boolean async) {
+        AccountDeletion deletion = accountDeletionService.deleteOrSchedule(userId, async);
+        mealSearchIndex.evict(userId);
+        return deletion;
     }
 
     public Long getUserIdFromToken(String authorizationHeader) {
@@ -309,45 +318,46 @@ public class AuthService {
     }
 
     /**
-     * Şifre Sıfırlama İsteği: 6 haneli kod oluşturur, veritabanına yazar ve mail atar.
+     * Şifre Sıfırlama İsteği: 6 haneli kod oluşturur, veritabanına yazar ve
+     * e-postayı mail outbox'ına ekler. Token ve e-posta aynı transaction'da
+     * commit edilir; SMTP gönderimi MailOutboxWorker'da yapılır, istek beklemez.
      */
-    @Transactional
     public void forgotPassword(ForgotPasswordRequest request) {
         String emailNorm = request.email == null ? null : request.email.trim().toLowerCase();
-        User user = userRepository.findByEmail(emailNorm);
-        if (user == null) {
-            // Güvenlik: Email enumeration saldırılarına karşı koruma.
-            // Kayıtlı olmayan email'ler için de aynı başarı mesajı döner.
-            return;
-        }
-
-        // Önceki tokenları sil
-        PasswordResetToken.delete("user.id", user.id);
-
-        // 6 Haneli yeni kod üret
-        String code = generatePinCode();
-
-        // 15 dakika geçerli olacak token'ı oluştur
-        PasswordResetToken token = new PasswordResetToken(code, user, 15);
-        token.persist();
-
-        // Email Gönder
-        String htmlBody = "<h2>Fitness Tracker</h2>"
-                + "<p>Şifre sıfırlama talebinde bulundunuz.</p>"
-                + "<p>Doğrulama kodunuz: <b style='font-size:24px; color:#CC7A4A;'>" + code + "</b></p>"
-                + "<p>Kodunuz 15 dakika boyunca geçerlidir.</p>";
-
-        try {
-            mailer.send(Mail.withHtml(user.email, "Şifre Sıfırlama Kodu", htmlBody));
-        } catch (Exception e) {
-            System.err.println("=== MAIL GONDERIM HATASI ===");
-            e.printStackTrace();
-            System.err.println("============================");
-            if (isSmtpFailure(e)) {
-                throw new RuntimeException(
-                        "Sifre sifirlama e-postasi gonderilemedi. Mail sunucusu ayarlarini kontrol edin (MAIL_USERNAME / MAIL_PASSWORD / MAIL_FROM).");
+        boolean queued = QuarkusTransaction.requiringNew().call(() -> {
+            User user = userRepository.findByEmail(emailNorm);
+            if (user == null) {
+                // Güvenlik: Email enumeration saldırılarına karşı koruma.
+                // Kayıtlı olmayan email'ler için de aynı başarı mesajı döner.
+                return false;
+            }
+            if (AccountDeletionService.DELETING_PASSWORD.equals(user.password)) {
+                // Hesap silinmekte: şifre sıfırlamayla giriş yeniden açılmaz
+                return false;
             }
-            throw new RuntimeException("Sifre sifirlama e-postasi gonderilemedi. Lutfen daha sonra tekrar deneyin.");
+
+            // Önceki tokenları ve eski kodu taşıyan, henüz gönderilmemiş e-postayı sil
+            PasswordResetToken.delete("user.id", user.id);
+            MailOutbox.delete("userId = ?1 and kind = ?2 and status = ?3",
+                    user.id, MailOutbox.KIND_PASSWORD_RESET, MailOutbox.STATUS_PENDING);
+
+            // 6 Haneli yeni kod üret
+            String code = generatePinCode();
+
+            // 15 dakika geçerli olacak token'ı oluştur
+            PasswordResetToken token = new PasswordResetToken(code, user, 15);
+            token.persist();
+
+            String htmlBody = "<h2>Fitness Tracker</h2>"
+                    + "<p>Şifre sıfırlama talebinde bulundunuz.</p>"
+                    + "<p>Doğrulama kodunuz: <b style='font-size:24px; color:#CC7A4A;'>" + code + "</b></p>"
+                    + "<p>Kodunuz 15 dakika boyunca geçerlidir.</p>";
+            mailOutbox.enqueue(user.id, MailOutbox.KIND_PASSWORD_RESET, user.email,
+                    "Şifre Sıfırlama Kodu", htmlBody, token.expiryDate);
+            return true;
+        });
+        if (queued) {
+            mailOutbox.kick();
         }
     }
 
@@ -375,7 +385,6 @@ public class AuthService {
     /**
      * Şifreyi Sıfırla: Kodu tekrar doğrular ve yeni şifreyi BCrypt ile günceller.
      */
-    @Transactional
     public void resetPassword(ResetPasswordRequest request) {
         String emailNorm = request.email == null ? null : request.email.trim().toLowerCase();
         User user = userRepository.findByEmail(emailNorm);
@@ -396,12 +405,18 @@ public class AuthService {
              throw new RuntimeException("Şifre en az 8 karakter olmalıdır.");
         }
 
-        // Yeni şifreyi kaydet
-        user.password = BCrypt.hashpw(request.newPassword, BCrypt.gensalt());
-        userRepository.persist(user);
-
-        // Kodu sil (tek kullanımlık)
-        token.delete();
+        String hashed = passwordHasher.hash(request.newPassword);
+        Long userId = user.id;
+        String code = request.code;
+        QuarkusTransaction.requiringNew().run(() -> {
+            // Kodu sil (tek kullanımlık); hash beklenirken başka istek kullanmış olabilir
+            if (PasswordResetToken.delete("token = ?1 and user.id = ?2", code, userId) == 0) {
+                throw new RuntimeException("Geçersiz veya hatalı doğrulama kodu.");
+            }
+            // Yeni şifreyi kaydet
+            User managed = userRepository.findById(userId);
+            managed.password = hashed;
+        });
     }
 
     private String generatePinCode() {
@@ -409,24 +424,4 @@ public class AuthService {
         int num = random.nextInt(1000000); // 0 ile 999999
         return String.format("%06d", num);
     }
-
-    private boolean isSmtpFailure(Throwable error) {
-        Throwable current = error;
-        while (current != null) {
-            String className = current.getClass().getName();
-            String message = current.getMessage();
-            String lowerMessage = message != null ? message.toLowerCase() : "";
-
-            if (className.contains("SMTPException")
-                    || lowerMessage.contains("smtp")
-                    || lowerMessage.contains("auth plain failed")
-                    || lowerMessage.contains("badcredentials")
-                    || lowerMessage.contains("username and password not accepted")
-                    || lowerMessage.contains("gsmtp")) {
-                return true;
-            }
-            current = current.getCause();
-        }
-        return false;
-    }
 }
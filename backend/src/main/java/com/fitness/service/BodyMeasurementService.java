@@ -16,6 +16,9 @@ public class BodyMeasurementService {
     @Inject
     BodyMeasurementRepository repository;
 
+    @Inject
+    CoachContextCache coachContextCache;
+
     @Transactional
     public BodyMeasurementResponse createMeasurement(Long userId, BodyMeasurementRequest request) {
         if (request == null || request.date == null) {
@@ -40,6 +43,7 @@ public class BodyMeasurementService {
         entity.setRightLeg(request.rightLeg);
 
         repository.persist(entity);
+        coachContextCache.invalidate(userId);
         return toResponse(entity);
     }
 
@@ -92,6 +96,7 @@ public class BodyMeasurementService {
             entity.setRightLeg(request.rightLeg);
 
         validateHasAtLeastOneMeasurement(entity);
+        coachContextCache.invalidate(userId);
         return toResponse(entity);
     }
 
@@ -102,6 +107,7 @@ public class BodyMeasurementService {
             throw new RuntimeException("Ölçüm bulunamadı veya yetkiniz yok.");
         }
         repository.delete(entity);
+        coachContextCache.invalidate(userId);
     }
 
     private BodyMeasurementResponse toResponse(BodyMeasurement entity) {
@@ -7,6 +7,10 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.Base64;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
@@ -30,10 +34,14 @@ public class ClaudeClient {
     private static final String MISSING_KEY_SENTINEL = "__MISSING__";
     private static final String API_URL = "https://api.anthropic.com/v1/messages";
     private static final String API_VERSION = "2023-06-01";
+    private static final String JSON_ONLY_INSTRUCTION = "You MUST respond with valid JSON only. No markdown, no explanation, just JSON.";
 
     @Inject
     ObjectMapper objectMapper;
 
+    @Inject
+    Tracing tracing;
+
     @ConfigProperty(name = "claude.api.key", defaultValue = MISSING_KEY_SENTINEL)
     String claudeApiKey;
 
@@ -71,19 +79,45 @@ public class ClaudeClient {
             Long userId,
             String prompt,
             boolean expectJson) {
+        return generateText(endpointName, userId, PromptParts.of(prompt), expectJson);
+    }
+
+    /**
+     * Prompt with a static prefix: the prefix goes into {@code system}, the
+     * suffix is the user message.
+     */
+    public GeminiClientResult generateText(
+            String endpointName,
+            Long userId,
+            PromptParts prompt,
+            boolean expectJson) {
+        return generateText(endpointName, userId, prompt, expectJson, null);
+    }
+
+    /**
+     * With a {@code schema} the answer is forced through a single tool whose
+     * {@code input_schema} is the DTO schema; the tool input is returned as the output text.
+     */
+    public GeminiClientResult generateText(
+            String endpointName,
+            Long userId,
+            PromptParts prompt,
+            boolean expectJson,
+            OutputSchema schema) {
 
         long startTime = System.currentTimeMillis();
-        int promptLength = prompt != null ? prompt.length() : 0;
+        int promptLength = prompt.length();
 
         try {
-            String responseText = callClaude(prompt, null, null, expectJson);
+            ClaudeReply reply = callClaude(prompt, null, null, expectJson, schema);
             long latencyMs = System.currentTimeMillis() - startTime;
 
-            LOG.infof("endpoint=%s status=ok userId=%s promptLength=%d latencyMs=%d modelUsed=%s provider=claude",
-                    endpointName, userId, promptLength, latencyMs, defaultModel);
+            LOG.infof("endpoint=%s status=ok userId=%s promptLength=%d latencyMs=%d modelUsed=%s provider=claude %s",
+                    endpointName, userId, promptLength, latencyMs, defaultModel, reply.usage().logFields());
 
             return GeminiClientResult.builder()
-                    .success("claude:" + defaultModel, responseText, latencyMs)
+                    .success("claude:" + defaultModel, reply.text(), latencyMs)
+                    .usage(reply.usage())
                     .build();
 
         } catch (Exception e) {
@@ -100,6 +134,67 @@ public class ClaudeClient {
         }
     }
 
+    /**
+     * Streaming variant of {@link #generateText} using the Messages API with
+     * {@code stream: true}. Each text delta is passed to {@code onDelta} as it arrives.
+     */
+    public GeminiClientResult streamText(
+            String endpointName,
+            Long userId,
+            String prompt,
+            boolean expectJson,
+            Consumer<String> onDelta) {
+        return streamText(endpointName, userId, PromptParts.of(prompt), expectJson, onDelta);
+    }
+
+    public GeminiClientResult streamText(
+            String endpointName,
+            Long userId,
+            PromptParts prompt,
+            boolean expectJson,
+            Consumer<String> onDelta) {
+        return streamText(endpointName, userId, prompt, expectJson, null, onDelta);
+    }
+
+    public GeminiClientResult streamText(
+            String endpointName,
+            Long userId,
+            PromptParts prompt,
+            boolean expectJson,
+            OutputSchema schema,
+            Consumer<String> onDelta) {
+
+        long startTime = System.currentTimeMillis();
+        int promptLength = prompt.length();
+        GeminiClient.StreamProgress progress = new GeminiClient.StreamProgress(startTime);
+
+        try {
+            ClaudeReply reply = callClaudeStream(prompt, expectJson, schema, onDelta, progress);
+            long latencyMs = System.currentTimeMillis() - startTime;
+
+            LOG.infof("endpoint=%s status=ok userId=%s promptLength=%d latencyMs=%d firstTokenMs=%d modelUsed=%s provider=claude stream=true %s",
+                    endpointName, userId, promptLength, latencyMs, progress.firstTokenMs, defaultModel,
+                    reply.usage().logFields());
+
+            return GeminiClientResult.builder()
+                    .success("claude:" + defaultModel, reply.text(), latencyMs)
+                    .usage(reply.usage())
+                    .build();
+
+        } catch (Exception e) {
+            long latencyMs = System.currentTimeMillis() - startTime;
+            String errorMsg = e.getMessage();
+            int statusCode = extractStatusCode(e);
+
+            LOG.warnf("endpoint=%s status=error userId=%s latencyMs=%d modelUsed=%s error=%s provider=claude stream=true",
+                    endpointName, userId, latencyMs, defaultModel, errorMsg);
+
+            return GeminiClientResult.builder()
+                    .failure("claude:" + defaultModel, statusCode, errorMsg, latencyMs)
+                    .build();
+        }
+    }
+
     /**
      * Generate content with image using Claude Vision.
      */
@@ -110,20 +205,32 @@ public class ClaudeClient {
             byte[] imageBytes,
             String mimeType,
             boolean expectJson) {
+        return generateWithImage(endpointName, userId, prompt, imageBytes, mimeType, expectJson, null);
+    }
+
+    public GeminiClientResult generateWithImage(
+            String endpointName,
+            Long userId,
+            String prompt,
+            byte[] imageBytes,
+            String mimeType,
+            boolean expectJson,
+            OutputSchema schema) {
 
         long startTime = System.currentTimeMillis();
         int promptLength = prompt != null ? prompt.length() : 0;
 
         try {
-            String responseText = callClaude(prompt, imageBytes, mimeType, expectJson);
+            ClaudeReply reply = callClaude(PromptParts.of(prompt), imageBytes, mimeType, expectJson, schema);
             long latencyMs = System.currentTimeMillis() - startTime;
 
             LOG.infof(
-                    "endpoint=%s status=ok userId=%s promptLength=%d latencyMs=%d modelUsed=%s provider=claude_vision",
-                    endpointName, userId, promptLength, latencyMs, defaultModel);
+                    "endpoint=%s status=ok userId=%s promptLength=%d latencyMs=%d modelUsed=%s provider=claude_vision %s",
+                    endpointName, userId, promptLength, latencyMs, defaultModel, reply.usage().logFields());
 
             return GeminiClientResult.builder()
-                    .success("claude:" + defaultModel, responseText, latencyMs)
+                    .success("claude:" + defaultModel, reply.text(), latencyMs)
+                    .usage(reply.usage())
                     .build();
 
         } catch (Exception e) {
@@ -140,33 +247,112 @@ public class ClaudeClient {
         }
     }
 
-    /**
-     * Extract JSON block from raw response text.
-     */
-    public String extractJsonFromResponse(String rawResponse) {
-        if (rawResponse == null)
-            return "{}";
-        String trimmed = rawResponse.trim();
-        int firstBrace = trimmed.indexOf('{');
-        int lastBrace = trimmed.lastIndexOf('}');
-        if (firstBrace >= 0 && lastBrace > firstBrace) {
-            return trimmed.substring(firstBrace, lastBrace + 1);
+    // ─── Private helpers ─────────────────────────────────────────
+
+    private ClaudeReply callClaude(PromptParts prompt, byte[] imageBytes, String mimeType, boolean expectJson,
+            OutputSchema schema) throws IOException, InterruptedException {
+
+        ObjectNode payload = buildPayload(prompt, imageBytes, mimeType, expectJson, schema);
+        HttpResponse<String> response = tracing.send(httpClient, buildRequest(payload),
+                HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new ClaudeApiException(response.statusCode(), response.body());
         }
-        return trimmed;
+
+        JsonNode root = objectMapper.readTree(response.body());
+        return new ClaudeReply(extractTextFromResponse(root), TokenUsage.fromClaude(root.path("usage")));
     }
 
-    // ─── Private helpers ─────────────────────────────────────────
+    /**
+     * Reads the Messages API event stream; output arrives as text_delta events,
+     * or as input_json_delta events when a schema forces the answer through a tool.
+     */
+    private ClaudeReply callClaudeStream(PromptParts prompt, boolean expectJson, OutputSchema schema,
+            Consumer<String> onDelta, GeminiClient.StreamProgress progress) throws IOException, InterruptedException {
 
-    private String callClaude(String prompt, byte[] imageBytes, String mimeType, boolean expectJson)
-            throws IOException, InterruptedException {
+        ObjectNode payload = buildPayload(prompt, null, null, expectJson, schema);
+        payload.put("stream", true);
+        HttpResponse<Stream<String>> response = tracing.send(httpClient, buildRequest(payload),
+                HttpResponse.BodyHandlers.ofLines());
 
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new ClaudeApiException(response.statusCode(), lines.collect(Collectors.joining("\n")));
+            }
+
+            StringBuilder output = new StringBuilder();
+            TokenUsage usage = TokenUsage.UNKNOWN;
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                JsonNode event = objectMapper.readTree(line.substring(5).trim());
+                String type = event.path("type").asText();
+                if ("error".equals(type)) {
+                    // overloaded_error vb. stream ortasında gelir; 5xx gibi ele al
+                    throw new ClaudeApiException(502, event.path("error").toString());
+                }
+                if ("message_stop".equals(type)) {
+                    break;
+                }
+                // Girdi (önbellek dahil) message_start'ta, çıktı sayısı message_delta'da gelir
+                if ("message_start".equals(type)) {
+                    usage = usage.merge(TokenUsage.fromClaude(event.path("message").path("usage")));
+                } else if ("message_delta".equals(type)) {
+                    usage = usage.merge(TokenUsage.fromClaude(event.path("usage")));
+                }
+                if ("content_block_delta".equals(type)) {
+                    JsonNode delta = event.path("delta");
+                    String deltaType = delta.path("type").asText();
+                    String text = "text_delta".equals(deltaType) ? delta.path("text").asText("")
+                            : "input_json_delta".equals(deltaType) ? delta.path("partial_json").asText("") : "";
+                    if (!text.isEmpty()) {
+                        progress.markEmitted();
+                        output.append(text);
+                        onDelta.accept(text);
+                    }
+                }
+            }
+
+            String result = output.toString().trim();
+            if (result.isEmpty()) {
+                throw new IOException("Claude returned empty content");
+            }
+            return new ClaudeReply(result, usage);
+        }
+    }
+
+    private ObjectNode buildPayload(PromptParts prompt, byte[] imageBytes, String mimeType, boolean expectJson,
+            OutputSchema schema) {
         ObjectNode payload = objectMapper.createObjectNode();
         payload.put("model", defaultModel);
         payload.put("max_tokens", 4096);
 
-        // System prompt for JSON mode
-        if (expectJson) {
-            payload.put("system", "You MUST respond with valid JSON only. No markdown, no explanation, just JSON.");
+        if (schema != null) {
+            // Tek araç + zorunlu tool_choice: model yanıtı şemaya uyan araç girdisi olarak verir
+            ArrayNode tools = payload.putArray("tools");
+            tools.addObject()
+                    .put("name", schema.name())
+                    .put("description", "Return the final answer in this structure.")
+                    .set("input_schema", schema.jsonSchema());
+            payload.putObject("tool_choice").put("type", "tool").put("name", schema.name());
+        }
+        // Şema varsa araç zaten JSON zorunlu kılar; ayrı talimata gerek yok
+        boolean jsonInstruction = expectJson && schema == null;
+
+        // System prompt: JSON talimatı + sabit önek
+        if (jsonInstruction || prompt.hasStaticPrefix()) {
+            ArrayNode system = objectMapper.createArrayNode();
+            if (jsonInstruction) {
+                system.addObject().put("type", "text").put("text", JSON_ONLY_INSTRUCTION);
+            }
+            if (prompt.hasStaticPrefix()) {
+                system.addObject().put("type", "text").put("text", prompt.staticPrefix());
+            }
+            payload.set("system", system);
         }
 
         // Build messages array
@@ -189,19 +375,22 @@ public class ClaudeClient {
 
             ObjectNode textBlock = objectMapper.createObjectNode();
             textBlock.put("type", "text");
-            textBlock.put("text", prompt);
+            textBlock.put("text", prompt.dynamicSuffix());
             contentBlocks.add(textBlock);
 
             userMessage.set("content", contentBlocks);
         } else {
             // Text only
-            userMessage.put("content", prompt);
+            userMessage.put("content", prompt.dynamicSuffix());
         }
 
         messages.add(userMessage);
         payload.set("messages", messages);
+        return payload;
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
+    private HttpRequest buildRequest(ObjectNode payload) throws IOException {
+        return HttpRequest.newBuilder()
                 .uri(URI.create(API_URL))
                 .timeout(Duration.ofMillis(timeoutMs))
                 .header("Content-Type", "application/json")
@@ -209,25 +398,19 @@ public class ClaudeClient {
                 .header("anthropic-version", API_VERSION)
                 .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(payload)))
                 .build();
-
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-        if (response.statusCode() < 200 || response.statusCode() >= 300) {
-            throw new ClaudeApiException(response.statusCode(), response.body());
-        }
-
-        return extractTextFromResponse(response.body());
     }
 
-    private String extractTextFromResponse(String responseBody) throws IOException {
-        JsonNode root = objectMapper.readTree(responseBody);
+    private String extractTextFromResponse(JsonNode root) throws IOException {
         JsonNode content = root.path("content");
 
         if (content.isArray() && !content.isEmpty()) {
             StringBuilder sb = new StringBuilder();
             for (JsonNode block : content) {
-                if ("text".equals(block.path("type").asText())) {
+                String type = block.path("type").asText();
+                if ("text".equals(type)) {
                     sb.append(block.path("text").asText());
+                } else if ("tool_use".equals(type)) {
+                    return objectMapper.writeValueAsString(block.path("input"));
                 }
             }
             String result = sb.toString().trim();
@@ -250,6 +433,9 @@ public class ClaudeClient {
         return 500;
     }
 
+    private record ClaudeReply(String text, TokenUsage usage) {
+    }
+
     private static class ClaudeApiException extends RuntimeException {
         private final int statusCode;
 
@@ -0,0 +1,252 @@
+package com.fitness.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Per-user cache of the DB-derived part of the coach prompt context
+ * (profile snapshot, progress snapshot, recent insights).
+ * <p>
+ * Bounded by entry count and by an approximate byte weight; the least recently
+ * used entries are evicted first. Writers call {@link #invalidate(Long)} from
+ * inside their transaction: the entry is dropped immediately and once more after
+ * commit, and a load that overlapped an invalidation of the same user is not
+ * stored, so a reader never re-populates the cache with rows that were about to
+ * change. Generations are tracked only for users with a load in flight, so
+ * other users' writes never discard a load and the map stays small.
+ * The TTL is only a safety net for writes that bypass the services.
+ */
+@ApplicationScoped
+public class CoachContextCache {
+
+    /** Cached form of one insight; only the fields the prompt uses. */
+    public record InsightLine(String type, LocalDateTime createdAt, String summary) {
+    }
+
+    /** Everything the coach context needs from the database for one user. */
+    public record Snapshot(
+            String profileSnapshot,
+            String progressSnapshot,
+            Double weight,
+            Double targetWeight,
+            List<InsightLine> insights) {
+
+        long weightBytes() {
+            long chars = length(profileSnapshot) + length(progressSnapshot);
+            for (InsightLine insight : insights) {
+                chars += length(insight.type()) + length(insight.summary()) + 32;
+            }
+            // UTF-16 karakter + nesne başlıkları için kaba pay
+            return chars * 2 + 256;
+        }
+
+        private static long length(String value) {
+            return value == null ? 0 : value.length();
+        }
+    }
+
+    private record Entry(Snapshot snapshot, long weightBytes, long loadedAtNanos) {
+    }
+
+    /** Bir kullanıcı için süren yüklemeler; yükleme sırasında gelen invalidation generation'ı artırır. */
+    private static final class InFlight {
+        int loaders;
+        long generation;
+    }
+
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Long, InFlight> inFlight = new HashMap<>();
+    /** clear() tüm süren yüklemeleri geçersiz kılar. */
+    private long epoch;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private long totalWeightBytes;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionRegistry;
+
+    @ConfigProperty(name = "ai.coach.context-cache.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "ai.coach.context-cache.max-entries", defaultValue = "10000")
+    int maxEntries;
+
+    @ConfigProperty(name = "ai.coach.context-cache.max-bytes", defaultValue = "16777216")
+    long maxBytes;
+
+    @ConfigProperty(name = "ai.coach.context-cache.ttl", defaultValue = "10m")
+    Duration ttl;
+
+    /**
+     * Returns the cached snapshot or loads it with {@code loader}.
+     * The loader runs outside the lock; concurrent misses for the same user may both load.
+     */
+    public Snapshot get(long userId, LongFunction<Snapshot> loader) {
+        if (!enabled) {
+            return loader.apply(userId);
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            Entry entry = entries.get(userId);
+            if (entry != null && now - entry.loadedAtNanos() < ttl.toNanos()) {
+                hits.incrementAndGet();
+                return entry.snapshot();
+            }
+            if (entry != null) {
+                remove(userId);
+            }
+        }
+        misses.incrementAndGet();
+
+        InFlight load;
+        long startGeneration;
+        long startEpoch;
+        synchronized (this) {
+            load = inFlight.computeIfAbsent(userId, id -> new InFlight());
+            load.loaders++;
+            startGeneration = load.generation;
+            startEpoch = epoch;
+        }
+        Snapshot loaded = null;
+        try {
+            loaded = loader.apply(userId);
+        } finally {
+            synchronized (this) {
+                if (loaded != null && load.generation == startGeneration && epoch == startEpoch) {
+                    put(userId, new Entry(loaded, loaded.weightBytes(), now));
+                }
+                if (--load.loaders == 0) {
+                    inFlight.remove(userId);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops the user's entry now and again after the surrounding transaction completes.
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        evict(userId);
+        if (transactionRegistry != null && transactionRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+            transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    public synchronized void clear() {
+        epoch++;
+        entries.clear();
+        totalWeightBytes = 0;
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("size", entries.size());
+            stats.put("weightBytes", totalWeightBytes);
+        }
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    /** Prometheus text for /api/internal/metrics/ai. */
+    public String renderPrometheus() {
+        long size;
+        long weightBytes;
+        synchronized (this) {
+            size = entries.size();
+            weightBytes = totalWeightBytes;
+        }
+        StringBuilder out = new StringBuilder(768);
+        counter(out, "coach_context_cache_hits_total", "Coach context lookups served from the cache.", hits.get());
+        counter(out, "coach_context_cache_misses_total", "Coach context lookups that loaded from the database.",
+                misses.get());
+        counter(out, "coach_context_cache_evictions_total", "Entries evicted by the size or byte bound.",
+                evictions.get());
+        counter(out, "coach_context_cache_invalidations_total", "Entries dropped by write-through invalidation.",
+                invalidations.get());
+        gauge(out, "coach_context_cache_entries", "Cached users.", size);
+        gauge(out, "coach_context_cache_weight_bytes", "Approximate memory held by cached snapshots.", weightBytes);
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        sample(out, name, help, "counter", value);
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, long value) {
+        sample(out, name, help, "gauge", value);
+    }
+
+    private static void sample(StringBuilder out, String name, String help, String type, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(' ').append(type).append('\n')
+                .append(name).append(' ').append(value).append('\n');
+    }
+
+    private synchronized void evict(Long userId) {
+        InFlight load = inFlight.get(userId);
+        if (load != null) {
+            load.generation++;
+        }
+        invalidations.incrementAndGet();
+        remove(userId);
+    }
+
+    private void put(Long userId, Entry entry) {
+        remove(userId);
+        entries.put(userId, entry);
+        totalWeightBytes += entry.weightBytes();
+
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        while (eldest.hasNext() && (entries.size() > maxEntries || totalWeightBytes > maxBytes)) {
+            Entry evicted = eldest.next().getValue();
+            eldest.remove();
+            totalWeightBytes -= evicted.weightBytes();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(Long userId) {
+        Entry removed = entries.remove(userId);
+        if (removed != null) {
+            totalWeightBytes -= removed.weightBytes();
+        }
+    }
+}
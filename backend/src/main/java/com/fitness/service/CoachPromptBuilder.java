@@ -12,24 +12,9 @@ import jakarta.enterprise.context.ApplicationScoped;
 public class CoachPromptBuilder {
 
     /**
-     * Build a prompt for the AI coach based on the user's request and daily
-     * summary.
-     * 
-     * @param request The AI coach request containing goal, question, and daily
-     *                summary
-     * @return The formatted prompt string to send to Gemini
+     * Sabit bilimsel protokoller; kullanıcıdan bağımsız önekin başı.
      */
-    public String buildPrompt(
-            com.fitness.dto.AiCoachRequest request,
-            java.util.List<com.fitness.entity.AiInsight> insights,
-            CoachPromptContext context) {
-        AiCoachRequest.DailySummaryDto s = request.dailySummary;
-
-        String goal = normalizeGoal(request.goal);
-        String personalityBlock = buildPersonalityBlock(request.personality, request.personalityInstruction);
-        CoachPromptContext safeContext = context == null ? CoachPromptContext.empty() : context;
-
-        String knowledgeBase = """
+    private static final String KNOWLEDGE_BASE = """
             [SCIENTIFIC PROTOCOLS]:
             1. Basal Metabolic Rate (BMR): Calculated via Mifflin-St Jeor.
             2. Caloric Balance: Weight loss requires ~500kcal deficit/day (3500kcal/week for ~0.5kg loss).
@@ -46,115 +31,208 @@ public class CoachPromptBuilder {
             - Step 6: Formulate a direct, encouraging, or scientific response based on personality.
             """;
 
-        return """
-                %s
-
-                ROLE: You are an elite Fitness Coach.
-                %s
-                USER GOAL: %s
-
-                USER PROFILE:
-                %s
-                - Age: %s | Height: %s cm | Gender: %s
-                - Activity Level: %s
-                - TDEE (Total Daily Energy Expenditure): %s kcal
-
-                TODAY'S METRICS:
-                - Steps: %d
-                - Calories: %d / Target: %s kcal
-                - Macros: Protein %sg | Carbs %sg | Fat %sg
-                - Meals today: %s
-                - Water: %.1f L
-                - Sleep: %.1f h
-                - Workouts: %d (Highlights: %s)
-                - Workout Minutes: %d
-                - Current Weight: %s kg | Target: %s kg | BMI: %s
-
-                WEIGHT TREND:
-                - Weekly Change: %s kg
-                - Logging Streak: %s days
-
-                HISTORICAL TRENDS (Last 7 Days Avg):
-                - Avg Steps: %s
-                - Avg Calories: %s
-                - Avg Water: %s
-
-                RECOVERY SNAPSHOT:
-                %s
-
-                PROGRESS SNAPSHOT:
-                %s
-
-                LONG-TERM MEMORY (Past Insights):
-                %s
-
-                DETERMINISTIC COACHING SIGNALS:
-                %s
-
-                USER INPUT: %s
-
-                IF AN IMAGE IS PROVIDED:
-                Analyze food portions, estimate macronutrients (Protein/Carbs/Fat) AND calories.
-                Suggest if this fits their current daily budget.
-
-                RESPONSE REQUIREMENTS:
-                Return only valid JSON with this exact shape:
-                {
-                  "todayFocus": "string (Start with a scientific insight or a personalized observation based on trends)",
-                  "actionItems": ["string (3-5 specific, micro-tasks)"],
-                  "nutritionNote": "string",
-                  "actions": [{"label": "button label", "type": "START_WORKOUT|ADD_WATER|TRACK_WEIGHT", "data": "optional"}],
-                  "isAchievement": boolean
-                }
-
-                Rules:
-                - Be specific. Don't say "eat less", say "Your calorie avg is high, try to stay under 2000 today".
-                - Always use TDEE and macro data when available to give precise targets, not generic advice.
-                - Reference the user's actual meals when giving nutrition feedback.
-                - If weight streak >= 3, acknowledge the consistency. If 0, encourage daily weigh-ins.
-                - If weekly weight change is positive during a cut, reduce calories by ~200kcal. If negative during a bulk, increase by ~200kcal.
-                - If today's water < 7-day avg, emphasize rehydration.
-                - If sleep is below 6 hours, prioritize recovery, walking, mobility, and earlier sleep instead of hard training.
-                - If target calories or body-weight goal are available, align recommendations to that budget and target direction.
-                - If BMI is unusually high or low, keep advice conservative and sustainable rather than extreme.
-                - Mention the user's progress trend when weight or measurements are available.
-                - Keep action items feasible within the next 24 hours.
-                - Use only these action types when relevant: START_WORKOUT, ADD_WATER, TRACK_WEIGHT.
-                """.formatted(
-                        knowledgeBase,
-                        personalityBlock,
-                        goal,
-                        safeContext.profileSnapshot,
-                        nullableInt(s.userAge),
-                        nullableDouble(s.userHeightCm),
-                        s.userGender != null ? s.userGender : "unknown",
-                        s.activityLevel != null ? s.activityLevel : "unknown",
-                        nullableInt(s.tdee),
-                        safeInt(s.steps),
-                        safeInt(s.calories),
-                        nullableInt(s.targetCalories),
-                        nullableInt(s.proteinGrams),
-                        nullableInt(s.carbsGrams),
-                        nullableInt(s.fatGrams),
-                        safeHighlights(s.mealNames),
-                        safeDouble(s.waterLiters),
-                        safeDouble(s.sleepHours),
-                        safeInt(s.workouts),
-                        safeHighlights(s.workoutHighlights),
-                        safeInt(s.workoutMinutes),
-                        nullableDouble(s.currentWeightKg),
-                        nullableDouble(s.targetWeightKg),
-                        nullableDouble(s.bmi),
-                        s.weeklyWeightChangeKg != null ? String.format(java.util.Locale.US, "%+.1f", s.weeklyWeightChangeKg) : "no data",
-                        s.weightStreak != null ? s.weightStreak : "no data",
-                        s.avgStepsLast7Days != null ? s.avgStepsLast7Days : "no data",
-                        s.avgCaloriesLast7Days != null ? s.avgCaloriesLast7Days : "no data",
-                        s.avgWaterLast7Days != null ? s.avgWaterLast7Days : "no data",
-                        safeContext.recoverySnapshot,
-                        safeContext.progressSnapshot,
-                        formatInsights(insights),
-                        safeContext.coachingSignals,
-                        request.question.trim());
+    /**
+     * Kullanıcıdan bağımsız kısım: rol, protokoller ve çıktı sözleşmesi; sistem talimatı
+     * olarak gider ve bütçe kırpmasına girmez. Her çağrıda aynı kalmalı, o yüzden
+     * kullanıcıya özel hiçbir şey buraya girmemeli.
+     */
+    static final String STATIC_PREFIX = KNOWLEDGE_BASE + """
+
+            ROLE: You are an elite Fitness Coach.
+            The user's profile, today's data and question follow after this block.
+
+            IF AN IMAGE IS PROVIDED:
+            Analyze food portions, estimate macronutrients (Protein/Carbs/Fat) AND calories.
+            Suggest if this fits their current daily budget.
+
+            RESPONSE REQUIREMENTS:
+            Return only valid JSON with this exact shape:
+            {
+              "todayFocus": "string (Start with a scientific insight or a personalized observation based on trends)",
+              "actionItems": ["string (3-5 specific, micro-tasks)"],
+              "nutritionNote": "string",
+              "actions": [{"label": "button label", "type": "START_WORKOUT|ADD_WATER|TRACK_WEIGHT", "data": "optional"}],
+              "isAchievement": boolean
+            }
+
+            Rules:
+            - Be specific. Don't say "eat less", say "Your calorie avg is high, try to stay under 2000 today".
+            - Always use TDEE and macro data when available to give precise targets, not generic advice.
+            - Reference the user's actual meals when giving nutrition feedback.
+            - If weight streak >= 3, acknowledge the consistency. If 0, encourage daily weigh-ins.
+            - If weekly weight change is positive during a cut, reduce calories by ~200kcal. If negative during a bulk, increase by ~200kcal.
+            - If today's water < 7-day avg, emphasize rehydration.
+            - If sleep is below 6 hours, prioritize recovery, walking, mobility, and earlier sleep instead of hard training.
+            - If target calories or body-weight goal are available, align recommendations to that budget and target direction.
+            - If BMI is unusually high or low, keep advice conservative and sustainable rather than extreme.
+            - Mention the user's progress trend when weight or measurements are available.
+            - Keep action items feasible within the next 24 hours.
+            - Use only these action types when relevant: START_WORKOUT, ADD_WATER, TRACK_WEIGHT.
+            """;
+
+    private static final int STATIC_PREFIX_TOKENS = TokenEstimator.estimate(STATIC_PREFIX);
+    private static final int MAX_COMPRESSION_LEVEL = 4;
+
+    private static final PromptTemplate COACH_TEMPLATE = PromptTemplate.compile("""
+            {{personality}}
+            USER GOAL: {{goal}}
+
+            USER PROFILE:
+            {{profileSnapshot}}
+            - Age: {{age}} | Height: {{height}} cm | Gender: {{gender}}
+            - Activity Level: {{activityLevel}}
+            - TDEE (Total Daily Energy Expenditure): {{tdee}} kcal
+
+            TODAY'S METRICS:
+            - Steps: {{steps}}
+            - Calories: {{calories}} / Target: {{targetCalories}} kcal
+            - Macros: Protein {{protein}}g | Carbs {{carbs}}g | Fat {{fat}}g
+            - Meals today: {{meals}}
+            - Water: {{water}} L
+            - Sleep: {{sleep}} h
+            - Workouts: {{workouts}} (Highlights: {{workoutHighlights}})
+            - Workout Minutes: {{workoutMinutes}}
+            - Current Weight: {{currentWeight}} kg | Target: {{targetWeight}} kg | BMI: {{bmi}}
+
+            WEIGHT TREND:
+            - Weekly Change: {{weeklyWeightChange}} kg
+            - Logging Streak: {{weightStreak}} days
+
+            HISTORICAL TRENDS (Last 7 Days Avg):
+            - Avg Steps: {{avgSteps}}
+            - Avg Calories: {{avgCalories}}
+            - Avg Water: {{avgWater}}
+
+            RECOVERY SNAPSHOT:
+            {{recoverySnapshot}}
+
+            PROGRESS SNAPSHOT:
+            {{progressSnapshot}}
+
+            LONG-TERM MEMORY (Past Insights):
+            {{insights}}
+
+            DETERMINISTIC COACHING SIGNALS:
+            {{coachingSignals}}
+
+            USER INPUT: {{question}}
+            """);
+
+    /**
+     * Build a prompt for the AI coach based on the user's request and daily
+     * summary.
+     * 
+     * @param request The AI coach request containing goal, question, and daily
+     *                summary
+     * @return The formatted prompt string to send to Gemini
+     */
+    public String buildPrompt(
+            com.fitness.dto.AiCoachRequest request,
+            java.util.List<CoachContextCache.InsightLine> insights,
+            CoachPromptContext context) {
+        return buildPromptParts(request, insights, context).full();
+    }
+
+    /**
+     * Same prompt as {@link #buildPrompt}, split into the shared static prefix and the
+     * per-request suffix so providers can cache the prefix.
+     */
+    public PromptParts buildPromptParts(
+            AiCoachRequest request,
+            java.util.List<CoachContextCache.InsightLine> insights,
+            CoachPromptContext context) {
+        return render(request, insights, context, 0);
+    }
+
+    /**
+     * Builds the prompt and, while the estimated size exceeds {@code budgetTokens},
+     * re-renders it with the next compression level. Levels only touch low-priority
+     * history, in this order:
+     * <ol>
+     *   <li>two newest insights, each cut to 280 chars</li>
+     *   <li>meal list and workout highlights cut to 3 items, custom tone to 300 chars</li>
+     *   <li>newest insight only, cut to 160 chars</li>
+     *   <li>no insights, meals reduced to a count</li>
+     * </ol>
+     * Profile, today's metrics, recovery/progress snapshots, signals and the question
+     * are never cut; if they alone exceed the budget the last level is sent as is.
+     */
+    public BudgetedPrompt buildBudgetedPrompt(
+            AiCoachRequest request,
+            java.util.List<CoachContextCache.InsightLine> insights,
+            CoachPromptContext context,
+            int budgetTokens) {
+        PromptParts parts = render(request, insights, context, 0);
+        int originalTokens = STATIC_PREFIX_TOKENS + TokenEstimator.estimate(parts.dynamicSuffix());
+        int estimatedTokens = originalTokens;
+        int level = 0;
+        while (estimatedTokens > budgetTokens && level < MAX_COMPRESSION_LEVEL) {
+            level++;
+            parts = render(request, insights, context, level);
+            estimatedTokens = STATIC_PREFIX_TOKENS + TokenEstimator.estimate(parts.dynamicSuffix());
+        }
+        return new BudgetedPrompt(parts, budgetTokens, originalTokens, estimatedTokens, level);
+    }
+
+    /**
+     * Result of {@link #buildBudgetedPrompt}; token counts are estimates for the whole prompt.
+     */
+    public record BudgetedPrompt(
+            PromptParts parts,
+            int budgetTokens,
+            int originalTokens,
+            int estimatedTokens,
+            int compressionLevel) {
+
+        public boolean withinBudget() {
+            return estimatedTokens <= budgetTokens;
+        }
+    }
+
+    private PromptParts render(
+            AiCoachRequest request,
+            java.util.List<CoachContextCache.InsightLine> insights,
+            CoachPromptContext context,
+            int level) {
+        AiCoachRequest.DailySummaryDto s = request.dailySummary;
+        CoachPromptContext safeContext = context == null ? CoachPromptContext.empty() : context;
+
+        PromptTemplate.Values values = COACH_TEMPLATE.newValues()
+                .set("personality", buildPersonalityBlock(request.personality,
+                        level >= 2 ? truncate(request.personalityInstruction, 300) : request.personalityInstruction))
+                .set("goal", normalizeGoal(request.goal))
+                .set("profileSnapshot", safeContext.profileSnapshot)
+                .set("age", nullableInt(s.userAge))
+                .set("height", nullableDouble(s.userHeightCm))
+                .set("gender", s.userGender != null ? s.userGender : "unknown")
+                .set("activityLevel", s.activityLevel != null ? s.activityLevel : "unknown")
+                .set("tdee", nullableInt(s.tdee))
+                .set("steps", safeInt(s.steps))
+                .set("calories", safeInt(s.calories))
+                .set("targetCalories", nullableInt(s.targetCalories))
+                .set("protein", nullableInt(s.proteinGrams))
+                .set("carbs", nullableInt(s.carbsGrams))
+                .set("fat", nullableInt(s.fatGrams))
+                .set("meals", level >= 4 ? mealCount(s.mealNames) : safeHighlights(s.mealNames, level >= 2 ? 3 : 6))
+                .set("water", PromptTemplate.fixed(safeDouble(s.waterLiters), 1))
+                .set("sleep", PromptTemplate.fixed(safeDouble(s.sleepHours), 1))
+                .set("workouts", safeInt(s.workouts))
+                .set("workoutHighlights", safeHighlights(s.workoutHighlights, level >= 2 ? 3 : 6))
+                .set("workoutMinutes", safeInt(s.workoutMinutes))
+                .set("currentWeight", nullableDouble(s.currentWeightKg))
+                .set("targetWeight", nullableDouble(s.targetWeightKg))
+                .set("bmi", nullableDouble(s.bmi))
+                .set("weeklyWeightChange", s.weeklyWeightChangeKg != null ? PromptTemplate.signedFixed(s.weeklyWeightChangeKg, 1) : "no data")
+                .set("weightStreak", orNoData(s.weightStreak))
+                .set("avgSteps", orNoData(s.avgStepsLast7Days))
+                .set("avgCalories", orNoData(s.avgCaloriesLast7Days))
+                .set("avgWater", orNoData(s.avgWaterLast7Days))
+                .set("recoverySnapshot", safeContext.recoverySnapshot)
+                .set("progressSnapshot", safeContext.progressSnapshot)
+                .set("insights", formatInsights(insights, level))
+                .set("coachingSignals", safeContext.coachingSignals)
+                .set("question", request.question.trim());
+        return new PromptParts(STATIC_PREFIX, COACH_TEMPLATE.render(values));
     }
 
     private String buildPersonalityBlock(String personality, String personalityInstruction) {
@@ -173,13 +251,36 @@ public class CoachPromptBuilder {
         return "COACH TONE: Be encouraging and clear.";
     }
 
-    private String formatInsights(java.util.List<com.fitness.entity.AiInsight> insights) {
+    private String formatInsights(java.util.List<CoachContextCache.InsightLine> insights, int level) {
         if (insights == null || insights.isEmpty()) {
             return "No prior insights recorded.";
         }
-        return insights.stream()
-                .map(i -> "[" + i.type + " at " + i.createdAt + "]: " + i.summary)
-                .collect(java.util.stream.Collectors.joining("\n"));
+        if (level >= 4) {
+            return "Omitted to fit the prompt budget.";
+        }
+        // Liste en yeniden eskiye sıralı; sıkıştırmada eski içgörüler önce düşer
+        int keep = level >= 3 ? 1 : level >= 1 ? 2 : insights.size();
+        int maxSummary = level >= 3 ? 160 : level >= 1 ? 280 : Integer.MAX_VALUE;
+        StringBuilder sb = new StringBuilder(Math.min(keep, insights.size()) * 160);
+        for (CoachContextCache.InsightLine i : insights.subList(0, Math.min(keep, insights.size()))) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append('[').append(i.type()).append(" at ").append(i.createdAt()).append("]: ")
+                    .append(truncate(i.summary(), maxSummary));
+        }
+        return sb.toString();
+    }
+
+    private String mealCount(java.util.List<String> meals) {
+        return meals == null || meals.isEmpty() ? "none" : meals.size() + " meals logged";
+    }
+
+    private static String truncate(String value, int maxChars) {
+        if (value == null || value.length() <= maxChars) {
+            return value;
+        }
+        return value.substring(0, maxChars).trim() + "…";
     }
 
     private String normalizeGoal(String goal) {
@@ -205,17 +306,25 @@ public class CoachPromptBuilder {
     }
 
     private String nullableDouble(Double value) {
-        return value == null ? "no data" : String.format(java.util.Locale.US, "%.1f", value);
+        return value == null ? "no data" : PromptTemplate.fixed(value, 1);
+    }
+
+    private String orNoData(Object value) {
+        return value == null ? "no data" : String.valueOf(value);
     }
 
-    private String safeHighlights(java.util.List<String> highlights) {
+    private String safeHighlights(java.util.List<String> highlights, int limit) {
         if (highlights == null || highlights.isEmpty()) {
             return "none";
         }
-        return highlights.stream()
+        java.util.List<String> items = highlights.stream()
                 .filter(v -> v != null && !v.trim().isEmpty())
                 .map(String::trim)
-                .limit(6)
+                .toList();
+        String joined = items.stream()
+                .limit(limit)
                 .collect(java.util.stream.Collectors.joining(", "));
+        // Kısaltıldıysa modele kaç öğenin atlandığını söyle
+        return items.size() > limit && limit < 6 ? joined + " (+" + (items.size() - limit) + " more)" : joined;
     }
 }
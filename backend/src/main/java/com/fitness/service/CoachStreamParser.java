@@ -0,0 +1,203 @@
+package com.fitness.service;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Incremental parser for the coach JSON while it is still being streamed.
+ * <p>
+ * Text chunks are fed as they arrive; whenever a top-level field value
+ * (e.g. {@code todayFocus}, {@code nutritionNote}) is complete it is reported
+ * via {@link Listener#onField}. Elements of {@code actionItems} are reported
+ * one by one as soon as each element closes, before the array itself ends.
+ * Anything before the first '{' (markdown fences etc.) is ignored.
+ * <p>
+ * Not thread-safe; one instance per stream.
+ */
+public class CoachStreamParser {
+
+    public static final String ACTION_ITEMS = "actionItems";
+
+    public interface Listener {
+        /** Raw text exactly as received from the provider. */
+        void onDelta(String text);
+
+        /** A top-level field whose value has been fully received. */
+        void onField(String name, JsonNode value);
+
+        /** One completed element of actionItems (string or {"text": ...}). */
+        void onActionItem(int index, String text);
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Listener listener;
+    private final StringBuilder buffer = new StringBuilder();
+
+    private int position;
+    private boolean started;
+    private boolean finished;
+    private int depth;
+    private boolean inString;
+    private boolean escape;
+    private boolean expectingKey;
+    private String currentKey;
+    private int keyStart = -1;
+    private int valueStart = -1;
+    private int itemStart = -1;
+    private int itemIndex;
+
+    public CoachStreamParser(ObjectMapper objectMapper, Listener listener) {
+        this.objectMapper = objectMapper;
+        this.listener = listener;
+    }
+
+    public void feed(String chunk) {
+        if (chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        listener.onDelta(chunk);
+        buffer.append(chunk);
+        scan();
+    }
+
+    /** Full text received so far. */
+    public String text() {
+        return buffer.toString();
+    }
+
+    private void scan() {
+        for (; position < buffer.length() && !finished; position++) {
+            char c = buffer.charAt(position);
+
+            if (!started) {
+                if (c == '{') {
+                    started = true;
+                    depth = 1;
+                    expectingKey = true;
+                }
+                continue;
+            }
+
+            if (inString) {
+                if (escape) {
+                    escape = false;
+                } else if (c == '\\') {
+                    escape = true;
+                } else if (c == '"') {
+                    inString = false;
+                    onStringClosed(position);
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '"' -> {
+                    inString = true;
+                    if (depth == 1 && expectingKey) {
+                        keyStart = position;
+                    } else {
+                        markValueStart(position);
+                    }
+                }
+                case ':' -> {
+                    if (depth == 1) {
+                        expectingKey = false;
+                    }
+                }
+                case ',' -> {
+                    if (depth == 1) {
+                        emitField(position);
+                        expectingKey = true;
+                    } else if (depth == 2 && inActionItems()) {
+                        emitItem(position);
+                    }
+                }
+                case '{', '[' -> {
+                    markValueStart(position);
+                    depth++;
+                }
+                case '}', ']' -> {
+                    if (depth == 1) {
+                        emitField(position);
+                        finished = true;
+                        break;
+                    }
+                    if (depth == 2 && inActionItems()) {
+                        emitItem(position);
+                    }
+                    depth--;
+                    if (depth == 1 && valueStart >= 0) {
+                        emitField(position + 1);
+                    } else if (depth == 2 && inActionItems() && itemStart >= 0) {
+                        emitItem(position + 1);
+                    }
+                }
+                default -> {
+                    if (!Character.isWhitespace(c)) {
+                        markValueStart(position);
+                    }
+                }
+            }
+        }
+    }
+
+    private void markValueStart(int index) {
+        if (depth == 1 && !expectingKey && valueStart < 0) {
+            valueStart = index;
+        } else if (depth == 2 && inActionItems() && itemStart < 0) {
+            itemStart = index;
+        }
+    }
+
+    private void onStringClosed(int index) {
+        if (depth == 1 && keyStart >= 0) {
+            currentKey = readNode(keyStart, index + 1).asText();
+            keyStart = -1;
+        } else if (depth == 1 && valueStart >= 0) {
+            emitField(index + 1);
+        } else if (depth == 2 && inActionItems() && itemStart >= 0 && buffer.charAt(itemStart) == '"') {
+            emitItem(index + 1);
+        }
+    }
+
+    private boolean inActionItems() {
+        return ACTION_ITEMS.equals(currentKey) && depth >= 2;
+    }
+
+    private void emitField(int end) {
+        if (valueStart < 0 || currentKey == null) {
+            valueStart = -1;
+            return;
+        }
+        JsonNode value = readNode(valueStart, end);
+        valueStart = -1;
+        if (value != null) {
+            listener.onField(currentKey, value);
+        }
+    }
+
+    private void emitItem(int end) {
+        if (itemStart < 0) {
+            return;
+        }
+        JsonNode item = readNode(itemStart, end);
+        itemStart = -1;
+        if (item == null) {
+            return;
+        }
+        String text = item.isObject() ? item.path("text").asText("") : item.isContainerNode() ? "" : item.asText("");
+        if (!text.isBlank()) {
+            listener.onActionItem(itemIndex++, text.trim());
+        }
+    }
+
+    private JsonNode readNode(int start, int end) {
+        try {
+            return objectMapper.readTree(buffer.substring(start, end).trim());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
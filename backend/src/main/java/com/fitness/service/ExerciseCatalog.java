@@ -0,0 +1,217 @@
+package com.fitness.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jboss.logging.Logger;
+
+import com.fitness.dto.ExerciseResponse;
+import com.fitness.entity.Exercise;
+import com.fitness.repository.ExerciseRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * In-memory copy of the exercises table.
+ * <p>
+ * The catalog is static seed data, so it is loaded once at startup into an
+ * immutable {@link Snapshot} (by id, by muscle group, by normalized name)
+ * and swapped atomically when it changes: after ExerciseService writes, and
+ * on a slow background poll that picks up changes made by other replicas or
+ * by SQL. Catalog reads never touch the database.
+ * <p>
+ * Every list carries a strong ETag derived from its content, so an
+ * unchanged catalog keeps the same ETags across reloads and restarts.
+ * Each snapshot also carries a {@link TrigramIndex} over exercise names for
+ * fuzzy search.
+ */
+@ApplicationScoped
+public class ExerciseCatalog {
+
+    private static final Logger LOG = Logger.getLogger(ExerciseCatalog.class);
+
+    /** A response body together with its ETag value (without quotes). */
+    public record Listing<T>(T body, String etag) {
+    }
+
+    /** Immutable view of the whole catalog; replaced, never modified. */
+    public record Snapshot(
+            Map<Long, ExerciseResponse> byId,
+            Map<String, Listing<List<ExerciseResponse>>> byMuscleGroup,
+            Map<String, List<ExerciseResponse>> byName,
+            Listing<List<String>> muscleGroups,
+            TrigramIndex<ExerciseResponse> nameIndex,
+            String version) {
+
+        public int size() {
+            return byId.size();
+        }
+    }
+
+    private static final Listing<List<ExerciseResponse>> EMPTY_GROUP = new Listing<>(List.of(), etag(""));
+
+    @Inject
+    ExerciseRepository exerciseRepository;
+
+    private volatile Snapshot snapshot = build(List.of());
+
+    void onStart(@Observes StartupEvent event) {
+        refresh();
+    }
+
+    /** Başka replikaların ya da doğrudan SQL'in yaptığı değişiklikleri toplar; istek yolunda değil. */
+    @Scheduled(every = "${exercise.catalog.refresh-interval:10m}", delayed = "${exercise.catalog.refresh-interval:10m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Eski snapshot hizmet vermeye devam eder
+            LOG.warnf("exercise_catalog refresh failed: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Reloads the table and swaps the snapshot if its content changed.
+     * Must not be called inside a transaction that has uncommitted catalog writes.
+     * <p>
+     * Serialized so the poll and the write path cannot interleave: each reload
+     * reads the table after the previous one installed its snapshot, so an
+     * older read never replaces a newer one and a caller sees its own write
+     * once this returns.
+     *
+     * @return {@code true} when a new snapshot was installed
+     */
+    public synchronized boolean refresh() {
+        List<Exercise> rows = QuarkusTransaction.requiringNew().call(
+                () -> exerciseRepository.listAll());
+        Snapshot next = build(rows);
+        if (next.version().equals(snapshot.version())) {
+            return false;
+        }
+        snapshot = next;
+        LOG.infof("exercise_catalog loaded exercises=%d groups=%d version=%s",
+                next.size(), next.muscleGroups().body().size(), next.version());
+        return true;
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public Listing<List<String>> muscleGroups() {
+        return snapshot.muscleGroups();
+    }
+
+    /** Exact muscle group match, as the previous {@code muscleGroup = ?} query. */
+    public Listing<List<ExerciseResponse>> byMuscleGroup(String muscleGroup) {
+        return snapshot.byMuscleGroup().getOrDefault(muscleGroup, EMPTY_GROUP);
+    }
+
+    public ExerciseResponse byId(Long id) {
+        return id == null ? null : snapshot.byId().get(id);
+    }
+
+    public List<ExerciseResponse> byName(String name) {
+        return snapshot.byName().getOrDefault(normalizeName(name), List.of());
+    }
+
+    /** Typo-tolerant name search, best match first. */
+    public List<ExerciseResponse> search(String query, int limit) {
+        return snapshot.nameIndex().search(query, limit).stream()
+                .map(TrigramIndex.Hit::value)
+                .toList();
+    }
+
+    /** Builds a snapshot; exercises are ordered by id everywhere. */
+    public static Snapshot build(List<Exercise> rows) {
+        List<ExerciseResponse> all = rows.stream()
+                .map(ExerciseCatalog::toResponse)
+                .sorted(Comparator.comparing(r -> r.id))
+                .toList();
+
+        Map<Long, ExerciseResponse> byId = new LinkedHashMap<>();
+        Map<String, List<ExerciseResponse>> groups = new TreeMap<>();
+        Map<String, List<ExerciseResponse>> byName = new LinkedHashMap<>();
+        TrigramIndex<ExerciseResponse> nameIndex = new TrigramIndex<>(Comparator.comparing(r -> r.id));
+        for (ExerciseResponse exercise : all) {
+            byId.put(exercise.id, exercise);
+            nameIndex.put(exercise.id, exercise.name, exercise);
+            groups.computeIfAbsent(exercise.muscleGroup, g -> new ArrayList<>()).add(exercise);
+            byName.computeIfAbsent(normalizeName(exercise.name), n -> new ArrayList<>()).add(exercise);
+        }
+
+        Map<String, Listing<List<ExerciseResponse>>> byMuscleGroup = new LinkedHashMap<>();
+        StringBuilder catalogContent = new StringBuilder();
+        groups.forEach((group, exercises) -> {
+            String content = canonical(exercises);
+            byMuscleGroup.put(group, new Listing<>(List.copyOf(exercises), etag(content)));
+            catalogContent.append(content);
+        });
+        byName.replaceAll((name, exercises) -> List.copyOf(exercises));
+
+        List<String> groupNames = List.copyOf(groups.keySet());
+        return new Snapshot(
+                Map.copyOf(byId),
+                Map.copyOf(byMuscleGroup),
+                Map.copyOf(byName),
+                new Listing<>(groupNames, etag(String.join("\n", groupNames))),
+                nameIndex,
+                etag(catalogContent.toString()));
+    }
+
+    /** Küçük harf, tek boşluk: "  Bench  Press" → "bench press". */
+    public static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static ExerciseResponse toResponse(Exercise e) {
+        return new ExerciseResponse(
+                e.id,
+                e.muscleGroup,
+                e.name,
+                e.description,
+                e.instructions,
+                e.tips);
+    }
+
+    /** Yanıtta serileştirilen tüm alanlar; herhangi biri değişirse ETag değişir. */
+    private static String canonical(List<ExerciseResponse> exercises) {
+        StringBuilder out = new StringBuilder();
+        for (ExerciseResponse e : exercises) {
+            out.append(e.id).append('\u0000')
+                    .append(e.muscleGroup).append('\u0000')
+                    .append(e.name).append('\u0000')
+                    .append(e.description).append('\u0000')
+                    .append(e.instructions).append('\u0000')
+                    .append(e.tips).append('\u0001');
+        }
+        return out.toString();
+    }
+
+    private static String etag(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
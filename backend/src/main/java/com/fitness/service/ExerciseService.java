@@ -1,58 +1,67 @@
 package com.fitness.service;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import com.fitness.dto.ExerciseResponse;
 import com.fitness.entity.Exercise;
 import com.fitness.repository.ExerciseRepository;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+/**
+ * Exercise catalog. Reads are served from {@link ExerciseCatalog}; writes go
+ * to the database and rebuild the catalog once they are committed.
+ */
 @ApplicationScoped
 public class ExerciseService {
 
+    /** Arama sonucunda dönen en fazla egzersiz. */
+    public static final int MAX_SEARCH_RESULTS = 50;
+
     @Inject
     ExerciseRepository exerciseRepository;
 
-    public List<String> getMuscleGroups() {
-        return exerciseRepository.findDistinctMuscleGroups();
+    @Inject
+    ExerciseCatalog exerciseCatalog;
+
+    public ExerciseCatalog.Listing<List<String>> getMuscleGroups() {
+        return exerciseCatalog.muscleGroups();
     }
 
-    public List<ExerciseResponse> getExercisesByMuscleGroup(String muscleGroup) {
-        return exerciseRepository.findByMuscleGroup(muscleGroup).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+    public ExerciseCatalog.Listing<List<ExerciseResponse>> getExercisesByMuscleGroup(String muscleGroup) {
+        return exerciseCatalog.byMuscleGroup(muscleGroup);
+    }
+
+    /** Fuzzy name search over the in-memory catalog; {@code limit} is clamped to 1..50. */
+    public List<ExerciseResponse> searchExercises(String query, int limit) {
+        return exerciseCatalog.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
     }
 
-    @jakarta.transaction.Transactional
     public ExerciseResponse createExercise(Exercise e) {
-        exerciseRepository.persist(e);
-        return toResponse(e);
+        QuarkusTransaction.requiringNew().run(() -> exerciseRepository.persist(e));
+        exerciseCatalog.refresh();
+        return exerciseCatalog.byId(e.id);
     }
 
-    @jakarta.transaction.Transactional
     public ExerciseResponse updateExercise(Long id, Exercise updated) {
-        Exercise e = exerciseRepository.findById(id);
-        if (e != null) {
+        boolean found = QuarkusTransaction.requiringNew().call(() -> {
+            Exercise e = exerciseRepository.findById(id);
+            if (e == null) {
+                return false;
+            }
             e.muscleGroup = updated.muscleGroup;
             e.name = updated.name;
             e.description = updated.description;
             e.instructions = updated.instructions;
             e.tips = updated.tips;
-            return toResponse(e);
+            return true;
+        });
+        if (!found) {
+            return null;
         }
-        return null;
-    }
-
-    private ExerciseResponse toResponse(Exercise e) {
-        return new ExerciseResponse(
-                e.id,
-                e.muscleGroup,
-                e.name,
-                e.description,
-                e.instructions,
-                e.tips);
+        exerciseCatalog.refresh();
+        return exerciseCatalog.byId(id);
     }
 }
@@ -8,9 +8,13 @@ import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
@@ -32,10 +36,14 @@ public class GeminiClient {
 
     private static final Logger LOG = Logger.getLogger(GeminiClient.class);
     private static final String MISSING_KEY_SENTINEL = "__MISSING__";
+    private static final String API_BASE = "https://generativelanguage.googleapis.com/v1beta/";
 
     @Inject
     ObjectMapper objectMapper;
 
+    @Inject
+    Tracing tracing;
+
     @ConfigProperty(name = "gemini.api.key", defaultValue = MISSING_KEY_SENTINEL)
     String geminiApiKey;
 
@@ -64,8 +72,36 @@ public class GeminiClient {
             String fallbackModel,
             String prompt,
             boolean expectJson) {
+        return generateText(endpointName, userId, primaryModel, fallbackModel, PromptParts.of(prompt), expectJson);
+    }
 
-        int promptLength = prompt != null ? prompt.length() : 0;
+    /**
+     * Prompt with a static prefix, sent as {@code systemInstruction} ahead of the
+     * per-request suffix.
+     */
+    public GeminiClientResult generateText(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            PromptParts prompt,
+            boolean expectJson) {
+        return generateText(endpointName, userId, primaryModel, fallbackModel, prompt, expectJson, null);
+    }
+
+    /**
+     * With a {@code schema} the output is constrained via {@code generationConfig.responseSchema}.
+     */
+    public GeminiClientResult generateText(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            PromptParts prompt,
+            boolean expectJson,
+            OutputSchema schema) {
+
+        int promptLength = prompt.length();
 
         // Build model candidates list (primary + fallback)
         List<String> modelCandidates = buildModelCandidates(primaryModel, fallbackModel);
@@ -79,17 +115,19 @@ public class GeminiClient {
             long startTime = System.currentTimeMillis();
 
             try {
-                String responseBody = callGemini(prompt, model, expectJson);
+                JsonNode response = objectMapper.readTree(callGemini(prompt, model, expectJson, schema));
                 long latencyMs = System.currentTimeMillis() - startTime;
 
-                String outputText = extractTextFromResponse(responseBody);
+                String outputText = extractTextFromResponse(response);
+                TokenUsage usage = TokenUsage.fromGemini(response.path("usageMetadata"));
 
                 lastResult = GeminiClientResult.builder()
                         .success(model, outputText, latencyMs)
+                        .usage(usage)
                         .build();
 
                 // Log successful call
-                logStructured(endpointName, userId, "ok", promptLength, latencyMs, model, null);
+                logStructured(endpointName, userId, "ok", promptLength, latencyMs, model, null, usage);
 
                 return lastResult;
 
@@ -111,7 +149,7 @@ public class GeminiClient {
                         .build();
 
                 // Log failure
-                logStructured(endpointName, userId, "error", promptLength, latencyMs, model, errorMsg);
+                logStructured(endpointName, userId, "error", promptLength, latencyMs, model, errorMsg, null);
 
                 return lastResult;
             }
@@ -128,6 +166,94 @@ public class GeminiClient {
                 .build();
     }
 
+    /**
+     * Streaming variant of {@link #generateText} using {@code streamGenerateContent}.
+     * Each text part is passed to {@code onDelta} as soon as it arrives; the
+     * returned result carries the full concatenated text. The fallback model is
+     * only tried if the primary failed before emitting anything.
+     */
+    public GeminiClientResult streamText(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            String prompt,
+            boolean expectJson,
+            Consumer<String> onDelta) {
+        return streamText(endpointName, userId, primaryModel, fallbackModel, PromptParts.of(prompt), expectJson, onDelta);
+    }
+
+    public GeminiClientResult streamText(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            PromptParts prompt,
+            boolean expectJson,
+            Consumer<String> onDelta) {
+        return streamText(endpointName, userId, primaryModel, fallbackModel, prompt, expectJson, null, onDelta);
+    }
+
+    public GeminiClientResult streamText(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            PromptParts prompt,
+            boolean expectJson,
+            OutputSchema schema,
+            Consumer<String> onDelta) {
+
+        int promptLength = prompt.length();
+        List<String> modelCandidates = buildModelCandidates(primaryModel, fallbackModel);
+        GeminiClientResult lastResult = null;
+
+        for (int i = 0; i < modelCandidates.size(); i++) {
+            String model = modelCandidates.get(i);
+            boolean isLastModel = i == modelCandidates.size() - 1;
+            long startTime = System.currentTimeMillis();
+            StreamProgress progress = new StreamProgress(startTime);
+
+            try {
+                StreamReply reply = callGeminiStream(prompt, model, expectJson, schema, onDelta, progress);
+                long latencyMs = System.currentTimeMillis() - startTime;
+
+                lastResult = GeminiClientResult.builder()
+                        .success(model, reply.text(), latencyMs)
+                        .usage(reply.usage())
+                        .build();
+                LOG.infof("endpoint=%s status=ok userId=%s promptLength=%d latencyMs=%d firstTokenMs=%d modelUsed=%s stream=true %s",
+                        endpointName, userId, promptLength, latencyMs, progress.firstTokenMs, model,
+                        reply.usage().logFields());
+                return lastResult;
+
+            } catch (Exception e) {
+                long latencyMs = System.currentTimeMillis() - startTime;
+                int statusCode = extractStatusCode(e);
+                Integer retryAfterSeconds = extractRetryAfterSeconds(e);
+                String errorMsg = e.getMessage();
+
+                if (!isLastModel && !progress.emitted && shouldRetry(statusCode)) {
+                    LOG.warnf("Stream: retrying with fallback endpoint=%s userId=%d model=%s status=%d",
+                            endpointName, userId, model, statusCode);
+                    continue;
+                }
+
+                lastResult = GeminiClientResult.builder()
+                        .failure(model, statusCode, errorMsg, latencyMs, retryAfterSeconds)
+                        .build();
+                logStructured(endpointName, userId, "error", promptLength, latencyMs, model, errorMsg, null);
+                return lastResult;
+            }
+        }
+
+        if (lastResult != null)
+            return lastResult;
+        return GeminiClientResult.builder()
+                .failure(fallbackModel, 503, "No model available", 0)
+                .build();
+    }
+
     /**
      * Generate content using Gemini Vision API with image + text prompt.
      * Uses the same fallback/retry/logging infrastructure as generateText.
@@ -151,6 +277,20 @@ public class GeminiClient {
             byte[] imageBytes,
             String mimeType,
             boolean expectJson) {
+        return generateWithImage(endpointName, userId, primaryModel, fallbackModel, prompt, imageBytes, mimeType,
+                expectJson, null);
+    }
+
+    public GeminiClientResult generateWithImage(
+            String endpointName,
+            Long userId,
+            String primaryModel,
+            String fallbackModel,
+            String prompt,
+            byte[] imageBytes,
+            String mimeType,
+            boolean expectJson,
+            OutputSchema schema) {
 
         int promptLength = prompt != null ? prompt.length() : 0;
         List<String> modelCandidates = buildModelCandidates(primaryModel, fallbackModel);
@@ -162,14 +302,17 @@ public class GeminiClient {
             long startTime = System.currentTimeMillis();
 
             try {
-                String responseBody = callGeminiWithImage(prompt, imageBytes, mimeType, model, expectJson);
+                JsonNode response = objectMapper.readTree(
+                        callGeminiWithImage(prompt, imageBytes, mimeType, model, expectJson, schema));
                 long latencyMs = System.currentTimeMillis() - startTime;
-                String outputText = extractTextFromResponse(responseBody);
+                String outputText = extractTextFromResponse(response);
+                TokenUsage usage = TokenUsage.fromGemini(response.path("usageMetadata"));
 
                 lastResult = GeminiClientResult.builder()
                         .success(model, outputText, latencyMs)
+                        .usage(usage)
                         .build();
-                logStructured(endpointName, userId, "ok", promptLength, latencyMs, model, null);
+                logStructured(endpointName, userId, "ok", promptLength, latencyMs, model, null, usage);
                 return lastResult;
 
             } catch (Exception e) {
@@ -187,7 +330,7 @@ public class GeminiClient {
                 lastResult = GeminiClientResult.builder()
                         .failure(model, statusCode, errorMsg, latencyMs, retryAfterSeconds)
                         .build();
-                logStructured(endpointName, userId, "error", promptLength, latencyMs, model, errorMsg);
+                logStructured(endpointName, userId, "error", promptLength, latencyMs, model, errorMsg, null);
                 return lastResult;
             }
         }
@@ -233,47 +376,133 @@ public class GeminiClient {
         return candidates;
     }
 
-    private String callGemini(String prompt, String model, boolean expectJson)
+    private String callGemini(PromptParts prompt, String model, boolean expectJson, OutputSchema schema)
             throws IOException, InterruptedException {
-        String endpoint = "https://generativelanguage.googleapis.com/v1beta/models/"
+        String endpoint = API_BASE + "models/"
                 + model
                 + ":generateContent?key="
                 + geminiApiKey;
 
+        return sendGenerate(endpoint, buildTextPayload(prompt, expectJson, schema));
+    }
+
+    private String sendGenerate(String endpoint, String payload) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(endpoint))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(payload))
+                .build();
+
+        HttpResponse<String> response = tracing.send(httpClient, request, HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            String retryAfterHeader = response.headers().firstValue("Retry-After").orElse(null);
+            throw new GeminiApiException(response.statusCode(), response.body(), retryAfterHeader);
+        }
+
+        return response.body();
+    }
+
+    private String buildTextPayload(PromptParts prompt, boolean expectJson, OutputSchema schema)
+            throws IOException {
         ObjectNode payload = objectMapper.createObjectNode();
+        if (prompt.hasStaticPrefix()) {
+            payload.set("systemInstruction", textContent(prompt.staticPrefix()));
+        }
         payload.set("contents", objectMapper.createArrayNode()
-                .add(objectMapper.createObjectNode()
-                        .set("parts", objectMapper.createArrayNode()
-                                .add(objectMapper.createObjectNode().put("text", prompt)))));
+                .add(textContent(prompt.dynamicSuffix()).put("role", "user")));
 
         ObjectNode generationConfig = objectMapper.createObjectNode()
                 .put("temperature", 0.4);
 
-        if (expectJson) {
-            generationConfig.put("responseMimeType", "application/json");
-        }
+        applyResponseFormat(generationConfig, expectJson, schema);
 
         payload.set("generationConfig", generationConfig);
+        return objectMapper.writeValueAsString(payload);
+    }
+
+    /**
+     * Calls streamGenerateContent with alt=sse; every "data:" line is a partial
+     * GenerateContentResponse whose text parts are forwarded immediately.
+     */
+    private StreamReply callGeminiStream(PromptParts prompt, String model, boolean expectJson, OutputSchema schema,
+            Consumer<String> onDelta, StreamProgress progress)
+            throws IOException, InterruptedException {
+        String endpoint = API_BASE + "models/"
+                + model
+                + ":streamGenerateContent?alt=sse&key="
+                + geminiApiKey;
 
+        return sendStream(endpoint, buildTextPayload(prompt, expectJson, schema), onDelta, progress);
+    }
+
+    private StreamReply sendStream(String endpoint, String payload, Consumer<String> onDelta, StreamProgress progress)
+            throws IOException, InterruptedException {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(endpoint))
                 .timeout(Duration.ofMillis(timeoutMs))
                 .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(payload)))
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString(payload))
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<Stream<String>> response = tracing.send(httpClient, request,
+                HttpResponse.BodyHandlers.ofLines());
 
-        if (response.statusCode() < 200 || response.statusCode() >= 300) {
-            String retryAfterHeader = response.headers().firstValue("Retry-After").orElse(null);
-            throw new GeminiApiException(response.statusCode(), response.body(), retryAfterHeader);
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                String retryAfterHeader = response.headers().firstValue("Retry-After").orElse(null);
+                throw new GeminiApiException(response.statusCode(), lines.collect(Collectors.joining("\n")),
+                        retryAfterHeader);
+            }
+
+            StringBuilder output = new StringBuilder();
+            TokenUsage usage = TokenUsage.UNKNOWN;
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String data = line.substring(5).trim();
+                if (data.isEmpty()) {
+                    continue;
+                }
+                JsonNode chunk = objectMapper.readTree(data);
+                if (chunk.has("error")) {
+                    throw new GeminiApiException(chunk.path("error").path("code").asInt(502), data, null);
+                }
+                // Toplamlar birikimli gelir; son parçadaki usageMetadata geçerlidir
+                usage = usage.merge(TokenUsage.fromGemini(chunk.path("usageMetadata")));
+                for (JsonNode part : chunk.path("candidates").path(0).path("content").path("parts")) {
+                    String text = part.path("text").asText("");
+                    if (!text.isEmpty()) {
+                        progress.markEmitted();
+                        output.append(text);
+                        onDelta.accept(text);
+                    }
+                }
+            }
+
+            if (output.toString().isBlank()) {
+                throw new IOException("Gemini returned empty content");
+            }
+            return new StreamReply(output.toString(), usage);
         }
+    }
 
-        return response.body();
+    private ObjectNode textContent(String text) {
+        ObjectNode content = objectMapper.createObjectNode();
+        content.putArray("parts").addObject().put("text", text);
+        return content;
+    }
+
+    private record StreamReply(String text, TokenUsage usage) {
     }
 
     private String callGeminiWithImage(String prompt, byte[] imageBytes, String mimeType,
-            String model, boolean expectJson)
+            String model, boolean expectJson, OutputSchema schema)
             throws IOException, InterruptedException {
         String endpoint = "https://generativelanguage.googleapis.com/v1beta/models/"
                 + model + ":generateContent?key=" + geminiApiKey;
@@ -294,9 +523,7 @@ public class GeminiClient {
 
         ObjectNode generationConfig = objectMapper.createObjectNode()
                 .put("temperature", 0.2);
-        if (expectJson) {
-            generationConfig.put("responseMimeType", "application/json");
-        }
+        applyResponseFormat(generationConfig, expectJson, schema);
         payload.set("generationConfig", generationConfig);
 
         HttpRequest request = HttpRequest.newBuilder()
@@ -306,7 +533,7 @@ public class GeminiClient {
                 .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(payload)))
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = tracing.send(httpClient, request, HttpResponse.BodyHandlers.ofString());
 
         if (response.statusCode() < 200 || response.statusCode() >= 300) {
             String retryAfterHeader = response.headers().firstValue("Retry-After").orElse(null);
@@ -316,8 +543,16 @@ public class GeminiClient {
         return response.body();
     }
 
-    private String extractTextFromResponse(String responseBody) throws IOException {
-        JsonNode root = objectMapper.readTree(responseBody);
+    private static void applyResponseFormat(ObjectNode generationConfig, boolean expectJson, OutputSchema schema) {
+        if (expectJson || schema != null) {
+            generationConfig.put("responseMimeType", "application/json");
+        }
+        if (schema != null) {
+            generationConfig.set("responseSchema", schema.geminiSchema());
+        }
+    }
+
+    private String extractTextFromResponse(JsonNode root) throws IOException {
         JsonNode candidates = root.path("candidates");
 
         if (candidates.isEmpty() || !candidates.get(0).has("content")) {
@@ -332,16 +567,6 @@ public class GeminiClient {
         return textNode.asText();
     }
 
-    private String extractJson(String raw) {
-        String trimmed = raw.trim();
-        int firstBrace = trimmed.indexOf('{');
-        int lastBrace = trimmed.lastIndexOf('}');
-        if (firstBrace >= 0 && lastBrace > firstBrace) {
-            return trimmed.substring(firstBrace, lastBrace + 1);
-        }
-        return trimmed;
-    }
-
     private boolean shouldRetry(int statusCode) {
         return statusCode == 404 || statusCode == 429 || statusCode >= 500;
     }
@@ -499,11 +724,13 @@ public class GeminiClient {
             int promptLength,
             long latencyMs,
             String modelUsed,
-            String error) {
+            String error,
+            TokenUsage usage) {
 
         if (error == null || error.isBlank()) {
-            LOG.infof("endpoint=%s status=%s userId=%s promptLength=%d latencyMs=%d modelUsed=%s",
-                    endpointName, status, userId, promptLength, latencyMs, modelUsed);
+            LOG.infof("endpoint=%s status=%s userId=%s promptLength=%d latencyMs=%d modelUsed=%s %s",
+                    endpointName, status, userId, promptLength, latencyMs, modelUsed,
+                    (usage != null ? usage : TokenUsage.UNKNOWN).logFields());
         } else {
             LOG.warnf("endpoint=%s status=%s userId=%s promptLength=%d latencyMs=%d modelUsed=%s error=%s",
                     endpointName, status, userId, promptLength, latencyMs, modelUsed, error);
@@ -511,10 +738,23 @@ public class GeminiClient {
     }
 
     /**
-     * Helper method to extract JSON from raw response text
+     * Tracks whether a stream already emitted text (no fallback after that) and time to first token.
      */
-    public String extractJsonFromResponse(String rawResponse) {
-        return extractJson(rawResponse);
+    static final class StreamProgress {
+        private final long startTime;
+        boolean emitted;
+        long firstTokenMs = -1;
+
+        StreamProgress(long startTime) {
+            this.startTime = startTime;
+        }
+
+        void markEmitted() {
+            if (!emitted) {
+                emitted = true;
+                firstTokenMs = System.currentTimeMillis() - startTime;
+            }
+        }
     }
 
     /**
@@ -15,6 +15,7 @@ public class GeminiClientResult {
     private String error;
     private Integer retryAfterSeconds;
     private Instant timestamp;
+    private TokenUsage usage = TokenUsage.UNKNOWN;
 
     public GeminiClientResult() {
         this.timestamp = Instant.now();
@@ -81,6 +82,14 @@ public class GeminiClientResult {
         this.retryAfterSeconds = retryAfterSeconds;
     }
 
+    public TokenUsage getUsage() {
+        return usage;
+    }
+
+    public void setUsage(TokenUsage usage) {
+        this.usage = usage != null ? usage : TokenUsage.UNKNOWN;
+    }
+
     public boolean isSuccess() {
         return error == null && statusCode >= 200 && statusCode < 300;
     }
@@ -118,6 +127,11 @@ public class GeminiClientResult {
             return this;
         }
 
+        public Builder usage(TokenUsage usage) {
+            result.setUsage(usage);
+            return this;
+        }
+
         public Builder success(String modelUsed, String outputText, long latencyMs) {
             result.modelUsed = modelUsed;
             result.outputText = outputText;
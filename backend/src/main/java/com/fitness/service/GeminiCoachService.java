@@ -1,13 +1,11 @@
 package com.fitness.service;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fitness.dto.AiCoachRequest;
 import com.fitness.dto.AiCoachResponse;
@@ -35,20 +33,24 @@ public class GeminiCoachService {
     @Inject
     AiCoachContextBuilder contextBuilder;
 
+    @Inject
+    StructuredOutputStats structuredOutputStats;
+
     @ConfigProperty(name = "gemini.coach.model", defaultValue = "gemini-2.0-flash")
     String coachModel;
 
     @ConfigProperty(name = "gemini.coach.fallback", defaultValue = "gemini-1.5-flash")
     String coachFallbackModel;
 
+    @ConfigProperty(name = "ai.coach.prompt-budget.free-tokens", defaultValue = "1800")
+    int freePromptBudgetTokens;
+
+    @ConfigProperty(name = "ai.coach.prompt-budget.premium-tokens", defaultValue = "3200")
+    int premiumPromptBudgetTokens;
+
     public AiCoachResponse generateCoachResponse(Long userId, AiCoachRequest request) {
         validateRequest(request);
-
-        // Fetch long-term memory insights
-        List<com.fitness.entity.AiInsight> insights = com.fitness.entity.AiInsight.findRecentByUser(userId, 3);
-        
-        CoachPromptContext context = contextBuilder.build(userId, request.dailySummary);
-        String prompt = promptBuilder.buildPrompt(request, insights, context);
+        PromptParts prompt = buildCoachPrompt(userId, request);
 
         GeminiClientResult result = aiProviderRouter.generateText(
             "ai/coach",
@@ -56,17 +58,67 @@ public class GeminiCoachService {
             coachModel,
             coachFallbackModel,
             prompt,
-            true
+            OutputSchema.COACH
+        );
+
+        if (!result.isSuccess()) throw mapFailure(result);
+        return toCoachResponse(userId, result);
+    }
+
+    /**
+     * Same as {@link #generateCoachResponse} but streams the provider output:
+     * raw deltas and completed JSON fields are reported to {@code listener}
+     * while generation is still running. Returns the final, validated response.
+     */
+    public AiCoachResponse streamCoachResponse(Long userId, AiCoachRequest request, CoachStreamParser.Listener listener) {
+        validateRequest(request);
+        PromptParts prompt = buildCoachPrompt(userId, request);
+        CoachStreamParser parser = new CoachStreamParser(objectMapper, listener);
+
+        GeminiClientResult result = aiProviderRouter.streamText(
+            "ai/coach/stream",
+            userId,
+            coachModel,
+            coachFallbackModel,
+            prompt,
+            OutputSchema.COACH,
+            parser::feed
         );
 
         if (!result.isSuccess()) throw mapFailure(result);
+        return toCoachResponse(userId, result);
+    }
+
+    private PromptParts buildCoachPrompt(Long userId, AiCoachRequest request) {
+        return buildBudgetedPrompt("ai/coach", userId, request, 3);
+    }
+
+    /**
+     * Builds the coach prompt within the tier's token budget and logs how much of it was used.
+     */
+    private PromptParts buildBudgetedPrompt(String endpointName, Long userId, AiCoachRequest request, int insightLimit) {
+        // Fetch long-term memory insights
+        List<CoachContextCache.InsightLine> insights = contextBuilder.recentInsights(userId, insightLimit);
+
+        CoachPromptContext context = contextBuilder.build(userId, request.dailySummary);
+        String tier = aiProviderRouter.getTier(userId);
+        int budget = "premium".equals(tier) ? premiumPromptBudgetTokens : freePromptBudgetTokens;
+
+        CoachPromptBuilder.BudgetedPrompt prompt = promptBuilder.buildBudgetedPrompt(request, insights, context, budget);
+        LOG.infof("coach_prompt_budget endpoint=%s userId=%s tier=%s budgetTokens=%d originalTokens=%d estimatedTokens=%d compressionLevel=%d withinBudget=%s",
+                endpointName, userId, tier, budget, prompt.originalTokens(), prompt.estimatedTokens(),
+                prompt.compressionLevel(), prompt.withinBudget());
+        return prompt.parts();
+    }
 
+    private AiCoachResponse toCoachResponse(Long userId, GeminiClientResult result) {
         try {
-            String jsonText = aiProviderRouter.extractJsonFromResponse(userId, result.getOutputText());
-            AiCoachResponse response = parseResponse(objectMapper.readTree(jsonText));
+            AiCoachResponse response = LlmJsonExtractor.readCoachResponse(result.getOutputText());
+            structuredOutputStats.recordParsed(result.getModelUsed());
             validateResponse(response);
             return response;
         } catch (IOException e) {
+            structuredOutputStats.recordFailure(result.getModelUsed(), OutputSchema.COACH, e.getMessage());
             LOG.error("Failed to parse AI response for user " + userId, e);
             throw new AiCoachServiceException(502, "Koç yanıtı işlenemedi.");
         }
@@ -76,11 +128,7 @@ public class GeminiCoachService {
         validateRequest(request);
 
         // Build a vision-specific specialized prompt
-        CoachPromptContext context = contextBuilder.build(userId, request.dailySummary);
-        String basePrompt = promptBuilder.buildPrompt(
-                request,
-                com.fitness.entity.AiInsight.findRecentByUser(userId, 2),
-                context);
+        String basePrompt = buildBudgetedPrompt("ai/vision", userId, request, 2).full();
         String visionPrompt = "ANALİZ ET: Sana gönderilen bu görseli incele. " + 
                              "Eğer bu bir yemekse, yaklaşık kalorileri ve makroları çıkar. " +
                              "Eğer bu bir egzersiz formuysa, biomekanik hataları ve düzeltmeleri söyle.\n" + 
@@ -94,17 +142,18 @@ public class GeminiCoachService {
                 visionPrompt,
                 imageBytes,
                 mimeType,
-                true
+                OutputSchema.COACH
         );
 
         if (!result.isSuccess()) throw mapFailure(result);
 
         try {
-            String jsonText = aiProviderRouter.extractJsonFromResponse(userId, result.getOutputText());
-            AiCoachResponse response = parseResponse(objectMapper.readTree(jsonText));
+            AiCoachResponse response = LlmJsonExtractor.readCoachResponse(result.getOutputText());
+            structuredOutputStats.recordParsed(result.getModelUsed());
             validateResponse(response);
             return response;
         } catch (IOException e) {
+            structuredOutputStats.recordFailure(result.getModelUsed(), OutputSchema.COACH, e.getMessage());
             throw new AiCoachServiceException(502, "Görüntü analizi işlenemedi.", e);
         }
     }
@@ -127,76 +176,6 @@ public class GeminiCoachService {
         }
     }
 
-    private AiCoachResponse parseResponse(JsonNode parsed) {
-        AiCoachResponse response = new AiCoachResponse();
-        response.todayFocus = parsed.path("todayFocus").asText("").trim();
-        response.nutritionNote = parsed.path("nutritionNote").asText("").trim();
-        response.actionItems = parseActionItems(parsed.path("actionItems"));
-
-        // V5: Rich Data Parsing
-        response.isAchievement = parsed.path("isAchievement").asBoolean(false);
-        response.actions = parseActions(parsed.path("actions"));
-        response.media = parseMedia(parsed.path("media"));
-
-        return response;
-    }
-
-    private List<AiCoachResponse.AiCoachAction> parseActions(JsonNode actionsNode) {
-        List<AiCoachResponse.AiCoachAction> actions = new ArrayList<>();
-        if (actionsNode != null && actionsNode.isArray()) {
-            for (JsonNode node : actionsNode) {
-                AiCoachResponse.AiCoachAction action = new AiCoachResponse.AiCoachAction();
-                action.label = node.path("label").asText("");
-                action.type = node.path("type").asText("");
-                action.data = node.path("data").asText("");
-                if (!action.type.isEmpty())
-                    actions.add(action);
-            }
-        }
-        return actions;
-    }
-
-    private List<AiCoachResponse.AiCoachMedia> parseMedia(JsonNode mediaNode) {
-        List<AiCoachResponse.AiCoachMedia> mediaList = new ArrayList<>();
-        if (mediaNode != null && mediaNode.isArray()) {
-            for (JsonNode node : mediaNode) {
-                AiCoachResponse.AiCoachMedia media = new AiCoachResponse.AiCoachMedia();
-                media.type = node.path("type").asText("");
-                media.url = node.path("url").asText("");
-                media.title = node.path("title").asText("");
-                if (!media.type.isEmpty())
-                    mediaList.add(media);
-            }
-        }
-        return mediaList;
-    }
-
-    private List<String> parseActionItems(JsonNode items) {
-        List<String> result = new ArrayList<>();
-        if (items == null || !items.isArray()) {
-            return result;
-        }
-
-        for (JsonNode node : items) {
-            String value;
-            if (node.isTextual()) {
-                value = node.asText();
-            } else if (node.isObject() && node.has("text")) {
-                value = node.path("text").asText();
-            } else if (node.isNumber() || node.isBoolean()) {
-                value = node.asText();
-            } else {
-                continue;
-            }
-
-            if (value != null && !value.trim().isEmpty()) {
-                result.add(value.trim());
-            }
-        }
-
-        return result;
-    }
-
     private void validateResponse(AiCoachResponse response) {
         if (response.todayFocus == null || response.todayFocus.isBlank()) {
             response.todayFocus = "Bugunku hedefe odaklan.";
@@ -1,6 +1,5 @@
 package com.fitness.service;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -39,6 +38,12 @@ public class GeminiNutritionService {
     @Inject
     UserMealPreferenceService userPreferenceService;
 
+    @Inject
+    StructuredOutputStats structuredOutputStats;
+
+    @Inject
+    Tracing tracing;
+
     @ConfigProperty(name = "gemini.nutrition.model", defaultValue = "gemini-2.0-flash")
     String nutritionModel;
 
@@ -84,15 +89,14 @@ public class GeminiNutritionService {
                 prompt,
                 imageBytes,
                 mimeType,
-                true);
+                OutputSchema.NUTRITION_LABEL);
 
         if (!result.isSuccess()) {
             throw mapFailure(result);
         }
 
         try {
-            String jsonText = extractJson(cleanResponse(result.getOutputText()));
-            JsonNode parsed = objectMapper.readTree(jsonText);
+            JsonNode parsed = LlmJsonExtractor.readTree(objectMapper, result.getOutputText());
 
             NutritionLabelResult labelResult = new NutritionLabelResult();
             labelResult.productName = parsed.path("productName").isNull() ? null
@@ -108,8 +112,10 @@ public class GeminiNutritionService {
                     : parsed.path("servingUnit").asText(null);
             labelResult.confidence = parseDouble(parsed, "confidence");
 
+            structuredOutputStats.recordParsed(result.getModelUsed());
             return labelResult;
         } catch (Exception e) {
+            structuredOutputStats.recordFailure(result.getModelUsed(), OutputSchema.NUTRITION_LABEL, e.getMessage());
             LOG.warnf("Failed to parse label scan response: %s", e.getMessage());
             // Return empty result rather than crashing
             NutritionLabelResult empty = new NutritionLabelResult();
@@ -153,15 +159,14 @@ public class GeminiNutritionService {
                 prompt,
                 imageBytes,
                 mimeType,
-                true);
+                OutputSchema.FOOD_IMAGE);
 
         if (!result.isSuccess()) {
             throw mapFailure(result);
         }
 
         try {
-            String jsonText = extractJson(cleanResponse(result.getOutputText()));
-            JsonNode parsed = objectMapper.readTree(jsonText);
+            JsonNode parsed = LlmJsonExtractor.readTree(objectMapper, result.getOutputText());
 
             FoodImageResult foodResult = new FoodImageResult();
             foodResult.mealName = parsed.path("mealName").isNull() ? "Bilinmeyen Yemek"
@@ -179,8 +184,10 @@ public class GeminiNutritionService {
             foodResult.confidence = parseDouble(parsed, "confidence");
             foodResult.detectedIngredients = parseStringList(parsed.path("detectedIngredients"));
 
+            structuredOutputStats.recordParsed(result.getModelUsed());
             return foodResult;
         } catch (Exception e) {
+            structuredOutputStats.recordFailure(result.getModelUsed(), OutputSchema.FOOD_IMAGE, e.getMessage());
             LOG.warnf("Failed to parse food image analysis response: %s", e.getMessage());
             FoodImageResult empty = new FoodImageResult();
             empty.mealName = "Analiz Başarısız";
@@ -213,7 +220,10 @@ public class GeminiNutritionService {
 
         // Inject meal preferences into dietary restrictions if available
         if (userId != null && userPreferenceService != null) {
-            String prefs = userPreferenceService.getPreferenceSummary(userId);
+            String prefs;
+            try (TraceSpan span = tracing.startSpan("preferences")) {
+                prefs = userPreferenceService.getPreferenceSummary(userId);
+            }
             if (!prefs.isEmpty()) {
                 if (request.context == null) {
                     request.context = new NutritionAiRequest.NutritionContext();
@@ -225,31 +235,41 @@ public class GeminiNutritionService {
             }
         }
 
-        String prompt = promptBuilder.buildPrompt(request);
+        String prompt;
+        try (TraceSpan span = tracing.startSpan("prompt.build")) {
+            prompt = promptBuilder.buildPrompt(request);
+            span.setAttribute("prompt.chars", prompt.length());
+        }
 
         // Determine if we expect JSON based on task type
         boolean expectJson = !"EXTRACT_FOOD_ITEMS".equalsIgnoreCase(request.task);
 
-        GeminiClientResult result = aiProviderRouter.generateText(
-                "ai/nutrition",
-                userId,
-                nutritionModel,
-                nutritionFallbackModel,
-                prompt,
-                expectJson);
+        GeminiClientResult result = expectJson
+                ? aiProviderRouter.generateText("ai/nutrition", userId, nutritionModel, nutritionFallbackModel,
+                        PromptParts.of(prompt), OutputSchema.NUTRITION)
+                : aiProviderRouter.generateText("ai/nutrition", userId, nutritionModel, nutritionFallbackModel,
+                        prompt, false);
 
         if (!result.isSuccess()) {
             throw mapFailure(result);
         }
 
-        try {
-            NutritionAiResponse response = parseResponse(result.getOutputText());
+        try (TraceSpan span = tracing.startSpan("parse")) {
+            span.setAttribute("ai.model", result.getModelUsed());
+            NutritionAiResponse response = LlmJsonExtractor.readNutritionResponse(result.getOutputText());
+            if (expectJson) {
+                structuredOutputStats.recordParsed(result.getModelUsed());
+            }
             // Get goal from request context for filtering
             String goal = (request.context != null) ? request.context.goal : null;
             validateAndNormalizeResponse(response, goal);
             return new NutritionGenerationResult(response, result.getModelUsed());
         } catch (Exception e) {
             // Parse fail olursa fallback response döndür
+            Tracing.currentSpan().setAttribute("ai.parse_fallback", true);
+            if (expectJson) {
+                structuredOutputStats.recordFailure(result.getModelUsed(), OutputSchema.NUTRITION, e.getMessage());
+            }
             LOG.warnf("Failed to parse nutrition response: %s", e.getMessage());
             NutritionAiResponse fallbackResponse = createFallbackResponse(result.getOutputText());
             return new NutritionGenerationResult(fallbackResponse, result.getModelUsed());
@@ -268,37 +288,6 @@ public class GeminiNutritionService {
         }
     }
 
-    private NutritionAiResponse parseResponse(String rawResponse) throws IOException {
-        String raw = cleanResponse(rawResponse);
-
-        try {
-            String jsonText = extractJson(raw);
-            JsonNode parsed = objectMapper.readTree(jsonText);
-
-            if (!parsed.isObject()) {
-                throw new IOException("Response is not a JSON object");
-            }
-
-            NutritionAiResponse response = new NutritionAiResponse();
-
-            // Parse reply (optional field)
-            response.reply = parsed.path("reply").asText("");
-
-            // Parse meals array
-            response.meals = parseMeals(parsed.path("meals"));
-
-            // Parse shoppingList
-            response.shoppingList = parseStringList(parsed.path("shoppingList"));
-
-            // Parse followUpQuestions
-            response.followUpQuestions = parseStringList(parsed.path("followUpQuestions"));
-
-            return response;
-        } catch (IOException e) {
-            throw e;
-        }
-    }
-
     /**
      * Validate and normalize the response to ensure UI doesn't break
      */
@@ -473,64 +462,6 @@ public class GeminiNutritionService {
         return fallback;
     }
 
-    private List<NutritionAiResponse.SuggestedMeal> parseMeals(JsonNode arrayNode) {
-        List<NutritionAiResponse.SuggestedMeal> meals = new ArrayList<>();
-        if (arrayNode == null || !arrayNode.isArray()) {
-            return meals;
-        }
-
-        for (JsonNode node : arrayNode) {
-            if (!node.isObject()) {
-                continue;
-            }
-            String name = node.path("name").asText("").trim();
-            if (name.isEmpty()) {
-                continue;
-            }
-
-            NutritionAiResponse.SuggestedMeal meal = new NutritionAiResponse.SuggestedMeal();
-            meal.name = name;
-            meal.reason = node.path("reason").asText("").trim();
-            meal.ingredients = parseStringList(node.path("ingredients"));
-            meal.steps = parseStringList(node.path("steps"));
-            meal.tags = parseStringList(node.path("tags"));
-            meal.warnings = parseStringList(node.path("warnings"));
-
-            // Parse prepMinutes
-            JsonNode prepNode = node.path("prepMinutes");
-            if (prepNode.isInt() || prepNode.isLong()) {
-                meal.prepMinutes = prepNode.asInt();
-            }
-
-            // Parse macros
-            JsonNode macrosNode = node.path("macros");
-            if (macrosNode.isObject()) {
-                NutritionAiResponse.MealMacros macros = new NutritionAiResponse.MealMacros();
-                JsonNode kcalNode = macrosNode.path("kcal");
-                JsonNode proteinNode = macrosNode.path("proteinG");
-                JsonNode carbsNode = macrosNode.path("carbsG");
-                JsonNode fatNode = macrosNode.path("fatG");
-
-                if (kcalNode.isInt() || kcalNode.isLong()) {
-                    macros.kcal = kcalNode.asInt();
-                }
-                if (proteinNode.isInt() || proteinNode.isLong()) {
-                    macros.proteinG = proteinNode.asInt();
-                }
-                if (carbsNode.isInt() || carbsNode.isLong()) {
-                    macros.carbsG = carbsNode.asInt();
-                }
-                if (fatNode.isInt() || fatNode.isLong()) {
-                    macros.fatG = fatNode.asInt();
-                }
-                meal.macros = macros;
-            }
-
-            meals.add(meal);
-        }
-        return meals;
-    }
-
     private List<String> parseStringList(JsonNode arrayNode) {
         List<String> result = new ArrayList<>();
         if (arrayNode == null || !arrayNode.isArray()) {
@@ -564,37 +495,6 @@ public class GeminiNutritionService {
         return cleaned.trim();
     }
 
-    private String extractJson(String raw) {
-        // More robust extraction
-        String trimmed = raw.trim();
-
-        // Strip known markdown blocks first if exist
-        if (trimmed.startsWith("```json")) {
-            trimmed = trimmed.substring(7);
-        } else if (trimmed.startsWith("```")) {
-            trimmed = trimmed.substring(3);
-        }
-        if (trimmed.endsWith("```")) {
-            trimmed = trimmed.substring(0, trimmed.length() - 3);
-        }
-
-        trimmed = trimmed.trim();
-
-        // Try to find JSON object
-        int firstBrace = trimmed.indexOf('{');
-        if (firstBrace < 0) {
-            // No JSON found, return raw for fallback
-            return trimmed;
-        }
-
-        int lastBrace = trimmed.lastIndexOf('}');
-        if (lastBrace < 0 || lastBrace <= firstBrace) {
-            return trimmed;
-        }
-
-        return trimmed.substring(firstBrace, lastBrace + 1);
-    }
-
     private AiCoachServiceException mapFailure(GeminiClientResult result) {
         int status = result.getStatusCode();
         String modelInfo = result.getModelUsed() != null ? " (" + result.getModelUsed() + ")" : "";
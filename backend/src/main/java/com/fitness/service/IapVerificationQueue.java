@@ -0,0 +1,352 @@
+package com.fitness.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fitness.entity.IapVerification;
+import com.fitness.entity.User;
+import com.fitness.repository.IapVerificationRepository;
+import com.fitness.service.IapVerificationService.IapVerifyRequest;
+import com.fitness.service.IapVerificationService.IapVerifyResult;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Asynchronous App Store / Google Play verification.
+ * <p>
+ * {@link #submit} stores the purchase in iap_verifications and returns at
+ * once; the store round trip happens on a background worker that claims rows
+ * with {@code FOR UPDATE SKIP LOCKED} (same flow as NotificationOutboxWorker),
+ * verifies them outside any transaction and applies the results in a single
+ * transaction. Purchases are deduplicated by receipt or purchase-token hash,
+ * so app retries of the same receipt reuse the existing row instead of
+ * calling the store again. The iOS transaction id sent by the app is only
+ * trusted once the store response places it in the subscription that grants
+ * premium; that subscription's original transaction id is unique, so one
+ * subscription (including its renewals) cannot unlock premium on two accounts.
+ * Transient store errors are retried with
+ * exponential backoff until {@code max-attempts} is reached.
+ */
+@ApplicationScoped
+public class IapVerificationQueue {
+
+    private static final Logger LOG = Logger.getLogger(IapVerificationQueue.class);
+    private static final long MAX_BACKOFF_SECONDS = 60 * 60;
+
+    @Inject
+    IapVerificationRepository verificationRepository;
+
+    @Inject
+    IapVerificationService iapVerificationService;
+
+    @ConfigProperty(name = "iap.verification.batch-size", defaultValue = "20")
+    int batchSize;
+
+    @ConfigProperty(name = "iap.verification.worker-threads", defaultValue = "2")
+    int workerThreads;
+
+    @ConfigProperty(name = "iap.verification.max-attempts", defaultValue = "6")
+    int maxAttempts;
+
+    @ConfigProperty(name = "iap.verification.backoff-base-seconds", defaultValue = "10")
+    long backoffBaseSeconds;
+
+    @ConfigProperty(name = "iap.verification.lease-seconds", defaultValue = "120")
+    long leaseSeconds;
+
+    private ExecutorService verifyPool;
+
+    /** Yeni kayıt gelince zamanlayıcıyı beklemeden bir batch işler; kuyrukta bir tetik yeterli. */
+    private ThreadPoolExecutor kickExecutor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        verifyPool = Executors.newFixedThreadPool(Math.max(1, workerThreads), runnable -> {
+            Thread thread = new Thread(runnable, "iap-verify-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        kickExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), runnable -> {
+                    Thread thread = new Thread(runnable, "iap-verify-kick");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        kickExecutor.shutdownNow();
+        verifyPool.shutdownNow();
+    }
+
+    /**
+     * Kuyruğa ekler ya da aynı satın almanın mevcut kaydını döner.
+     * <ul>
+     *   <li>PENDING / PROCESSING: doğrulama sürüyor, aynı kayıt döner.</li>
+     *   <li>REJECTED: mağaza bu receipt'i reddetti, tekrar sorulmaz.</li>
+     *   <li>VERIFIED / FAILED: yeniden kuyruğa alınır (yenilenen Android aboneliği
+     *       aynı token'la gelir; FAILED ise mağazaya hiç ulaşılamamıştır).</li>
+     * </ul>
+     * Dönen kaydın {@code userId}'si çağıranınkinden farklıysa receipt başka bir
+     * hesaba aittir; çağıran bunu kontrol etmelidir.
+     */
+    public IapVerification submit(Long userId, IapVerifyRequest request) {
+        String dedupKey = dedupKey(request);
+        IapVerification entry = QuarkusTransaction.requiringNew().call(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            IapVerification candidate = new IapVerification();
+            candidate.userId = userId;
+            candidate.platform = request.platform().toLowerCase();
+            candidate.planId = request.planId();
+            candidate.dedupKey = dedupKey;
+            candidate.transactionId = blankToNull(request.transactionId());
+            candidate.purchaseToken = blankToNull(request.purchaseToken());
+            candidate.receiptData = blankToNull(request.receiptData());
+            verificationRepository.enqueue(candidate, now);
+
+            IapVerification existing = verificationRepository.findByDedupKey(dedupKey);
+            if (existing.userId.equals(userId) && (IapVerification.STATUS_VERIFIED.equals(existing.status)
+                    || IapVerification.STATUS_FAILED.equals(existing.status))) {
+                existing.status = IapVerification.STATUS_PENDING;
+                existing.planId = candidate.planId;
+                existing.transactionId = candidate.transactionId;
+                existing.purchaseToken = candidate.purchaseToken;
+                existing.receiptData = candidate.receiptData;
+                existing.attempts = 0;
+                existing.nextAttemptAt = now;
+                existing.claimedAt = null;
+                existing.completedAt = null;
+                existing.lastError = null;
+            }
+            return existing;
+        });
+
+        if (IapVerification.STATUS_PENDING.equals(entry.status) && entry.userId.equals(userId)) {
+            kickExecutor.execute(this::processBatchSafely);
+        }
+        return entry;
+    }
+
+    public IapVerification find(Long id) {
+        return QuarkusTransaction.requiringNew().call(() -> verificationRepository.findById(id));
+    }
+
+    @Scheduled(every = "${iap.verification.poll-interval:5s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void poll() {
+        int processed;
+        do {
+            processed = processBatch();
+        } while (processed >= batchSize);
+    }
+
+    /**
+     * Claim, verify and apply one batch.
+     *
+     * @return number of claimed rows
+     */
+    public int processBatch() {
+        LocalDateTime claimTime = LocalDateTime.now();
+        List<IapVerification> batch = QuarkusTransaction.requiringNew().call(() -> verificationRepository.claimBatch(
+                batchSize, claimTime, claimTime.minusSeconds(leaseSeconds)));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Future<IapVerifyResult>> futures = new ArrayList<>(batch.size());
+        for (IapVerification entry : batch) {
+            IapVerifyRequest request = new IapVerifyRequest(entry.platform, entry.planId,
+                    entry.purchaseToken, entry.receiptData, entry.transactionId);
+            futures.add(verifyPool.submit(() -> iapVerificationService.verify(request)));
+        }
+
+        List<Outcome> outcomes = new ArrayList<>(batch.size());
+        for (int i = 0; i < futures.size(); i++) {
+            outcomes.add(new Outcome(batch.get(i).id, await(futures.get(i))));
+        }
+
+        QuarkusTransaction.requiringNew().run(() -> apply(outcomes));
+        return batch.size();
+    }
+
+    private void processBatchSafely() {
+        try {
+            processBatch();
+        } catch (Exception e) {
+            // Zamanlayıcı bir sonraki turda tekrar dener
+            LOG.warnf("iap_verification kick failed: %s", e.getMessage());
+        }
+    }
+
+    private IapVerifyResult await(Future<IapVerifyResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return IapVerifyResult.retry("Interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return IapVerifyResult.retry(cause.getMessage());
+        }
+    }
+
+    private void apply(List<Outcome> outcomes) {
+        LocalDateTime now = LocalDateTime.now();
+        int verified = 0;
+        int rejected = 0;
+        int retried = 0;
+        int failed = 0;
+
+        for (Outcome outcome : outcomes) {
+            IapVerification entry = verificationRepository.findById(outcome.verificationId());
+            if (entry == null || !IapVerification.STATUS_PROCESSING.equals(entry.status)) {
+                continue; // user deleted (cascade) or already handled by another worker after lease expiry
+            }
+            IapVerifyResult result = outcome.result();
+            entry.claimedAt = null;
+
+            if (result.valid() && !claimSubscription(entry, result.originalTransactionId())) {
+                entry.status = IapVerification.STATUS_REJECTED;
+                entry.lastError = "Bu satın alma başka bir hesaba ait.";
+                complete(entry, now);
+                rejected++;
+                LOG.warnf("IAP işlem kimliği başka kullanıcıda — userId=%d id=%d", entry.userId, entry.id);
+                continue;
+            }
+            if (result.valid()) {
+                User user = User.findById(entry.userId);
+                if (user == null) {
+                    continue;
+                }
+                int months = "yearly".equalsIgnoreCase(result.planId()) ? 12 : 1;
+                user.premiumTier = "premium";
+                user.premiumPlan = result.planId();
+                user.premiumExpiresAt = now.plusMonths(months);
+                user.premiumCancelAtPeriodEnd = false;
+                user.premiumCanceledAt = null;
+
+                entry.status = IapVerification.STATUS_VERIFIED;
+                entry.verifiedPlan = result.planId();
+                entry.verifiedTransactionId = result.transactionId();
+                entry.lastError = null;
+                complete(entry, now);
+                verified++;
+                LOG.infof("IAP premium aktif — userId=%d plan=%s until=%s platform=%s txId=%s attempts=%d",
+                        entry.userId, result.planId(), user.premiumExpiresAt, entry.platform,
+                        entry.transactionId, entry.attempts);
+                continue;
+            }
+
+            entry.lastError = result.errorMessage();
+            if (!result.retryable()) {
+                entry.status = IapVerification.STATUS_REJECTED;
+                complete(entry, now);
+                rejected++;
+                LOG.warnf("IAP doğrulama başarısız — userId=%d id=%d reason=%s",
+                        entry.userId, entry.id, result.errorMessage());
+            } else if (entry.attempts >= maxAttempts) {
+                entry.status = IapVerification.STATUS_FAILED;
+                complete(entry, now);
+                failed++;
+                LOG.warnf("iap_verification status=failed id=%d userId=%d attempts=%d error=%s",
+                        entry.id, entry.userId, entry.attempts, result.errorMessage());
+            } else {
+                entry.status = IapVerification.STATUS_PENDING;
+                entry.nextAttemptAt = now.plusSeconds(backoffSeconds(entry.attempts));
+                retried++;
+            }
+        }
+
+        LOG.infof("iap_verification batch size=%d verified=%d rejected=%d retried=%d failed=%d",
+                outcomes.size(), verified, rejected, retried, failed);
+    }
+
+    /**
+     * Aboneliğin original_transaction_id'sini satıra yazar. Abonelik başka bir kullanıcının
+     * satırındaysa false döner; aynı kullanıcının eski receipt'indeyse (ör. yenileme) kimlik
+     * yeni satıra taşınır.
+     */
+    private boolean claimSubscription(IapVerification entry, String originalTransactionId) {
+        if (originalTransactionId == null) {
+            return true;
+        }
+        IapVerification holder = verificationRepository.findByOriginalTransactionId(originalTransactionId);
+        if (holder != null && !holder.id.equals(entry.id)) {
+            if (!holder.userId.equals(entry.userId)) {
+                return false;
+            }
+            verificationRepository.update("originalTransactionId = null where id = ?1", holder.id);
+        }
+        entry.originalTransactionId = originalTransactionId;
+        return true;
+    }
+
+    /** Receipt ve token yalnızca doğrulama için tutulur; sonuç kesinleşince silinir. */
+    private static void complete(IapVerification entry, LocalDateTime now) {
+        entry.completedAt = now;
+        entry.purchaseToken = null;
+        entry.receiptData = null;
+    }
+
+    private long backoffSeconds(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(backoffBaseSeconds << exponent, MAX_BACKOFF_SECONDS);
+    }
+
+    /**
+     * iOS: receipt hash'i (varsa istemcinin transactionId'si ile birlikte). transactionId
+     * tek başına anahtar olamaz: doğrulanmadan başka birinin satın almasını kilitler ya da
+     * düzeltilmiş bir gönderimi eski REJECTED satıra bağlardı. Aboneliğin tek hesaba
+     * ait olması {@code original_transaction_id} ile sağlanır.
+     * Android: purchase token hash'i. Ham değerler indekse girmez.
+     */
+    static String dedupKey(IapVerifyRequest request) {
+        String platform = request.platform().toLowerCase();
+        if ("ios".equals(platform)) {
+            String transactionId = blankToNull(request.transactionId());
+            return "ios:" + sha256(transactionId != null
+                    ? request.receiptData() + "\n" + transactionId
+                    : request.receiptData());
+        }
+        return platform + ":" + sha256(request.purchaseToken());
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Outcome(Long verificationId, IapVerifyResult result) {
+    }
+}
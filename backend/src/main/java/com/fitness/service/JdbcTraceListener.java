@@ -0,0 +1,60 @@
+package com.fitness.service;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Hibernate session listener that records JDBC statement executions, batches
+ * and connection acquisitions as client spans of the current request trace.
+ * Registered through {@code hibernate.session.events.auto}; Hibernate creates
+ * one instance per session, so start/end callbacks arrive in pairs on the
+ * session's thread. Outside a traced request nothing is recorded.
+ */
+public class JdbcTraceListener implements SessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient TraceSpan statement;
+    private transient TraceSpan batch;
+    private transient TraceSpan acquisition;
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        acquisition = start("db.connection.acquire");
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        acquisition = end(acquisition);
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statement = start("db.execute");
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        statement = end(statement);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batch = start("db.execute_batch");
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        batch = end(batch);
+    }
+
+    private static TraceSpan start(String name) {
+        return Tracing.currentSpan().child(name, TraceSpan.Kind.CLIENT).setAttribute("db.system", "postgresql");
+    }
+
+    private static TraceSpan end(TraceSpan span) {
+        if (span != null) {
+            span.close();
+        }
+        return null;
+    }
+}
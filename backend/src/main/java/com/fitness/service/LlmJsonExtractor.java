@@ -0,0 +1,406 @@
+package com.fitness.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.dto.AiCoachResponse;
+import com.fitness.dto.NutritionAiResponse;
+
+/**
+ * Pulls the JSON object out of raw model output and binds it to the response DTOs.
+ * <p>
+ * {@link #locate} finds the object in one pass over the text: markdown fences and
+ * leading prose are skipped, braces are balanced with string/escape awareness, and
+ * trailing chatter after the object is ignored. A {@code '{'} in prose only starts
+ * a candidate when the next non-blank character is {@code '"'} or {@code '}'}.
+ * <p>
+ * The {@code read*} methods then stream the located range through a
+ * {@link JsonParser} straight into the DTO, without building a {@link JsonNode}
+ * tree. Field coercion matches the previous tree-walking code (scalars become
+ * text, blank list entries are dropped, unknown fields are skipped).
+ * Every failure surfaces as {@link IOException}.
+ */
+public final class LlmJsonExtractor {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    /** Location of the JSON object in the raw text; {@code complete} is false when output was cut off. */
+    public record Span(int start, int end, boolean complete) {
+        public int length() {
+            return end - start;
+        }
+    }
+
+    private LlmJsonExtractor() {
+    }
+
+    /**
+     * Returns the first JSON object in {@code raw}, or {@code null} when there is none.
+     */
+    public static Span locate(CharSequence raw) {
+        if (raw == null) {
+            return null;
+        }
+        int length = raw.length();
+        int start = -1;
+        int depth = 0;
+        boolean inString = false;
+        boolean escape = false;
+
+        for (int i = 0; i < length; i++) {
+            char c = raw.charAt(i);
+            if (start < 0) {
+                if (c == '{' && opensObject(raw, i + 1)) {
+                    start = i;
+                    depth = 1;
+                }
+                continue;
+            }
+            if (inString) {
+                if (escape) {
+                    escape = false;
+                } else if (c == '\\') {
+                    escape = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> inString = true;
+                case '{', '[' -> depth++;
+                case '}', ']' -> {
+                    if (--depth == 0) {
+                        return new Span(start, i + 1, true);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return start < 0 ? null : new Span(start, length, false);
+    }
+
+    /**
+     * The JSON object as text; kept for callers that still need a string.
+     * Falls back to the trimmed input when no object is found.
+     */
+    public static String extract(String raw) {
+        if (raw == null) {
+            return "{}";
+        }
+        Span span = locate(raw);
+        return span == null ? raw.trim() : raw.substring(span.start(), span.end());
+    }
+
+    public static JsonNode readTree(ObjectMapper objectMapper, String raw) throws IOException {
+        try (JsonParser parser = open(raw)) {
+            return objectMapper.readTree(parser);
+        }
+    }
+
+    public static AiCoachResponse readCoachResponse(String raw) throws IOException {
+        AiCoachResponse response = new AiCoachResponse();
+        response.todayFocus = "";
+        response.nutritionNote = "";
+        response.actionItems = new ArrayList<>();
+        response.isAchievement = false;
+        response.actions = new ArrayList<>();
+        response.media = new ArrayList<>();
+
+        try (JsonParser parser = open(raw)) {
+            while (nextField(parser)) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "todayFocus" -> response.todayFocus = text(parser).trim();
+                    case "nutritionNote" -> response.nutritionNote = text(parser).trim();
+                    case "actionItems" -> response.actionItems = actionItems(parser);
+                    case "isAchievement" -> response.isAchievement = bool(parser, value);
+                    case "actions" -> response.actions = actions(parser);
+                    case "media" -> response.media = media(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return response;
+    }
+
+    public static NutritionAiResponse readNutritionResponse(String raw) throws IOException {
+        NutritionAiResponse response = new NutritionAiResponse();
+        response.reply = "";
+        response.meals = new ArrayList<>();
+        response.shoppingList = new ArrayList<>();
+        response.followUpQuestions = new ArrayList<>();
+
+        try (JsonParser parser = open(raw)) {
+            while (nextField(parser)) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "reply" -> response.reply = text(parser);
+                    case "meals" -> response.meals = meals(parser);
+                    case "shoppingList" -> response.shoppingList = stringList(parser);
+                    case "followUpQuestions" -> response.followUpQuestions = stringList(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return response;
+    }
+
+    // ─── Parsing helpers ─────────────────────────────────────────
+
+    private static JsonParser open(String raw) throws IOException {
+        Span span = locate(raw);
+        if (span == null) {
+            throw new IOException("Model çıktısında JSON nesnesi bulunamadı");
+        }
+        // Tek kopya: yalnızca nesnenin bulunduğu aralık parser'a verilir
+        char[] chars = new char[span.length()];
+        raw.getChars(span.start(), span.end(), chars, 0);
+        JsonParser parser = FACTORY.createParser(chars, 0, chars.length);
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            parser.close();
+            throw new IOException("Model çıktısı bir JSON nesnesi değil");
+        }
+        return parser;
+    }
+
+    /** Advances to the next field name of the current object; false at its end. */
+    private static boolean nextField(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.FIELD_NAME) {
+            return true;
+        }
+        if (token == JsonToken.END_OBJECT) {
+            return false;
+        }
+        throw new IOException("Beklenmeyen JSON belirteci: " + token);
+    }
+
+    /** Scalar as text (like {@code JsonNode.asText("")}); containers are skipped and read as empty. */
+    private static String text(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return "";
+        }
+        return parser.getValueAsString("");
+    }
+
+    private static boolean bool(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_TRUE -> true;
+            case VALUE_NUMBER_INT -> parser.getLongValue() != 0;
+            case VALUE_STRING -> "true".equals(parser.getText().trim());
+            case START_OBJECT, START_ARRAY -> {
+                parser.skipChildren();
+                yield false;
+            }
+            default -> false;
+        };
+    }
+
+    /** Integer value only for int/long-sized integer tokens, like the old {@code isInt() || isLong()} check. */
+    private static Integer integer(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+            return (int) parser.getLongValue();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static List<String> stringList(JsonParser parser) throws IOException {
+        List<String> result = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return result;
+        }
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.VALUE_STRING) {
+                String value = parser.getText().trim();
+                if (!value.isEmpty()) {
+                    result.add(value);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    private static List<String> actionItems(JsonParser parser) throws IOException {
+        List<String> result = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return result;
+        }
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            String value = null;
+            if (token == JsonToken.START_OBJECT) {
+                while (nextField(parser)) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if ("text".equals(field)) {
+                        value = text(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if (token == JsonToken.START_ARRAY) {
+                parser.skipChildren();
+            } else if (token != JsonToken.VALUE_NULL) {
+                value = parser.getValueAsString("");
+            }
+            if (value != null && !value.trim().isEmpty()) {
+                result.add(value.trim());
+            }
+        }
+        return result;
+    }
+
+    private static List<AiCoachResponse.AiCoachAction> actions(JsonParser parser) throws IOException {
+        List<AiCoachResponse.AiCoachAction> result = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return result;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            AiCoachResponse.AiCoachAction action = new AiCoachResponse.AiCoachAction();
+            action.label = "";
+            action.type = "";
+            action.data = "";
+            while (nextField(parser)) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "label" -> action.label = text(parser);
+                    case "type" -> action.type = text(parser);
+                    case "data" -> action.data = text(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+            if (!action.type.isEmpty()) {
+                result.add(action);
+            }
+        }
+        return result;
+    }
+
+    private static List<AiCoachResponse.AiCoachMedia> media(JsonParser parser) throws IOException {
+        List<AiCoachResponse.AiCoachMedia> result = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return result;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            AiCoachResponse.AiCoachMedia media = new AiCoachResponse.AiCoachMedia();
+            media.type = "";
+            media.url = "";
+            media.title = "";
+            while (nextField(parser)) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "type" -> media.type = text(parser);
+                    case "url" -> media.url = text(parser);
+                    case "title" -> media.title = text(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+            if (!media.type.isEmpty()) {
+                result.add(media);
+            }
+        }
+        return result;
+    }
+
+    private static List<NutritionAiResponse.SuggestedMeal> meals(JsonParser parser) throws IOException {
+        List<NutritionAiResponse.SuggestedMeal> result = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return result;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            NutritionAiResponse.SuggestedMeal meal = new NutritionAiResponse.SuggestedMeal();
+            meal.name = "";
+            meal.reason = "";
+            meal.ingredients = new ArrayList<>();
+            meal.steps = new ArrayList<>();
+            meal.tags = new ArrayList<>();
+            meal.warnings = new ArrayList<>();
+            while (nextField(parser)) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "name" -> meal.name = text(parser).trim();
+                    case "reason" -> meal.reason = text(parser).trim();
+                    case "ingredients" -> meal.ingredients = stringList(parser);
+                    case "steps" -> meal.steps = stringList(parser);
+                    case "tags" -> meal.tags = stringList(parser);
+                    case "warnings" -> meal.warnings = stringList(parser);
+                    case "prepMinutes" -> meal.prepMinutes = integer(parser);
+                    case "macros" -> meal.macros = macros(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+            if (!meal.name.isEmpty()) {
+                result.add(meal);
+            }
+        }
+        return result;
+    }
+
+    private static NutritionAiResponse.MealMacros macros(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        NutritionAiResponse.MealMacros macros = new NutritionAiResponse.MealMacros();
+        while (nextField(parser)) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "kcal" -> macros.kcal = integer(parser);
+                case "proteinG" -> macros.proteinG = integer(parser);
+                case "carbsG" -> macros.carbsG = integer(parser);
+                case "fatG" -> macros.fatG = integer(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return macros;
+    }
+
+    private static boolean opensObject(CharSequence raw, int from) {
+        for (int i = from; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '"' || c == '}';
+            }
+        }
+        // Kesilmiş çıktı: '{' sonrası hiçbir şey gelmediyse yine aday say
+        return true;
+    }
+}
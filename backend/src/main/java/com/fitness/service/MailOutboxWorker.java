@@ -0,0 +1,252 @@
+package com.fitness.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fitness.entity.MailOutbox;
+import com.fitness.repository.MailOutboxRepository;
+
+import io.quarkus.mailer.Mail;
+import io.quarkus.mailer.reactive.ReactiveMailer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Background sender for mail_outbox.
+ * <ol>
+ *   <li>Claims a batch with {@code FOR UPDATE SKIP LOCKED} in a short transaction.</li>
+ *   <li>Sends the whole batch through the {@link ReactiveMailer} concurrently, outside any transaction.</li>
+ *   <li>Records all results in a single transaction.</li>
+ * </ol>
+ * Transient SMTP errors are retried with exponential backoff; permanent
+ * rejections (55x), rows that reach {@code max-attempts} and rows whose
+ * content expired ({@code expires_at}, e.g. a 15-minute reset code) are
+ * dead-lettered as DEAD and kept for inspection without their body.
+ */
+@ApplicationScoped
+public class MailOutboxWorker {
+
+    private static final Logger LOG = Logger.getLogger(MailOutboxWorker.class);
+    private static final long MAX_BACKOFF_SECONDS = 60 * 60;
+    /** 550 mailbox unavailable, 553 invalid address vb.: tekrar denemek sonucu değiştirmez. */
+    private static final Pattern PERMANENT_SMTP_REPLY = Pattern.compile("\\b55[0-4]\\b");
+    private static final String EXPIRED_ERROR = "İçeriğin geçerlilik süresi doldu, gönderilmedi";
+
+    @Inject
+    MailOutboxRepository outboxRepository;
+
+    @Inject
+    ReactiveMailer reactiveMailer;
+
+    @ConfigProperty(name = "mail.outbox.batch-size", defaultValue = "20")
+    int batchSize;
+
+    @ConfigProperty(name = "mail.outbox.max-attempts", defaultValue = "6")
+    int maxAttempts;
+
+    @ConfigProperty(name = "mail.outbox.backoff-base-seconds", defaultValue = "30")
+    long backoffBaseSeconds;
+
+    @ConfigProperty(name = "mail.outbox.lease-seconds", defaultValue = "300")
+    long leaseSeconds;
+
+    @ConfigProperty(name = "mail.outbox.send-timeout-seconds", defaultValue = "60")
+    long sendTimeoutSeconds;
+
+    /** Yeni satır gelince zamanlayıcıyı beklemeden bir batch gönderir; kuyrukta bir tetik yeterli. */
+    private ThreadPoolExecutor kickExecutor;
+
+    @PostConstruct
+    void init() {
+        kickExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), runnable -> {
+                    Thread thread = new Thread(runnable, "mail-outbox-kick");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        kickExecutor.shutdownNow();
+    }
+
+    /**
+     * Adds a mail to the outbox. Joins the caller's transaction so that the
+     * mail exists only if the data it refers to was committed.
+     *
+     * @param expiresAt after this the mail is dead-lettered instead of sent or retried; null for no limit
+     */
+    public MailOutbox enqueue(Long userId, String kind, String recipient, String subject, String htmlBody,
+            LocalDateTime expiresAt) {
+        LocalDateTime now = LocalDateTime.now();
+        MailOutbox entry = new MailOutbox();
+        entry.userId = userId;
+        entry.kind = kind;
+        entry.recipient = recipient;
+        entry.subject = subject;
+        entry.htmlBody = htmlBody;
+        entry.expiresAt = expiresAt;
+        entry.nextAttemptAt = now;
+        entry.createdAt = now;
+        outboxRepository.persist(entry);
+        return entry;
+    }
+
+    /** Sends pending mail now instead of at the next poll; call after the enqueue committed. */
+    public void kick() {
+        kickExecutor.execute(() -> {
+            try {
+                processBatch();
+            } catch (Exception e) {
+                // Zamanlayıcı bir sonraki turda tekrar dener
+                LOG.warnf("mail_outbox kick failed: %s", e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(every = "${mail.outbox.poll-interval:10s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void poll() {
+        int processed;
+        do {
+            processed = processBatch();
+        } while (processed >= batchSize);
+    }
+
+    /**
+     * Claim, send and record one batch.
+     *
+     * @return number of claimed outbox rows
+     */
+    public int processBatch() {
+        LocalDateTime claimTime = LocalDateTime.now();
+        List<MailOutbox> batch = QuarkusTransaction.requiringNew().call(() -> outboxRepository.claimBatch(
+                batchSize, claimTime, claimTime.minusSeconds(leaseSeconds)));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Tüm batch aynı anda yola çıkar; Vert.x mail client SMTP bağlantılarını havuzda tutar
+        // Süresi dolmuş içerik (ör. sıfırlama kodu) gönderilmez; null gelecek kaydedilirken DEAD olur
+        List<CompletableFuture<Void>> sends = new ArrayList<>(batch.size());
+        for (MailOutbox entry : batch) {
+            sends.add(isExpired(entry, claimTime) ? null
+                    : reactiveMailer.send(Mail.withHtml(entry.recipient, entry.subject, entry.htmlBody))
+                            .subscribeAsCompletionStage());
+        }
+
+        List<SendOutcome> outcomes = new ArrayList<>(batch.size());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(sendTimeoutSeconds);
+        for (int i = 0; i < sends.size(); i++) {
+            outcomes.add(sends.get(i) == null
+                    ? new SendOutcome(batch.get(i).id, EXPIRED_ERROR)
+                    : await(batch.get(i).id, sends.get(i), deadline));
+        }
+
+        QuarkusTransaction.requiringNew().run(() -> record(outcomes));
+        return batch.size();
+    }
+
+    private SendOutcome await(Long outboxId, CompletableFuture<Void> send, long deadlineNanos) {
+        try {
+            send.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return new SendOutcome(outboxId, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new SendOutcome(outboxId, "Interrupted");
+        } catch (TimeoutException e) {
+            send.cancel(true);
+            return new SendOutcome(outboxId, "SMTP gönderimi zaman aşımına uğradı");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return new SendOutcome(outboxId, describe(cause));
+        }
+    }
+
+    private void record(List<SendOutcome> outcomes) {
+        LocalDateTime now = LocalDateTime.now();
+        int sent = 0;
+        int retried = 0;
+        int dead = 0;
+
+        for (SendOutcome outcome : outcomes) {
+            MailOutbox entry = outboxRepository.findById(outcome.outboxId());
+            if (entry == null || !MailOutbox.STATUS_PROCESSING.equals(entry.status)) {
+                continue; // user deleted (cascade) or already handled by another worker after lease expiry
+            }
+            entry.claimedAt = null;
+
+            if (outcome.error() == null) {
+                entry.status = MailOutbox.STATUS_SENT;
+                entry.sentAt = now;
+                entry.htmlBody = null; // içerik (ör. sıfırlama kodu) gönderildikten sonra tutulmaz
+                entry.lastError = null;
+                sent++;
+                continue;
+            }
+
+            entry.lastError = outcome.error();
+            boolean permanent = PERMANENT_SMTP_REPLY.matcher(outcome.error()).find();
+            if (permanent || entry.attempts >= maxAttempts || isExpired(entry, now)) {
+                entry.status = MailOutbox.STATUS_DEAD;
+                entry.htmlBody = null; // gönderilmeyecek içerik (ör. sıfırlama kodu) de tutulmaz
+                dead++;
+                LOG.warnf("mail_outbox status=dead id=%d kind=%s attempts=%d error=%s",
+                        entry.id, entry.kind, entry.attempts, outcome.error());
+            } else {
+                entry.status = MailOutbox.STATUS_PENDING;
+                entry.nextAttemptAt = now.plusSeconds(backoffSeconds(entry.attempts));
+                retried++;
+                LOG.infof("mail_outbox status=retry id=%d kind=%s attempts=%d error=%s",
+                        entry.id, entry.kind, entry.attempts, outcome.error());
+            }
+        }
+
+        LOG.infof("mail_outbox batch size=%d sent=%d retried=%d dead=%d",
+                outcomes.size(), sent, retried, dead);
+    }
+
+    private static boolean isExpired(MailOutbox entry, LocalDateTime now) {
+        return entry.expiresAt != null && !now.isBefore(entry.expiresAt);
+    }
+
+    private long backoffSeconds(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        return Math.min(backoffBaseSeconds << exponent, MAX_BACKOFF_SECONDS);
+    }
+
+    /** SMTP kimlik doğrulama hatalarında hangi ayarlara bakılacağını hataya ekler. */
+    private static String describe(Throwable error) {
+        String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+        Throwable current = error;
+        while (current != null) {
+            String lower = current.getMessage() != null ? current.getMessage().toLowerCase() : "";
+            if (lower.contains("auth plain failed")
+                    || lower.contains("badcredentials")
+                    || lower.contains("username and password not accepted")) {
+                return message + " (MAIL_USERNAME / MAIL_PASSWORD / MAIL_FROM ayarlarını kontrol edin)";
+            }
+            current = current.getCause();
+        }
+        return message;
+    }
+
+    record SendOutcome(Long outboxId, String error) {
+    }
+}
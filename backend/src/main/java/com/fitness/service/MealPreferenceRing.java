@@ -0,0 +1,129 @@
+package com.fitness.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring of the most recent meal feedback entries, stored in
+ * user_meal_profiles.recent as one line per entry
+ * ({@code mealType TAB tags TAB mealName}, oldest first). Adding to a full
+ * ring overwrites the oldest entry, so the stored text never grows beyond
+ * {@code capacity} lines.
+ */
+public final class MealPreferenceRing {
+
+    /** Tags are normalized (trimmed, lower case, comma separated) when added. */
+    public record Entry(String mealType, String tags, String mealName) {
+    }
+
+    private final Entry[] entries;
+    private int head; // en eski kaydın indeksi
+    private int size;
+
+    public MealPreferenceRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.entries = new Entry[capacity];
+    }
+
+    /** Decodes {@code recent}; keeps only the newest {@code capacity} well-formed lines. */
+    public static MealPreferenceRing decode(String encoded, int capacity) {
+        MealPreferenceRing ring = new MealPreferenceRing(capacity);
+        if (encoded == null || encoded.isEmpty()) {
+            return ring;
+        }
+        for (String line : encoded.split("\n")) {
+            String[] parts = line.split("\t", -1);
+            if (parts.length != 3 || parts[2].isBlank()) {
+                continue;
+            }
+            ring.push(new Entry(parts[0].isEmpty() ? null : parts[0], parts[1], parts[2]));
+        }
+        return ring;
+    }
+
+    public void add(String mealType, List<String> tags, String mealName) {
+        StringBuilder normalized = new StringBuilder();
+        if (tags != null) {
+            for (String tag : tags) {
+                String clean = tag == null ? "" : sanitize(tag).replace(',', ' ').trim().toLowerCase();
+                if (!clean.isEmpty()) {
+                    if (normalized.length() > 0) {
+                        normalized.append(',');
+                    }
+                    normalized.append(clean);
+                }
+            }
+        }
+        String type = mealType == null || mealType.isBlank() ? null : sanitize(mealType).trim();
+        push(new Entry(type, normalized.toString(), sanitize(mealName).trim()));
+    }
+
+    private void push(Entry entry) {
+        if (size < entries.length) {
+            entries[(head + size) % entries.length] = entry;
+            size++;
+        } else {
+            entries[head] = entry;
+            head = (head + 1) % entries.length;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Entries from newest to oldest. */
+    public List<Entry> newestFirst() {
+        List<Entry> result = new ArrayList<>(size);
+        for (int i = size - 1; i >= 0; i--) {
+            result.add(entries[(head + i) % entries.length]);
+        }
+        return result;
+    }
+
+    public String encode() {
+        StringBuilder out = new StringBuilder(size * 48);
+        for (int i = 0; i < size; i++) {
+            Entry entry = entries[(head + i) % entries.length];
+            if (i > 0) {
+                out.append('\n');
+            }
+            out.append(entry.mealType() == null ? "" : entry.mealType()).append('\t')
+                    .append(entry.tags()).append('\t')
+                    .append(entry.mealName());
+        }
+        return out.toString();
+    }
+
+    /**
+     * Adds 1 per entry to each of its tags and to its meal type, newest entry
+     * first so that ties go to the more recent choice.
+     */
+    public void countInto(TasteProfile tags, TasteProfile mealTypes) {
+        for (Entry entry : newestFirst()) {
+            if (!entry.tags().isEmpty()) {
+                for (String tag : entry.tags().split(",")) {
+                    tags.add(tag, 1.0);
+                }
+            }
+            if (entry.mealType() != null) {
+                mealTypes.add(entry.mealType(), 1.0);
+            }
+        }
+    }
+
+    /** Prompt summary from plain counts over the ring (see {@link TasteProfile#describe}). */
+    public String summary() {
+        TasteProfile tags = new TasteProfile();
+        TasteProfile mealTypes = new TasteProfile();
+        countInto(tags, mealTypes);
+        return TasteProfile.describe(tags, mealTypes);
+    }
+
+    /** Sekme ve satır sonu kodlamayı bozar; boşluğa çevrilir. */
+    private static String sanitize(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
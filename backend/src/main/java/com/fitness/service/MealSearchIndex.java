@@ -0,0 +1,225 @@
+package com.fitness.service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fitness.dto.MealResponse;
+import com.fitness.entity.Meal;
+import com.fitness.repository.MealRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Per-user {@link TrigramIndex} over meal names for diary search.
+ * <p>
+ * A user's index is loaded from the database on their first search (most
+ * recent {@code max-meals-per-user} meals) and kept in an LRU map bounded by
+ * {@code max-users}. NutritionService reports every meal write from inside
+ * its transaction; the change is applied to an already loaded index after
+ * commit. A load holds the user's monitor while it reads, and after-commit
+ * updates wait for it, so a write racing a load is either seen by the load
+ * or applied on top of it.
+ * <p>
+ * Writes handled by another replica never reach this index, so at most every
+ * {@code version-check-interval} a search compares a cheap version of the
+ * user's meals (count, max id, max updated_at) with the one seen at load time
+ * and reloads when it changed.
+ */
+@ApplicationScoped
+public class MealSearchIndex {
+
+    /** Eşit skorlu sonuçlarda yeni öğün önce. */
+    private static final Comparator<MealResponse> NEWEST_FIRST = Comparator
+            .comparing((MealResponse m) -> m.mealDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(m -> m.id, Comparator.reverseOrder());
+
+    private static final class UserIndex {
+        final TrigramIndex<MealResponse> index = new TrigramIndex<>(NEWEST_FIRST);
+        volatile boolean loaded;
+        volatile String version;
+        volatile long checkedAtMillis;
+    }
+
+    private final LinkedHashMap<Long, UserIndex> users = new LinkedHashMap<>(256, 0.75f, true);
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong staleReloads = new AtomicLong();
+
+    @Inject
+    MealRepository mealRepository;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionRegistry;
+
+    @ConfigProperty(name = "nutrition.meal-search.max-users", defaultValue = "2000")
+    int maxUsers;
+
+    @ConfigProperty(name = "nutrition.meal-search.max-meals-per-user", defaultValue = "5000")
+    int maxMealsPerUser;
+
+    @ConfigProperty(name = "nutrition.meal-search.version-check-interval", defaultValue = "30s")
+    Duration versionCheckInterval;
+
+    public List<MealResponse> search(long userId, String query, int limit) {
+        UserIndex user;
+        synchronized (this) {
+            user = users.get(userId);
+            if (user == null) {
+                user = new UserIndex();
+                users.put(userId, user);
+                evictEldest();
+            }
+        }
+        if (!user.loaded) {
+            load(userId, user);
+        } else if (System.currentTimeMillis() - user.checkedAtMillis >= versionCheckInterval.toMillis()) {
+            user = refreshIfStale(userId, user);
+        }
+        return user.index.search(query, limit).stream()
+                .map(TrigramIndex.Hit::value)
+                .toList();
+    }
+
+    /** Called inside the transaction that created or updated the meal. */
+    public void mealSaved(Long userId, MealResponse meal) {
+        afterCommit(userId, index -> index.put(meal.id, meal.name, meal));
+    }
+
+    /** Called inside the transaction that deleted the meal. */
+    public void mealDeleted(Long userId, Long mealId) {
+        afterCommit(userId, index -> index.remove(mealId));
+    }
+
+    /** Hesap silindiğinde kullanıcının indeksini bırakır. */
+    public synchronized void evict(Long userId) {
+        users.remove(userId);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("users", users.size());
+        }
+        stats.put("loads", loads.get());
+        stats.put("evictions", evictions.get());
+        stats.put("staleReloads", staleReloads.get());
+        return stats;
+    }
+
+    private void load(long userId, UserIndex user) {
+        synchronized (user) {
+            if (user.loaded) {
+                return;
+            }
+            QuarkusTransaction.requiringNew().run(() -> {
+                // Sürüm yemeklerden önce okunur: arada gelen yazma en kötü bir fazla yeniden yükleme demektir
+                user.version = version(userId);
+                List<Meal> meals = mealRepository.find("user.id = ?1 ORDER BY mealDate DESC", userId)
+                        .page(0, maxMealsPerUser)
+                        .list();
+                for (Meal meal : meals) {
+                    user.index.put(meal.id, meal.name, NutritionService.toResponse(meal));
+                }
+            });
+            user.checkedAtMillis = System.currentTimeMillis();
+            user.loaded = true;
+            loads.incrementAndGet();
+        }
+    }
+
+    /**
+     * Başka bir replikanın yazdığı değişiklikleri yakalar. Sürüm değiştiyse yeni bir indeks
+     * önce haritaya konur, sonra yüklenir; böylece commit sonrası güncellemeler ya eski
+     * indekse (yükleme onları okur) ya da yenisine (yükleme bitince üstüne uygulanır) gider.
+     */
+    private UserIndex refreshIfStale(long userId, UserIndex user) {
+        synchronized (user) {
+            if (System.currentTimeMillis() - user.checkedAtMillis < versionCheckInterval.toMillis()) {
+                return user;
+            }
+            user.checkedAtMillis = System.currentTimeMillis();
+        }
+        String current = QuarkusTransaction.requiringNew().call(() -> version(userId));
+        if (current.equals(user.version)) {
+            return user;
+        }
+        UserIndex fresh = new UserIndex();
+        synchronized (this) {
+            if (users.get(userId) != user) {
+                UserIndex replaced = users.get(userId);
+                return replaced != null ? replaced : user; // başka bir arama zaten yeniledi ya da evict edildi
+            }
+            users.put(userId, fresh);
+        }
+        load(userId, fresh);
+        staleReloads.incrementAndGet();
+        return fresh;
+    }
+
+    /** Yemek sayısı + en büyük id + en son güncelleme: ekleme, silme ve düzenlemeyi yakalar. */
+    private String version(long userId) {
+        Object[] row = mealRepository.getEntityManager()
+                .createQuery("SELECT count(m), max(m.id), max(m.updatedAt) FROM Meal m WHERE m.user.id = ?1",
+                        Object[].class)
+                .setParameter(1, userId)
+                .getSingleResult();
+        return row[0] + ":" + row[1] + ":" + row[2];
+    }
+
+    private void afterCommit(Long userId, Consumer<TrigramIndex<MealResponse>> change) {
+        if (userId == null) {
+            return;
+        }
+        if (transactionRegistry == null || transactionRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            apply(userId, change);
+            return;
+        }
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    apply(userId, change);
+                }
+            }
+        });
+    }
+
+    private void apply(Long userId, Consumer<TrigramIndex<MealResponse>> change) {
+        UserIndex user;
+        synchronized (this) {
+            user = users.get(userId);
+        }
+        if (user == null) {
+            return; // İndeks henüz yüklenmedi; ilk aramada bu değişiklikle birlikte okunur
+        }
+        synchronized (user) {
+            change.accept(user.index);
+        }
+    }
+
+    private void evictEldest() {
+        Iterator<Map.Entry<Long, UserIndex>> eldest = users.entrySet().iterator();
+        while (eldest.hasNext() && users.size() > maxUsers) {
+            eldest.next();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+}
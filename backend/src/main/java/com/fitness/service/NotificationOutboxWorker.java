@@ -0,0 +1,238 @@
+package com.fitness.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fitness.entity.Notification;
+import com.fitness.entity.NotificationOutbox;
+import com.fitness.entity.User;
+import com.fitness.repository.NotificationOutboxRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.inject.Inject;
+
+/**
+ * Background worker that drains notification_outbox.
+ * <ol>
+ *   <li>Claims a batch with {@code FOR UPDATE SKIP LOCKED} in a short transaction.</li>
+ *   <li>Generates AI texts in parallel on a bounded pool, outside any transaction.</li>
+ *   <li>Persists all resulting notifications and outbox state changes in a single transaction.</li>
+ * </ol>
+ * Failed items are retried with exponential backoff until {@code max-attempts} is reached.
+ * Safe to run on every replica: claims never overlap and stale claims expire after the lease.
+ */
+@ApplicationScoped
+public class NotificationOutboxWorker {
+
+    private static final Logger LOG = Logger.getLogger(NotificationOutboxWorker.class);
+    private static final String PRIMARY_MODEL = "gemini-2.0-flash";
+    private static final String FALLBACK_MODEL = "gemini-1.5-flash";
+    private static final long MAX_BACKOFF_SECONDS = 6 * 60 * 60;
+
+    @Inject
+    NotificationOutboxRepository outboxRepository;
+
+    @Inject
+    AiProviderRouter aiRouter;
+
+    @ConfigProperty(name = "ai.notification.outbox.batch-size", defaultValue = "20")
+    int batchSize;
+
+    @ConfigProperty(name = "ai.notification.outbox.worker-threads", defaultValue = "4")
+    int workerThreads;
+
+    @ConfigProperty(name = "ai.notification.outbox.max-attempts", defaultValue = "5")
+    int maxAttempts;
+
+    @ConfigProperty(name = "ai.notification.outbox.backoff-base-seconds", defaultValue = "30")
+    long backoffBaseSeconds;
+
+    @ConfigProperty(name = "ai.notification.outbox.lease-seconds", defaultValue = "300")
+    long leaseSeconds;
+
+    private ExecutorService generationPool;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger counter = new AtomicInteger();
+        generationPool = Executors.newFixedThreadPool(Math.max(1, workerThreads), runnable -> {
+            Thread thread = new Thread(runnable, "notification-outbox-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        generationPool.shutdownNow();
+    }
+
+    @Scheduled(every = "${ai.notification.outbox.poll-interval:15s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void poll() {
+        int processed;
+        do {
+            processed = processBatch();
+        } while (processed >= batchSize);
+    }
+
+    /**
+     * Claim, generate and deliver one batch.
+     *
+     * @return number of claimed outbox rows
+     */
+    public int processBatch() {
+        LocalDateTime claimTime = LocalDateTime.now();
+        List<NotificationOutbox> batch = QuarkusTransaction.requiringNew().call(() -> outboxRepository.claimBatch(
+                batchSize, claimTime, claimTime.minusSeconds(leaseSeconds)));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Future<GenerationOutcome>> futures = new ArrayList<>(batch.size());
+        for (NotificationOutbox entry : batch) {
+            futures.add(generationPool.submit(() -> generate(entry.id, entry.userId, entry.context)));
+        }
+
+        List<GenerationOutcome> outcomes = new ArrayList<>(batch.size());
+        for (int i = 0; i < futures.size(); i++) {
+            outcomes.add(await(batch.get(i).id, futures.get(i)));
+        }
+
+        QuarkusTransaction.requiringNew().run(() -> deliver(outcomes));
+        return batch.size();
+    }
+
+    /**
+     * Runs on the generation pool; the request context gives the router a
+     * read-only session for the tier lookup without holding a transaction
+     * open during the upstream call.
+     */
+    @ActivateRequestContext
+    GenerationOutcome generate(Long outboxId, Long userId, String context) {
+        User user = User.findById(userId);
+        if (user == null) {
+            return GenerationOutcome.permanentFailure(outboxId, "User not found");
+        }
+
+        String prompt = "Sen akıllı bir fitness koçusun. Senaryo: " + context +
+                        "\nKullanıcı adı: " + user.name +
+                        "\nYalnızca kısa, motive edici ve aksiyon odaklı bir mesaj üret (maks 2 cümle).";
+
+        try {
+            GeminiClientResult result = aiRouter.generateText(
+                    "proactive_alert", userId, PRIMARY_MODEL, FALLBACK_MODEL, prompt, false);
+            if (result.isSuccess()) {
+                return GenerationOutcome.success(outboxId, result.getOutputText());
+            }
+            return GenerationOutcome.retryableFailure(outboxId, result.getError(), result.getRetryAfterSeconds());
+        } catch (Exception e) {
+            return GenerationOutcome.retryableFailure(outboxId, e.getMessage(), null);
+        }
+    }
+
+    private GenerationOutcome await(Long outboxId, Future<GenerationOutcome> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return GenerationOutcome.retryableFailure(outboxId, "Interrupted", null);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return GenerationOutcome.retryableFailure(outboxId, cause.getMessage(), null);
+        }
+    }
+
+    private void deliver(List<GenerationOutcome> outcomes) {
+        LocalDateTime now = LocalDateTime.now();
+        int delivered = 0;
+        int retried = 0;
+        int failed = 0;
+
+        for (GenerationOutcome outcome : outcomes) {
+            NotificationOutbox entry = outboxRepository.findById(outcome.outboxId());
+            if (entry == null || !NotificationOutbox.STATUS_PROCESSING.equals(entry.status)) {
+                continue; // user deleted (cascade) or already handled by another worker after lease expiry
+            }
+
+            if (outcome.message() != null) {
+                Notification notification = new Notification();
+                notification.user = outboxRepository.getEntityManager().getReference(User.class, entry.userId);
+                notification.title = "AI Koç Tavsiyesi";
+                notification.message = outcome.message();
+                notification.type = "AI_COACH";
+                notification.persist();
+
+                entry.status = NotificationOutbox.STATUS_DONE;
+                entry.deliveredAt = now;
+                entry.latencyMs = Duration.between(entry.createdAt, now).toMillis();
+                entry.notificationId = notification.id;
+                entry.lastError = null;
+                delivered++;
+                LOG.infof("notification_outbox status=delivered id=%d userId=%d type=%s attempts=%d latencyMs=%d",
+                        entry.id, entry.userId, entry.type, entry.attempts, entry.latencyMs);
+                continue;
+            }
+
+            entry.lastError = outcome.error();
+            if (!outcome.retryable() || entry.attempts >= maxAttempts) {
+                entry.status = NotificationOutbox.STATUS_FAILED;
+                failed++;
+                LOG.warnf("notification_outbox status=failed id=%d userId=%d type=%s attempts=%d error=%s",
+                        entry.id, entry.userId, entry.type, entry.attempts, outcome.error());
+            } else {
+                entry.status = NotificationOutbox.STATUS_PENDING;
+                entry.nextAttemptAt = now.plusSeconds(
+                        backoffSeconds(backoffBaseSeconds, entry.attempts, outcome.retryAfterSeconds()));
+                retried++;
+            }
+            entry.claimedAt = null;
+        }
+
+        LOG.infof("notification_outbox batch size=%d delivered=%d retried=%d failed=%d",
+                outcomes.size(), delivered, retried, failed);
+    }
+
+    /**
+     * Exponential backoff ({@code base << (attempts - 1)}, capped at 6 hours);
+     * a longer provider Retry-After wins.
+     */
+    public static long backoffSeconds(long baseSeconds, int attempts, Integer retryAfterSeconds) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 20);
+        long backoff = Math.min(baseSeconds << exponent, MAX_BACKOFF_SECONDS);
+        if (retryAfterSeconds != null && retryAfterSeconds > backoff) {
+            return retryAfterSeconds;
+        }
+        return backoff;
+    }
+
+    record GenerationOutcome(Long outboxId, String message, String error, Integer retryAfterSeconds, boolean retryable) {
+
+        static GenerationOutcome success(Long outboxId, String message) {
+            return new GenerationOutcome(outboxId, message, null, null, false);
+        }
+
+        static GenerationOutcome retryableFailure(Long outboxId, String error, Integer retryAfterSeconds) {
+            return new GenerationOutcome(outboxId, null, error, retryAfterSeconds, true);
+        }
+
+        static GenerationOutcome permanentFailure(Long outboxId, String error) {
+            return new GenerationOutcome(outboxId, null, error, null, false);
+        }
+    }
+}
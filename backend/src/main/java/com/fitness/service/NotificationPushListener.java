@@ -0,0 +1,145 @@
+package com.fitness.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Holds one dedicated JDBC connection per node in {@code LISTEN notification_created}
+ * and forwards payloads ({@code "userId:notificationId"}, see V11 migration) to
+ * {@link NotificationPushService}. The connection is opened outside the Agroal pool
+ * so it never starves request handling; it is re-opened with a fixed delay if it drops.
+ * Notifications emitted while disconnected are not replayed here — clients recover
+ * them with {@code Last-Event-ID} on their next reconnect.
+ */
+@ApplicationScoped
+public class NotificationPushListener {
+
+    private static final Logger LOG = Logger.getLogger(NotificationPushListener.class);
+    public static final String CHANNEL = "notification_created";
+
+    @Inject
+    NotificationPushService pushService;
+
+    @ConfigProperty(name = "notification.push.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "quarkus.datasource.jdbc.url")
+    String jdbcUrl;
+
+    @ConfigProperty(name = "quarkus.datasource.username", defaultValue = "postgres")
+    String username;
+
+    @ConfigProperty(name = "quarkus.datasource.password")
+    Optional<String> password;
+
+    @ConfigProperty(name = "notification.push.listen-timeout-ms", defaultValue = "10000")
+    int listenTimeoutMs;
+
+    @ConfigProperty(name = "notification.push.reconnect-delay-ms", defaultValue = "5000")
+    long reconnectDelayMs;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            LOG.info("notification_push listener disabled");
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listenLoop, "notification-push-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        closeQuietly(connection);
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(jdbcUrl, username, password.orElse(null))) {
+                connection = conn;
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                LOG.infof("notification_push listening channel=%s", CHANNEL);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(listenTimeoutMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    LOG.warnf("notification_push listener connection lost: %s", e.getMessage());
+                    sleepBeforeReconnect();
+                }
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        int separator = payload == null ? -1 : payload.indexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            Long userId = Long.parseLong(payload.substring(0, separator));
+            if (!pushService.hasSubscribers(userId)) {
+                return;
+            }
+            pushService.dispatch(userId, Long.parseLong(payload.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            LOG.debugf("notification_push ignored payload=%s", payload);
+        } catch (RuntimeException e) {
+            LOG.warnf("notification_push dispatch failed payload=%s: %s", payload, e.getMessage());
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(reconnectDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.close();
+        } catch (SQLException ignored) {
+            // kapanışta önemsiz
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.fitness.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.dto.NotificationResponse;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+/**
+ * Node-local registry of open SSE connections, keyed by user id.
+ * <p>
+ * Each connection costs one small {@link Subscriber} object; there is no
+ * per-connection thread, timer or buffer. Heartbeats are sent by a single
+ * scheduled job for all connections. Backpressure is enforced per connection:
+ * once more than {@code max-pending} events are unacknowledged by the socket,
+ * the connection is closed and the client resumes with {@code Last-Event-ID}.
+ * Replay does not count against that limit in bulk: missed rows are written
+ * one at a time, each after the previous write completed, so a reconnect
+ * that missed more than {@code max-pending} rows still catches up.
+ * <p>
+ * Notification ids do not commit in id order (parallel outbox batches,
+ * several replicas), so live events are never filtered by id. Only a
+ * connection opened with {@code Last-Event-ID} remembers the ids it recently
+ * sent, to drop a live NOTIFY for a row that the replay already delivered.
+ * <p>
+ * New rows reach this node through {@link NotificationPushListener}
+ * (Postgres LISTEN/NOTIFY), so a notification created on any replica is
+ * pushed from whichever replica holds the user's connection.
+ */
+@ApplicationScoped
+public class NotificationPushService {
+
+    private static final Logger LOG = Logger.getLogger(NotificationPushService.class);
+    public static final String EVENT_NAME = "notification";
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private volatile Sse sse;
+
+    @Inject
+    NotificationService notificationService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "notification.push.max-pending", defaultValue = "16")
+    int maxPending;
+
+    @ConfigProperty(name = "notification.push.replay-limit", defaultValue = "50")
+    int replayLimit;
+
+    /**
+     * Registers a connection and replays notifications missed since {@code lastEventId}.
+     */
+    @ActivateRequestContext
+    public void subscribe(Long userId, SseEventSink sink, Sse sse, Long lastEventId) {
+        this.sse = sse;
+        Subscriber subscriber = new Subscriber(userId, sink);
+        if (lastEventId != null) {
+            // Replay bitene kadar canlı olaylar bekletilir ki istemci olayları id sırasıyla alsın
+            subscriber.deferred = new ArrayList<>();
+            subscriber.recentIds = new RecentIds(replayLimit * 2);
+            subscriber.recentIds.add(lastEventId);
+        }
+        subscribers.compute(userId, (id, set) -> {
+            Set<Subscriber> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.add(subscriber);
+            return target;
+        });
+        connectionCount.incrementAndGet();
+
+        // Hemen bir yorum satırı göndererek header'ların istemciye flush edilmesini sağla
+        send(subscriber, sse.newEventBuilder().comment("connected").build());
+
+        if (lastEventId != null) {
+            List<PendingEvent> missed = notificationService.findAfter(userId, lastEventId, replayLimit).stream()
+                    .map(notification -> new PendingEvent(notification.id, toEvent(notification)))
+                    .toList();
+            sendInOrder(subscriber, missed.iterator())
+                    .thenCompose(ignored -> drainDeferred(subscriber));
+        }
+    }
+
+    public boolean hasSubscribers(Long userId) {
+        Set<Subscriber> set = subscribers.get(userId);
+        return set != null && !set.isEmpty();
+    }
+
+    public int connectionCount() {
+        return connectionCount.get();
+    }
+
+    /**
+     * Called for every NOTIFY payload; only loads the row if this node holds a connection for the user.
+     */
+    @ActivateRequestContext
+    public void dispatch(Long userId, Long notificationId) {
+        Set<Subscriber> set = subscribers.get(userId);
+        if (set == null || set.isEmpty() || sse == null) {
+            return;
+        }
+        NotificationResponse notification = notificationService.findForUser(userId, notificationId);
+        if (notification == null) {
+            return;
+        }
+        OutboundSseEvent event = toEvent(notification);
+        for (Subscriber subscriber : set) {
+            synchronized (subscriber) {
+                if (subscriber.deferred != null) {
+                    subscriber.deferred.add(new PendingEvent(notification.id, event));
+                    continue;
+                }
+            }
+            sendNotification(subscriber, notification.id, event);
+        }
+    }
+
+    /**
+     * Keeps idle connections alive through proxies/load balancers and
+     * detects clients that went away without a FIN.
+     */
+    @Scheduled(every = "${notification.push.heartbeat-interval:25s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void heartbeat() {
+        Sse current = sse;
+        if (current == null || subscribers.isEmpty()) {
+            return;
+        }
+        OutboundSseEvent ping = current.newEventBuilder().comment("ping").build();
+        for (Set<Subscriber> set : subscribers.values()) {
+            for (Subscriber subscriber : set) {
+                send(subscriber, ping);
+            }
+        }
+    }
+
+    /** Replay sırasında bekletilen canlı olayları id sırasıyla, yine tek tek gönderir. */
+    private CompletionStage<Void> drainDeferred(Subscriber subscriber) {
+        List<PendingEvent> batch;
+        synchronized (subscriber) {
+            if (subscriber.deferred.isEmpty()) {
+                subscriber.deferred = null;
+                return CompletableFuture.completedFuture(null);
+            }
+            batch = subscriber.deferred;
+            subscriber.deferred = new ArrayList<>();
+        }
+        batch.sort(Comparator.comparingLong(PendingEvent::notificationId));
+        return sendInOrder(subscriber, batch.iterator())
+                .thenCompose(ignored -> drainDeferred(subscriber));
+    }
+
+    /**
+     * Writes the events one by one, each after the previous write completed, so a
+     * long replay never has more than one unacknowledged write. A failed write
+     * (the connection is already unsubscribed) completes the stage exceptionally.
+     */
+    private CompletionStage<Void> sendInOrder(Subscriber subscriber, Iterator<PendingEvent> events) {
+        while (events.hasNext()) {
+            PendingEvent next = events.next();
+            CompletionStage<?> write = sendNotification(subscriber, next.notificationId(), next.event());
+            if (write != null) {
+                return write.thenCompose(ignored -> sendInOrder(subscriber, events));
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Replay ile canlı NOTIFY aynı satırı iki kez getirebilir; replay ile açılan
+     * bağlantı son gönderdiği id'leri hatırlar ve tekrarı atlar. Id'ler commit
+     * sırasında gelmediği için "son id'den küçük" filtresi kullanılmaz.
+     *
+     * @return the write, or null when the id was skipped as already sent
+     */
+    private CompletionStage<?> sendNotification(Subscriber subscriber, long notificationId, OutboundSseEvent event) {
+        synchronized (subscriber) {
+            if (subscriber.recentIds != null && !subscriber.recentIds.add(notificationId)) {
+                return null;
+            }
+        }
+        return send(subscriber, event);
+    }
+
+    /** @return the write; already failed when the connection is closed or was just dropped as slow */
+    private CompletionStage<?> send(Subscriber subscriber, OutboundSseEvent event) {
+        if (subscriber.sink.isClosed()) {
+            unsubscribe(subscriber);
+            return CompletableFuture.failedFuture(new IllegalStateException("SSE bağlantısı kapalı"));
+        }
+        if (subscriber.pending.incrementAndGet() > maxPending) {
+            LOG.warnf("notification_push slow consumer closed userId=%d pending=%d",
+                    subscriber.userId, subscriber.pending.get());
+            unsubscribe(subscriber);
+            subscriber.sink.close();
+            return CompletableFuture.failedFuture(new IllegalStateException("Yavaş istemci kapatıldı"));
+        }
+        try {
+            return subscriber.sink.send(event).whenComplete((ignored, error) -> {
+                subscriber.pending.decrementAndGet();
+                if (error != null) {
+                    unsubscribe(subscriber);
+                }
+            });
+        } catch (RuntimeException e) {
+            subscriber.pending.decrementAndGet();
+            unsubscribe(subscriber);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+            if (set.remove(subscriber)) {
+                connectionCount.decrementAndGet();
+            }
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private OutboundSseEvent toEvent(NotificationResponse notification) {
+        // JSON bir kez, düz metin olarak serileştirilir; aynı olay kullanıcının tüm bağlantılarına gider
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(notification);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Bildirim serileştirilemedi", e);
+        }
+        return sse.newEventBuilder()
+                .id(String.valueOf(notification.id))
+                .name(EVENT_NAME)
+                .data(data)
+                .build();
+    }
+
+    private static final class Subscriber {
+        final Long userId;
+        final SseEventSink sink;
+        final AtomicInteger pending = new AtomicInteger();
+        List<PendingEvent> deferred;
+        RecentIds recentIds; // yalnızca Last-Event-ID ile açılan bağlantılarda
+
+        Subscriber(Long userId, SseEventSink sink) {
+            this.userId = userId;
+            this.sink = sink;
+        }
+    }
+
+    private record PendingEvent(long notificationId, OutboundSseEvent event) {
+    }
+
+    /** Fixed-size ring of recently sent ids; the oldest id is forgotten first. */
+    private static final class RecentIds {
+        private final long[] ids;
+        private int size;
+        private int next;
+
+        RecentIds(int capacity) {
+            ids = new long[Math.max(1, capacity)];
+        }
+
+        /** @return false if the id is already in the ring */
+        boolean add(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return false;
+                }
+            }
+            ids[next] = id;
+            next = (next + 1) % ids.length;
+            size = Math.min(size + 1, ids.length);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.fitness.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+import com.fitness.dto.NotificationPage;
+import com.fitness.dto.NotificationResponse;
+import com.fitness.entity.Notification;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.TypedQuery;
+import jakarta.transaction.Transactional;
+
+/**
+ * Kullanıcı bildirim kutusu: keyset sayfalama, okunmamış sayacı ve toplu okundu işaretleme.
+ * Listeleme entity yerine doğrudan DTO projeksiyonu yapar; User ilişkisi hiç yüklenmez.
+ */
+@ApplicationScoped
+public class NotificationService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * (createdAt, id) sırasına göre en yeni bildirimlerden başlayarak bir sayfa döner.
+     *
+     * @param cursor     önceki sayfanın nextCursor değeri; ilk sayfa için null
+     * @param unreadOnly true ise yalnızca okunmamışlar (partial index kullanılır)
+     */
+    public NotificationPage getPage(Long userId, String cursor, Integer limit, boolean unreadOnly) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        StringBuilder jpql = new StringBuilder("""
+                SELECT new com.fitness.dto.NotificationResponse(n.id, n.title, n.message, n.isRead, n.type, n.createdAt)
+                FROM Notification n
+                WHERE n.user.id = :userId""");
+        if (unreadOnly) {
+            jpql.append(" AND n.isRead = false");
+        }
+        Cursor position = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor);
+        if (position != null) {
+            jpql.append(" AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id))");
+        }
+        jpql.append(" ORDER BY n.createdAt DESC, n.id DESC");
+
+        TypedQuery<NotificationResponse> query = Notification.getEntityManager()
+                .createQuery(jpql.toString(), NotificationResponse.class)
+                .setParameter("userId", userId)
+                .setMaxResults(pageSize + 1);
+        if (position != null) {
+            query.setParameter("createdAt", position.createdAt());
+            query.setParameter("id", position.id());
+        }
+
+        List<NotificationResponse> rows = query.getResultList();
+        if (rows.size() <= pageSize) {
+            return new NotificationPage(rows, null);
+        }
+        List<NotificationResponse> items = rows.subList(0, pageSize);
+        NotificationResponse last = items.get(pageSize - 1);
+        return new NotificationPage(items, encodeCursor(last.createdAt, last.id));
+    }
+
+    /**
+     * Tek bir bildirimi DTO olarak döner; kullanıcıya ait değilse null.
+     */
+    public NotificationResponse findForUser(Long userId, Long notificationId) {
+        List<NotificationResponse> rows = Notification.getEntityManager()
+                .createQuery("""
+                        SELECT new com.fitness.dto.NotificationResponse(n.id, n.title, n.message, n.isRead, n.type, n.createdAt)
+                        FROM Notification n
+                        WHERE n.id = :id AND n.user.id = :userId""", NotificationResponse.class)
+                .setParameter("id", notificationId)
+                .setParameter("userId", userId)
+                .getResultList();
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * SSE yeniden bağlanmasında (Last-Event-ID) kaçırılan bildirimler, eskiden yeniye.
+     */
+    public List<NotificationResponse> findAfter(Long userId, Long afterId, int limit) {
+        return Notification.getEntityManager()
+                .createQuery("""
+                        SELECT new com.fitness.dto.NotificationResponse(n.id, n.title, n.message, n.isRead, n.type, n.createdAt)
+                        FROM Notification n
+                        WHERE n.user.id = :userId AND n.id > :afterId
+                        ORDER BY n.id""", NotificationResponse.class)
+                .setParameter("userId", userId)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public long countUnread(Long userId) {
+        return Notification.count("user.id = ?1 and isRead = false", userId);
+    }
+
+    /**
+     * @return bildirim bulunup kullanıcıya aitse true
+     */
+    @Transactional
+    public boolean markAsRead(Long userId, Long notificationId) {
+        int updated = Notification.update("isRead = true where id = ?1 and user.id = ?2", notificationId, userId);
+        return updated > 0;
+    }
+
+    /**
+     * Tek bir UPDATE ile kullanıcının tüm okunmamış bildirimlerini okundu yapar.
+     *
+     * @return güncellenen satır sayısı
+     */
+    @Transactional
+    public int markAllAsRead(Long userId) {
+        return Notification.update("isRead = true where user.id = ?1 and isRead = false", userId);
+    }
+
+    private static String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Gecersiz cursor");
+            }
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Gecersiz cursor");
+        }
+    }
+
+    private record Cursor(LocalDateTime createdAt, Long id) {
+    }
+}
@@ -14,6 +14,80 @@ import jakarta.enterprise.context.ApplicationScoped;
 @ApplicationScoped
 public class NutritionPromptBuilder {
 
+    private static final PromptTemplate EXTRACT_FOOD_ITEMS_TEMPLATE = PromptTemplate.compile("""
+        Extract only food names from this Turkish text.
+        Text: {{message}}
+
+        Rules:
+        - Return only comma-separated food names in Turkish.
+        - Do not include amounts, units, or explanations.
+        - If nothing found, return an empty string.
+        """);
+
+    private static final PromptTemplate SUGGESTION_REASONING_TEMPLATE = PromptTemplate.compile("""
+        You are a practical nutrition assistant in a fitness app.
+        Language: Turkish (tr)
+        {{userContext}}
+
+        User message: Neden bu yemekleri önerdin? -> {{message}}
+
+        Context:
+        {{contextBlock}}
+
+        Only output valid JSON in this exact format:
+        {
+          "reply": "string - explain why these foods match the context"
+        }
+        """);
+
+    // Structured JSON prompt for meal suggestions with language/difficulty/budget
+    private static final PromptTemplate MEAL_SUGGESTION_TEMPLATE = PromptTemplate.compile("""
+        You are a practical nutrition assistant in a fitness app.
+        Language: Turkish (tr)
+        {{userContext}}
+
+        User message: {{message}}
+
+        Context:
+        {{contextBlock}}
+
+        Only output valid JSON. Do not wrap with ```json or ```.
+        Response must follow this exact JSON schema:
+        {
+          "reply": "string - your conversational response to the user's message",
+          "meals": [
+            {
+              "name": "string - meal name in Turkish",
+              "reason": "string - why this meal is suitable",
+              "ingredients": ["string - ingredient list"],
+              "steps": ["string - short cooking step"],
+              "macros": {
+                "kcal": 0,
+                "proteinG": 0,
+                "carbsG": 0,
+                "fatG": 0
+              },
+              "prepMinutes": 0,
+              "tags": ["string - meal tags like 'kahvalti', 'aksam', 'diyet', 'vegan', 'gluten-free'],
+              "warnings": ["string - allergy warnings or notes"]
+            }
+          ],
+          "shoppingList": ["string - shopping list item"],
+          "followUpQuestions": ["string - question user might ask next"]
+        }
+
+        Rules:
+        - meals array must contain 3 to 5 items
+        - macros values must be integers
+        - steps must be 3 to 6 short items
+        - ingredients list should be practical and easy to find
+        - Keep suggestions realistic and safe
+        - Do not provide medical diagnosis
+        - If user asks about a specific meal, focus on that
+        - Consider budget-friendly options when not specified
+        - Prefer easy-to-prepare meals if user is busy
+        """);
+
     /**
      * Build a prompt for the AI nutrition service based on the user's request.
      * Returns structured JSON with meals, shoppingList, and followUpQuestions.
@@ -24,21 +98,15 @@ public class NutritionPromptBuilder {
     public String buildPrompt(NutritionAiRequest request) {
         String task = normalizeTask(request.task);
         String message = request.message.trim();
-        String contextBlock = buildContextBlock(request.context);
-        String userContext = buildUserContext(request.context);
 
         if ("EXTRACT_FOOD_ITEMS".equals(task)) {
-            return """
-                    Extract only food names from this Turkish text.
-                    Text: %s
-
-                    Rules:
-                    - Return only comma-separated food names in Turkish.
-                    - Do not include amounts, units, or explanations.
-                    - If nothing found, return an empty string.
-                    """.formatted(message);
+            return EXTRACT_FOOD_ITEMS_TEMPLATE.render(EXTRACT_FOOD_ITEMS_TEMPLATE.newValues()
+                    .set("message", message));
         }
 
+        String contextBlock = buildContextBlock(request.context);
+        String userContext = buildUserContext(request.context);
+
         if ("RECIPE_SUGGESTION".equals(task)) {
             message = "Şu anki makro değerlerime göre akşam veya öğle yemeği için tek bir akıllı, sağlıklı ve lezzetli yemek tarifi öner. Tarifin adını, yaklaşık kalorisi ve makrolarını, ve küçük bir neden seçtiğini ekle.";
         } else if ("GROCERY_LIST".equals(task)) {
@@ -46,70 +114,16 @@ public class NutritionPromptBuilder {
         }
 
         if ("SUGGESTION_REASONING".equals(task)) {
-            return """
-                    You are a practical nutrition assistant in a fitness app.
-                    Language: Turkish (tr)
-                    %s
-
-                    User message: Neden bu yemekleri önerdin? -> %s
-
-                    Context:
-                    %s
-
-                    Only output valid JSON in this exact format:
-                    {
-                      "reply": "string - explain why these foods match the context"
-                    }
-                    """.formatted(userContext, message, contextBlock);
-        }
-
-        // Structured JSON prompt for meal suggestions with language/difficulty/budget
-        return """
-                You are a practical nutrition assistant in a fitness app.
-                Language: Turkish (tr)
-                %s
-
-                User message: %s
-
-                Context:
-                %s
-
-                Only output valid JSON. Do not wrap with ```json or ```.
-                Response must follow this exact JSON schema:
-                {
-                  "reply": "string - your conversational response to the user's message",
-                  "meals": [
-                    {
-                      "name": "string - meal name in Turkish",
-                      "reason": "string - why this meal is suitable",
-                      "ingredients": ["string - ingredient list"],
-                      "steps": ["string - short cooking step"],
-                      "macros": {
-                        "kcal": 0,
-                        "proteinG": 0,
-                        "carbsG": 0,
-                        "fatG": 0
-                      },
-                      "prepMinutes": 0,
-                      "tags": ["string - meal tags like 'kahvalti', 'aksam', 'diyet', 'vegan', 'gluten-free'],
-                      "warnings": ["string - allergy warnings or notes"]
-                    }
-                  ],
-                  "shoppingList": ["string - shopping list item"],
-                  "followUpQuestions": ["string - question user might ask next"]
-                }
-
-                Rules:
-                - meals array must contain 3 to 5 items
-                - macros values must be integers
-                - steps must be 3 to 6 short items
-                - ingredients list should be practical and easy to find
-                - Keep suggestions realistic and safe
-                - Do not provide medical diagnosis
-                - If user asks about a specific meal, focus on that
-                - Consider budget-friendly options when not specified
-                - Prefer easy-to-prepare meals if user is busy
-                """.formatted(userContext, message, contextBlock);
+            return SUGGESTION_REASONING_TEMPLATE.render(SUGGESTION_REASONING_TEMPLATE.newValues()
+                    .set("userContext", userContext)
+                    .set("message", message)
+                    .set("contextBlock", contextBlock));
+        }
+
+        return MEAL_SUGGESTION_TEMPLATE.render(MEAL_SUGGESTION_TEMPLATE.newValues()
+                .set("userContext", userContext)
+                .set("message", message)
+                .set("contextBlock", contextBlock));
     }
 
     private String buildUserContext(NutritionAiRequest.NutritionContext context) {
@@ -0,0 +1,99 @@
+package com.fitness.service;
+
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fitness.repository.DailyNutritionTotalRepository;
+import com.fitness.repository.UserRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * daily_nutrition_totals tablosunu mevcut meals verisinden doldurur.
+ * Kullanıcılar id sırasıyla parça parça işlenir, her parça kendi kısa transaction'ında.
+ * Yalnızca eksik günler eklenir (ON CONFLICT DO NOTHING), bu yüzden canlı yazımlarla
+ * ve birden fazla replikada aynı anda çalışması güvenlidir. Tek seferlik bir iştir:
+ * bitince completed_backfills tablosuna yazılır ve sonraki açılışlar onu atlar.
+ */
+@ApplicationScoped
+public class NutritionRollupBackfillJob {
+
+    private static final Logger LOG = Logger.getLogger(NutritionRollupBackfillJob.class);
+    static final String BACKFILL_NAME = "daily_nutrition_totals";
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    DailyNutritionTotalRepository dailyTotalRepository;
+
+    @ConfigProperty(name = "nutrition.rollup.backfill-on-start", defaultValue = "true")
+    boolean backfillOnStart;
+
+    @ConfigProperty(name = "nutrition.rollup.backfill-chunk-size", defaultValue = "500")
+    int chunkSize;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!backfillOnStart) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                runOnce();
+            } catch (RuntimeException e) {
+                LOG.error("nutrition_rollup backfill failed", e);
+            }
+        }, "nutrition-rollup-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Backfill daha önce tamamlanmadıysa çalıştırır ve tamamlandığını kaydeder.
+     *
+     * @return bu çağrıda çalıştıysa true
+     */
+    public boolean runOnce() {
+        if (QuarkusTransaction.requiringNew().call(() -> dailyTotalRepository.isBackfillCompleted(BACKFILL_NAME))) {
+            LOG.debug("nutrition_rollup backfill already completed, skipping");
+            return false;
+        }
+        backfill();
+        QuarkusTransaction.requiringNew().run(() -> dailyTotalRepository.markBackfillCompleted(BACKFILL_NAME));
+        return true;
+    }
+
+    /**
+     * @return eklenen gün satırı sayısı
+     */
+    public int backfill() {
+        long startNs = System.nanoTime();
+        long cursor = 0;
+        int inserted = 0;
+        int users = 0;
+
+        while (true) {
+            long after = cursor;
+            List<Long> ids = QuarkusTransaction.requiringNew()
+                    .call(() -> userRepository.findIdsAfter(after, chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            long upper = ids.get(ids.size() - 1);
+            inserted += QuarkusTransaction.requiringNew()
+                    .call(() -> dailyTotalRepository.backfillUsers(after, upper));
+            users += ids.size();
+            cursor = upper;
+        }
+
+        LOG.infof("nutrition_rollup backfill done users=%d insertedDays=%d latencyMs=%d",
+                users, inserted, (System.nanoTime() - startNs) / 1_000_000);
+        return inserted;
+    }
+}
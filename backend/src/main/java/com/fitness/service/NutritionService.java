@@ -2,13 +2,21 @@ package com.fitness.service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import com.fitness.dto.DailyNutritionTotalResponse;
 import com.fitness.dto.MealRequest;
 import com.fitness.dto.MealResponse;
+import com.fitness.dto.NutritionAverageResponse;
+import com.fitness.dto.NutritionRangeResponse;
 import com.fitness.entity.Meal;
 import com.fitness.entity.User;
+import com.fitness.repository.DailyNutritionTotalRepository;
 import com.fitness.repository.MealRepository;
 import com.fitness.repository.UserRepository;
 
@@ -24,6 +32,18 @@ public class NutritionService {
     
     @Inject
     UserRepository userRepository;
+
+    @Inject
+    DailyNutritionTotalRepository dailyTotalRepository;
+
+    @Inject
+    MealSearchIndex mealSearchIndex;
+
+    /** /me/totals için izin verilen en uzun aralık (gün). */
+    public static final int MAX_RANGE_DAYS = 366;
+
+    /** Yemek aramasında dönen en fazla kayıt. */
+    public static final int MAX_SEARCH_RESULTS = 50;
     
     /**
      * Yeni yemek kaydı oluştur
@@ -50,8 +70,11 @@ public class NutritionService {
         // @PrePersist otomatik çağrılacak
         
         mealRepository.persist(meal);
-        
-        return toResponse(meal);
+        dailyTotalRepository.recomputeDay(userId, meal.mealDate.toLocalDate());
+
+        MealResponse response = toResponse(meal);
+        mealSearchIndex.mealSaved(userId, response);
+        return response;
     }
     
     /**
@@ -60,7 +83,7 @@ public class NutritionService {
     public List<MealResponse> getUserMeals(Long userId) {
         List<Meal> meals = mealRepository.findByUserIdOrderByMealDateDesc(userId);
         return meals.stream()
-                .map(this::toResponse)
+                .map(NutritionService::toResponse)
                 .collect(Collectors.toList());
     }
     
@@ -77,18 +100,67 @@ public class NutritionService {
         ).list();
         
         return meals.stream()
-                .map(this::toResponse)
+                .map(NutritionService::toResponse)
                 .collect(Collectors.toList());
     }
     
     /**
-     * Günlük kalori toplamını hesapla
+     * Yemek adında hata toleranslı arama; en iyi eşleşme önce, eşitlikte yeni öğün önce.
+     * Kullanıcının bellek içi indeksinden okunur (ilk aramada yüklenir).
+     */
+    public List<MealResponse> searchMeals(Long userId, String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("q zorunludur.");
+        }
+        return mealSearchIndex.search(userId, query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+    }
+
+    /**
+     * Günlük kalori toplamı (daily_nutrition_totals üzerinden, tek PK okuması)
      */
     public Integer getDailyCalories(Long userId, LocalDate date) {
-        List<MealResponse> meals = getMealsByDate(userId, date);
-        return meals.stream()
-                .mapToInt(m -> m.calories != null ? m.calories : 0)
-                .sum();
+        DailyNutritionTotalResponse total = dailyTotalRepository.findDay(userId, date);
+        return total != null ? (int) total.calories : 0;
+    }
+
+    /**
+     * Tarih aralığındaki günlük toplamlar ve aralık toplamı (uçlar dahil)
+     */
+    public NutritionRangeResponse getTotals(Long userId, LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("from ve to zorunludur.");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to, from'dan önce olamaz.");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Tarih aralığı en fazla " + MAX_RANGE_DAYS + " gün olabilir.");
+        }
+
+        NutritionRangeResponse response = new NutritionRangeResponse();
+        response.from = from;
+        response.to = to;
+        response.days = new ArrayList<>();
+        for (DailyNutritionTotalResponse total : dailyTotalRepository.findRange(userId, from, to)) {
+            response.days.add(total);
+            response.calories += total.calories;
+            response.protein += total.protein;
+            response.carbs += total.carbs;
+            response.fat += total.fat;
+            response.mealCount += total.mealCount;
+        }
+        return response;
+    }
+
+    /**
+     * Son 7 ve 30 günün ortalamaları (bugün dahil), 30 günlük tek aralık okumasından hesaplanır
+     */
+    public Map<String, NutritionAverageResponse> getAverages(Long userId, LocalDate today) {
+        List<DailyNutritionTotalResponse> last30 = dailyTotalRepository.findRange(userId, today.minusDays(29), today);
+        Map<String, NutritionAverageResponse> result = new LinkedHashMap<>();
+        result.put("last7", average(last30, today.minusDays(6), 7));
+        result.put("last30", average(last30, today.minusDays(29), 30));
+        return result;
     }
     
     /**
@@ -101,6 +173,7 @@ public class NutritionService {
         if (meal == null || !meal.user.id.equals(userId)) {
             throw new RuntimeException("Yemek kaydı bulunamadı veya yetkiniz yok!");
         }
+        LocalDate previousDay = meal.mealDate.toLocalDate();
         
         if (request.calories != null && request.calories < 0) {
             throw new RuntimeException("Kalori değeri 0'dan küçük olamaz.");
@@ -123,8 +196,17 @@ public class NutritionService {
         
         // @PreUpdate otomatik çağrılacak
         mealRepository.persist(meal);
-        
-        return toResponse(meal);
+
+        // Yemek başka bir güne taşındıysa iki gün de yeniden hesaplanır
+        LocalDate newDay = meal.mealDate.toLocalDate();
+        dailyTotalRepository.recomputeDay(userId, newDay);
+        if (!newDay.equals(previousDay)) {
+            dailyTotalRepository.recomputeDay(userId, previousDay);
+        }
+
+        MealResponse response = toResponse(meal);
+        mealSearchIndex.mealSaved(userId, response);
+        return response;
     }
     
     /**
@@ -138,13 +220,16 @@ public class NutritionService {
             throw new RuntimeException("Yemek kaydı bulunamadı veya yetkiniz yok!");
         }
         
+        LocalDate day = meal.mealDate.toLocalDate();
         mealRepository.delete(meal);
+        dailyTotalRepository.recomputeDay(userId, day);
+        mealSearchIndex.mealDeleted(userId, mealId);
     }
     
     /**
      * Entity'yi Response'a çevir
      */
-    private MealResponse toResponse(Meal meal) {
+    static MealResponse toResponse(Meal meal) {
         MealResponse response = new MealResponse();
         response.id = meal.id;
         response.name = meal.name;
@@ -160,6 +245,29 @@ public class NutritionService {
         return response;
     }
 
+    private NutritionAverageResponse average(List<DailyNutritionTotalResponse> totals, LocalDate since, int days) {
+        NutritionAverageResponse response = new NutritionAverageResponse();
+        response.days = days;
+        double calories = 0, protein = 0, carbs = 0, fat = 0;
+        for (DailyNutritionTotalResponse total : totals) {
+            if (total.date.isBefore(since)) {
+                continue;
+            }
+            response.loggedDays++;
+            calories += total.calories;
+            protein += total.protein;
+            carbs += total.carbs;
+            fat += total.fat;
+        }
+        if (response.loggedDays > 0) {
+            response.avgCalories = calories / response.loggedDays;
+            response.avgProtein = protein / response.loggedDays;
+            response.avgCarbs = carbs / response.loggedDays;
+            response.avgFat = fat / response.loggedDays;
+        }
+        return response;
+    }
+
     private void validateCreateRequest(MealRequest request) {
         if (request == null) {
             throw new RuntimeException("Yemek isteği boş olamaz.");
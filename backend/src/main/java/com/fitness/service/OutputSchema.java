@@ -0,0 +1,144 @@
+package com.fitness.service;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fitness.dto.AiCoachResponse;
+import com.fitness.dto.FoodImageResult;
+import com.fitness.dto.NutritionAiResponse;
+import com.fitness.dto.NutritionLabelResult;
+import com.fitness.dto.OptionalOutput;
+
+/**
+ * JSON schema for a structured model response, generated from a response DTO.
+ * <p>
+ * The DTO's public instance fields become properties in declaration order and
+ * are required unless marked {@link OptionalOutput}, so the model is never forced
+ * to invent a value the prompt leaves optional. Boxed numbers and
+ * {@code Boolean} are nullable, {@code List<T>} maps to
+ * an array and nested DTO classes to nested objects. Two renderings are kept:
+ * standard JSON Schema (Claude tool {@code input_schema}) and the OpenAPI subset
+ * Gemini expects in {@code generationConfig.responseSchema}.
+ * The nodes are shared; callers must not modify them.
+ */
+public final class OutputSchema {
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    public static final OutputSchema COACH = forType("coach_response", AiCoachResponse.class);
+    public static final OutputSchema NUTRITION = forType("nutrition_response", NutritionAiResponse.class,
+            "retryAfterSeconds");
+    public static final OutputSchema NUTRITION_LABEL = forType("nutrition_label", NutritionLabelResult.class);
+    public static final OutputSchema FOOD_IMAGE = forType("food_image", FoodImageResult.class);
+
+    private final String name;
+    private final ObjectNode jsonSchema;
+    private final ObjectNode geminiSchema;
+
+    private OutputSchema(String name, ObjectNode jsonSchema, ObjectNode geminiSchema) {
+        this.name = name;
+        this.jsonSchema = jsonSchema;
+        this.geminiSchema = geminiSchema;
+    }
+
+    /**
+     * @param excludedFields server-side fields the model must not produce
+     */
+    public static OutputSchema forType(String name, Class<?> type, String... excludedFields) {
+        Set<String> excluded = Set.of(excludedFields);
+        return new OutputSchema(name, object(type, excluded, false), object(type, excluded, true));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public ObjectNode jsonSchema() {
+        return jsonSchema;
+    }
+
+    public ObjectNode geminiSchema() {
+        return geminiSchema;
+    }
+
+    private static ObjectNode object(Class<?> type, Set<String> excluded, boolean gemini) {
+        ObjectNode schema = NODES.objectNode().put("type", typeName("object", gemini));
+        ObjectNode properties = schema.putObject("properties");
+        ArrayNode required = NODES.arrayNode();
+        ArrayNode ordering = NODES.arrayNode();
+        for (Field field : type.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers) || excluded.contains(field.getName())) {
+                continue;
+            }
+            properties.set(field.getName(), property(field.getGenericType(), gemini));
+            ordering.add(field.getName());
+            if (!field.isAnnotationPresent(OptionalOutput.class)) {
+                required.add(field.getName());
+            }
+        }
+        schema.set("required", required);
+        if (gemini) {
+            // Gemini alanları alfabetik üretir; istemdeki sırayı korumak için açıkça verilir
+            schema.set("propertyOrdering", ordering);
+        } else {
+            schema.put("additionalProperties", false);
+        }
+        return schema;
+    }
+
+    private static ObjectNode property(Type type, boolean gemini) {
+        if (type instanceof ParameterizedType parameterized
+                && parameterized.getRawType() instanceof Class<?> raw
+                && Collection.class.isAssignableFrom(raw)) {
+            ObjectNode array = NODES.objectNode().put("type", typeName("array", gemini));
+            array.set("items", property(parameterized.getActualTypeArguments()[0], gemini));
+            return array;
+        }
+        Class<?> raw = type instanceof Class<?> c ? c : Object.class;
+        if (raw == String.class || raw == Object.class) {
+            return NODES.objectNode().put("type", typeName("string", gemini));
+        }
+        if (raw == Integer.class || raw == Long.class || raw == int.class || raw == long.class) {
+            return scalar("integer", !raw.isPrimitive(), gemini);
+        }
+        if (raw == Double.class || raw == Float.class || raw == double.class || raw == float.class) {
+            return scalar("number", !raw.isPrimitive(), gemini);
+        }
+        if (raw == Boolean.class || raw == boolean.class) {
+            return scalar("boolean", !raw.isPrimitive(), gemini);
+        }
+        if (raw.isEnum()) {
+            ObjectNode schema = NODES.objectNode().put("type", typeName("string", gemini));
+            ArrayNode values = schema.putArray("enum");
+            for (Object constant : raw.getEnumConstants()) {
+                values.add(((Enum<?>) constant).name());
+            }
+            return schema;
+        }
+        return object(raw, Set.of(), gemini);
+    }
+
+    private static ObjectNode scalar(String type, boolean nullable, boolean gemini) {
+        ObjectNode schema = NODES.objectNode();
+        if (!nullable) {
+            return schema.put("type", typeName(type, gemini));
+        }
+        if (gemini) {
+            return schema.put("type", typeName(type, true)).put("nullable", true);
+        }
+        schema.putArray("type").add(type).add("null");
+        return schema;
+    }
+
+    private static String typeName(String type, boolean gemini) {
+        return gemini ? type.toUpperCase(java.util.Locale.ROOT) : type;
+    }
+}
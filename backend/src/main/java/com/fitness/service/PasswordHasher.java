@@ -0,0 +1,225 @@
+package com.fitness.service;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.mindrot.jbcrypt.BCrypt;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+/**
+ * BCrypt hashing on a dedicated, bounded pool.
+ * <p>
+ * A hash costs ~100 ms of CPU at cost 10, so running it on request worker
+ * threads lets a login storm starve every other endpoint. Here at most
+ * {@code threads} hashes run at once and at most {@code queue-size} wait;
+ * beyond that callers get {@link BusyException} (mapped to 503) right away
+ * instead of piling up.
+ * <p>
+ * The cost factor is calibrated once at startup to the largest value whose
+ * hash time stays within {@code target-ms} on this machine (clamped to
+ * {@code min-cost}..{@code max-cost}), unless {@code cost} is fixed in
+ * config. Stored hashes with a different cost are upgraded on the next
+ * successful login (see {@link #needsRehash}).
+ */
+@ApplicationScoped
+public class PasswordHasher {
+
+    private static final Logger LOG = Logger.getLogger(PasswordHasher.class);
+    private static final int CALIBRATION_COST = 8;
+
+    /** Havuz ve kuyruk dolu ya da sonuç zamanında gelmedi; istemci biraz sonra tekrar denemeli. */
+    public static class BusyException extends RuntimeException {
+        private final int retryAfterSeconds;
+
+        BusyException(String message, int retryAfterSeconds) {
+            super(message);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    @ConfigProperty(name = "auth.password-hash.threads", defaultValue = "0")
+    int threads;
+
+    @ConfigProperty(name = "auth.password-hash.queue-size", defaultValue = "64")
+    int queueSize;
+
+    @ConfigProperty(name = "auth.password-hash.wait-timeout-ms", defaultValue = "5000")
+    long waitTimeoutMs;
+
+    /** Sabit cost; verilmezse açılışta ölçülerek seçilir. */
+    @ConfigProperty(name = "auth.password-hash.cost")
+    Optional<Integer> fixedCost;
+
+    @ConfigProperty(name = "auth.password-hash.target-ms", defaultValue = "250")
+    long targetMs;
+
+    @ConfigProperty(name = "auth.password-hash.min-cost", defaultValue = "10")
+    int minCost;
+
+    @ConfigProperty(name = "auth.password-hash.max-cost", defaultValue = "14")
+    int maxCost;
+
+    private ThreadPoolExecutor pool;
+    private volatile int cost = 10;
+    private final AtomicLong rejected = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        pool = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** Cost ilk login'de değil açılışta seçilir; ölçüm ~50 ms sürer. */
+    void onStart(@Observes StartupEvent event) {
+        int poolSize = pool.getCorePoolSize();
+        if (fixedCost.isPresent()) {
+            cost = fixedCost.get();
+            LOG.infof("password_hash cost=%d (fixed) threads=%d queue=%d", cost, poolSize, queueSize);
+        } else {
+            long start = System.nanoTime();
+            cost = calibrate(targetMs, minCost, maxCost);
+            LOG.infof("password_hash cost=%d (calibrated, target=%dms, took=%dms) threads=%d queue=%d",
+                    cost, targetMs, (System.nanoTime() - start) / 1_000_000, poolSize, queueSize);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /** Hashes with the current cost factor. */
+    public String hash(String password) {
+        int workFactor = cost;
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(workFactor)));
+    }
+
+    /** {@code false} for anything that is not a BCrypt hash. */
+    public boolean verify(String password, String stored) {
+        if (!isBcryptHash(stored)) {
+            return false;
+        }
+        return run(() -> BCrypt.checkpw(password, stored));
+    }
+
+    /**
+     * Hashes in the background and hands the result to {@code onHashed};
+     * dropped silently when the pool is busy. Used for rehash-on-login so the
+     * upgrade never adds latency or 503s to the login itself.
+     */
+    public void rehashAsync(String password, Consumer<String> onHashed) {
+        int workFactor = cost;
+        try {
+            pool.execute(() -> {
+                try {
+                    onHashed.accept(BCrypt.hashpw(password, BCrypt.gensalt(workFactor)));
+                } catch (Exception e) {
+                    LOG.warnf("password_hash rehash failed: %s", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Bir sonraki girişte tekrar denenir
+        }
+    }
+
+    /** Stored hash uses a different cost than the current one. */
+    public boolean needsRehash(String stored) {
+        return isBcryptHash(stored) && costOf(stored) != cost;
+    }
+
+    public int cost() {
+        return cost;
+    }
+
+    public long rejectedCount() {
+        return rejected.get();
+    }
+
+    /** BCrypt hash "$2a$", "$2b$", "$2y$" ile başlar. */
+    static boolean isBcryptHash(String stored) {
+        return stored != null && stored.length() >= 7
+                && stored.startsWith("$2")
+                && (stored.charAt(2) == 'a' || stored.charAt(2) == 'b' || stored.charAt(2) == 'y')
+                && stored.charAt(3) == '$';
+    }
+
+    /** "$2a$10$..." → 10; okunamazsa -1. */
+    static int costOf(String stored) {
+        try {
+            return Integer.parseInt(stored.substring(4, 6));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Her cost artışı süreyi ikiye katlar: düşük bir cost'ta ölçüp hedefe sığan
+     * en büyük cost'u hesaplar. İlk ölçüm JIT ısınması için atılır.
+     */
+    static int calibrate(long targetMs, int minCost, int maxCost) {
+        BCrypt.hashpw("calibration", BCrypt.gensalt(CALIBRATION_COST));
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", BCrypt.gensalt(CALIBRATION_COST));
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        double estimateMs = bestNanos / 1_000_000.0;
+        int chosen = CALIBRATION_COST;
+        while (chosen < maxCost && estimateMs * 2 <= targetMs) {
+            estimateMs *= 2;
+            chosen++;
+        }
+        return Math.max(minCost, Math.min(maxCost, chosen));
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = pool.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new BusyException("Sunucu şu anda yoğun. Lütfen birkaç saniye sonra tekrar deneyin.", 2);
+        }
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.incrementAndGet();
+            throw new BusyException("Sunucu şu anda yoğun. Lütfen birkaç saniye sonra tekrar deneyin.", 5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusyException("İstek kesildi. Lütfen tekrar deneyin.", 1);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.fitness.service;
+
+/**
+ * A prompt split into a static prefix that is identical across users and calls
+ * (role, protocols, output contract) and the per-request dynamic suffix.
+ * <p>
+ * The prefix is sent as the provider's system instruction and the suffix as the
+ * user message; prompt budgets trim only the suffix. {@link #full()} is the
+ * equivalent single-string prompt.
+ */
+public record PromptParts(String staticPrefix, String dynamicSuffix) {
+
+    public PromptParts {
+        staticPrefix = staticPrefix == null ? "" : staticPrefix;
+        dynamicSuffix = dynamicSuffix == null ? "" : dynamicSuffix;
+    }
+
+    /** A prompt with no cacheable part. */
+    public static PromptParts of(String prompt) {
+        return new PromptParts("", prompt);
+    }
+
+    public boolean hasStaticPrefix() {
+        return !staticPrefix.isEmpty();
+    }
+
+    public String full() {
+        if (staticPrefix.isEmpty()) {
+            return dynamicSuffix;
+        }
+        return staticPrefix + "\n\n" + dynamicSuffix;
+    }
+
+    public int length() {
+        return staticPrefix.length() + dynamicSuffix.length();
+    }
+}
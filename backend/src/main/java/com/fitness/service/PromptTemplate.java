@@ -0,0 +1,177 @@
+package com.fitness.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal prompt template: {@code {{name}}} slots between literal text.
+ * <p>
+ * Templates are parsed once (typically into a {@code static final} field) into
+ * literal and slot segments. Rendering fills a {@link Values} holder by slot
+ * name and writes everything into a single {@link StringBuilder} sized exactly
+ * for the result, so there is no re-parsing and no intermediate copies.
+ * A slot name may appear more than once; all occurrences get the same value.
+ * Number helpers are locale-free ({@code '.'} decimal separator).
+ */
+public final class PromptTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String[] literals;
+    private final int[] slots;
+    private final Map<String, Integer> slotIndex;
+    private final int literalLength;
+
+    private PromptTemplate(String[] literals, int[] slots, Map<String, Integer> slotIndex) {
+        this.literals = literals;
+        this.slots = slots;
+        this.slotIndex = slotIndex;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static PromptTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        Map<String, Integer> slotIndex = new HashMap<>();
+
+        int position = 0;
+        while (true) {
+            int open = source.indexOf(OPEN, position);
+            if (open < 0) {
+                literals.add(source.substring(position));
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Kapanmamış şablon alanı: " + source.substring(open));
+            }
+            String name = source.substring(open + OPEN.length(), close).trim();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Boş şablon alanı, konum " + open);
+            }
+            literals.add(source.substring(position, open));
+            slots.add(slotIndex.computeIfAbsent(name, n -> slotIndex.size()));
+            position = close + CLOSE.length();
+        }
+
+        int[] slotArray = new int[slots.size()];
+        for (int i = 0; i < slotArray.length; i++) {
+            slotArray[i] = slots.get(i);
+        }
+        return new PromptTemplate(literals.toArray(String[]::new), slotArray, Map.copyOf(slotIndex));
+    }
+
+    public Values newValues() {
+        return new Values(this);
+    }
+
+    public String render(Values values) {
+        return renderTo(new StringBuilder(renderedLength(values)), values).toString();
+    }
+
+    /**
+     * Appends the rendered template to {@code target}; unset slots render as empty text.
+     */
+    public StringBuilder renderTo(StringBuilder target, Values values) {
+        if (values.template != this) {
+            throw new IllegalArgumentException("Values başka bir şablona ait");
+        }
+        target.ensureCapacity(target.length() + renderedLength(values));
+        target.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            CharSequence value = values.values[slots[i]];
+            if (value != null) {
+                target.append(value);
+            }
+            target.append(literals[i + 1]);
+        }
+        return target;
+    }
+
+    int renderedLength(Values values) {
+        int length = literalLength;
+        for (int slot : slots) {
+            CharSequence value = values.values[slot];
+            if (value != null) {
+                length += value.length();
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Slot values for one render; not thread-safe, create one per call.
+     */
+    public static final class Values {
+        private final PromptTemplate template;
+        private final CharSequence[] values;
+
+        private Values(PromptTemplate template) {
+            this.template = template;
+            this.values = new CharSequence[template.slotIndex.size()];
+        }
+
+        public Values set(String name, CharSequence value) {
+            Integer index = template.slotIndex.get(name);
+            if (index == null) {
+                throw new IllegalArgumentException("Bilinmeyen şablon alanı: " + name);
+            }
+            values[index] = value;
+            return this;
+        }
+
+        public Values set(String name, int value) {
+            return set(name, Integer.toString(value));
+        }
+    }
+
+    /**
+     * Fixed-point decimal with {@code scale} fraction digits (0-6), rounding half away
+     * from zero; same output as {@code String.format(Locale.US, "%.<scale>f", value)}
+     * for the magnitudes used in prompts.
+     */
+    public static String fixed(double value, int scale) {
+        return appendFixed(new StringBuilder(12), value, scale, false).toString();
+    }
+
+    /** Like {@link #fixed} but always prefixed with a sign ({@code %+.<scale>f}). */
+    public static String signedFixed(double value, int scale) {
+        return appendFixed(new StringBuilder(12), value, scale, true).toString();
+    }
+
+    private static StringBuilder appendFixed(StringBuilder target, double value, int scale, boolean forceSign) {
+        if (scale < 0 || scale > 6) {
+            throw new IllegalArgumentException("scale 0-6 arası olmalı: " + scale);
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1e12) {
+            return target.append(String.format(java.util.Locale.US, (forceSign ? "%+." : "%.") + scale + "f", value));
+        }
+        boolean negative = value < 0 || (value == 0.0 && 1 / value < 0);
+        long factor = POWERS_OF_TEN[scale];
+        long scaled = Math.round(Math.abs(value) * factor);
+        if (negative) {
+            target.append('-');
+        } else if (forceSign) {
+            target.append('+');
+        }
+        target.append(scaled / factor);
+        if (scale > 0) {
+            String fraction = Long.toString(scaled % factor);
+            target.append('.');
+            for (int i = fraction.length(); i < scale; i++) {
+                target.append('0');
+            }
+            target.append(fraction);
+        }
+        return target;
+    }
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+}
@@ -0,0 +1,181 @@
+package com.fitness.service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Deletes rows that have outlived their purpose:
+ * <ul>
+ *   <li>password_reset_token: expired codes (after a grace period, so a late
+ *       attempt still gets "kodun süresi dolmuş" instead of "geçersiz kod").</li>
+ *   <li>ai_rate_limits: windows older than the longest rate-limit window; such a
+ *       row behaves exactly like a missing one, the limiter resets it on next use.</li>
+ * </ul>
+ * Rows are deleted in small chunks, each in its own short transaction, so row
+ * locks are held briefly. Chunks select their rows with
+ * {@code FOR UPDATE SKIP LOCKED}: replicas running the job at the same time
+ * split the work instead of blocking each other or live requests.
+ */
+@ApplicationScoped
+public class RetentionPurgeJob {
+
+    private static final Logger LOG = Logger.getLogger(RetentionPurgeJob.class);
+
+    static final String PASSWORD_RESET_TOKEN = "password_reset_token";
+    static final String AI_RATE_LIMITS = "ai_rate_limits";
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "retention.purge.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "retention.purge.chunk-size", defaultValue = "500")
+    int chunkSize;
+
+    @ConfigProperty(name = "retention.purge.max-chunks-per-run", defaultValue = "200")
+    int maxChunksPerRun;
+
+    @ConfigProperty(name = "retention.purge.pause-ms", defaultValue = "50")
+    long pauseMs;
+
+    @ConfigProperty(name = "retention.purge.password-reset-token.grace-minutes", defaultValue = "60")
+    long passwordResetGraceMinutes;
+
+    /** En uzun rate-limit penceresinden (premium/koç günlük: 24 saat) büyük olmalı. */
+    @ConfigProperty(name = "retention.purge.ai-rate-limits.max-age-hours", defaultValue = "48")
+    long aiRateLimitMaxAgeHours;
+
+    private final Map<String, TableStats> stats = new ConcurrentHashMap<>();
+
+    private record Target(String table, String sql, LocalDateTime cutoff) {
+    }
+
+    @Scheduled(every = "${retention.purge.interval:15m}", delayed = "${retention.purge.initial-delay:2m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledPurge() {
+        if (enabled) {
+            purgeNow();
+        }
+    }
+
+    /**
+     * Runs one purge pass over every table.
+     *
+     * @return deleted row count per table
+     */
+    public Map<String, Integer> purgeNow() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Target> targets = List.of(
+                new Target(PASSWORD_RESET_TOKEN, """
+                        DELETE FROM password_reset_token
+                        WHERE token IN (
+                            SELECT token FROM password_reset_token
+                            WHERE expiry_date < ?1
+                            LIMIT ?2
+                            FOR UPDATE SKIP LOCKED)
+                        """, now.minusMinutes(passwordResetGraceMinutes)),
+                new Target(AI_RATE_LIMITS, """
+                        DELETE FROM ai_rate_limits
+                        WHERE id IN (
+                            SELECT id FROM ai_rate_limits
+                            WHERE window_start < ?1
+                            LIMIT ?2
+                            FOR UPDATE SKIP LOCKED)
+                        """, now.minusHours(aiRateLimitMaxAgeHours)));
+
+        Map<String, Integer> deleted = new LinkedHashMap<>();
+        for (Target target : targets) {
+            deleted.put(target.table(), purge(target));
+        }
+        return deleted;
+    }
+
+    private int purge(Target target) {
+        TableStats tableStats = stats.computeIfAbsent(target.table(), table -> new TableStats());
+        long startNs = System.nanoTime();
+        int total = 0;
+        int chunks = 0;
+        try {
+            int deleted;
+            do {
+                deleted = QuarkusTransaction.requiringNew().call(() -> entityManager
+                        .createNativeQuery(target.sql())
+                        .setParameter(1, target.cutoff())
+                        .setParameter(2, chunkSize)
+                        .executeUpdate());
+                total += deleted;
+                chunks++;
+                if (deleted >= chunkSize && pauseMs > 0) {
+                    // Replikasyon ve autovacuum'a nefes aldır
+                    Thread.sleep(pauseMs);
+                }
+            } while (deleted >= chunkSize && chunks < maxChunksPerRun);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            tableStats.failures.incrementAndGet();
+            LOG.warnf("retention_purge table=%s failed after deleted=%d: %s", target.table(), total, e.getMessage());
+        } finally {
+            tableStats.deleted.addAndGet(total);
+            tableStats.runs.incrementAndGet();
+            tableStats.lastDurationMs = (System.nanoTime() - startNs) / 1_000_000;
+            tableStats.lastRunEpochSeconds = System.currentTimeMillis() / 1000;
+        }
+        if (total > 0) {
+            LOG.infof("retention_purge table=%s deleted=%d chunks=%d durationMs=%d",
+                    target.table(), total, chunks, tableStats.lastDurationMs);
+        }
+        return total;
+    }
+
+    /** Prometheus text exposition of purge counters, per table. */
+    public String renderPrometheus() {
+        StringBuilder out = new StringBuilder(1024);
+        out.append("# HELP retention_purged_rows_total Rows deleted by the retention purge job.\n")
+                .append("# TYPE retention_purged_rows_total counter\n");
+        stats.forEach((table, s) -> sample(out, "retention_purged_rows_total", table, s.deleted.get()));
+        out.append("# HELP retention_purge_runs_total Purge passes per table.\n")
+                .append("# TYPE retention_purge_runs_total counter\n");
+        stats.forEach((table, s) -> sample(out, "retention_purge_runs_total", table, s.runs.get()));
+        out.append("# HELP retention_purge_failures_total Purge passes that stopped on an error.\n")
+                .append("# TYPE retention_purge_failures_total counter\n");
+        stats.forEach((table, s) -> sample(out, "retention_purge_failures_total", table, s.failures.get()));
+        out.append("# HELP retention_purge_last_duration_seconds Duration of the last purge pass.\n")
+                .append("# TYPE retention_purge_last_duration_seconds gauge\n");
+        stats.forEach((table, s) -> out.append("retention_purge_last_duration_seconds{table=\"").append(table)
+                .append("\"} ").append(String.format(Locale.ROOT, "%.3f", s.lastDurationMs / 1000.0))
+                .append('\n'));
+        out.append("# HELP retention_purge_last_run_timestamp_seconds Unix time of the last purge pass.\n")
+                .append("# TYPE retention_purge_last_run_timestamp_seconds gauge\n");
+        stats.forEach((table, s) -> sample(out, "retention_purge_last_run_timestamp_seconds", table,
+                s.lastRunEpochSeconds));
+        return out.toString();
+    }
+
+    private static void sample(StringBuilder out, String name, String table, long value) {
+        out.append(name).append("{table=\"").append(table).append("\"} ").append(value).append('\n');
+    }
+
+    private static final class TableStats {
+        final AtomicLong deleted = new AtomicLong();
+        final AtomicLong runs = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        volatile long lastDurationMs;
+        volatile long lastRunEpochSeconds;
+    }
+}
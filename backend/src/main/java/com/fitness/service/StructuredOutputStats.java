@@ -0,0 +1,89 @@
+package com.fitness.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.logging.Logger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Counts parsed vs failed structured responses per model.
+ * A rising failure rate for one model means its schema enforcement is not
+ * holding (or the model ignores it) and users are falling back to retries.
+ * Exported by {@link #renderPrometheus()} on the AI metrics scrape target.
+ */
+@ApplicationScoped
+public class StructuredOutputStats {
+
+    private static final Logger LOG = Logger.getLogger(StructuredOutputStats.class);
+
+    private final Map<String, Counters> byModel = new ConcurrentHashMap<>();
+
+    public void recordParsed(String model) {
+        counters(model).parsed.increment();
+    }
+
+    public void recordFailure(String model, OutputSchema schema, String error) {
+        Counters counters = counters(model);
+        counters.failed.increment();
+        LOG.warnf("structured_output parse_failed model=%s schema=%s failureRate=%.3f error=%s",
+                key(model), schema != null ? schema.name() : "-", counters.failureRate(), error);
+    }
+
+    /** {@code <model>.parsed}, {@code <model>.failed} and {@code <model>.failureRate}, sorted by model. */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new TreeMap<>();
+        byModel.forEach((model, counters) -> {
+            stats.put(model + ".parsed", counters.parsed.sum());
+            stats.put(model + ".failed", counters.failed.sum());
+            stats.put(model + ".failureRate", counters.failureRate());
+        });
+        return stats;
+    }
+
+    /** Per-model parse counters in Prometheus text format; alert on the failed/parsed ratio. */
+    public String renderPrometheus() {
+        Map<String, Counters> sorted = new TreeMap<>(byModel);
+        StringBuilder out = new StringBuilder(512);
+        out.append("# HELP ai_structured_output_parsed_total Structured responses that parsed against the schema.\n")
+                .append("# TYPE ai_structured_output_parsed_total counter\n");
+        sorted.forEach((model, counters) -> sample(out, "ai_structured_output_parsed_total", model,
+                counters.parsed.sum()));
+        out.append("# HELP ai_structured_output_failed_total Structured responses that failed to parse.\n")
+                .append("# TYPE ai_structured_output_failed_total counter\n");
+        sorted.forEach((model, counters) -> sample(out, "ai_structured_output_failed_total", model,
+                counters.failed.sum()));
+        return out.toString();
+    }
+
+    public void reset() {
+        byModel.clear();
+    }
+
+    private Counters counters(String model) {
+        return byModel.computeIfAbsent(key(model), m -> new Counters());
+    }
+
+    private static void sample(StringBuilder out, String name, String model, long value) {
+        out.append(name).append("{model=\"").append(AiTelemetry.escape(model)).append("\"} ")
+                .append(value).append('\n');
+    }
+
+    private static String key(String model) {
+        return model == null || model.isBlank() ? "unknown" : model;
+    }
+
+    private static final class Counters {
+        final LongAdder parsed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+
+        double failureRate() {
+            long failures = failed.sum();
+            long total = failures + parsed.sum();
+            return total == 0 ? 0.0 : (double) failures / total;
+        }
+    }
+}
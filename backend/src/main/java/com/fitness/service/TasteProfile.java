@@ -0,0 +1,192 @@
+package com.fitness.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Exponentially decayed weights per key (meal tag or meal type), kept as
+ * parallel {@code String[]} / {@code double[]} arrays instead of a boxed map.
+ * <p>
+ * Each feedback decays every weight by {@code 0.5^(elapsed / halfLife)} and
+ * then adds 1 to the keys it mentions, so a tag chosen often long ago fades
+ * behind one chosen recently. Because all weights decay by the same factor,
+ * their order only changes on writes; the prompt summary derived from it can
+ * be computed once per feedback and read as is.
+ * <p>
+ * Stored as {@code key=weight;key=weight} with keys in insertion order.
+ */
+public final class TasteProfile {
+
+    /** Bu ağırlığın altına düşen anahtarlar silinir (~4 yarılanma ömrü). */
+    static final double MIN_WEIGHT = 0.05;
+
+    private String[] keys;
+    private double[] weights;
+    private int size;
+
+    public TasteProfile() {
+        this.keys = new String[8];
+        this.weights = new double[8];
+    }
+
+    public static TasteProfile decode(String encoded) {
+        TasteProfile profile = new TasteProfile();
+        if (encoded == null || encoded.isEmpty()) {
+            return profile;
+        }
+        for (String pair : encoded.split(";")) {
+            int eq = pair.lastIndexOf('=');
+            if (eq <= 0) {
+                continue;
+            }
+            try {
+                double weight = Double.parseDouble(pair.substring(eq + 1));
+                if (weight > 0 && Double.isFinite(weight)) {
+                    profile.add(pair.substring(0, eq), weight);
+                }
+            } catch (NumberFormatException e) {
+                // bozuk çift atlanır
+            }
+        }
+        return profile;
+    }
+
+    public String encode() {
+        StringBuilder out = new StringBuilder(size * 20);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.append(';');
+            }
+            out.append(keys[i]).append('=').append(String.format(Locale.ROOT, "%.4f", weights[i]));
+        }
+        return out.toString();
+    }
+
+    /** {@code 0.5^(elapsed / halfLife)}; 1 when no time passed or the clock went back. */
+    public static double decayFactor(LocalDateTime from, LocalDateTime to, Duration halfLife) {
+        if (from == null || to == null || !to.isAfter(from) || halfLife.isZero() || halfLife.isNegative()) {
+            return 1.0;
+        }
+        double halfLives = (double) Duration.between(from, to).toSeconds() / halfLife.toSeconds();
+        return Math.pow(0.5, halfLives);
+    }
+
+    /** Multiplies every weight by {@code factor} and drops keys that fall below {@link #MIN_WEIGHT}. */
+    public void decay(double factor) {
+        if (factor >= 1.0) {
+            return;
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            double weight = weights[i] * factor;
+            if (weight >= MIN_WEIGHT) {
+                keys[kept] = keys[i];
+                weights[kept] = weight;
+                kept++;
+            }
+        }
+        Arrays.fill(keys, kept, size, null);
+        size = kept;
+    }
+
+    public void add(String key, double amount) {
+        String clean = clean(key);
+        if (clean.isEmpty()) {
+            return;
+        }
+        int index = indexOf(clean);
+        if (index >= 0) {
+            weights[index] += amount;
+            return;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        keys[size] = clean;
+        weights[size] = amount;
+        size++;
+    }
+
+    /** Keeps the {@code maxKeys} heaviest keys, preserving their order. */
+    public void prune(int maxKeys) {
+        if (size <= maxKeys) {
+            return;
+        }
+        double[] sorted = Arrays.copyOf(weights, size);
+        Arrays.sort(sorted);
+        double cutoff = sorted[size - maxKeys];
+        int kept = 0;
+        for (int i = 0; i < size && kept < maxKeys; i++) {
+            if (weights[i] >= cutoff) {
+                keys[kept] = keys[i];
+                weights[kept] = weights[i];
+                kept++;
+            }
+        }
+        Arrays.fill(keys, kept, size, null);
+        size = kept;
+    }
+
+    public double weight(String key) {
+        int index = indexOf(clean(key));
+        return index >= 0 ? weights[index] : 0.0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Heaviest {@code n} keys, heaviest first; equal weights keep insertion order. */
+    public List<String> top(int n) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(weights[b], weights[a]));
+        List<String> result = new ArrayList<>(Math.min(n, size));
+        for (int i = 0; i < Math.min(n, size); i++) {
+            result.add(keys[order[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * Prompt summary: the five heaviest tags and the heaviest meal type.
+     */
+    public static String describe(TasteProfile tags, TasteProfile mealTypes) {
+        List<String> topTags = tags.top(5);
+        List<String> topMealType = mealTypes.top(1);
+
+        StringBuilder sb = new StringBuilder();
+        if (!topTags.isEmpty()) {
+            sb.append("Kullanıcı geçmişte şunları tercih etti: ");
+            sb.append(String.join(", ", topTags));
+        }
+        if (!topMealType.isEmpty()) {
+            if (sb.length() > 0) {
+                sb.append(". ");
+            }
+            sb.append("En sık tercih edilen öğün: ").append(topMealType.get(0));
+        }
+        return sb.toString();
+    }
+
+    private int indexOf(String key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** ';' ve '=' kodlamayı bozar; boşluğa çevrilir. */
+    private static String clean(String key) {
+        return key == null ? "" : key.replace(';', ' ').replace('=', ' ').trim();
+    }
+}
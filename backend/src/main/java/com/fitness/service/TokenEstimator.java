@@ -0,0 +1,30 @@
+package com.fitness.service;
+
+/**
+ * Cheap, provider-independent token estimate used for prompt budgeting.
+ * <p>
+ * BPE tokenizers average roughly four ASCII characters per token; Turkish letters
+ * and other non-ASCII characters split far more often, so they are counted at two
+ * characters per token. Deliberately errs on the high side.
+ */
+public final class TokenEstimator {
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(CharSequence text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 128) {
+                ascii++;
+            } else {
+                other++;
+            }
+        }
+        return (ascii + 3) / 4 + (other + 1) / 2;
+    }
+}
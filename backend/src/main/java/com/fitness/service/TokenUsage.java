@@ -0,0 +1,73 @@
+package com.fitness.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Token counts reported by the provider for one call.
+ * <p>
+ * {@code inputTokens} is the whole prompt; {@code cachedInputTokens} the part served
+ * from the provider's prompt cache and {@code cacheWriteTokens} the part written to it
+ * (Claude only). Fresh tokens are the rest. All zero when the provider sent no usage.
+ */
+public record TokenUsage(int inputTokens, int cachedInputTokens, int cacheWriteTokens, int outputTokens) {
+
+    public static final TokenUsage UNKNOWN = new TokenUsage(0, 0, 0, 0);
+
+    public int freshInputTokens() {
+        return Math.max(0, inputTokens - cachedInputTokens);
+    }
+
+    /**
+     * Gemini {@code usageMetadata}; {@code promptTokenCount} already includes
+     * {@code cachedContentTokenCount}.
+     */
+    public static TokenUsage fromGemini(JsonNode usageMetadata) {
+        if (usageMetadata == null || !usageMetadata.isObject()) {
+            return UNKNOWN;
+        }
+        return new TokenUsage(
+                usageMetadata.path("promptTokenCount").asInt(0),
+                usageMetadata.path("cachedContentTokenCount").asInt(0),
+                0,
+                usageMetadata.path("candidatesTokenCount").asInt(0)
+                        + usageMetadata.path("thoughtsTokenCount").asInt(0));
+    }
+
+    /**
+     * Claude {@code usage}; {@code input_tokens} excludes cache reads and writes,
+     * so the three are added up for the total prompt size.
+     */
+    public static TokenUsage fromClaude(JsonNode usage) {
+        if (usage == null || !usage.isObject()) {
+            return UNKNOWN;
+        }
+        int cacheRead = usage.path("cache_read_input_tokens").asInt(0);
+        int cacheWrite = usage.path("cache_creation_input_tokens").asInt(0);
+        return new TokenUsage(
+                usage.path("input_tokens").asInt(0) + cacheRead + cacheWrite,
+                cacheRead,
+                cacheWrite,
+                usage.path("output_tokens").asInt(0));
+    }
+
+    /** Streaming responses report input and output usage in different events. */
+    public TokenUsage merge(TokenUsage later) {
+        if (later == null || later == UNKNOWN) {
+            return this;
+        }
+        return new TokenUsage(
+                Math.max(inputTokens, later.inputTokens),
+                Math.max(cachedInputTokens, later.cachedInputTokens),
+                Math.max(cacheWriteTokens, later.cacheWriteTokens),
+                Math.max(outputTokens, later.outputTokens));
+    }
+
+    /** key=value fields appended to the structured AI call log line. */
+    public String logFields() {
+        return "inputTokens=" + inputTokens
+                + " cachedTokens=" + cachedInputTokens
+                + " freshTokens=" + freshInputTokens()
+                + " cacheWriteTokens=" + cacheWriteTokens
+                + " outputTokens=" + outputTokens;
+    }
+}
@@ -0,0 +1,225 @@
+package com.fitness.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * One timed stage of a request, shaped like an OpenTelemetry span
+ * (trace/span ids, parent, kind, attributes, status) so that it can be
+ * exported as OTLP as-is.
+ * <p>
+ * Spans are created through {@link Tracing}; closing the root span hands the
+ * whole trace to the exporter. A span is used by a single thread, except
+ * {@link #child(String, Kind)} leaves which only append to the shared trace.
+ */
+public final class TraceSpan implements AutoCloseable {
+
+    public enum Kind {
+        INTERNAL(1), SERVER(2), CLIENT(3);
+
+        final int otlpCode;
+
+        Kind(int otlpCode) {
+            this.otlpCode = otlpCode;
+        }
+    }
+
+    /** Tracing kapalıyken ya da aktif bir trace yokken dönen, hiçbir şey kaydetmeyen span. */
+    static final TraceSpan NOOP = new TraceSpan();
+
+    private static final ThreadLocal<TraceSpan> CURRENT = new ThreadLocal<>();
+
+    private final Trace trace;
+    private final String spanId;
+    private final String parentSpanId;
+    private final String name;
+    private final Kind kind;
+    private final long startEpochNanos;
+    private final long startNanos;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private final boolean scoped;
+    private final TraceSpan previous;
+    private long durationNanos = -1;
+    private String error;
+
+    private TraceSpan() {
+        this.trace = null;
+        this.spanId = "0000000000000000";
+        this.parentSpanId = null;
+        this.name = "noop";
+        this.kind = Kind.INTERNAL;
+        this.startEpochNanos = 0;
+        this.startNanos = 0;
+        this.scoped = false;
+        this.previous = null;
+    }
+
+    private TraceSpan(Trace trace, String parentSpanId, String name, Kind kind, boolean scoped) {
+        this.trace = trace;
+        this.spanId = randomHex(16);
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        long now = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        this.startEpochNanos = now * 1_000_000L;
+        this.scoped = scoped;
+        this.previous = scoped ? CURRENT.get() : null;
+        if (scoped) {
+            CURRENT.set(this);
+        }
+    }
+
+    /** Starts a new trace whose root becomes the current span of this thread. */
+    static TraceSpan root(String name, Kind kind, Consumer<List<TraceSpan>> exporter) {
+        return new TraceSpan(new Trace(randomHex(32), exporter), null, name, kind, true);
+    }
+
+    /** The innermost open scoped span of this thread, or {@code null}. */
+    static TraceSpan current() {
+        return CURRENT.get();
+    }
+
+    /** Child of this span that becomes the thread's current span until closed. */
+    TraceSpan startChild(String name, Kind kind) {
+        if (trace == null) {
+            return NOOP;
+        }
+        return new TraceSpan(trace, spanId, name, kind, true);
+    }
+
+    /**
+     * Leaf child that does not touch the thread's current span; used where
+     * start and end arrive as separate callbacks (JDBC events).
+     */
+    public TraceSpan child(String name, Kind kind) {
+        if (trace == null) {
+            return NOOP;
+        }
+        return new TraceSpan(trace, spanId, name, kind, false);
+    }
+
+    public TraceSpan setAttribute(String key, Object value) {
+        if (trace != null && key != null && value != null) {
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    public TraceSpan recordError(String message) {
+        if (trace != null) {
+            error = message == null || message.isBlank() ? "error" : message;
+        }
+        return this;
+    }
+
+    public TraceSpan recordError(Throwable e) {
+        return recordError(e == null ? null : e.getClass().getSimpleName() + ": " + e.getMessage());
+    }
+
+    /** W3C {@code traceparent} header value for this span. */
+    public String traceparent() {
+        return trace == null ? null : "00-" + trace.traceId + "-" + spanId + "-01";
+    }
+
+    public boolean isRecording() {
+        return trace != null;
+    }
+
+    @Override
+    public void close() {
+        if (trace == null || durationNanos >= 0) {
+            return;
+        }
+        durationNanos = System.nanoTime() - startNanos;
+        if (scoped && CURRENT.get() == this) {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+        trace.finished(this);
+    }
+
+    public String traceId() {
+        return trace == null ? null : trace.traceId;
+    }
+
+    public String spanId() {
+        return spanId;
+    }
+
+    public String parentSpanId() {
+        return parentSpanId;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    public long startEpochNanos() {
+        return startEpochNanos;
+    }
+
+    /** {@code -1} until the span is closed. */
+    public long durationNanos() {
+        return durationNanos;
+    }
+
+    public Map<String, Object> attributes() {
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    /** {@code null} when the span completed without error. */
+    public String error() {
+        return error;
+    }
+
+    private static String randomHex(int length) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder hex = new StringBuilder(length);
+        while (hex.length() < length) {
+            String part = Long.toHexString(random.nextLong());
+            for (int i = part.length(); i < 16 && hex.length() < length; i++) {
+                hex.append('0');
+            }
+            hex.append(part, 0, Math.min(part.length(), length - hex.length()));
+        }
+        return hex.toString();
+    }
+
+    /** Spans of one request; exported once the root span closes. */
+    private static final class Trace {
+        final String traceId;
+        final Consumer<List<TraceSpan>> exporter;
+        final List<TraceSpan> finished = new ArrayList<>();
+
+        Trace(String traceId, Consumer<List<TraceSpan>> exporter) {
+            this.traceId = traceId;
+            this.exporter = exporter;
+        }
+
+        void finished(TraceSpan span) {
+            List<TraceSpan> completed = null;
+            synchronized (finished) {
+                finished.add(span);
+                if (span.parentSpanId == null) {
+                    completed = List.copyOf(finished);
+                }
+            }
+            if (completed != null && exporter != null) {
+                exporter.accept(completed);
+            }
+        }
+    }
+}
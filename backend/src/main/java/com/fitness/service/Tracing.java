@@ -0,0 +1,265 @@
+package com.fitness.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Request tracing for the AI endpoints: JWT, rate limit, preference lookup,
+ * prompt build, upstream call and parse stages, JDBC statements and outbound
+ * HTTP calls, each as a span with tier/model attributes.
+ * <p>
+ * The OpenTelemetry SDK is not part of this build, so spans are kept by
+ * {@link TraceSpan} and exported in the OTLP/HTTP JSON format when
+ * {@code ai.tracing.otlp.endpoint} points at a collector. The last finished
+ * traces are kept in memory for tests and ad-hoc debugging; slow traces are
+ * logged with a per-stage breakdown.
+ */
+@ApplicationScoped
+public class Tracing {
+
+    private static final Logger LOG = Logger.getLogger(Tracing.class);
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "ai.tracing.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "ai.tracing.service-name", defaultValue = "fitness-backend")
+    String serviceName;
+
+    @ConfigProperty(name = "ai.tracing.otlp.endpoint")
+    Optional<String> otlpEndpoint;
+
+    @ConfigProperty(name = "ai.tracing.slow-trace-ms", defaultValue = "1500")
+    long slowTraceMs;
+
+    @ConfigProperty(name = "ai.tracing.recent-traces", defaultValue = "50")
+    int recentCapacity;
+
+    private final Deque<List<TraceSpan>> recent = new ArrayDeque<>();
+
+    private final HttpClient exportClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    // Tek thread + sınırlı kuyruk: collector yavaşsa trace'ler düşürülür, istekler beklemez
+    private final ThreadPoolExecutor exportExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(256), runnable -> {
+                Thread thread = new Thread(runnable, "otlp-trace-export");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    /**
+     * Starts the server span of a request. Nested calls (an endpoint invoked
+     * from inside another trace) become children of the current span.
+     */
+    public TraceSpan startTrace(String name) {
+        if (!enabled) {
+            return TraceSpan.NOOP;
+        }
+        TraceSpan parent = TraceSpan.current();
+        if (parent != null) {
+            return parent.startChild(name, TraceSpan.Kind.INTERNAL);
+        }
+        return TraceSpan.root(name, TraceSpan.Kind.SERVER, this::export);
+    }
+
+    /** Stage span under the current span; a no-op outside a traced request. */
+    public TraceSpan startSpan(String name) {
+        TraceSpan parent = TraceSpan.current();
+        return parent == null ? TraceSpan.NOOP : parent.startChild(name, TraceSpan.Kind.INTERNAL);
+    }
+
+    /** The thread's current span, or a no-op span. */
+    public static TraceSpan currentSpan() {
+        TraceSpan current = TraceSpan.current();
+        return current == null ? TraceSpan.NOOP : current;
+    }
+
+    /**
+     * Sends an outbound request inside a client span and propagates the trace
+     * with a W3C {@code traceparent} header. Calls made outside a request
+     * (schedulers, webhooks) start their own trace. For streamed bodies the
+     * span ends when the response headers arrive.
+     */
+    public <T> HttpResponse<T> send(HttpClient client, HttpRequest request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        TraceSpan parent = TraceSpan.current();
+        String spanName = "HTTP " + request.method();
+        try (TraceSpan span = !enabled ? TraceSpan.NOOP
+                : parent != null ? parent.startChild(spanName, TraceSpan.Kind.CLIENT)
+                        : TraceSpan.root(spanName, TraceSpan.Kind.CLIENT, this::export)) {
+            span.setAttribute("http.request.method", request.method())
+                    .setAttribute("server.address", request.uri().getHost())
+                    .setAttribute("url.path", request.uri().getPath());
+            HttpRequest outbound = request;
+            if (span.isRecording()) {
+                outbound = HttpRequest.newBuilder(request, (name, value) -> !"traceparent".equalsIgnoreCase(name))
+                        .header("traceparent", span.traceparent())
+                        .build();
+            }
+            try {
+                HttpResponse<T> response = client.send(outbound, handler);
+                span.setAttribute("http.response.status_code", response.statusCode());
+                if (response.statusCode() >= 400) {
+                    span.recordError("HTTP " + response.statusCode());
+                }
+                return response;
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                span.recordError(e);
+                throw e;
+            }
+        }
+    }
+
+    /** Most recent finished traces, oldest first. */
+    public List<List<TraceSpan>> recentTraces() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    public void reset() {
+        synchronized (recent) {
+            recent.clear();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        exportExecutor.shutdown();
+    }
+
+    private void export(List<TraceSpan> spans) {
+        synchronized (recent) {
+            recent.addLast(spans);
+            while (recent.size() > Math.max(recentCapacity, 1)) {
+                recent.removeFirst();
+            }
+        }
+        TraceSpan root = spans.get(spans.size() - 1);
+        long durationMs = root.durationNanos() / 1_000_000;
+        if (durationMs >= slowTraceMs) {
+            LOG.infof("trace_slow %s", summary(root, spans));
+        } else if (LOG.isDebugEnabled()) {
+            LOG.debugf("trace %s", summary(root, spans));
+        }
+        otlpEndpoint.filter(endpoint -> !endpoint.isBlank())
+                .ifPresent(endpoint -> exportExecutor.execute(() -> post(endpoint, spans)));
+    }
+
+    private static String summary(TraceSpan root, List<TraceSpan> spans) {
+        StringBuilder line = new StringBuilder()
+                .append("traceId=").append(root.traceId())
+                .append(" name=").append(root.name())
+                .append(" durationMs=").append(root.durationNanos() / 1_000_000);
+        root.attributes().forEach((key, value) -> line.append(' ').append(key).append('=').append(value));
+        line.append(" stages=");
+        boolean first = true;
+        for (TraceSpan span : spans) {
+            if (span == root) {
+                continue;
+            }
+            line.append(first ? "" : ",").append(span.name()).append(':')
+                    .append(span.durationNanos() / 1_000_000).append("ms");
+            if (span.error() != null) {
+                line.append("!");
+            }
+            first = false;
+        }
+        return line.toString();
+    }
+
+    private void post(String endpoint, List<TraceSpan> spans) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(endpoint))
+                    .timeout(Duration.ofSeconds(5))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(toOtlp(spans))))
+                    .build();
+            HttpResponse<Void> response = exportClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 300) {
+                LOG.warnf("OTLP trace export failed status=%d", response.statusCode());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOG.warnf("OTLP trace export failed: %s", e.getMessage());
+        }
+    }
+
+    /** OTLP/HTTP JSON ({@code ExportTraceServiceRequest}) for one trace. */
+    public ObjectNode toOtlp(List<TraceSpan> spans) {
+        ObjectNode body = objectMapper.createObjectNode();
+        ObjectNode resourceSpans = body.putArray("resourceSpans").addObject();
+        addAttribute(resourceSpans.putObject("resource").putArray("attributes"), "service.name", serviceName);
+        ObjectNode scopeSpans = resourceSpans.putArray("scopeSpans").addObject();
+        scopeSpans.putObject("scope").put("name", "com.fitness");
+        ArrayNode out = scopeSpans.putArray("spans");
+        for (TraceSpan span : spans) {
+            ObjectNode node = out.addObject()
+                    .put("traceId", span.traceId())
+                    .put("spanId", span.spanId())
+                    .put("name", span.name())
+                    .put("kind", span.kind().otlpCode)
+                    .put("startTimeUnixNano", Long.toString(span.startEpochNanos()))
+                    .put("endTimeUnixNano", Long.toString(span.startEpochNanos() + span.durationNanos()));
+            if (span.parentSpanId() != null) {
+                node.put("parentSpanId", span.parentSpanId());
+            }
+            ArrayNode attributes = node.putArray("attributes");
+            for (Map.Entry<String, Object> attribute : span.attributes().entrySet()) {
+                addAttribute(attributes, attribute.getKey(), attribute.getValue());
+            }
+            ObjectNode status = node.putObject("status");
+            if (span.error() != null) {
+                status.put("code", 2).put("message", span.error());
+            } else {
+                status.put("code", 0);
+            }
+        }
+        return body;
+    }
+
+    private static void addAttribute(ArrayNode attributes, String key, Object value) {
+        ObjectNode attribute = attributes.addObject().put("key", key);
+        ObjectNode typed = attribute.putObject("value");
+        if (value instanceof Boolean b) {
+            typed.put("boolValue", b);
+        } else if (value instanceof Integer || value instanceof Long) {
+            // OTLP JSON int64 değerleri string olarak taşır
+            typed.put("intValue", value.toString());
+        } else if (value instanceof Number n) {
+            typed.put("doubleValue", n.doubleValue());
+        } else {
+            typed.put("stringValue", String.valueOf(value));
+        }
+    }
+}
@@ -23,6 +23,9 @@ public class TrackingService {
     @Inject
     UserRepository userRepository;
 
+    @Inject
+    CoachContextCache coachContextCache;
+
     /**
      * Yeni kilo kaydı oluştur
      */
@@ -142,6 +145,8 @@ public class TrackingService {
     }
 
     private void syncUserWeightFromLatest(Long userId, User user) {
+        // Kilo değişimi hem profil hem ilerleme özetini etkiler
+        coachContextCache.invalidate(userId);
         if (user == null) {
             return;
         }
@@ -0,0 +1,200 @@
+package com.fitness.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory fuzzy text index over short names (exercises, meals).
+ * <p>
+ * Text is folded Turkish-aware ("Şınav" → "sinav", "IŞIK" → "isik") and split
+ * into pg_trgm style trigrams: every word is padded as {@code "  word "}, so
+ * word starts weigh more and single typos only break two or three trigrams.
+ * A document matches when it shares at least {@link #MIN_COVERAGE} of the
+ * query's trigrams or contains the folded query; hits are ranked by
+ * coverage, then similarity to the whole name (shorter, closer names
+ * first), with a bonus for substring and word-prefix matches.
+ * <p>
+ * Updates are incremental ({@link #put}/{@link #remove}); reads and writes
+ * are guarded by a read-write lock, so searches run in parallel.
+ */
+public final class TrigramIndex<T> {
+
+    /** Sorgu trigramlarının en az bu oranı eşleşmeli (tek harf hatası 5-6 trigramdan 2-3'ünü bozar). */
+    static final double MIN_COVERAGE = 0.4;
+
+    private static final Locale TR = Locale.forLanguageTag("tr");
+
+    public record Hit<T>(T value, double score) {
+    }
+
+    private record Doc<T>(long id, String text, int trigramCount, T value) {
+    }
+
+    private final Map<Long, Doc<T>> docs = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Comparator<T> tieBreak;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param tieBreak order of equally scored hits
+     */
+    public TrigramIndex(Comparator<T> tieBreak) {
+        this.tieBreak = tieBreak;
+    }
+
+    /** Adds or replaces the document with this id. */
+    public void put(long id, String text, T value) {
+        String folded = fold(text);
+        Set<String> trigrams = trigrams(folded);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            docs.put(id, new Doc<>(id, folded, trigrams.size(), value));
+            for (String trigram : trigrams) {
+                postings.computeIfAbsent(trigram, t -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Best {@code limit} hits, highest score first; empty for a blank query. */
+    public List<Hit<T>> search(String query, int limit) {
+        String folded = fold(query);
+        if (folded.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<String> queryTrigrams = trigrams(folded);
+
+        List<Hit<T>> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, int[]> shared = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                Set<Long> ids = postings.get(trigram);
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    shared.computeIfAbsent(id, k -> new int[1])[0]++;
+                }
+            }
+            for (Map.Entry<Long, int[]> candidate : shared.entrySet()) {
+                Doc<T> doc = docs.get(candidate.getKey());
+                double score = score(folded, queryTrigrams.size(), doc, candidate.getValue()[0]);
+                if (score > 0) {
+                    hits.add(new Hit<>(doc.value(), score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.<Hit<T>>comparingDouble(Hit::score).reversed()
+                .thenComparing(Hit::value, tieBreak));
+        return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+    }
+
+    /**
+     * Küçük harf (Türkçe kurallarıyla), aksan/çengel temizliği ve ı → i;
+     * harf ve rakam dışı her şey tek boşluk olur.
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(TR), Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        boolean space = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue; // ş → s, ğ → g, ü → u, ö → o, ç → c, é → e
+            }
+            if (c == 'ı') {
+                c = 'i';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                out.append(c);
+                space = false;
+            } else if (!space) {
+                out.append(' ');
+                space = true;
+            }
+        }
+        int end = out.length();
+        return space && end > 0 ? out.substring(0, end - 1) : out.toString();
+    }
+
+    /** Trigrams of already folded text. */
+    static Set<String> trigrams(String folded) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        if (folded.isEmpty()) {
+            return trigrams;
+        }
+        for (String word : folded.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    private static double score(String query, int queryTrigrams, Doc<?> doc, int shared) {
+        double coverage = (double) shared / queryTrigrams;
+        int at = doc.text().indexOf(query);
+        if (coverage < MIN_COVERAGE && at < 0) {
+            return 0;
+        }
+        double similarity = (double) shared / (queryTrigrams + doc.trigramCount() - shared);
+        double bonus = 0;
+        if (at >= 0) {
+            bonus += 0.5;
+            if (at == 0 || doc.text().charAt(at - 1) == ' ') {
+                bonus += 0.25; // kelime başı
+            }
+        }
+        return coverage + 0.5 * similarity + bonus;
+    }
+
+    private void removeLocked(long id) {
+        Doc<T> old = docs.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String trigram : trigrams(old.text())) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+}
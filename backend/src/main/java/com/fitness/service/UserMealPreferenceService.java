@@ -1,113 +1,124 @@
 package com.fitness.service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
-import com.fitness.entity.AiUserPreference;
+import com.fitness.entity.UserMealProfile;
+import com.fitness.repository.UserMealProfileRepository;
 
-import io.quarkus.hibernate.orm.panache.PanacheQuery;
-import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
 /**
  * Database-backed storage for user meal preferences.
- * Stores last 20 preferences per user for taste profile learning.
+ * Keeps one user_meal_profiles row per user with the last 20 preferences (a
+ * {@link MealPreferenceRing}) and a {@link TasteProfile} of exponentially
+ * decayed tag and meal-type weights for taste profile learning. The weights
+ * are updated incrementally and the prompt summary is computed from them
+ * when feedback is written, so reading it is one primary-key lookup.
  */
 @ApplicationScoped
 public class UserMealPreferenceService {
 
     private static final Logger LOG = Logger.getLogger(UserMealPreferenceService.class);
-    private static final int MAX_PREFERENCES_PER_USER = 20;
+    static final int MAX_PREFERENCES_PER_USER = 20;
+
+    @Inject
+    UserMealProfileRepository profileRepository;
+
+    /** Bir tercihin etkisinin yarıya indiği süre. */
+    @ConfigProperty(name = "ai.nutrition.taste-profile.half-life-days", defaultValue = "30")
+    double halfLifeDays;
+
+    /** Profilde tutulan en fazla etiket; en hafifleri atılır. */
+    @ConfigProperty(name = "ai.nutrition.taste-profile.max-tags", defaultValue = "64")
+    int maxTags;
 
     /**
-     * Record a user meal preference when they add a meal to diary
+     * Record a user meal preference when they add a meal to diary.
+     * Steady state is two statements: the locked profile read and its update.
      */
     @Transactional
     public void recordPreference(Long userId, String mealName, List<String> tags, String mealType) {
         if (userId == null)
             return;
 
-        AiUserPreference pref = new AiUserPreference();
-        pref.userId = userId;
-        pref.mealName = mealName;
-        pref.tags = (tags != null && !tags.isEmpty()) ? String.join(",", tags) : "";
-        pref.mealType = mealType;
-        pref.createdAt = LocalDateTime.now();
-        pref.persist();
-
-        // Cleanup old preferences if exceeding limit
-        PanacheQuery<AiUserPreference> query = AiUserPreference.find("userId", Sort.descending("createdAt"), userId);
-        if (query.count() > MAX_PREFERENCES_PER_USER) {
-            List<AiUserPreference> toDelete = query.range(MAX_PREFERENCES_PER_USER, Integer.MAX_VALUE).list();
-            toDelete.forEach(AiUserPreference::delete);
+        LocalDateTime now = LocalDateTime.now();
+        UserMealProfile profile = profileRepository.findOrCreateForUpdate(userId, now);
+
+        MealPreferenceRing ring = MealPreferenceRing.decode(profile.recent, MAX_PREFERENCES_PER_USER);
+
+        TasteProfile tagWeights;
+        TasteProfile mealTypeWeights;
+        if (profile.tagWeights == null) {
+            // V21 öncesi profil: mevcut son tercihlerle başlat
+            tagWeights = new TasteProfile();
+            mealTypeWeights = new TasteProfile();
+            ring.countInto(tagWeights, mealTypeWeights);
+            profile.weightsAt = profile.updatedAt;
+        } else {
+            tagWeights = TasteProfile.decode(profile.tagWeights);
+            mealTypeWeights = TasteProfile.decode(profile.mealTypeWeights);
         }
 
+        double factor = TasteProfile.decayFactor(profile.weightsAt, now, halfLife());
+        tagWeights.decay(factor);
+        mealTypeWeights.decay(factor);
+
+        ring.add(mealType, tags, mealName);
+        MealPreferenceRing.Entry added = ring.newestFirst().get(0);
+        if (!added.tags().isEmpty()) {
+            for (String tag : added.tags().split(",")) {
+                tagWeights.add(tag, 1.0);
+            }
+        }
+        if (added.mealType() != null) {
+            mealTypeWeights.add(added.mealType(), 1.0);
+        }
+        tagWeights.prune(maxTags);
+
+        profile.recent = ring.encode();
+        profile.tagWeights = tagWeights.encode();
+        profile.mealTypeWeights = mealTypeWeights.encode();
+        profile.weightsAt = now;
+        profile.summary = TasteProfile.describe(tagWeights, mealTypeWeights);
+        profile.feedbackCount++;
+        profile.updatedAt = now;
+
         LOG.debugf("Recorded preference for user %d: %s", userId, mealName);
     }
 
     /**
      * Get summary of user preferences for prompt injection
-     * Returns most frequent tags and meal types
+     * Returns the heaviest tags and meal type. Reads only the precomputed
+     * summary column; decay does not change the order of weights, so the
+     * summary stays valid until the next feedback.
      */
     public String getPreferenceSummary(Long userId) {
         if (userId == null)
             return "";
 
-        List<AiUserPreference> preferences = AiUserPreference.find("userId", Sort.descending("createdAt"), userId)
-                .range(0, MAX_PREFERENCES_PER_USER - 1)
-                .list();
-
-        if (preferences.isEmpty()) {
+        List<String> summaries = profileRepository.getEntityManager()
+                .createQuery("select p.summary from UserMealProfile p where p.userId = ?1", String.class)
+                .setParameter(1, userId)
+                .getResultList();
+        if (summaries.isEmpty()) {
             return "";
         }
-
-        // Count tags
-        Map<String, Integer> tagCounts = new HashMap<>();
-        Map<String, Integer> mealTypeCounts = new HashMap<>();
-
-        for (AiUserPreference pref : preferences) {
-            if (pref.tags != null && !pref.tags.isEmpty()) {
-                String[] tags = pref.tags.split(",");
-                for (String tag : tags) {
-                    tagCounts.merge(tag.trim().toLowerCase(), 1, Integer::sum);
-                }
-            }
-            if (pref.mealType != null) {
-                mealTypeCounts.merge(pref.mealType, 1, Integer::sum);
-            }
-        }
-
-        // Get top 5 tags
-        List<String> topTags = tagCounts.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(5)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
-
-        // Get most common meal type
-        String topMealType = mealTypeCounts.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("");
-
-        // Build summary string
-        StringBuilder sb = new StringBuilder();
-        if (!topTags.isEmpty()) {
-            sb.append("Kullanıcı geçmişte şunları tercih etti: ");
-            sb.append(String.join(", ", topTags));
-        }
-        if (!topMealType.isEmpty()) {
-            if (sb.length() > 0)
-                sb.append(". ");
-            sb.append("En sık tercih edilen öğün: ").append(topMealType);
+        if (summaries.get(0) != null) {
+            return summaries.get(0);
         }
+        // V20 ile taşınan ve o günden beri geri bildirim almamış profil
+        UserMealProfile profile = profileRepository.findById(userId);
+        return profile == null ? "" : MealPreferenceRing.decode(profile.recent, MAX_PREFERENCES_PER_USER).summary();
+    }
 
-        return sb.toString();
+    private Duration halfLife() {
+        return Duration.ofSeconds(Math.round(halfLifeDays * 24 * 60 * 60));
     }
 }
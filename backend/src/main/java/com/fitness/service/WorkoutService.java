@@ -131,8 +131,13 @@ public class WorkoutService {
      * Kullanıcının genel istatistikleri
      */
     public Map<String, Object> getWorkoutStats(Long userId) {
-        List<Workout> all = workoutRepository.findByUserIdOrderByWorkoutDateDesc(userId);
+        return aggregateStats(workoutRepository.findByUserIdOrderByWorkoutDateDesc(userId));
+    }
 
+    /**
+     * Antrenman listesinden özet istatistikleri hesaplar (DB erişimi yok).
+     */
+    static Map<String, Object> aggregateStats(List<Workout> all) {
         long totalWorkouts = all.size();
         long totalSets = all.stream().mapToLong(w -> w.sets != null ? w.sets : 0).sum();
         double totalVolume = all.stream()
@@ -243,7 +248,7 @@ public class WorkoutService {
     /**
      * 1RM: frontend'den geldiyse kullan, yoksa set listesinden Epley ile hesapla.
      */
-    private Double resolveOneRepMax(WorkoutRequest request) {
+    static Double resolveOneRepMax(WorkoutRequest request) {
         if (request.oneRepMax != null && request.oneRepMax > 0) return request.oneRepMax;
         if (request.setDetails != null) {
             return request.setDetails.stream()
@@ -0,0 +1,10 @@
+-- V10: Bildirim kutusu için keyset sayfalama ve okunmamış sayaç indeksleri
+
+-- Okunmamış liste + unread-count: yalnızca okunmamış satırları içeren küçük partial index
+CREATE INDEX IF NOT EXISTS idx_notifications_user_unread
+    ON notifications(user_id, created_at DESC)
+    WHERE is_read = false;
+
+-- Tüm bildirimler için keyset sayfalama (created_at, id) sırasıyla
+CREATE INDEX IF NOT EXISTS idx_notifications_user_created
+    ON notifications(user_id, created_at DESC, id DESC);
@@ -0,0 +1,16 @@
+-- V11: Yeni bildirimleri LISTEN/NOTIFY ile yayınla (SSE push kanalı)
+-- Payload yalnızca "user_id:id"; içerik, o kullanıcıya bağlı SSE bağlantısı olan replikada okunur.
+-- NOTIFY transactional'dır: commit edilmeyen satırlar için bildirim gitmez.
+
+CREATE OR REPLACE FUNCTION notify_notification_created() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('notification_created', NEW.user_id::text || ':' || NEW.id::text);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_notification_created ON notifications;
+
+CREATE TRIGGER trg_notification_created
+    AFTER INSERT ON notifications
+    FOR EACH ROW EXECUTE FUNCTION notify_notification_created();
@@ -0,0 +1,20 @@
+-- V12: Kullanıcı başına günlük beslenme toplamları (rollup)
+-- Yemek ekleme/güncelleme/silmede ilgili gün(ler) meals tablosundan yeniden hesaplanır.
+-- Mevcut veriler için NutritionRollupBackfillJob eksik günleri doldurur.
+
+CREATE TABLE IF NOT EXISTS daily_nutrition_totals (
+    user_id     BIGINT           NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    date        DATE             NOT NULL,
+    calories    BIGINT           NOT NULL DEFAULT 0,
+    protein     DOUBLE PRECISION NOT NULL DEFAULT 0,
+    carbs       DOUBLE PRECISION NOT NULL DEFAULT 0,
+    fat         DOUBLE PRECISION NOT NULL DEFAULT 0,
+    meal_count  INTEGER          NOT NULL DEFAULT 0,
+    updated_at  TIMESTAMP        NOT NULL DEFAULT NOW(),
+
+    -- Tarih aralığı sorguları doğrudan PK üzerinden okunur
+    PRIMARY KEY (user_id, date)
+);
+
+-- Günlük yeniden hesaplama ve /me/meals/date için
+CREATE INDEX IF NOT EXISTS idx_meals_user_meal_date ON meals(user_id, meal_date);
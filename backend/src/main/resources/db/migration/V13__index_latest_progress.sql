@@ -0,0 +1,8 @@
+-- V13: Koç bağlamı için "en son N kayıt" sorgularını index üzerinden karşıla
+-- body_measurements için uq_body_measurements_user_date (user_id, date) zaten yeterli.
+
+CREATE INDEX IF NOT EXISTS idx_weight_records_user_recorded
+    ON weight_records(user_id, recorded_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_ai_insights_user_created
+    ON ai_insights(user_id, created_at DESC);
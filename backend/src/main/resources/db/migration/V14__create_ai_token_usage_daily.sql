@@ -0,0 +1,18 @@
+-- V14: Kullanıcı başına günlük AI token kullanımı ve tahmini maliyet
+-- AiTelemetry çağrıları bellekte toplar ve periyodik olarak tek transaction'da ekler (upsert, artımlı).
+
+CREATE TABLE IF NOT EXISTS ai_token_usage_daily (
+    user_id                  BIGINT    NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    date                     DATE      NOT NULL,
+    request_count            INTEGER   NOT NULL DEFAULT 0,
+    input_tokens             BIGINT    NOT NULL DEFAULT 0,
+    cached_input_tokens      BIGINT    NOT NULL DEFAULT 0,
+    output_tokens            BIGINT    NOT NULL DEFAULT 0,
+    estimated_cost_micro_usd BIGINT    NOT NULL DEFAULT 0,
+    updated_at               TIMESTAMP NOT NULL DEFAULT NOW(),
+
+    PRIMARY KEY (user_id, date)
+);
+
+-- En çok tüketen kullanıcılar: tarih aralığı taraması
+CREATE INDEX IF NOT EXISTS idx_ai_token_usage_daily_date ON ai_token_usage_daily(date);
@@ -0,0 +1,33 @@
+-- V15: App Store / Google Play doğrulama kuyruğu
+-- İstek satırı ekleyip hemen döner; mağaza çağrısı arka plan worker'ında yapılır.
+-- dedup_key aynı satın almanın tekrar gönderimlerini tek satıra indirir.
+
+CREATE TABLE IF NOT EXISTS iap_verifications (
+    id              BIGSERIAL PRIMARY KEY,
+    user_id         BIGINT       NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    platform        VARCHAR(10)  NOT NULL,              -- ios | android
+    plan_id         VARCHAR(60)  NOT NULL,              -- istemcinin gönderdiği ürün ID'si
+    dedup_key       VARCHAR(100) NOT NULL,              -- ios:tx:<transactionId> | <platform>:sha256(token)
+    transaction_id  VARCHAR(120),
+    purchase_token  TEXT,                               -- doğrulama bitince silinir
+    receipt_data    TEXT,                               -- doğrulama bitince silinir
+    status          VARCHAR(20)  NOT NULL DEFAULT 'PENDING', -- PENDING | PROCESSING | VERIFIED | REJECTED | FAILED
+    verified_plan   VARCHAR(20),                        -- monthly | yearly
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP    NOT NULL,
+    claimed_at      TIMESTAMP,
+    created_at      TIMESTAMP    NOT NULL,
+    completed_at    TIMESTAMP,
+    last_error      TEXT
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_iap_verifications_dedup_key
+    ON iap_verifications(dedup_key);
+
+-- Worker claim sorgusu yalnızca bekleyen/işlenen satırlara bakar
+CREATE INDEX IF NOT EXISTS idx_iap_verifications_due
+    ON iap_verifications(next_attempt_at)
+    WHERE status IN ('PENDING', 'PROCESSING');
+
+CREATE INDEX IF NOT EXISTS idx_iap_verifications_user_id
+    ON iap_verifications(user_id);
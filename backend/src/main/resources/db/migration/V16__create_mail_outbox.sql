@@ -0,0 +1,27 @@
+-- V16: E-posta outbox (şifre sıfırlama vb.)
+-- İstek yalnızca satır ekler; SMTP gönderimi arka plan worker'ında ReactiveMailer ile yapılır.
+-- max-attempts sonunda ya da kalıcı SMTP hatasında satır DEAD olarak bırakılır (dead-letter).
+
+CREATE TABLE IF NOT EXISTS mail_outbox (
+    id              BIGSERIAL PRIMARY KEY,
+    user_id         BIGINT       REFERENCES users(id) ON DELETE CASCADE,
+    kind            VARCHAR(40)  NOT NULL,              -- PASSWORD_RESET | ...
+    recipient       VARCHAR(255) NOT NULL,
+    subject         VARCHAR(255) NOT NULL,
+    html_body       TEXT,                               -- gönderildikten sonra silinir
+    status          VARCHAR(20)  NOT NULL DEFAULT 'PENDING', -- PENDING | PROCESSING | SENT | DEAD
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP    NOT NULL,
+    claimed_at      TIMESTAMP,
+    created_at      TIMESTAMP    NOT NULL,
+    sent_at         TIMESTAMP,
+    last_error      TEXT
+);
+
+-- Worker claim sorgusu yalnızca bekleyen/işlenen satırlara bakar
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_due
+    ON mail_outbox(next_attempt_at)
+    WHERE status IN ('PENDING', 'PROCESSING');
+
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_user_id
+    ON mail_outbox(user_id);
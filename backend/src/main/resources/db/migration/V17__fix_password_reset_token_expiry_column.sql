@@ -0,0 +1,18 @@
+-- V17: password_reset_token.expiry_date tek kolon
+-- Entity eskiden "expiryDate" kolonuna yazıyordu; Hibernate schema update bu yüzden
+-- V2'deki expiry_date'in yanına NOT NULL "expirydate" ekledi ve insert'ler başarısız oldu.
+-- Hibernate'in tabloyu V2'den önce oluşturduğu ortamlarda yalnızca expirydate vardır.
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'password_reset_token' AND column_name = 'expirydate') THEN
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = 'password_reset_token' AND column_name = 'expiry_date') THEN
+            UPDATE password_reset_token SET expiry_date = expirydate WHERE expiry_date IS NULL;
+            ALTER TABLE password_reset_token DROP COLUMN expirydate;
+        ELSE
+            ALTER TABLE password_reset_token RENAME COLUMN expirydate TO expiry_date;
+        END IF;
+    END IF;
+END $$;
@@ -0,0 +1,9 @@
+-- V18: RetentionPurgeJob için süre kolonları indeksleri
+-- Purge sorgusu "expiry_date < cutoff LIMIT n" / "window_start < cutoff LIMIT n" şeklinde;
+-- indeks olmadan her parça tüm tabloyu tarar.
+
+CREATE INDEX IF NOT EXISTS idx_password_reset_token_expiry_date
+    ON password_reset_token(expiry_date);
+
+CREATE INDEX IF NOT EXISTS idx_ai_rate_limits_window_start
+    ON ai_rate_limits(window_start);
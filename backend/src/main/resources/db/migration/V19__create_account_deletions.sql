@@ -0,0 +1,28 @@
+-- V19: Büyük hesaplar için arka planda, parça parça hesap silme
+-- Her parça kendi kısa transaction'ında silinir; ilerleme bu tabloda tutulur.
+-- users'a FK yok: kullanıcı satırı silindikten sonra da ilerleme okunabilmeli.
+
+CREATE TABLE IF NOT EXISTS account_deletions (
+    id              BIGSERIAL PRIMARY KEY,
+    user_id         BIGINT       NOT NULL,
+    status          VARCHAR(20)  NOT NULL DEFAULT 'PENDING', -- PENDING | PROCESSING | DONE | FAILED
+    current_step    VARCHAR(40),                         -- o anda silinen tablo
+    estimated_rows  BIGINT       NOT NULL DEFAULT 0,
+    deleted_rows    BIGINT       NOT NULL DEFAULT 0,
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP    NOT NULL,
+    claimed_at      TIMESTAMP,                           -- her parçada yenilenir (lease)
+    created_at      TIMESTAMP    NOT NULL,
+    completed_at    TIMESTAMP,
+    last_error      TEXT
+);
+
+-- Kullanıcı başına tek aktif silme işi
+CREATE UNIQUE INDEX IF NOT EXISTS ux_account_deletions_active_user
+    ON account_deletions(user_id)
+    WHERE status IN ('PENDING', 'PROCESSING');
+
+-- Worker claim sorgusu yalnızca bekleyen/işlenen satırlara bakar
+CREATE INDEX IF NOT EXISTS idx_account_deletions_due
+    ON account_deletions(next_attempt_at)
+    WHERE status IN ('PENDING', 'PROCESSING');
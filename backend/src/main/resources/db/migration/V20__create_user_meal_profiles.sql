@@ -0,0 +1,36 @@
+-- V20: Kullanıcı başına tek satırlık yemek tercih profili (ring buffer)
+-- ai_user_preferences her geri bildirimde insert + count + satır satır silme yapıyordu.
+-- Artık son 20 tercih tek satırda tutulur; özet yazma anında hesaplanır, okuma PK ile tek sorgu.
+
+CREATE TABLE IF NOT EXISTS user_meal_profiles (
+    user_id         BIGINT    PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    recent          TEXT      NOT NULL DEFAULT '', -- satır başına "öğün<TAB>etiketler<TAB>yemek", en eski önce
+    summary         TEXT,                          -- prompt'a eklenen hazır özet; NULL ise recent'ten hesaplanır
+    feedback_count  BIGINT    NOT NULL DEFAULT 0,
+    updated_at      TIMESTAMP NOT NULL
+);
+
+-- Mevcut tercihleri taşı (kullanıcı başına son 20; silinmiş kullanıcıların satırları atlanır)
+INSERT INTO user_meal_profiles (user_id, recent, summary, feedback_count, updated_at)
+SELECT p.user_id,
+       string_agg(
+           translate(coalesce(p.meal_type, ''), E'\t\n\r', '   ') || E'\t'
+               || translate(lower(coalesce(p.tags, '')), E'\t\n\r', '   ') || E'\t'
+               || translate(p.meal_name, E'\t\n\r', '   '),
+           E'\n' ORDER BY p.created_at, p.id),
+       NULL,
+       max(p.total),
+       max(p.created_at)
+FROM (
+    SELECT ap.*,
+           row_number() OVER (PARTITION BY ap.user_id ORDER BY ap.created_at DESC, ap.id DESC) AS rn,
+           count(*) OVER (PARTITION BY ap.user_id) AS total
+    FROM ai_user_preferences ap
+    JOIN users u ON u.id = ap.user_id
+) p
+WHERE p.rn <= 20
+GROUP BY p.user_id
+ON CONFLICT (user_id) DO NOTHING;
+
+DROP TABLE IF EXISTS ai_user_preferences;
+DROP SEQUENCE IF EXISTS ai_user_preferences_seq;
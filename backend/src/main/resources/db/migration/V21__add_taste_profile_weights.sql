@@ -0,0 +1,8 @@
+-- V21: Zamanla sönümlenen tat profili (etiket ve öğün ağırlıkları)
+-- Her geri bildirimde ağırlıklar yarılanma ömrüne göre azaltılıp yeni etiketler eklenir.
+-- NULL: profil henüz ağırlık tutmuyor; ilk geri bildirimde recent'teki kayıtlardan başlatılır.
+
+ALTER TABLE user_meal_profiles
+    ADD COLUMN IF NOT EXISTS tag_weights       TEXT,       -- "etiket=ağırlık;..." ör. "vegan=2.4137;glutensiz=0.8812"
+    ADD COLUMN IF NOT EXISTS meal_type_weights TEXT,       -- "LUNCH=3.1000;DINNER=1.2000"
+    ADD COLUMN IF NOT EXISTS weights_at        TIMESTAMP;  -- ağırlıkların geçerli olduğu an
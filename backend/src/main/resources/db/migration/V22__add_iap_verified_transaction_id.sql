@@ -0,0 +1,12 @@
+-- V22: iOS tekrar kontrolü doğrulanmış işlem kimliğine taşınır
+-- dedup_key artık istemcinin transactionId'sine değil receipt hash'ine dayanır
+-- (ios:sha256(receipt[\ntransactionId])); doğrulanmamış kimlik başka bir satın almayı kilitleyemez.
+-- Apple yanıtında görülen kimlik verified_transaction_id'ye yazılır; aynı satın alma
+-- ikinci bir hesaba verilemez.
+
+ALTER TABLE iap_verifications
+    ADD COLUMN IF NOT EXISTS verified_transaction_id VARCHAR(120);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_iap_verifications_verified_transaction_id
+    ON iap_verifications(verified_transaction_id)
+    WHERE verified_transaction_id IS NOT NULL;
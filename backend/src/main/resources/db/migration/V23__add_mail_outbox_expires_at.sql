@@ -0,0 +1,5 @@
+-- V23: Süreli içerik taşıyan e-postalar (ör. 15 dk geçerli şifre sıfırlama kodu)
+-- expires_at geçtikten sonra gönderilmez; satır DEAD olur ve gövdesi silinir.
+
+ALTER TABLE mail_outbox
+    ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP;             -- NULL: süresiz
@@ -0,0 +1,8 @@
+-- V24: Tek seferlik veri doldurma işlerinin tamamlanma kaydı
+-- Açılışta çalışan backfill'ler burada kayıtlıysa tekrar çalışmaz
+-- (ör. daily_nutrition_totals için tüm meals tablosunu her açılışta yeniden toplamamak için).
+
+CREATE TABLE IF NOT EXISTS completed_backfills (
+    name         VARCHAR(100) PRIMARY KEY,
+    completed_at TIMESTAMP    NOT NULL
+);
@@ -0,0 +1,14 @@
+-- V25: tek hesap kuralı aboneliğin original_transaction_id'sine taşınır
+-- Yenilenen iOS aboneliği her dönem yeni bir transaction_id alır; V22'deki tekil
+-- verified_transaction_id aynı receipt'in farklı yenilemeleriyle birden çok hesaba
+-- premium açılmasını engellemiyordu. verified_transaction_id yalnızca kayıt olarak kalır.
+-- Eski satırların original kimliği bilinmediği için boş bırakılır.
+
+ALTER TABLE iap_verifications
+    ADD COLUMN IF NOT EXISTS original_transaction_id VARCHAR(120);
+
+DROP INDEX IF EXISTS ux_iap_verifications_verified_transaction_id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_iap_verifications_original_transaction_id
+    ON iap_verifications(original_transaction_id)
+    WHERE original_transaction_id IS NOT NULL;
@@ -0,0 +1,30 @@
+-- V9: AI bildirimleri için transactional outbox
+-- Scheduler sadece satır ekler; AI üretimi ve Notification kaydı arka plan worker'ında yapılır.
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id              BIGSERIAL PRIMARY KEY,
+    user_id         BIGINT       NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    type            VARCHAR(50)  NOT NULL,              -- PROTEIN_DEFICIENCY | MISSED_WORKOUT | ...
+    context         TEXT         NOT NULL,              -- AI'a verilecek senaryo metni
+    dedup_key       VARCHAR(120) NOT NULL,              -- userId:type:tarih, replikalar arası tekrar önleme
+    status          VARCHAR(20)  NOT NULL DEFAULT 'PENDING', -- PENDING | PROCESSING | DONE | FAILED
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP    NOT NULL,
+    claimed_at      TIMESTAMP,
+    created_at      TIMESTAMP    NOT NULL,
+    delivered_at    TIMESTAMP,
+    latency_ms      BIGINT,
+    notification_id BIGINT,
+    last_error      TEXT
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_notification_outbox_dedup_key
+    ON notification_outbox(dedup_key);
+
+-- Worker claim sorgusu yalnızca bekleyen/işlenen satırlara bakar
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_due
+    ON notification_outbox(next_attempt_at)
+    WHERE status IN ('PENDING', 'PROCESSING');
+
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_user_id
+    ON notification_outbox(user_id);
@@ -0,0 +1,185 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.fitness.dto.LoginRequest;
+import com.fitness.entity.AccountDeletion;
+import com.fitness.entity.User;
+import com.fitness.service.AccountDeletionService;
+import com.fitness.service.AuthService;
+import com.fitness.service.PasswordHasher;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+@QuarkusTest
+public class AccountDeletionServiceTest {
+
+    private static final String EMAIL = "account-deletion-test@fitness.local";
+    private static final String PASSWORD = "silinecek-hesap-123";
+
+    @Inject
+    AccountDeletionService accountDeletionService;
+
+    @Inject
+    AuthService authService;
+
+    @Inject
+    PasswordHasher passwordHasher;
+
+    @Inject
+    EntityManager entityManager;
+
+    Long userId;
+
+    @BeforeEach
+    @Transactional
+    public void setup() {
+        Long existing = User.<User>find("email", EMAIL).firstResultOptional().map(u -> u.id).orElse(null);
+        if (existing != null) {
+            entityManager.createNativeQuery("DELETE FROM ai_rate_limits WHERE user_id = ?1")
+                    .setParameter(1, existing).executeUpdate();
+            User.deleteById(existing);
+            User.flush();
+        }
+
+        User user = new User();
+        user.email = EMAIL;
+        user.password = passwordHasher.hash(PASSWORD);
+        user.name = "Deletion Test";
+        user.persist();
+        userId = user.id;
+    }
+
+    @Test
+    public void testSmallAccountIsDeletedSynchronously() {
+        seed(userId, 10, 3, 10, 5);
+        assertEquals(10 + 30 + 10 + 5 + 1, accountDeletionService.estimateRows(userId));
+
+        assertNull(authService.deleteAccount(userId, false));
+
+        assertNull(QuarkusTransaction.requiringNew().call(() -> User.findById(userId)));
+        // FK'siz ai_rate_limits dahil hiçbir satır kalmaz
+        assertEquals(0, accountDeletionService.estimateRows(userId));
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> authService.deleteAccount(userId, false));
+        assertEquals("Kullanici bulunamadi!", error.getMessage());
+    }
+
+    @Test
+    public void testAsyncDeletionWorksInChunksAndReportsProgress() throws Exception {
+        // chunk-size 1000: workout_sets ve meals birden fazla parçada silinir
+        seed(userId, 1500, 2, 1200, 20);
+        long estimated = accountDeletionService.estimateRows(userId);
+        assertEquals(1500 + 3000 + 1200 + 20 + 1, estimated);
+
+        AccountDeletion job = authService.deleteAccount(userId, true);
+        assertNotNull(job);
+        assertEquals(estimated, job.estimatedRows);
+
+        // Giriş iş oluşturulduğu anda kapanır
+        RuntimeException error = assertThrows(RuntimeException.class, () -> authService.login(login()));
+        assertEquals("Email veya şifre hatalı!", error.getMessage());
+
+        AccountDeletion done = awaitTerminal(job.id);
+        assertEquals(AccountDeletion.STATUS_DONE, done.status, String.valueOf(done.lastError));
+        assertEquals(100, done.progressPercent());
+        assertTrue(done.deletedRows >= estimated, "deletedRows=" + done.deletedRows);
+        assertNotNull(done.completedAt);
+
+        assertNull(QuarkusTransaction.requiringNew().call(() -> User.findById(userId)));
+        assertEquals(0, accountDeletionService.estimateRows(userId));
+    }
+
+    /**
+     * 100k satırlık hesap: tek transaction'lık cascade silme ile parça parça
+     * silmenin süresi. Varsayılan test koşusunda çalışmaz:
+     * mvn test -Dtest=AccountDeletionServiceTest -Dbench.account-deletion=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "bench.account-deletion", matches = "true")
+    public void benchmarkHundredThousandRowAccount() throws Exception {
+        // 20k workout + 60k set + 15k meal + 5k bildirim = 100k
+        seed(userId, 20_000, 3, 15_000, 5_000);
+        long rows = accountDeletionService.estimateRows(userId);
+        long start = System.nanoTime();
+        accountDeletionService.deleteNow(userId);
+        long syncMs = (System.nanoTime() - start) / 1_000_000;
+
+        QuarkusTransaction.requiringNew().run(() -> setup());
+        seed(userId, 20_000, 3, 15_000, 5_000);
+        start = System.nanoTime();
+        AccountDeletion job = accountDeletionService.deleteOrSchedule(userId, true);
+        long acceptMs = (System.nanoTime() - start) / 1_000_000;
+        AccountDeletion done = awaitTerminal(job.id);
+        long asyncMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(AccountDeletion.STATUS_DONE, done.status);
+        System.out.printf("account_deletion_bench rows=%d sync_single_tx_ms=%d async_accept_ms=%d async_total_ms=%d%n",
+                rows, syncMs, acceptMs, asyncMs);
+    }
+
+    private AccountDeletion awaitTerminal(Long jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 120_000;
+        AccountDeletion job = accountDeletionService.find(jobId, userId);
+        while (!job.isTerminal() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            job = accountDeletionService.find(jobId, userId);
+        }
+        return job;
+    }
+
+    /**
+     * Toplu veri: generate_series ile tek sorguda. Id'ler Hibernate'in
+     * sequence'larından alınır; tablo default'u (BIGSERIAL) entity id'leriyle çakışır.
+     */
+    private void seed(Long userId, int workouts, int setsPerWorkout, int meals, int notifications) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            entityManager.createNativeQuery("""
+                    INSERT INTO workouts (id, user_id, name, workout_date)
+                    SELECT nextval('workouts_seq'), ?1, 'Bench Press', NOW() - g * INTERVAL '1 hour'
+                    FROM generate_series(1, ?2) g
+                    """).setParameter(1, userId).setParameter(2, workouts).executeUpdate();
+            entityManager.createNativeQuery("""
+                    INSERT INTO workout_sets (id, workout_id, set_number, set_type, reps, weight)
+                    SELECT nextval('workout_sets_seq'), w.id, g, 'NORMAL', 8, 60
+                    FROM workouts w, generate_series(1, ?2) g
+                    WHERE w.user_id = ?1
+                    """).setParameter(1, userId).setParameter(2, setsPerWorkout).executeUpdate();
+            entityManager.createNativeQuery("""
+                    INSERT INTO meals (id, user_id, name, meal_type, calories, meal_date)
+                    SELECT nextval('meals_seq'), ?1, 'Yulaf', 'BREAKFAST', 350, NOW() - g * INTERVAL '1 hour'
+                    FROM generate_series(1, ?2) g
+                    """).setParameter(1, userId).setParameter(2, meals).executeUpdate();
+            entityManager.createNativeQuery("""
+                    INSERT INTO notifications (id, user_id, title, message, created_at)
+                    SELECT nextval('notifications_seq'), ?1, 'Hatırlatma', 'Su içmeyi unutma', NOW()
+                    FROM generate_series(1, ?2) g
+                    """).setParameter(1, userId).setParameter(2, notifications).executeUpdate();
+            // users'a FK'si olmayan tek tablo
+            entityManager.createNativeQuery("""
+                    INSERT INTO ai_rate_limits (id, user_id, scope, request_count, window_start)
+                    VALUES (nextval('ai_rate_limits_seq'), ?1, 'coach', 1, NOW())
+                    """).setParameter(1, userId).executeUpdate();
+        });
+    }
+
+    private static LoginRequest login() {
+        LoginRequest request = new LoginRequest();
+        request.email = EMAIL;
+        request.password = PASSWORD;
+        return request;
+    }
+}
@@ -0,0 +1,112 @@
+package com.fitness;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fitness.dto.AiTokenUsageSummary;
+import com.fitness.entity.AiTokenUsageDaily;
+import com.fitness.entity.User;
+import com.fitness.repository.AiTokenUsageRepository;
+import com.fitness.service.AiTelemetry;
+import com.fitness.service.GeminiClientResult;
+import com.fitness.service.TokenUsage;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+@QuarkusTest
+public class AiTelemetryTest {
+
+    private static final String EMAIL = "ai-telemetry-test@fitness.local";
+
+    @Inject
+    AiTelemetry telemetry;
+
+    @Inject
+    AiTokenUsageRepository usageRepository;
+
+    Long userId;
+
+    @BeforeEach
+    @Transactional
+    public void setup() {
+        telemetry.reset();
+        User existing = User.find("email", EMAIL).firstResult();
+        if (existing != null) {
+            AiTokenUsageDaily.delete("userId", existing.id);
+            existing.delete();
+            User.flush();
+        }
+        User user = new User();
+        user.email = EMAIL;
+        user.password = "x";
+        user.name = "Telemetry Test";
+        user.persist();
+        userId = user.id;
+    }
+
+    @Test
+    public void testFallbackRateLimitAndTokensAreExported() {
+        telemetry.recordCall("ai/coach", "free", userId, "gemini-2.0-flash", success("gemini-1.5-flash", 1200,
+                new TokenUsage(2_000_000, 1_000_000, 0, 500_000)));
+        telemetry.recordCall("ai/coach", "free", userId, "gemini-2.0-flash",
+                GeminiClientResult.builder().failure("gemini-2.0-flash", 429, "quota", 80).build());
+
+        String text = telemetry.renderPrometheus();
+        assertTrue(text.contains("ai_model_fallback_total{endpoint=\"ai/coach\",primary_model=\"gemini-2.0-flash\","
+                + "model=\"gemini-1.5-flash\"} 1"), text);
+        assertTrue(text.contains("ai_rate_limited_total{provider=\"gemini\",model=\"gemini-2.0-flash\"} 1"), text);
+        assertTrue(text.contains("ai_request_duration_seconds_bucket{endpoint=\"ai/coach\",provider=\"gemini\","
+                + "model=\"gemini-1.5-flash\",status=\"ok\",le=\"1.000\"} 0"), text);
+        assertTrue(text.contains("ai_request_duration_seconds_bucket{endpoint=\"ai/coach\",provider=\"gemini\","
+                + "model=\"gemini-1.5-flash\",status=\"ok\",le=\"2.000\"} 1"), text);
+        assertTrue(text.contains("ai_tokens_total{provider=\"gemini\",model=\"gemini-1.5-flash\",type=\"cached_input\"} 1000000"), text);
+        // 1M taze * 0.075 + 1M önbellek * 0.075 * 0.25 + 0.5M çıktı * 0.30 = 0.24375 USD
+        assertTrue(text.contains("ai_estimated_cost_usd_total{tier=\"free\"} 0.243750"), text);
+    }
+
+    @Test
+    public void testDailyUsageIsBufferedAndSummedPerUser() {
+        TokenUsage usage = new TokenUsage(1_000, 0, 0, 200);
+        telemetry.recordCall("ai/nutrition", "premium", userId, "gemini-2.0-flash",
+                success("claude:claude-haiku-4-5-20251001", 900, usage));
+        telemetry.flushUsage();
+        telemetry.recordCall("ai/nutrition", "premium", userId, "gemini-2.0-flash",
+                success("claude:claude-haiku-4-5-20251001", 700, usage));
+        telemetry.flushUsage();
+
+        LocalDate today = LocalDate.now();
+        List<AiTokenUsageSummary> top = QuarkusTransaction.requiringNew()
+                .call(() -> usageRepository.topConsumers(today, today, 50));
+        AiTokenUsageSummary mine = top.stream().filter(row -> row.userId.equals(userId)).findFirst().orElseThrow();
+        assertEquals(2, mine.requestCount);
+        assertEquals(2_000, mine.inputTokens);
+        assertEquals(400, mine.outputTokens);
+        // Claude sonucu Gemini fallback'i sayılmaz
+        assertTrue(!telemetry.renderPrometheus().contains("ai_model_fallback_total{"));
+        assertEquals(0.004, mine.estimatedCostUsd, 1e-9);
+    }
+
+    @Test
+    public void testMetricsEndpointsFailClosedWithoutToken() {
+        // Test profilinde ai.telemetry.metrics.token tanımlı değil
+        given().when().get("/api/internal/metrics/ai").then().statusCode(403);
+        given().when().get("/api/internal/metrics/retention").then().statusCode(403);
+        given().when().get("/api/internal/metrics/ai/top-consumers").then().statusCode(403);
+        given().header("Authorization", "Bearer __MISSING__")
+                .when().get("/api/internal/metrics/ai").then().statusCode(403);
+    }
+
+    private static GeminiClientResult success(String model, long latencyMs, TokenUsage usage) {
+        return GeminiClientResult.builder().success(model, "{}", latencyMs).usage(usage).build();
+    }
+}
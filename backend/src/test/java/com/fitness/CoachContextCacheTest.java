@@ -0,0 +1,141 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fitness.dto.WeightRecordRequest;
+import com.fitness.entity.User;
+import com.fitness.entity.WeightRecord;
+import com.fitness.service.AiCoachContextBuilder;
+import com.fitness.service.CoachContextCache;
+import com.fitness.service.CoachPromptContext;
+import com.fitness.service.TrackingService;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+@QuarkusTest
+public class CoachContextCacheTest {
+
+    private static final String EMAIL = "coach-cache-test@fitness.local";
+
+    @Inject
+    CoachContextCache cache;
+
+    @Inject
+    AiCoachContextBuilder contextBuilder;
+
+    @Inject
+    TrackingService trackingService;
+
+    Long userId;
+
+    @BeforeEach
+    @Transactional
+    public void setup() {
+        cache.clear();
+        User existing = User.find("email", EMAIL).firstResult();
+        if (existing != null) {
+            WeightRecord.delete("user.id", existing.id);
+            existing.delete();
+            User.flush();
+        }
+
+        User user = new User();
+        user.email = EMAIL;
+        user.password = "x";
+        user.name = "Cache Test";
+        user.weight = 80.0;
+        user.targetWeight = 75.0;
+        user.persist();
+        userId = user.id;
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        AtomicInteger loads = new AtomicInteger();
+        for (long id = 1; id <= 3; id++) {
+            cache.get(id, key -> snapshot(loads));
+        }
+        // 1 yeniden kullanıldı; kapasite (3) aşılınca en eski olan 2 atılmalı
+        cache.get(1L, key -> snapshot(loads));
+        cache.get(4L, key -> snapshot(loads));
+        assertEquals(4, loads.get());
+
+        cache.get(1L, key -> snapshot(loads));
+        assertEquals(4, loads.get());
+        cache.get(2L, key -> snapshot(loads));
+        assertEquals(5, loads.get());
+
+        assertEquals(3, ((Number) cache.stats().get("size")).intValue());
+        assertTrue(((Number) cache.stats().get("evictions")).longValue() >= 2);
+    }
+
+    @Test
+    public void testLoadOverlappingInvalidationIsNotStored() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(42L, key -> {
+            cache.invalidate(key);
+            return snapshot(loads);
+        });
+        cache.get(42L, key -> snapshot(loads));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testOtherUsersInvalidationDoesNotDiscardLoad() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(42L, key -> {
+            cache.invalidate(43L); // başka bir kullanıcının yazması
+            return snapshot(loads);
+        });
+        cache.get(42L, key -> snapshot(loads));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testStatsAreExportedAsPrometheusMetrics() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(7L, key -> snapshot(loads));
+        cache.get(7L, key -> snapshot(loads));
+
+        String text = cache.renderPrometheus();
+        assertTrue(text.contains("# TYPE coach_context_cache_hits_total counter"), text);
+        assertTrue(text.contains("\ncoach_context_cache_entries 1\n"), text);
+    }
+
+    @Test
+    public void testWeightWriteInvalidatesContext() {
+        CoachPromptContext first = build();
+        assertTrue(first.profileSnapshot.contains("Current weight: 80.0 kg"), first.profileSnapshot);
+        long hitsBefore = ((Number) cache.stats().get("hits")).longValue();
+        build();
+        assertEquals(hitsBefore + 1, ((Number) cache.stats().get("hits")).longValue());
+
+        WeightRecordRequest request = new WeightRecordRequest();
+        request.weight = 78.5;
+        trackingService.createWeightRecord(userId, request);
+
+        CoachPromptContext after = build();
+        assertTrue(after.progressSnapshot.contains("Latest weight: 78.5 kg"), after.progressSnapshot);
+        assertTrue(after.coachingSignals.contains("-3.5 kg"), after.coachingSignals);
+    }
+
+    // Her çağrı ayrı bir istek gibi kendi oturumunda çalışır
+    private CoachPromptContext build() {
+        return QuarkusTransaction.requiringNew().call(() -> contextBuilder.build(userId, null));
+    }
+
+    private static CoachContextCache.Snapshot snapshot(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new CoachContextCache.Snapshot("profile", "progress", 80.0, 75.0, List.of());
+    }
+}
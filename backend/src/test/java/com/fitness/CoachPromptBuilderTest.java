@@ -1,14 +1,19 @@
 package com.fitness;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
 import com.fitness.dto.AiCoachRequest;
+import com.fitness.service.CoachContextCache;
 import com.fitness.service.CoachPromptBuilder;
 import com.fitness.service.CoachPromptContext;
+import com.fitness.service.PromptParts;
 
 public class CoachPromptBuilderTest {
 
@@ -54,4 +59,68 @@ public class CoachPromptBuilderTest {
         assertTrue(prompt.contains("DETERMINISTIC COACHING SIGNALS:"));
         assertTrue(prompt.contains("prioritize recovery"));
     }
+
+    @Test
+    void staticPrefixIsIdenticalAcrossUsers() {
+        CoachPromptBuilder builder = new CoachPromptBuilder();
+
+        AiCoachRequest first = new AiCoachRequest();
+        first.goal = "bulk";
+        first.question = "Kaç gram protein almalıyım?";
+        first.personality = "motivator";
+        first.dailySummary = new AiCoachRequest.DailySummaryDto();
+        first.dailySummary.calories = 3100;
+
+        AiCoachRequest second = new AiCoachRequest();
+        second.goal = "cut";
+        second.question = "Bugün koşmalı mıyım?";
+        second.dailySummary = new AiCoachRequest.DailySummaryDto();
+        second.dailySummary.calories = 1700;
+
+        PromptParts a = builder.buildPromptParts(first, List.of(), null);
+        PromptParts b = builder.buildPromptParts(second, List.of(), null);
+
+        assertEquals(a.staticPrefix(), b.staticPrefix());
+        assertTrue(a.staticPrefix().contains("[SCIENTIFIC PROTOCOLS]"));
+        assertTrue(a.staticPrefix().contains("RESPONSE REQUIREMENTS:"));
+        assertFalse(a.staticPrefix().contains("USER INPUT"));
+        assertTrue(a.dynamicSuffix().contains("USER INPUT: Kaç gram protein almalıyım?"));
+        assertEquals(a.full(), builder.buildPrompt(first, List.of(), null));
+    }
+
+    @Test
+    void budgetDropsOldHistoryFirstAndKeepsTheQuestion() {
+        CoachPromptBuilder builder = new CoachPromptBuilder();
+        AiCoachRequest request = new AiCoachRequest();
+        request.goal = "cut";
+        request.question = "Akşam yemeğinde ne yemeliyim?";
+        request.dailySummary = new AiCoachRequest.DailySummaryDto();
+        request.dailySummary.mealNames = List.of("Yulaf", "Yumurta", "Salata", "Mercimek", "Yoğurt", "Elma");
+
+        String longSummary = "Haftalık özet: antrenman düzeni iyi, kalori hedefin biraz üstünde. ".repeat(12);
+        LocalDateTime now = LocalDateTime.of(2026, 3, 1, 0, 0);
+        List<CoachContextCache.InsightLine> insights = List.of(
+                new CoachContextCache.InsightLine("NEWEST", now, longSummary),
+                new CoachContextCache.InsightLine("MIDDLE", now.minusWeeks(1), longSummary),
+                new CoachContextCache.InsightLine("OLDEST", now.minusWeeks(2), longSummary));
+
+        CoachPromptBuilder.BudgetedPrompt roomy = builder.buildBudgetedPrompt(request, insights, null, 100_000);
+        assertEquals(0, roomy.compressionLevel());
+        assertEquals(builder.buildPromptParts(request, insights, null), roomy.parts());
+
+        CoachPromptBuilder.BudgetedPrompt tight = builder.buildBudgetedPrompt(
+                request, insights, null, roomy.originalTokens() - 1);
+        assertTrue(tight.compressionLevel() >= 1);
+        assertTrue(tight.withinBudget());
+        assertTrue(tight.estimatedTokens() < tight.originalTokens());
+        assertTrue(tight.parts().dynamicSuffix().contains("[NEWEST"));
+        assertFalse(tight.parts().dynamicSuffix().contains("[OLDEST"));
+        assertTrue(tight.parts().dynamicSuffix().contains("USER INPUT: Akşam yemeğinde ne yemeliyim?"));
+
+        CoachPromptBuilder.BudgetedPrompt impossible = builder.buildBudgetedPrompt(request, insights, null, 10);
+        assertEquals(4, impossible.compressionLevel());
+        assertFalse(impossible.withinBudget());
+        assertTrue(impossible.parts().dynamicSuffix().contains("Meals today: 6 meals logged"));
+        assertTrue(impossible.parts().dynamicSuffix().contains("USER INPUT: Akşam yemeğinde ne yemeliyim?"));
+    }
 }
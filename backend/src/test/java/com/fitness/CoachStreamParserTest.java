@@ -0,0 +1,64 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.service.CoachStreamParser;
+
+public class CoachStreamParserTest {
+
+    private static final String RESPONSE = """
+            ```json
+            {"todayFocus": "Protein \\"hedefini\\" tamamla, {} yok",
+             "actionItems": ["10 dk yürü", {"text": "2L su iç"}, "Uyku: 8 saat"],
+             "nutritionNote": "Akşam hafif ye.",
+             "isAchievement": false,
+             "actions": [{"label": "Başla", "type": "START_WORKOUT", "data": "push"}]}
+            ```""";
+
+    @Test
+    void emitsFieldsAndActionItemsRegardlessOfChunkBoundaries() {
+        for (int chunkSize : new int[] { 1, 3, 7, RESPONSE.length() }) {
+            List<String> events = new ArrayList<>();
+            StringBuilder deltas = new StringBuilder();
+            CoachStreamParser parser = new CoachStreamParser(new ObjectMapper(), new CoachStreamParser.Listener() {
+                @Override
+                public void onDelta(String text) {
+                    deltas.append(text);
+                }
+
+                @Override
+                public void onField(String name, JsonNode value) {
+                    events.add("field:" + name + "=" + (value.isTextual() ? value.asText() : value.toString()));
+                }
+
+                @Override
+                public void onActionItem(int index, String text) {
+                    events.add("item:" + index + "=" + text);
+                }
+            });
+
+            for (int i = 0; i < RESPONSE.length(); i += chunkSize) {
+                parser.feed(RESPONSE.substring(i, Math.min(RESPONSE.length(), i + chunkSize)));
+            }
+
+            assertEquals(RESPONSE, deltas.toString());
+            assertEquals(List.of(
+                    "field:todayFocus=Protein \"hedefini\" tamamla, {} yok",
+                    "item:0=10 dk yürü",
+                    "item:1=2L su iç",
+                    "item:2=Uyku: 8 saat",
+                    "field:actionItems=[\"10 dk yürü\",{\"text\":\"2L su iç\"},\"Uyku: 8 saat\"]",
+                    "field:nutritionNote=Akşam hafif ye.",
+                    "field:isAchievement=false",
+                    "field:actions=[{\"label\":\"Başla\",\"type\":\"START_WORKOUT\",\"data\":\"push\"}]"),
+                    events, "chunkSize=" + chunkSize);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fitness.dto.MealRequest;
+import com.fitness.dto.MealResponse;
+import com.fitness.dto.NutritionAverageResponse;
+import com.fitness.dto.NutritionRangeResponse;
+import com.fitness.entity.DailyNutritionTotal;
+import com.fitness.entity.Meal;
+import com.fitness.entity.User;
+import com.fitness.service.NutritionRollupBackfillJob;
+import com.fitness.service.NutritionService;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+public class DailyNutritionTotalsTest {
+
+    private static final String EMAIL = "nutrition-rollup-test@fitness.local";
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+
+    @Inject
+    NutritionService nutritionService;
+
+    @Inject
+    NutritionRollupBackfillJob backfillJob;
+
+    Long userId;
+
+    @BeforeEach
+    public void setup() {
+        userId = QuarkusTransaction.requiringNew().call(() -> {
+            User existing = User.find("email", EMAIL).firstResult();
+            if (existing != null) {
+                Meal.delete("user.id", existing.id);
+                DailyNutritionTotal.delete("userId", existing.id);
+                existing.delete();
+                User.flush();
+            }
+            User user = new User();
+            user.email = EMAIL;
+            user.password = "x";
+            user.name = "Rollup Test";
+            user.persist();
+            return user.id;
+        });
+    }
+
+    @Test
+    public void testTotalsFollowCreateUpdateMoveAndDelete() {
+        MealResponse breakfast = nutritionService.createMeal(userId, meal(400, 30.0, DAY));
+        nutritionService.createMeal(userId, meal(600, 40.0, DAY));
+        assertEquals(1000, nutritionService.getDailyCalories(userId, DAY));
+
+        // Update in place
+        MealRequest update = new MealRequest();
+        update.calories = 500;
+        nutritionService.updateMeal(userId, breakfast.id, update);
+        assertEquals(1100, nutritionService.getDailyCalories(userId, DAY));
+
+        // Move to the next day: both days change
+        MealRequest move = new MealRequest();
+        move.mealDate = DAY.plusDays(1).atTime(8, 0);
+        nutritionService.updateMeal(userId, breakfast.id, move);
+        assertEquals(600, nutritionService.getDailyCalories(userId, DAY));
+        assertEquals(500, nutritionService.getDailyCalories(userId, DAY.plusDays(1)));
+
+        NutritionRangeResponse range = nutritionService.getTotals(userId, DAY, DAY.plusDays(1));
+        assertEquals(2, range.days.size());
+        assertEquals(1100, range.calories);
+        assertEquals(70.0, range.protein, 0.001);
+        assertEquals(2, range.mealCount);
+
+        Map<String, NutritionAverageResponse> averages = nutritionService.getAverages(userId, DAY.plusDays(1));
+        assertEquals(2, averages.get("last7").loggedDays);
+        assertEquals(550.0, averages.get("last7").avgCalories, 0.001);
+
+        // Deleting the only meal of a day removes the rollup row
+        nutritionService.deleteMeal(userId, breakfast.id);
+        assertEquals(0, nutritionService.getDailyCalories(userId, DAY.plusDays(1)));
+        assertEquals(1, nutritionService.getTotals(userId, DAY, DAY.plusDays(1)).days.size());
+    }
+
+    @Test
+    public void testBackfillFillsMissingDaysOnly() {
+        nutritionService.createMeal(userId, meal(300, 10.0, DAY));
+        // Legacy rows written before the rollup existed
+        QuarkusTransaction.requiringNew().run(() -> {
+            User user = User.findById(userId);
+            for (int i = 0; i < 2; i++) {
+                Meal legacy = new Meal();
+                legacy.user = user;
+                legacy.name = "legacy";
+                legacy.mealType = "LUNCH";
+                legacy.calories = 250;
+                legacy.protein = 5.0;
+                legacy.mealDate = DAY.minusDays(3).atTime(12, i);
+                legacy.persist();
+            }
+        });
+        assertEquals(0, nutritionService.getDailyCalories(userId, DAY.minusDays(3)));
+
+        backfillJob.backfill();
+        backfillJob.backfill();
+
+        assertEquals(500, nutritionService.getDailyCalories(userId, DAY.minusDays(3)));
+        assertEquals(300, nutritionService.getDailyCalories(userId, DAY));
+
+        // Açılış backfill'i tek seferliktir: tamamlandıktan sonra tekrar çalışmaz
+        backfillJob.runOnce();
+        assertFalse(backfillJob.runOnce());
+    }
+
+    private static MealRequest meal(int calories, double protein, LocalDate day) {
+        MealRequest request = new MealRequest();
+        request.name = "Test";
+        request.mealType = "BREAKFAST";
+        request.calories = calories;
+        request.protein = protein;
+        request.mealDate = day.atTime(9, 0);
+        return request;
+    }
+}
@@ -0,0 +1,156 @@
+package com.fitness;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fitness.entity.Exercise;
+import com.fitness.service.ExerciseCatalog;
+import com.fitness.service.ExerciseService;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+public class ExerciseCatalogTest {
+
+    private static final String GROUP = "CATALOG_TEST";
+
+    @Inject
+    ExerciseService exerciseService;
+
+    @Inject
+    ExerciseCatalog exerciseCatalog;
+
+    @BeforeEach
+    public void setup() {
+        QuarkusTransaction.requiringNew().run(() -> Exercise.delete("muscleGroup", GROUP));
+        exerciseCatalog.refresh();
+        exerciseService.createExercise(exercise(GROUP, "Cable  Fly", "Göğüs"));
+    }
+
+    @Test
+    public void testBuildIndexesByGroupAndNameWithStableEtags() {
+        List<Exercise> rows = List.of(
+                exercise(2L, "LEGS", "Squat", "Bacak"),
+                exercise(1L, "CHEST", "Bench Press", "Göğüs"),
+                exercise(3L, "CHEST", "Push Up", "Göğüs"));
+
+        ExerciseCatalog.Snapshot snapshot = ExerciseCatalog.build(rows);
+        assertEquals(List.of("CHEST", "LEGS"), snapshot.muscleGroups().body());
+        assertEquals(List.of(1L, 3L),
+                snapshot.byMuscleGroup().get("CHEST").body().stream().map(e -> e.id).toList());
+        assertEquals(3L, snapshot.byName().get("push up").get(0).id);
+
+        // Sıra ve yeniden yükleme ETag'i değiştirmez; içerik değişikliği değiştirir
+        ExerciseCatalog.Snapshot reordered = ExerciseCatalog.build(List.of(rows.get(2), rows.get(0), rows.get(1)));
+        assertEquals(snapshot.version(), reordered.version());
+        assertEquals(snapshot.byMuscleGroup().get("CHEST").etag(), reordered.byMuscleGroup().get("CHEST").etag());
+
+        ExerciseCatalog.Snapshot edited = ExerciseCatalog.build(List.of(
+                rows.get(0), rows.get(1), exercise(3L, "CHEST", "Push Up", "Göğüs ve triceps")));
+        assertNotEquals(snapshot.byMuscleGroup().get("CHEST").etag(), edited.byMuscleGroup().get("CHEST").etag());
+        assertEquals(snapshot.byMuscleGroup().get("LEGS").etag(), edited.byMuscleGroup().get("LEGS").etag());
+        assertEquals(snapshot.muscleGroups().etag(), edited.muscleGroups().etag());
+    }
+
+    @Test
+    public void testListingsAreConditional() {
+        String etag = given()
+                .when().get("/api/exercises/groups")
+                .then()
+                .statusCode(200)
+                .header("Cache-Control", is("max-age=3600"))
+                .body("$", hasItem(GROUP))
+                .extract().header("ETag");
+
+        given()
+                .header("If-None-Match", etag)
+                .when().get("/api/exercises/groups")
+                .then()
+                .statusCode(304)
+                .header("ETag", is(etag));
+
+        given()
+                .queryParam("muscleGroup", GROUP)
+                .when().get("/api/exercises")
+                .then()
+                .statusCode(200)
+                .body("name", is(List.of("Cable  Fly")));
+    }
+
+    @Test
+    public void testSearchEndpointIsTypoTolerant() {
+        exerciseService.createExercise(exercise(GROUP, "Şınav Çekme", "Göğüs"));
+
+        given()
+                .queryParam("q", "cable fyl")
+                .when().get("/api/exercises/search")
+                .then()
+                .statusCode(200)
+                .body("[0].name", is("Cable  Fly"));
+
+        given()
+                .queryParam("q", "SINAV")
+                .when().get("/api/exercises/search")
+                .then()
+                .statusCode(200)
+                .body("[0].name", is("Şınav Çekme"));
+
+        given()
+                .queryParam("q", " ")
+                .when().get("/api/exercises/search")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    public void testWritesRefreshTheCatalog() {
+        ExerciseCatalog.Listing<?> before = exerciseService.getExercisesByMuscleGroup(GROUP);
+        Long id = exerciseCatalog.byName("cable fly").stream()
+                .filter(e -> GROUP.equals(e.muscleGroup))
+                .findFirst().orElseThrow().id;
+
+        exerciseService.updateExercise(id, exercise(GROUP, "Cable Fly", "Göğüs, kablo ile"));
+
+        ExerciseCatalog.Listing<?> after = exerciseService.getExercisesByMuscleGroup(GROUP);
+        assertNotEquals(before.etag(), after.etag());
+        assertEquals("Göğüs, kablo ile", exerciseCatalog.byId(id).description);
+
+        given()
+                .header("If-None-Match", "\"" + before.etag() + "\"")
+                .queryParam("muscleGroup", GROUP)
+                .when().get("/api/exercises")
+                .then()
+                .statusCode(200)
+                .header("ETag", is("\"" + after.etag() + "\""));
+
+        // Değişiklik olmadan yenileme snapshot'ı değiştirmez
+        assertTrue(!exerciseCatalog.refresh());
+    }
+
+    private static Exercise exercise(String group, String name, String description) {
+        Exercise e = new Exercise();
+        e.muscleGroup = group;
+        e.name = name;
+        e.description = description;
+        e.instructions = "Kontrollü tekrar";
+        e.tips = "Nefesini tutma";
+        return e;
+    }
+
+    private static Exercise exercise(Long id, String group, String name, String description) {
+        Exercise e = exercise(group, name, description);
+        e.id = id;
+        return e;
+    }
+}
@@ -0,0 +1,244 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.entity.IapVerification;
+import com.fitness.entity.User;
+import com.fitness.service.IapVerificationQueue;
+import com.fitness.service.IapVerificationService;
+import com.fitness.service.IapVerificationService.IapVerifyRequest;
+import com.fitness.service.IapVerificationService.IapVerifyResult;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+@QuarkusTest
+public class IapVerificationQueueTest {
+
+    private static final String EMAIL = "iap-queue-test@fitness.local";
+    private static final String OTHER_EMAIL = "iap-queue-other@fitness.local";
+
+    @Inject
+    IapVerificationQueue queue;
+
+    @Inject
+    IapVerificationService verificationService;
+
+    @ConfigProperty(name = "iap.apple.bundle-id")
+    String bundleId;
+
+    Long userId;
+    Long otherUserId;
+
+    @BeforeEach
+    @Transactional
+    public void setup() {
+        // iap_verifications satırları kullanıcıyla birlikte (ON DELETE CASCADE) silinir
+        User.delete("email in ?1", List.of(EMAIL, OTHER_EMAIL));
+        User.flush();
+        userId = createUser(EMAIL);
+        otherUserId = createUser(OTHER_EMAIL);
+    }
+
+    @Test
+    public void testDuplicateSubmissionsShareOneVerification() throws Exception {
+        IapVerifyRequest request = new IapVerifyRequest("android", "premium_yearly", "gp-token-dup", null, null);
+
+        IapVerification first = queue.submit(userId, request);
+        IapVerification second = queue.submit(userId, request);
+
+        assertEquals(first.id, second.id);
+        assertEquals(1L, (long) QuarkusTransaction.requiringNew().call(
+                () -> IapVerification.count("userId", userId)));
+
+        IapVerification done = awaitTerminal(first.id);
+        assertEquals(IapVerification.STATUS_VERIFIED, done.status);
+        assertEquals("yearly", done.verifiedPlan);
+        assertNull(done.purchaseToken);
+        assertTrue(done.dedupKey.startsWith("android:"));
+        assertFalse(done.dedupKey.contains("gp-token-dup"));
+
+        User user = QuarkusTransaction.requiringNew().call(() -> User.<User>findById(userId));
+        assertEquals("premium", user.premiumTier);
+        assertEquals("yearly", user.premiumPlan);
+        assertTrue(user.premiumExpiresAt.isAfter(LocalDateTime.now().plusMonths(11)));
+    }
+
+    @Test
+    public void testReceiptOfAnotherUserIsNotRequeued() throws Exception {
+        IapVerifyRequest request = new IapVerifyRequest("ios", "premium_monthly", null, "receipt-b64", "2000000123");
+
+        IapVerification owner = queue.submit(userId, request);
+        IapVerification stranger = queue.submit(otherUserId, request);
+
+        assertEquals(owner.id, stranger.id);
+        assertEquals(userId, stranger.userId);
+        assertNotEquals(otherUserId, stranger.userId);
+        assertEquals(IapVerification.STATUS_VERIFIED, awaitTerminal(owner.id).status);
+
+        User other = QuarkusTransaction.requiringNew().call(() -> User.<User>findById(otherUserId));
+        assertNotEquals("premium", other.premiumTier);
+    }
+
+    @Test
+    public void testUnknownPlanIsRejectedWithoutRetry() throws Exception {
+        IapVerification entry = queue.submit(userId,
+                new IapVerifyRequest("android", "lifetime_gold", "gp-token-bad-plan", null, null));
+
+        IapVerification done = awaitTerminal(entry.id);
+        assertEquals(IapVerification.STATUS_REJECTED, done.status);
+        assertEquals(1, done.attempts);
+        assertTrue(done.lastError != null && !done.lastError.isBlank());
+
+        // Reddedilen receipt tekrar gönderildiğinde mağazaya sorulmaz
+        IapVerification again = queue.submit(userId,
+                new IapVerifyRequest("android", "lifetime_gold", "gp-token-bad-plan", null, null));
+        assertEquals(entry.id, again.id);
+        assertEquals(IapVerification.STATUS_REJECTED, again.status);
+    }
+
+    @Test
+    public void testClaimedTransactionIdCannotSquatAnotherPurchase() throws Exception {
+        // Saldırgan kendi (farklı) receipt'iyle kurbanın transactionId'sini gönderir
+        IapVerification squat = queue.submit(otherUserId,
+                new IapVerifyRequest("ios", "premium_monthly", null, "receipt-attacker", "2000000777"));
+        IapVerification first = awaitTerminal(squat.id);
+        assertEquals(IapVerification.STATUS_VERIFIED, first.status);
+        assertEquals("2000000777", first.verifiedTransactionId);
+        assertEquals("2000000777", first.originalTransactionId);
+
+        // Anahtar receipt'e dayanır: başka bir receipt ayrı bir satıra düşer
+        IapVerification victim = queue.submit(userId,
+                new IapVerifyRequest("ios", "premium_monthly", null, "receipt-victim", "2000000777"));
+        assertNotEquals(squat.id, victim.id);
+        assertEquals(userId, victim.userId);
+        assertFalse(victim.dedupKey.contains("2000000777"));
+
+        // Doğrulanmış kimlik tekildir: aynı işlem ikinci bir hesaba premium açmaz
+        IapVerification second = awaitTerminal(victim.id);
+        assertEquals(IapVerification.STATUS_REJECTED, second.status);
+        assertNull(second.originalTransactionId);
+        User user = QuarkusTransaction.requiringNew().call(() -> User.<User>findById(userId));
+        assertNotEquals("premium", user.premiumTier);
+    }
+
+    @Test
+    public void testCorrectedResubmissionIsNotBlockedByRejectedRow() throws Exception {
+        IapVerification malformed = queue.submit(userId,
+                new IapVerifyRequest("ios", "lifetime_gold", null, "receipt-v1", "2000000888"));
+        assertEquals(IapVerification.STATUS_REJECTED, awaitTerminal(malformed.id).status);
+
+        IapVerification corrected = queue.submit(userId,
+                new IapVerifyRequest("ios", "premium_monthly", null, "receipt-v2", "2000000888"));
+        assertNotEquals(malformed.id, corrected.id);
+        IapVerification done = awaitTerminal(corrected.id);
+        assertEquals(IapVerification.STATUS_VERIFIED, done.status);
+        assertEquals("2000000888", done.verifiedTransactionId);
+
+        // Aynı kullanıcının güncellenmiş receipt'i aboneliği yeni satıra taşır
+        IapVerification renewed = queue.submit(userId,
+                new IapVerifyRequest("ios", "premium_monthly", null, "receipt-v3", "2000000888"));
+        assertEquals(IapVerification.STATUS_VERIFIED, awaitTerminal(renewed.id).status);
+        assertEquals("2000000888", queue.find(renewed.id).originalTransactionId);
+        assertNull(queue.find(corrected.id).originalTransactionId);
+    }
+
+    @Test
+    public void testRenewalsOfOneSubscriptionUnlockOnlyOneAccount() throws Exception {
+        // Dev modunda JSON receipt verifyReceipt yanıtı gibi değerlendirilir
+        String receipt = appleResponse();
+
+        IapVerification owner = queue.submit(userId,
+                new IapVerifyRequest("ios", "premium_monthly", null, receipt, "3000000001"));
+        IapVerification first = awaitTerminal(owner.id);
+        assertEquals(IapVerification.STATUS_VERIFIED, first.status);
+        assertEquals("3000000001", first.verifiedTransactionId);
+        assertEquals("3000000000", first.originalTransactionId);
+
+        // Aynı aboneliğin başka bir yenilemesi ayrı bir satıra düşer ama aynı aboneliği ister
+        IapVerification renewal = queue.submit(otherUserId,
+                new IapVerifyRequest("ios", "premium_monthly", null, receipt, "3000000002"));
+        assertNotEquals(owner.id, renewal.id);
+        IapVerification second = awaitTerminal(renewal.id);
+        assertEquals(IapVerification.STATUS_REJECTED, second.status);
+        assertEquals("Bu satın alma başka bir hesaba ait.", second.lastError);
+        assertNull(second.originalTransactionId);
+
+        User other = QuarkusTransaction.requiringNew().call(() -> User.<User>findById(otherUserId));
+        assertNotEquals("premium", other.premiumTier);
+    }
+
+    @Test
+    public void testTransactionIdMustBelongToGrantingSubscription() throws Exception {
+        JsonNode root = new ObjectMapper().readTree(appleResponse());
+        assertEquals("3000000000", IapVerificationService.findOriginalTransactionId(root, "3000000001"));
+        assertEquals("3000000000", IapVerificationService.findOriginalTransactionId(root, "3000000002"));
+        assertEquals("4000000000", IapVerificationService.findOriginalTransactionId(root, "4000000000"));
+        assertNull(IapVerificationService.findOriginalTransactionId(root, "2000000123"));
+        assertNull(IapVerificationService.findOriginalTransactionId(root, null));
+
+        IapVerifyResult renewal = verificationService.evaluateAppleResponse(root, "3000000002");
+        assertTrue(renewal.valid());
+        assertEquals("3000000002", renewal.transactionId());
+        assertEquals("3000000000", renewal.originalTransactionId());
+
+        // Receipt'te bulunan ama premium'u vermeyen başka bir aboneliğin kimliği sahiplenilemez
+        IapVerifyResult foreign = verificationService.evaluateAppleResponse(root, "4000000000");
+        assertFalse(foreign.valid());
+        assertFalse(foreign.retryable());
+
+        assertFalse(verificationService.evaluateAppleResponse(root, "2000000123").valid());
+    }
+
+    /** Bir abonelik (3000000000) ve iki yenilemesi; in_app'te ilgisiz eski bir abonelik de var. */
+    private String appleResponse() {
+        long expires = System.currentTimeMillis() + 30L * 24 * 60 * 60 * 1000;
+        return """
+                {"status": 0,
+                 "receipt": {"bundle_id": "%1$s",
+                             "in_app": [{"transaction_id": "4000000000", "original_transaction_id": "4000000000",
+                                         "product_id": "premium_monthly"},
+                                        {"transaction_id": "3000000000", "original_transaction_id": "3000000000",
+                                         "product_id": "premium_monthly"}]},
+                 "latest_receipt_info": [
+                     {"transaction_id": "3000000001", "original_transaction_id": "3000000000",
+                      "product_id": "premium_monthly", "expires_date_ms": "%2$d"},
+                     {"transaction_id": "3000000002", "original_transaction_id": "3000000000",
+                      "product_id": "premium_monthly", "expires_date_ms": "%2$d"}]}
+                """.formatted(bundleId, expires);
+    }
+
+    private IapVerification awaitTerminal(Long id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        IapVerification entry = queue.find(id);
+        while (!entry.isTerminal() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            entry = queue.find(id);
+        }
+        return entry;
+    }
+
+    private static Long createUser(String email) {
+        User user = new User();
+        user.email = email;
+        user.password = "x";
+        user.name = "IAP Test";
+        user.persist();
+        return user.id;
+    }
+}
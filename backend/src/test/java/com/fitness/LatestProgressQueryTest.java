@@ -0,0 +1,160 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fitness.entity.AiInsight;
+import com.fitness.entity.BodyMeasurement;
+import com.fitness.entity.User;
+import com.fitness.entity.WeightRecord;
+import com.fitness.repository.BodyMeasurementRepository;
+import com.fitness.repository.WeightRecordRepository;
+import com.fitness.service.AiCoachContextBuilder;
+import com.fitness.service.CoachContextCache;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Koç bağlamının sınırlı "en son N" sorguları: doğru satırlar, doğru sırada.
+ * Kayıtlar bilerek karışık sırayla eklenir, böylece id sırası tarih sırasıyla örtüşmez.
+ */
+@QuarkusTest
+public class LatestProgressQueryTest {
+
+    private static final String EMAIL = "latest-progress-test@fitness.local";
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 2, 1, 8, 0);
+
+    @Inject
+    WeightRecordRepository weightRecordRepository;
+
+    @Inject
+    BodyMeasurementRepository bodyMeasurementRepository;
+
+    @Inject
+    AiCoachContextBuilder contextBuilder;
+
+    @Inject
+    CoachContextCache cache;
+
+    Long userId;
+
+    @BeforeEach
+    @Transactional
+    public void setup() {
+        cache.clear();
+        // Tartı, ölçüm ve içgörü satırları kullanıcıyla birlikte (ON DELETE CASCADE) silinir
+        User.delete("email", EMAIL);
+        User.flush();
+
+        User user = new User();
+        user.email = EMAIL;
+        user.password = "x";
+        user.name = "Latest Progress Test";
+        user.persist();
+        userId = user.id;
+    }
+
+    @Test
+    public void testLatestWeightsAreNewestFirstWithIdTieBreak() {
+        Long newest = weight(81.0, T0.plusDays(10));
+        weight(84.0, T0);
+        Long tieOlderId = weight(82.5, T0.plusDays(5));
+        Long tieNewerId = weight(82.0, T0.plusDays(5));
+        weight(83.0, T0.plusDays(2));
+
+        List<WeightRecord> latest = QuarkusTransaction.requiringNew().call(
+                () -> weightRecordRepository.findLatestByUserId(userId, 3));
+        assertEquals(List.of(newest, tieNewerId, tieOlderId), latest.stream().map(w -> w.id).toList());
+
+        assertEquals(5, QuarkusTransaction.requiringNew().call(
+                () -> weightRecordRepository.findLatestByUserId(userId, 10)).size());
+        assertEquals(newest, QuarkusTransaction.requiringNew().call(
+                () -> weightRecordRepository.findLatestByUserId(userId)).id);
+    }
+
+    @Test
+    public void testCoachContextUsesLatestTwoWeightsAndLatestMeasurement() {
+        weight(84.0, T0);
+        weight(81.0, T0.plusDays(10));
+        weight(82.0, T0.plusDays(5));
+        measurement(LocalDate.of(2026, 2, 11), 85.0, 100.0);
+        measurement(LocalDate.of(2026, 1, 1), 90.0, 104.0);
+
+        assertEquals(85.0, QuarkusTransaction.requiringNew().call(
+                () -> bodyMeasurementRepository.findLatestByUserId(userId)).getWaist());
+        assertEquals(
+                "Latest weight: 81.0 kg | Weight delta vs previous check-in: -1.0 kg"
+                        + " | Latest waist: 85.0 cm | Latest chest: 100.0 cm",
+                contextBuilder.build(userId, null).progressSnapshot);
+    }
+
+    @Test
+    public void testEmptyHistory() {
+        assertEquals(List.of(), QuarkusTransaction.requiringNew().call(
+                () -> weightRecordRepository.findLatestByUserId(userId, 2)));
+        assertNull(QuarkusTransaction.requiringNew().call(
+                () -> bodyMeasurementRepository.findLatestByUserId(userId)));
+        assertEquals(
+                "Latest weight: n/a kg | Weight delta vs previous check-in: n/a kg"
+                        + " | Latest waist: n/a cm | Latest chest: n/a cm",
+                contextBuilder.build(userId, null).progressSnapshot);
+    }
+
+    @Test
+    public void testRecentInsightsAreNewestFirstAndLimited() {
+        insight("WEEKLY_PROGRESS", T0.plusDays(1));
+        insight("NUTRITION_TREND", T0.plusDays(7));
+        insight("WORKOUT_MILESTONE", T0.plusDays(3));
+
+        List<String> types = QuarkusTransaction.requiringNew().call(
+                () -> AiInsight.findRecentByUser(userId, 2)).stream().map(i -> i.type).toList();
+        assertEquals(List.of("NUTRITION_TREND", "WORKOUT_MILESTONE"), types);
+
+        assertEquals(List.of("NUTRITION_TREND", "WORKOUT_MILESTONE", "WEEKLY_PROGRESS"),
+                contextBuilder.recentInsights(userId, 5).stream()
+                        .map(CoachContextCache.InsightLine::type).toList());
+    }
+
+    private Long weight(double kg, LocalDateTime recordedAt) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            WeightRecord record = new WeightRecord();
+            record.user = User.findById(userId);
+            record.weight = kg;
+            record.recordedAt = recordedAt;
+            record.persist();
+            return record.id;
+        });
+    }
+
+    private void measurement(LocalDate date, double waist, double chest) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            BodyMeasurement measurement = new BodyMeasurement();
+            measurement.setUserId(userId);
+            measurement.setDate(date);
+            measurement.setWaist(waist);
+            measurement.setChest(chest);
+            bodyMeasurementRepository.persist(measurement);
+        });
+    }
+
+    private void insight(String type, LocalDateTime createdAt) {
+        QuarkusTransaction.requiringNew().run(() -> {
+            AiInsight insight = new AiInsight();
+            insight.user = User.findById(userId);
+            insight.type = type;
+            insight.summary = type;
+            insight.createdAt = createdAt;
+            insight.persist();
+        });
+    }
+}
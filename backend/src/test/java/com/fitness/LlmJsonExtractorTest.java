@@ -0,0 +1,133 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.fitness.dto.AiCoachResponse;
+import com.fitness.dto.NutritionAiResponse;
+import com.fitness.service.LlmJsonExtractor;
+
+public class LlmJsonExtractorTest {
+
+    private static final String COACH_JSON = """
+            {"todayFocus": " Protein {hedefini} tamamla ", "actionItems": ["Su iç", {"text": "10k adım"}, 3, "  ", null, ["x"]],
+             "nutritionNote": "Akşam \\"hafif\\" ye }", "isAchievement": "true",
+             "actions": [{"label": "Başla", "type": "START_WORKOUT", "data": {"id": 1}}, {"label": "boş"}, "x"],
+             "media": [{"type": "IMAGE", "url": "https://x/y.png", "title": "Form"}], "extra": {"a": [1, {"b": 2}]}}""";
+
+    private static final String NUTRITION_JSON = """
+            {"reply": "İki öneri", "meals": [
+              {"name": " Tavuklu salata ", "reason": "Yüksek protein", "ingredients": ["tavuk", " ", 5],
+               "macros": {"kcal": 420, "proteinG": 38, "carbsG": 12.5, "fatG": "9"}, "prepMinutes": 15, "tags": ["cut"]},
+              {"name": "", "reason": "isimsiz atlanır"},
+              {"name": "Yulaf", "prepMinutes": "10", "macros": [1]}
+            ], "shoppingList": ["tavuk", "yulaf"], "followUpQuestions": []}""";
+
+    @Test
+    public void testCoachBindingMatchesTreeSemantics() throws IOException {
+        AiCoachResponse response = LlmJsonExtractor.readCoachResponse(COACH_JSON);
+
+        assertEquals("Protein {hedefini} tamamla", response.todayFocus);
+        assertEquals("Akşam \"hafif\" ye }", response.nutritionNote);
+        assertEquals(List.of("Su iç", "10k adım", "3"), response.actionItems);
+        assertTrue(response.isAchievement);
+        assertEquals(1, response.actions.size());
+        assertEquals("START_WORKOUT", response.actions.get(0).type);
+        assertEquals("", response.actions.get(0).data);
+        assertEquals(1, response.media.size());
+        assertEquals("https://x/y.png", response.media.get(0).url);
+    }
+
+    @Test
+    public void testNutritionBindingMatchesTreeSemantics() throws IOException {
+        NutritionAiResponse response = LlmJsonExtractor.readNutritionResponse(NUTRITION_JSON);
+
+        assertEquals("İki öneri", response.reply);
+        assertEquals(2, response.meals.size());
+        NutritionAiResponse.SuggestedMeal first = response.meals.get(0);
+        assertEquals("Tavuklu salata", first.name);
+        assertEquals(List.of("tavuk"), first.ingredients);
+        assertEquals(420, first.macros.kcal);
+        assertNull(first.macros.carbsG);
+        assertNull(first.macros.fatG);
+        assertEquals(15, first.prepMinutes);
+        NutritionAiResponse.SuggestedMeal second = response.meals.get(1);
+        assertNull(second.prepMinutes);
+        assertNull(second.macros);
+        assertEquals(List.of("tavuk", "yulaf"), response.shoppingList);
+        assertTrue(response.followUpQuestions.isEmpty());
+    }
+
+    @Test
+    public void testFencesProseAndTrailingTextAreIgnored() throws IOException {
+        String raw = "Tabii! İşte planın {kısaca}:\n```json\n" + COACH_JSON + "\n```\nBaşka bir şey? {ya da değil}";
+        LlmJsonExtractor.Span span = LlmJsonExtractor.locate(raw);
+
+        assertNotNull(span);
+        assertTrue(span.complete());
+        assertEquals(COACH_JSON, raw.substring(span.start(), span.end()));
+        assertEquals("Protein {hedefini} tamamla", LlmJsonExtractor.readCoachResponse(raw).todayFocus);
+    }
+
+    @Test
+    public void testMissingOrTruncatedObjectFailsWithIOException() {
+        assertNull(LlmJsonExtractor.locate("JSON üretemedim, üzgünüm."));
+        assertThrows(IOException.class, () -> LlmJsonExtractor.readCoachResponse("JSON üretemedim"));
+
+        String truncated = COACH_JSON.substring(0, COACH_JSON.length() / 2);
+        assertFalse(LlmJsonExtractor.locate(truncated).complete());
+        assertThrows(IOException.class, () -> LlmJsonExtractor.readNutritionResponse(truncated));
+    }
+
+    @Test
+    public void testFuzzedOutputsNeverThrowAnythingButIOException() {
+        Random random = new Random(20260301L);
+        String[] wrappers = {"", "```json\n", "```\n", "Cevap: ", "{not json} ", "﻿", "```json\n{\n"};
+        String alphabet = "{}[]\":,\\ \n`abcçğı0123-.etrunl";
+
+        for (int i = 0; i < 5_000; i++) {
+            String base = random.nextBoolean() ? COACH_JSON : NUTRITION_JSON;
+            StringBuilder raw = new StringBuilder(wrappers[random.nextInt(wrappers.length)]).append(base);
+            int mutations = random.nextInt(4);
+            for (int m = 0; m < mutations; m++) {
+                int at = random.nextInt(raw.length() + 1);
+                switch (random.nextInt(3)) {
+                    case 0 -> raw.insert(at, alphabet.charAt(random.nextInt(alphabet.length())));
+                    case 1 -> {
+                        if (at < raw.length()) {
+                            raw.deleteCharAt(at);
+                        }
+                    }
+                    default -> raw.setLength(at);
+                }
+            }
+            String input = raw.toString();
+            try {
+                if (base == COACH_JSON) {
+                    AiCoachResponse response = LlmJsonExtractor.readCoachResponse(input);
+                    assertNotNull(response.actionItems);
+                    assertNotNull(response.actions);
+                } else {
+                    NutritionAiResponse response = LlmJsonExtractor.readNutritionResponse(input);
+                    assertNotNull(response.meals);
+                    response.meals.forEach(meal -> assertFalse(meal.name.isEmpty()));
+                }
+            } catch (IOException expected) {
+                // bozuk çıktı için beklenen tek hata türü
+            } catch (RuntimeException e) {
+                fail("Unexpected " + e + " for input: " + input, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fitness.dto.ForgotPasswordRequest;
+import com.fitness.entity.MailOutbox;
+import com.fitness.entity.PasswordResetToken;
+import com.fitness.entity.User;
+import com.fitness.service.AuthService;
+import com.fitness.service.MailOutboxWorker;
+
+import io.quarkus.mailer.Mail;
+import io.quarkus.mailer.MockMailbox;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+@QuarkusTest
+public class MailOutboxWorkerTest {
+
+    private static final String EMAIL = "mail-outbox-test@fitness.local";
+
+    @Inject
+    AuthService authService;
+
+    @Inject
+    MailOutboxWorker worker;
+
+    @Inject
+    MockMailbox mailbox;
+
+    Long userId;
+
+    @BeforeEach
+    @Transactional
+    public void setup() {
+        // mail_outbox satırları kullanıcıyla birlikte (ON DELETE CASCADE) silinir
+        PasswordResetToken.delete("user.email", EMAIL);
+        User.delete("email", EMAIL);
+        User.flush();
+        mailbox.clear();
+
+        User user = new User();
+        user.email = EMAIL;
+        user.password = "x";
+        user.name = "Mail Test";
+        user.persist();
+        userId = user.id;
+    }
+
+    @Test
+    public void testForgotPasswordQueuesMailAndWorkerSendsIt() throws Exception {
+        authService.forgotPassword(request(EMAIL));
+
+        PasswordResetToken token = QuarkusTransaction.requiringNew().call(
+                () -> PasswordResetToken.<PasswordResetToken>find("user.id", userId).firstResult());
+        assertNotNull(token);
+
+        MailOutbox sent = awaitStatus(MailOutbox.STATUS_SENT);
+        assertEquals(MailOutbox.STATUS_SENT, sent.status);
+        assertEquals(MailOutbox.KIND_PASSWORD_RESET, sent.kind);
+        assertEquals(1, sent.attempts);
+        assertNotNull(sent.sentAt);
+        assertNull(sent.htmlBody);
+
+        List<Mail> mails = mailbox.getMailsSentTo(EMAIL);
+        assertEquals(1, mails.size());
+        assertEquals("Şifre Sıfırlama Kodu", mails.get(0).getSubject());
+        assertTrue(mails.get(0).getHtml().contains(token.token));
+    }
+
+    @Test
+    public void testUnknownEmailQueuesNothing() {
+        authService.forgotPassword(request("nobody-" + EMAIL));
+
+        assertEquals(0L, (long) QuarkusTransaction.requiringNew().call(
+                () -> MailOutbox.count("recipient", "nobody-" + EMAIL)));
+    }
+
+    @Test
+    public void testExpiredResetMailIsDeadLetteredWithoutBody() throws Exception {
+        // Kod 15 dakikalık; SMTP o süre boyunca ulaşılamadıysa artık gönderilmez
+        QuarkusTransaction.requiringNew().run(() -> worker.enqueue(userId, MailOutbox.KIND_PASSWORD_RESET, EMAIL,
+                "Şifre Sıfırlama Kodu", "<p>Doğrulama kodunuz: 123456</p>", LocalDateTime.now().minusMinutes(1)));
+        worker.processBatch();
+
+        MailOutbox dead = awaitStatus(MailOutbox.STATUS_DEAD);
+        assertEquals(MailOutbox.STATUS_DEAD, dead.status);
+        assertNull(dead.htmlBody);
+        assertNull(dead.sentAt);
+        assertNotNull(dead.lastError);
+        assertTrue(mailbox.getMailsSentTo(EMAIL).isEmpty());
+    }
+
+    private MailOutbox awaitStatus(String status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        MailOutbox entry = latest();
+        while ((entry == null || !status.equals(entry.status)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            entry = latest();
+        }
+        return entry;
+    }
+
+    private MailOutbox latest() {
+        return QuarkusTransaction.requiringNew().call(
+                () -> MailOutbox.<MailOutbox>find("userId = ?1 order by id desc", userId).firstResult());
+    }
+
+    private static ForgotPasswordRequest request(String email) {
+        ForgotPasswordRequest request = new ForgotPasswordRequest();
+        request.email = email;
+        return request;
+    }
+}
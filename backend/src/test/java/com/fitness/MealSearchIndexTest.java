@@ -0,0 +1,137 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fitness.dto.MealRequest;
+import com.fitness.dto.MealResponse;
+import com.fitness.entity.Meal;
+import com.fitness.entity.User;
+import com.fitness.service.MealSearchIndex;
+import com.fitness.service.NutritionService;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+public class MealSearchIndexTest {
+
+    private static final String EMAIL = "meal-search-test@fitness.local";
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 4, 2, 8, 0);
+
+    @Inject
+    NutritionService nutritionService;
+
+    @Inject
+    MealSearchIndex mealSearchIndex;
+
+    Long userId;
+
+    @BeforeEach
+    public void setup() {
+        userId = QuarkusTransaction.requiringNew().call(() -> {
+            // Yemekler ve günlük toplamlar kullanıcıyla birlikte (ON DELETE CASCADE) silinir
+            User.delete("email", EMAIL);
+            User.flush();
+            User user = new User();
+            user.email = EMAIL;
+            user.password = "x";
+            user.name = "Meal Search Test";
+            user.persist();
+            return user.id;
+        });
+        mealSearchIndex.evict(userId);
+    }
+
+    @Test
+    public void testIndexLoadsLazilyAndFollowsWrites() {
+        MealResponse oats = nutritionService.createMeal(userId, meal("Yulaf Ezmesi", DAY));
+        MealResponse soup = nutritionService.createMeal(userId, meal("Mercimek Çorbası", DAY.plusHours(4)));
+
+        // İlk arama indeksi veritabanından yükler
+        assertEquals(List.of(oats.id), ids(nutritionService.searchMeals(userId, "yulf", 20)));
+        assertEquals(List.of(soup.id), ids(nutritionService.searchMeals(userId, "MERCİMEK CORBASI", 20)));
+
+        // Sonraki yazmalar commit sonrası artımlı uygulanır
+        MealResponse menemen = nutritionService.createMeal(userId, meal("Menemen", DAY.plusDays(1)));
+        assertEquals(List.of(menemen.id), ids(nutritionService.searchMeals(userId, "menmen", 20)));
+
+        MealRequest rename = new MealRequest();
+        rename.name = "Chia Puding";
+        nutritionService.updateMeal(userId, oats.id, rename);
+        assertTrue(nutritionService.searchMeals(userId, "yulaf", 20).isEmpty());
+        assertEquals(List.of(oats.id), ids(nutritionService.searchMeals(userId, "chia", 20)));
+
+        nutritionService.deleteMeal(userId, soup.id);
+        assertTrue(nutritionService.searchMeals(userId, "corba", 20).isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> nutritionService.searchMeals(userId, " ", 20));
+    }
+
+    @Test
+    public void testRolledBackWritesAreNotIndexedAndTiesPreferNewest() {
+        MealResponse older = nutritionService.createMeal(userId, meal("Tavuk Salata", DAY));
+        assertEquals(1, nutritionService.searchMeals(userId, "tavuk", 20).size());
+        MealResponse newer = nutritionService.createMeal(userId, meal("Tavuk Salata", DAY.plusDays(3)));
+
+        assertThrows(IllegalStateException.class, () -> QuarkusTransaction.requiringNew().run(() -> {
+            nutritionService.createMeal(userId, meal("Pizza", DAY));
+            throw new IllegalStateException("geri al");
+        }));
+        assertTrue(nutritionService.searchMeals(userId, "pizza", 20).isEmpty());
+
+        assertEquals(List.of(newer.id, older.id), ids(nutritionService.searchMeals(userId, "tavuk salata", 20)));
+        assertEquals(List.of(newer.id), ids(nutritionService.searchMeals(userId, "tavuk", 1)));
+    }
+
+    @Test
+    public void testWritesFromAnotherReplicaAreSeenAfterVersionCheck() throws Exception {
+        MealResponse oats = nutritionService.createMeal(userId, meal("Yulaf Ezmesi", DAY));
+        assertEquals(List.of(oats.id), ids(nutritionService.searchMeals(userId, "yulaf", 20)));
+
+        // NutritionService'i atlayan yazmalar: indeks bunlardan commit sonrası haberdar olmaz
+        Long remote = QuarkusTransaction.requiringNew().call(() -> {
+            Meal meal = new Meal();
+            meal.user = User.findById(userId);
+            meal.name = "Karnıyarık";
+            meal.mealType = "DINNER";
+            meal.calories = 500;
+            meal.mealDate = DAY.plusHours(10);
+            meal.persist();
+            Meal.<Meal>findById(oats.id).name = "Chia Puding";
+            return meal.id;
+        });
+        assertTrue(nutritionService.searchMeals(userId, "karniyarik", 20).isEmpty());
+
+        Thread.sleep(1_100);
+        assertEquals(List.of(remote), ids(nutritionService.searchMeals(userId, "karniyarik", 20)));
+        assertEquals(List.of(oats.id), ids(nutritionService.searchMeals(userId, "chia", 20)));
+        assertTrue(nutritionService.searchMeals(userId, "yulaf", 20).isEmpty());
+
+        QuarkusTransaction.requiringNew().run(() -> Meal.deleteById(remote));
+        Thread.sleep(1_100);
+        assertTrue(nutritionService.searchMeals(userId, "karniyarik", 20).isEmpty());
+        assertTrue(((Number) mealSearchIndex.stats().get("staleReloads")).longValue() >= 2);
+    }
+
+    private static MealRequest meal(String name, LocalDateTime at) {
+        MealRequest request = new MealRequest();
+        request.name = name;
+        request.mealType = "BREAKFAST";
+        request.calories = 300;
+        request.mealDate = at;
+        return request;
+    }
+
+    private static List<Long> ids(List<MealResponse> meals) {
+        return meals.stream().map(m -> m.id).toList();
+    }
+}
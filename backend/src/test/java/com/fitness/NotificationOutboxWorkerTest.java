@@ -0,0 +1,163 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fitness.entity.NotificationOutbox;
+import com.fitness.entity.User;
+import com.fitness.repository.NotificationOutboxRepository;
+import com.fitness.service.NotificationOutboxWorker;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Test profilinde GEMINI_API_KEY yok; her üretim yeniden denenebilir hata
+ * döner, bu da backoff ve FAILED yolunu gerçek worker üzerinden çalıştırır.
+ */
+@QuarkusTest
+public class NotificationOutboxWorkerTest {
+
+    private static final String EMAIL = "notification-outbox-test@fitness.local";
+    private static final LocalDate DAY = LocalDate.of(2026, 5, 4);
+
+    @Inject
+    NotificationOutboxWorker worker;
+
+    @Inject
+    NotificationOutboxRepository outboxRepository;
+
+    Long userId;
+
+    @BeforeEach
+    @Transactional
+    public void setup() {
+        // notification_outbox satırları kullanıcıyla birlikte (ON DELETE CASCADE) silinir
+        User.delete("email", EMAIL);
+        User.flush();
+
+        User user = new User();
+        user.email = EMAIL;
+        user.password = "x";
+        user.name = "Outbox Test";
+        user.persist();
+        userId = user.id;
+    }
+
+    @Test
+    public void testAlertIsQueuedOncePerUserTypeAndDay() {
+        assertTrue(enqueue("PROTEIN_DEFICIENCY", DAY));
+        assertFalse(enqueue("PROTEIN_DEFICIENCY", DAY));
+        assertTrue(enqueue("MISSED_WORKOUT", DAY));
+        assertTrue(enqueue("PROTEIN_DEFICIENCY", DAY.plusDays(1)));
+
+        assertEquals(3L, (long) QuarkusTransaction.requiringNew().call(
+                () -> NotificationOutbox.count("userId", userId)));
+    }
+
+    @Test
+    public void testFailedGenerationBacksOffThenFails() {
+        enqueue("MISSED_WORKOUT", DAY);
+        Long id = outboxId("MISSED_WORKOUT");
+
+        long[] expectedBackoff = { 30, 60, 120, 240 };
+        for (int attempt = 1; attempt <= expectedBackoff.length; attempt++) {
+            makeDue(id);
+            LocalDateTime before = LocalDateTime.now();
+            worker.processBatch();
+
+            NotificationOutbox entry = find(id);
+            assertEquals(NotificationOutbox.STATUS_PENDING, entry.status);
+            assertEquals(attempt, entry.attempts);
+            assertNull(entry.claimedAt);
+            assertNotNull(entry.lastError);
+            long delay = Duration.between(before, entry.nextAttemptAt).getSeconds();
+            long expected = expectedBackoff[attempt - 1];
+            assertTrue(delay >= expected - 2 && delay <= expected + 2, "attempt " + attempt + " delay " + delay);
+        }
+
+        // max-attempts (5) dolunca satır FAILED olur ve bir daha alınmaz
+        makeDue(id);
+        worker.processBatch();
+        NotificationOutbox failed = find(id);
+        assertEquals(NotificationOutbox.STATUS_FAILED, failed.status);
+        assertEquals(5, failed.attempts);
+        assertNull(failed.notificationId);
+
+        makeDue(id);
+        worker.processBatch();
+        assertEquals(5, find(id).attempts);
+    }
+
+    @Test
+    public void testOnlyExpiredLeasesAreReclaimed() {
+        enqueue("PROTEIN_DEFICIENCY", DAY);
+        enqueue("MISSED_WORKOUT", DAY);
+        Long crashed = outboxId("PROTEIN_DEFICIENCY");
+        Long running = outboxId("MISSED_WORKOUT");
+        LocalDateTime now = LocalDateTime.now();
+        // Lease 300 sn: biri çökmüş bir worker'dan kalma, diğeri hâlâ işleniyor
+        claim(crashed, now.minusMinutes(10));
+        claim(running, now.minusSeconds(10));
+
+        worker.processBatch();
+
+        NotificationOutbox reclaimed = find(crashed);
+        assertEquals(NotificationOutbox.STATUS_PENDING, reclaimed.status);
+        assertEquals(2, reclaimed.attempts);
+        assertNull(reclaimed.claimedAt);
+
+        NotificationOutbox untouched = find(running);
+        assertEquals(NotificationOutbox.STATUS_PROCESSING, untouched.status);
+        assertEquals(1, untouched.attempts);
+    }
+
+    @Test
+    public void testBackoffIsCappedAndHonorsRetryAfter() {
+        assertEquals(30, NotificationOutboxWorker.backoffSeconds(30, 1, null));
+        assertEquals(240, NotificationOutboxWorker.backoffSeconds(30, 4, null));
+        assertEquals(6 * 60 * 60, NotificationOutboxWorker.backoffSeconds(30, 40, null));
+        // Sağlayıcının Retry-After'ı yalnızca daha uzunsa kullanılır
+        assertEquals(900, NotificationOutboxWorker.backoffSeconds(30, 1, 900));
+        assertEquals(240, NotificationOutboxWorker.backoffSeconds(30, 4, 5));
+    }
+
+    private boolean enqueue(String type, LocalDate day) {
+        // AiProactiveService ile aynı anahtar: kullanıcı:tip:gün
+        String dedupKey = userId + ":" + type + ":" + day;
+        return QuarkusTransaction.requiringNew().call(
+                () -> outboxRepository.enqueue(userId, type, "test", dedupKey, LocalDateTime.now()));
+    }
+
+    private Long outboxId(String type) {
+        return QuarkusTransaction.requiringNew().call(() -> outboxRepository
+                .find("userId = ?1 and type = ?2", userId, type).firstResult().id);
+    }
+
+    private NotificationOutbox find(Long id) {
+        return QuarkusTransaction.requiringNew().call(() -> outboxRepository.findById(id));
+    }
+
+    private void makeDue(Long id) {
+        QuarkusTransaction.requiringNew().run(() -> outboxRepository.update(
+                "nextAttemptAt = ?1 where id = ?2", LocalDateTime.now().minusSeconds(1), id));
+    }
+
+    private void claim(Long id, LocalDateTime claimedAt) {
+        QuarkusTransaction.requiringNew().run(() -> outboxRepository.update(
+                "status = ?1, claimedAt = ?2, attempts = 1 where id = ?3",
+                NotificationOutbox.STATUS_PROCESSING, claimedAt, id));
+    }
+}
@@ -0,0 +1,215 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.resteasy.reactive.server.jaxrs.SseImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fitness.entity.Notification;
+import com.fitness.entity.User;
+import com.fitness.service.NotificationPushService;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.SseEventSink;
+
+@QuarkusTest
+public class NotificationPushServiceTest {
+
+    private static final String EMAIL = "notification-push-test@fitness.local";
+
+    @Inject
+    NotificationPushService pushService;
+
+    Long userId;
+
+    @BeforeEach
+    public void setup() {
+        userId = QuarkusTransaction.requiringNew().call(() -> {
+            User existing = User.find("email", EMAIL).firstResult();
+            if (existing != null) {
+                Notification.delete("user.id", existing.id);
+                existing.delete();
+                User.flush();
+            }
+            User user = new User();
+            user.email = EMAIL;
+            user.password = "x";
+            user.name = "Push Test";
+            user.persist();
+            return user.id;
+        });
+    }
+
+    @Test
+    public void testCommittedNotificationIsPushedThroughListenNotify() throws Exception {
+        RecordingSink sink = new RecordingSink(true);
+        pushService.subscribe(userId, sink, SseImpl.INSTANCE, null);
+
+        Long notificationId = createNotification("Push");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (sink.notificationEvents().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        List<OutboundSseEvent> events = sink.notificationEvents();
+        assertEquals(1, events.size());
+        assertEquals(String.valueOf(notificationId), events.get(0).getId());
+        assertTrue(((String) events.get(0).getData()).contains("\"title\":\"Push\""));
+        sink.close();
+    }
+
+    @Test
+    public void testReplayFromLastEventId() {
+        Long first = createNotification("A");
+        createNotification("B");
+
+        RecordingSink sink = new RecordingSink(true);
+        pushService.subscribe(userId, sink, SseImpl.INSTANCE, first);
+
+        List<OutboundSseEvent> events = sink.notificationEvents();
+        assertEquals(1, events.size());
+        assertTrue(((String) events.get(0).getData()).contains("\"title\":\"B\""));
+        sink.close();
+    }
+
+    @Test
+    public void testLowerIdCommittedLaterIsStillPushedAndReplayIsNotRepeated() throws Exception {
+        Long lower = createNotification("Lower");
+        Long higher = createNotification("Higher");
+        Thread.sleep(500); // henüz bağlantı yokken gelen NOTIFY'lar yok sayılır
+
+        // Daha düşük id'li satırın NOTIFY'ı daha geç gelir (sıra dışı commit)
+        RecordingSink live = new RecordingSink(true);
+        pushService.subscribe(userId, live, SseImpl.INSTANCE, null);
+        pushService.dispatch(userId, higher);
+        pushService.dispatch(userId, lower);
+        assertEquals(List.of(String.valueOf(higher), String.valueOf(lower)),
+                live.notificationEvents().stream().map(OutboundSseEvent::getId).toList());
+        live.close();
+
+        // Replay'in gönderdiği satır için geç gelen canlı NOTIFY tekrar gönderilmez
+        RecordingSink resumed = new RecordingSink(true);
+        pushService.subscribe(userId, resumed, SseImpl.INSTANCE, lower - 1);
+        pushService.dispatch(userId, higher);
+        pushService.dispatch(userId, lower);
+        assertEquals(List.of(String.valueOf(lower), String.valueOf(higher)),
+                resumed.notificationEvents().stream().map(OutboundSseEvent::getId).toList());
+        resumed.close();
+    }
+
+    @Test
+    public void testSlowConsumerIsDisconnected() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(createNotification("Slow " + i));
+        }
+        Thread.sleep(500); // henüz bağlantı yokken gelen NOTIFY'lar yok sayılır
+
+        // Yazmaları hiç tamamlanmayan soket: canlı olaylar max-pending'i (16) aşınca kapatılır
+        RecordingSink sink = new RecordingSink(false);
+        pushService.subscribe(userId, sink, SseImpl.INSTANCE, null);
+        for (Long id : ids) {
+            pushService.dispatch(userId, id);
+        }
+
+        assertTrue(sink.isClosed());
+        assertFalse(pushService.hasSubscribers(userId));
+    }
+
+    @Test
+    public void testReplayLongerThanMaxPendingIsDeliveredInFull() throws Exception {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            expected.add(String.valueOf(createNotification("Missed " + i)));
+        }
+        Thread.sleep(500);
+
+        // Gerçek soket gibi yazmalar asenkron tamamlanır; replay yine de max-pending'e takılmaz
+        RecordingSink sink = new RecordingSink(true, CompletableFuture.delayedExecutor(2, TimeUnit.MILLISECONDS));
+        pushService.subscribe(userId, sink, SseImpl.INSTANCE, 0L);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (sink.notificationEvents().size() < expected.size() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, sink.notificationEvents().stream().map(OutboundSseEvent::getId).toList());
+        assertFalse(sink.isClosed());
+        assertTrue(pushService.hasSubscribers(userId));
+        sink.close();
+    }
+
+    private Long createNotification(String title) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Notification n = new Notification();
+            n.user = User.findById(userId);
+            n.title = title;
+            n.message = "msg";
+            n.type = "AI_COACH";
+            n.persist();
+            return n.id;
+        });
+    }
+
+    /**
+     * Records events; when not acknowledging, writes never complete (a stalled socket).
+     * With an executor, writes complete asynchronously on it like a real socket.
+     */
+    static final class RecordingSink implements SseEventSink {
+        final List<OutboundSseEvent> events = new CopyOnWriteArrayList<>();
+        final boolean acknowledge;
+        final Executor ackExecutor;
+        volatile boolean closed;
+
+        RecordingSink(boolean acknowledge) {
+            this(acknowledge, null);
+        }
+
+        RecordingSink(boolean acknowledge, Executor ackExecutor) {
+            this.acknowledge = acknowledge;
+            this.ackExecutor = ackExecutor;
+        }
+
+        List<OutboundSseEvent> notificationEvents() {
+            return events.stream()
+                    .filter(e -> NotificationPushService.EVENT_NAME.equals(e.getName()))
+                    .toList();
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent event) {
+            assertNotNull(event);
+            events.add(event);
+            if (!acknowledge) {
+                return new CompletableFuture<>();
+            }
+            return ackExecutor == null
+                    ? CompletableFuture.completedFuture(null)
+                    : CompletableFuture.runAsync(() -> { }, ackExecutor);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
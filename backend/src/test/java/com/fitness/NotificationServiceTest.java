@@ -0,0 +1,106 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fitness.dto.NotificationPage;
+import com.fitness.dto.NotificationResponse;
+import com.fitness.entity.Notification;
+import com.fitness.entity.User;
+import com.fitness.service.NotificationService;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+@QuarkusTest
+public class NotificationServiceTest {
+
+    private static final String EMAIL = "notification-test@fitness.local";
+
+    @Inject
+    NotificationService notificationService;
+
+    Long userId;
+
+    @BeforeEach
+    @Transactional
+    public void setup() {
+        User existing = User.find("email", EMAIL).firstResult();
+        if (existing != null) {
+            Notification.delete("user.id", existing.id);
+            existing.delete();
+            User.flush();
+        }
+
+        User user = new User();
+        user.email = EMAIL;
+        user.password = "x";
+        user.name = "Notification Test";
+        user.persist();
+        userId = user.id;
+
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int i = 0; i < 5; i++) {
+            Notification n = new Notification();
+            n.user = user;
+            n.title = "T" + i;
+            n.message = "M" + i;
+            n.type = "AI_COACH";
+            n.isRead = i % 2 == 0;
+            // Two rows share a timestamp to exercise the id tie-breaker
+            n.createdAt = base.plusMinutes(i == 4 ? 3 : i);
+            n.persist();
+        }
+    }
+
+    @Test
+    public void testKeysetPaginationVisitsEveryRowOnce() {
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            NotificationPage page = notificationService.getPage(userId, cursor, 2, false);
+            for (NotificationResponse item : page.items) {
+                assertTrue(seen.add(item.id), "Duplicate row across pages: " + item.id);
+            }
+            cursor = page.nextCursor;
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(5, seen.size());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    public void testUnreadCountAndMarkAllRead() {
+        assertEquals(2, notificationService.countUnread(userId));
+        assertEquals(2, notificationService.getPage(userId, null, 10, true).items.size());
+
+        assertEquals(2, notificationService.markAllAsRead(userId));
+        assertEquals(0, notificationService.countUnread(userId));
+        assertEquals(0, notificationService.markAllAsRead(userId));
+    }
+
+    @Test
+    public void testMarkAsReadIsScopedToOwner() {
+        NotificationPage page = notificationService.getPage(userId, null, 10, true);
+        assertNull(page.nextCursor);
+        Long unreadId = page.items.get(0).id;
+        assertNotNull(unreadId);
+
+        assertFalse(notificationService.markAsRead(userId + 1, unreadId));
+        assertTrue(notificationService.markAsRead(userId, unreadId));
+        assertEquals(1, notificationService.countUnread(userId));
+    }
+}
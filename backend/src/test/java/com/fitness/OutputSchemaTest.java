@@ -0,0 +1,96 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fitness.service.OutputSchema;
+import com.fitness.service.StructuredOutputStats;
+
+public class OutputSchemaTest {
+
+    @Test
+    public void testClaudeSchemaFollowsDtoFields() {
+        JsonNode schema = OutputSchema.COACH.jsonSchema();
+
+        assertEquals("object", schema.path("type").asText());
+        assertEquals(List.of("todayFocus", "actionItems", "nutritionNote"), names(schema.path("required")));
+        assertEquals("string", schema.at("/properties/actionItems/items/type").asText());
+        assertEquals("[\"boolean\",\"null\"]", schema.at("/properties/isAchievement/type").toString());
+        assertFalse(schema.path("additionalProperties").asBoolean(true));
+        assertEquals(List.of("label", "type"), names(schema.at("/properties/actions/items/required")));
+    }
+
+    @Test
+    public void testOptionalFieldsAreNotRequired() {
+        JsonNode coach = OutputSchema.COACH.jsonSchema();
+        List<String> required = names(coach.path("required"));
+        for (String optional : List.of("actions", "media", "isAchievement")) {
+            assertTrue(coach.path("properties").has(optional), optional);
+            assertFalse(required.contains(optional), optional);
+        }
+
+        JsonNode label = OutputSchema.NUTRITION_LABEL.jsonSchema();
+        assertTrue(label.path("properties").has("productName"));
+        assertFalse(names(label.path("required")).contains("productName"));
+        assertTrue(names(label.path("required")).contains("kcal"));
+    }
+
+    @Test
+    public void testGeminiSchemaUsesOpenApiSubset() {
+        JsonNode schema = OutputSchema.NUTRITION.geminiSchema();
+
+        assertEquals("OBJECT", schema.path("type").asText());
+        assertFalse(schema.path("properties").has("retryAfterSeconds"));
+        List<String> ordering = names(schema.path("propertyOrdering"));
+        assertEquals(List.of("reply", "meals", "shoppingList", "followUpQuestions"), ordering);
+        assertTrue(names(schema.path("required")).contains("reply"));
+        assertFalse(names(schema.path("required")).contains("shoppingList"));
+        JsonNode kcal = schema.at("/properties/meals/items/properties/macros/properties/kcal");
+        assertEquals("INTEGER", kcal.path("type").asText());
+        assertTrue(kcal.path("nullable").asBoolean());
+        assertFalse(schema.has("additionalProperties"));
+    }
+
+    @Test
+    public void testFailureRateIsTrackedPerModel() {
+        StructuredOutputStats stats = new StructuredOutputStats();
+        stats.recordParsed("gemini-2.0-flash");
+        stats.recordParsed("gemini-2.0-flash");
+        stats.recordParsed("gemini-2.0-flash");
+        stats.recordFailure("gemini-2.0-flash", OutputSchema.COACH, "truncated");
+        stats.recordParsed("claude:claude-haiku");
+
+        Map<String, Object> snapshot = stats.stats();
+        assertEquals(1L, snapshot.get("gemini-2.0-flash.failed"));
+        assertEquals(0.25, (Double) snapshot.get("gemini-2.0-flash.failureRate"), 1e-9);
+        assertEquals(0.0, (Double) snapshot.get("claude:claude-haiku.failureRate"), 1e-9);
+    }
+
+    @Test
+    public void testParseCountsAreExportedAsPrometheusMetrics() {
+        StructuredOutputStats stats = new StructuredOutputStats();
+        stats.recordParsed("gemini-2.0-flash");
+        stats.recordParsed("gemini-2.0-flash");
+        stats.recordFailure("claude:claude-haiku", OutputSchema.COACH, "truncated");
+
+        String body = stats.renderPrometheus();
+        assertTrue(body.contains("# TYPE ai_structured_output_parsed_total counter\n"), body);
+        assertTrue(body.contains("ai_structured_output_parsed_total{model=\"gemini-2.0-flash\"} 2\n"), body);
+        assertTrue(body.contains("ai_structured_output_failed_total{model=\"claude:claude-haiku\"} 1\n"), body);
+        assertTrue(body.contains("ai_structured_output_failed_total{model=\"gemini-2.0-flash\"} 0\n"), body);
+    }
+
+    private static List<String> names(JsonNode array) {
+        List<String> names = new ArrayList<>();
+        array.forEach(node -> names.add(node.asText()));
+        return names;
+    }
+}
@@ -0,0 +1,116 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+import com.fitness.dto.AuthResponse;
+import com.fitness.dto.ChangePasswordRequest;
+import com.fitness.dto.LoginRequest;
+import com.fitness.entity.User;
+import com.fitness.service.AuthService;
+import com.fitness.service.PasswordHasher;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+@QuarkusTest
+public class PasswordHasherTest {
+
+    private static final String EMAIL = "password-hasher-test@fitness.local";
+    private static final String PASSWORD = "eski-sifre-123";
+
+    @Inject
+    PasswordHasher passwordHasher;
+
+    @Inject
+    AuthService authService;
+
+    Long userId;
+
+    @BeforeEach
+    @Transactional
+    public void setup() {
+        User.delete("email", EMAIL);
+        User.flush();
+
+        // Eski, düşük cost'lu hash: girişte güncel cost'a yükseltilmeli
+        User user = new User();
+        user.email = EMAIL;
+        user.password = BCrypt.hashpw(PASSWORD, BCrypt.gensalt(4));
+        user.name = "Hasher Test";
+        user.persist();
+        userId = user.id;
+    }
+
+    @Test
+    public void testCalibratedCostStaysWithinConfiguredBounds() {
+        assertTrue(passwordHasher.cost() >= 10 && passwordHasher.cost() <= 14, "cost=" + passwordHasher.cost());
+
+        String hash = passwordHasher.hash("yeni-sifre-456");
+        assertTrue(hash.startsWith(String.format("$2a$%02d$", passwordHasher.cost())), hash);
+        assertTrue(passwordHasher.verify("yeni-sifre-456", hash));
+        assertFalse(passwordHasher.verify("yanlis", hash));
+        assertFalse(passwordHasher.verify("yeni-sifre-456", "plain-text"));
+        assertFalse(passwordHasher.needsRehash(hash));
+    }
+
+    @Test
+    public void testLoginUpgradesStoredHashCost() throws Exception {
+        AuthResponse response = authService.login(login(PASSWORD));
+        assertNotNull(response.token);
+
+        String expectedPrefix = String.format("$2a$%02d$", passwordHasher.cost());
+        String stored = awaitStoredHash(expectedPrefix);
+        assertTrue(stored.startsWith(expectedPrefix), stored);
+        assertTrue(BCrypt.checkpw(PASSWORD, stored));
+
+        // Yükseltilmiş hash ile giriş çalışmaya devam eder, yanlış şifre reddedilir
+        assertNotNull(authService.login(login(PASSWORD)).token);
+        RuntimeException error = assertThrows(RuntimeException.class, () -> authService.login(login("yanlis-sifre")));
+        assertEquals("Email veya şifre hatalı!", error.getMessage());
+    }
+
+    @Test
+    public void testChangePasswordHashesOffTheRequestTransaction() {
+        ChangePasswordRequest request = new ChangePasswordRequest();
+        request.currentPassword = PASSWORD;
+        request.newPassword = "yepyeni-sifre-789";
+        authService.changePassword(userId, request);
+
+        String stored = QuarkusTransaction.requiringNew().call(() -> User.<User>findById(userId).password);
+        assertNotEquals(PASSWORD, stored);
+        assertTrue(BCrypt.checkpw("yepyeni-sifre-789", stored));
+        assertFalse(passwordHasher.needsRehash(stored));
+    }
+
+    private String awaitStoredHash(String prefix) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        String stored = storedHash();
+        while (!stored.startsWith(prefix) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(25);
+            stored = storedHash();
+        }
+        return stored;
+    }
+
+    private String storedHash() {
+        return QuarkusTransaction.requiringNew().call(() -> User.<User>findById(userId).password);
+    }
+
+    private static LoginRequest login(String password) {
+        LoginRequest request = new LoginRequest();
+        request.email = EMAIL;
+        request.password = password;
+        return request;
+    }
+}
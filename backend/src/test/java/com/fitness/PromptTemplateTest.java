@@ -0,0 +1,44 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+import com.fitness.service.PromptTemplate;
+
+public class PromptTemplateTest {
+
+    @Test
+    void rendersSlotsAndRepeatsWithoutReparsingValues() {
+        PromptTemplate template = PromptTemplate.compile("Hi {{name}}, goal: {{ goal }}. Bye {{name}}.");
+        String rendered = template.render(template.newValues()
+                .set("name", "{{goal}}")
+                .set("goal", 75));
+
+        assertEquals("Hi {{goal}}, goal: 75. Bye {{goal}}.", rendered);
+        assertEquals("Hi , goal: . Bye .", template.render(template.newValues()));
+    }
+
+    @Test
+    void rejectsMalformedTemplatesAndUnknownSlots() {
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("a {{open"));
+        assertThrows(IllegalArgumentException.class, () -> PromptTemplate.compile("a {{ }} b"));
+
+        PromptTemplate template = PromptTemplate.compile("{{a}}");
+        assertThrows(IllegalArgumentException.class, () -> template.newValues().set("b", "x"));
+    }
+
+    @Test
+    void fixedMatchesUsLocaleFormat() {
+        double[] samples = {0.0, -0.0, 0.05, -0.04, 1.25, 2.35, -1.95, 7.25, 84.35, 99.995, 1234.5678, -0.45};
+        for (double value : samples) {
+            for (int scale = 0; scale <= 3; scale++) {
+                assertEquals(String.format(Locale.US, "%." + scale + "f", value), PromptTemplate.fixed(value, scale));
+                assertEquals(String.format(Locale.US, "%+." + scale + "f", value), PromptTemplate.signedFixed(value, scale));
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fitness.entity.AiRateLimit;
+import com.fitness.entity.PasswordResetToken;
+import com.fitness.entity.User;
+import com.fitness.service.RetentionPurgeJob;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+@QuarkusTest
+public class RetentionPurgeJobTest {
+
+    private static final String EMAIL = "retention-purge-test@fitness.local";
+
+    @Inject
+    RetentionPurgeJob retentionPurgeJob;
+
+    Long userId;
+    Long staleLimitId;
+    Long freshLimitId;
+
+    @BeforeEach
+    @Transactional
+    public void setup() {
+        PasswordResetToken.delete("user.email", EMAIL);
+        User.delete("email", EMAIL);
+        User.flush();
+
+        User user = new User();
+        user.email = EMAIL;
+        user.password = "x";
+        user.name = "Retention Test";
+        user.persist();
+        userId = user.id;
+
+        // Süresi 2 saat önce dolmuş (grace 60 dk), 10 dk önce dolmuş (grace içinde) ve hâlâ geçerli kodlar
+        token("RP-OLD", user, LocalDateTime.now().minusHours(2));
+        token("RP-GRACE", user, LocalDateTime.now().minusMinutes(10));
+        token("RP-LIVE", user, LocalDateTime.now().plusMinutes(15));
+
+        staleLimitId = rateLimit(user.id, "retention-stale", LocalDateTime.now().minusDays(3));
+        freshLimitId = rateLimit(user.id, "retention-fresh", LocalDateTime.now().minusHours(1));
+    }
+
+    @Test
+    public void testPurgeDeletesOnlyExpiredRows() {
+        Map<String, Integer> deleted = retentionPurgeJob.purgeNow();
+        assertTrue(deleted.get("password_reset_token") >= 1, deleted.toString());
+        assertTrue(deleted.get("ai_rate_limits") >= 1, deleted.toString());
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            assertNull(PasswordResetToken.findById("RP-OLD"));
+            assertNotNull(PasswordResetToken.findById("RP-GRACE"));
+            assertNotNull(PasswordResetToken.findById("RP-LIVE"));
+            assertNull(AiRateLimit.findById(staleLimitId));
+            assertNotNull(AiRateLimit.findById(freshLimitId));
+        });
+
+        // İkinci tur silinecek bir şey bulmaz
+        Map<String, Integer> again = retentionPurgeJob.purgeNow();
+        assertEquals(0, again.get("password_reset_token"));
+        assertEquals(0, again.get("ai_rate_limits"));
+    }
+
+    @Test
+    public void testMetricsExposePerTableCounters() {
+        retentionPurgeJob.purgeNow();
+
+        String metrics = retentionPurgeJob.renderPrometheus();
+        assertTrue(metrics.contains("# TYPE retention_purged_rows_total counter"), metrics);
+        assertTrue(metrics.contains("retention_purged_rows_total{table=\"password_reset_token\"}"), metrics);
+        assertTrue(metrics.contains("retention_purge_runs_total{table=\"ai_rate_limits\"}"), metrics);
+        assertTrue(metrics.contains("retention_purge_failures_total{table=\"ai_rate_limits\"} 0"), metrics);
+        assertFalse(metrics.contains("NaN"), metrics);
+    }
+
+    private static void token(String code, User user, LocalDateTime expiry) {
+        PasswordResetToken.deleteById(code);
+        PasswordResetToken token = new PasswordResetToken();
+        token.token = code;
+        token.user = user;
+        token.expiryDate = expiry;
+        token.persist();
+    }
+
+    private static Long rateLimit(Long userId, String scope, LocalDateTime windowStart) {
+        AiRateLimit limit = new AiRateLimit();
+        limit.userId = userId;
+        limit.scope = scope;
+        limit.requestCount = 1;
+        limit.windowStart = windowStart;
+        limit.persist();
+        return limit.id;
+    }
+}
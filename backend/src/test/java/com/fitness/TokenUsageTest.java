@@ -0,0 +1,38 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitness.service.TokenUsage;
+
+public class TokenUsageTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void geminiPromptCountIncludesCachedTokens() throws Exception {
+        TokenUsage usage = TokenUsage.fromGemini(mapper.readTree(
+                "{\"promptTokenCount\":1800,\"cachedContentTokenCount\":1200,\"candidatesTokenCount\":300,\"thoughtsTokenCount\":50}"));
+
+        assertEquals(1800, usage.inputTokens());
+        assertEquals(1200, usage.cachedInputTokens());
+        assertEquals(600, usage.freshInputTokens());
+        assertEquals(350, usage.outputTokens());
+    }
+
+    @Test
+    void claudeInputExcludesCacheReadsAndWrites() throws Exception {
+        TokenUsage start = TokenUsage.fromClaude(mapper.readTree(
+                "{\"input_tokens\":420,\"cache_read_input_tokens\":1500,\"cache_creation_input_tokens\":0,\"output_tokens\":1}"));
+        TokenUsage streamed = start.merge(TokenUsage.fromClaude(mapper.readTree("{\"output_tokens\":275}")));
+
+        assertEquals(1920, streamed.inputTokens());
+        assertEquals(1500, streamed.cachedInputTokens());
+        assertEquals(420, streamed.freshInputTokens());
+        assertEquals(275, streamed.outputTokens());
+        assertEquals("inputTokens=1920 cachedTokens=1500 freshTokens=420 cacheWriteTokens=0 outputTokens=275",
+                streamed.logFields());
+    }
+}
@@ -0,0 +1,149 @@
+package com.fitness;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fitness.entity.User;
+import com.fitness.service.TraceSpan;
+import com.fitness.service.Tracing;
+import com.sun.net.httpserver.HttpServer;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+public class TracingTest {
+
+    @Inject
+    Tracing tracing;
+
+    @BeforeEach
+    public void setup() {
+        tracing.reset();
+    }
+
+    @Test
+    public void testStagesJdbcAndOutboundHttpShareOneTrace() throws Exception {
+        AtomicReference<String> receivedTraceparent = new AtomicReference<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/models", exchange -> {
+            receivedTraceparent.set(exchange.getRequestHeaders().getFirst("traceparent"));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        String traceparent;
+        try (TraceSpan root = tracing.startTrace("POST /test")) {
+            root.setAttribute("user.tier", "free");
+            try (TraceSpan stage = tracing.startSpan("rate_limit")) {
+                QuarkusTransaction.requiringNew().call(() -> User.count());
+            }
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/models"))
+                    .GET()
+                    .build();
+            HttpResponse<Void> response = tracing.send(HttpClient.newHttpClient(), request,
+                    HttpResponse.BodyHandlers.discarding());
+            assertEquals(204, response.statusCode());
+            traceparent = root.traceparent();
+        } finally {
+            server.stop(0);
+        }
+
+        List<TraceSpan> trace = lastTrace();
+        Map<String, TraceSpan> byName = trace.stream()
+                .collect(Collectors.toMap(TraceSpan::name, Function.identity(), (a, b) -> a));
+        TraceSpan root = byName.get("POST /test");
+        TraceSpan stage = byName.get("rate_limit");
+        TraceSpan jdbc = byName.get("db.execute");
+        TraceSpan http = byName.get("HTTP GET");
+
+        assertNull(root.parentSpanId());
+        assertEquals(root.spanId(), stage.parentSpanId());
+        assertEquals(stage.spanId(), jdbc.parentSpanId());
+        assertEquals(root.spanId(), http.parentSpanId());
+        assertEquals(204, http.attributes().get("http.response.status_code"));
+        assertTrue(trace.stream().allMatch(span -> span.traceId().equals(root.traceId())));
+        assertTrue(trace.stream().allMatch(span -> span.durationNanos() >= 0));
+        assertTrue(traceparent.startsWith("00-" + root.traceId() + "-"));
+        assertEquals("00-" + root.traceId() + "-" + http.spanId() + "-01", receivedTraceparent.get());
+
+        // Root kapandıktan sonra aktif span kalmamalı
+        assertFalse(Tracing.currentSpan().isRecording());
+    }
+
+    @Test
+    public void testNutritionEndpointRecordsStagesAndStatus() {
+        given()
+                .contentType("application/json")
+                .body("{\"message\": \"Akşam ne yesem?\"}")
+                .when().post("/api/ai/nutrition")
+                .then()
+                .statusCode(401);
+
+        List<TraceSpan> trace = lastTrace();
+        TraceSpan root = trace.get(trace.size() - 1);
+        assertEquals("POST /api/ai/nutrition", root.name());
+        assertEquals(TraceSpan.Kind.SERVER, root.kind());
+        assertEquals(401, root.attributes().get("http.response.status_code"));
+        assertTrue(trace.stream().anyMatch(span -> "auth.jwt".equals(span.name())));
+        assertFalse(trace.stream().anyMatch(span -> "rate_limit".equals(span.name())));
+    }
+
+    @Test
+    public void testSpansOutsideATraceAreNotRecorded() {
+        try (TraceSpan span = tracing.startSpan("prompt.build")) {
+            assertFalse(span.isRecording());
+            assertNull(span.traceparent());
+        }
+        assertTrue(tracing.recentTraces().isEmpty());
+    }
+
+    @Test
+    public void testOtlpPayloadShape() {
+        try (TraceSpan root = tracing.startTrace("POST /otlp")) {
+            root.setAttribute("user.tier", "premium").setAttribute("http.response.status_code", 502);
+            try (TraceSpan call = tracing.startSpan("ai.call")) {
+                call.setAttribute("ai.model", "gemini-2.0-flash").recordError("quota");
+            }
+        }
+
+        JsonNode spans = tracing.toOtlp(lastTrace()).path("resourceSpans").path(0)
+                .path("scopeSpans").path(0).path("spans");
+        assertEquals(2, spans.size());
+        JsonNode call = spans.get(0);
+        assertEquals("ai.call", call.path("name").asText());
+        assertEquals(32, call.path("traceId").asText().length());
+        assertEquals(spans.get(1).path("spanId").asText(), call.path("parentSpanId").asText());
+        assertEquals(2, call.path("status").path("code").asInt());
+        assertEquals("gemini-2.0-flash", call.path("attributes").path(0).path("value").path("stringValue").asText());
+        JsonNode root = spans.get(1);
+        assertEquals(2, root.path("kind").asInt());
+        assertEquals("502", root.path("attributes").path(1).path("value").path("intValue").asText());
+    }
+
+    private List<TraceSpan> lastTrace() {
+        List<List<TraceSpan>> traces = tracing.recentTraces();
+        assertFalse(traces.isEmpty());
+        return traces.get(traces.size() - 1);
+    }
+}
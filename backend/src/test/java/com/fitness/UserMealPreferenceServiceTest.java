@@ -0,0 +1,173 @@
+package com.fitness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fitness.entity.User;
+import com.fitness.entity.UserMealProfile;
+import com.fitness.service.MealPreferenceRing;
+import com.fitness.service.TasteProfile;
+import com.fitness.service.UserMealPreferenceService;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+@QuarkusTest
+public class UserMealPreferenceServiceTest {
+
+    private static final String EMAIL = "meal-preference-test@fitness.local";
+
+    @Inject
+    UserMealPreferenceService preferenceService;
+
+    Long userId;
+
+    @BeforeEach
+    @Transactional
+    public void setup() {
+        // user_meal_profiles satırı kullanıcıyla birlikte (ON DELETE CASCADE) silinir
+        User.delete("email", EMAIL);
+        User.flush();
+
+        User user = new User();
+        user.email = EMAIL;
+        user.password = "x";
+        user.name = "Preference Test";
+        user.persist();
+        userId = user.id;
+    }
+
+    @Test
+    public void testRingOverwritesOldestAndRoundTrips() {
+        MealPreferenceRing ring = new MealPreferenceRing(3);
+        ring.add("BREAKFAST", List.of("Yüksek Protein", " vegan "), "Yulaf");
+        ring.add(null, null, "Elma\tdilimi");
+        ring.add("LUNCH", List.of("vegan"), "Mercimek");
+        ring.add("DINNER", List.of("vegan", ""), "Nohut");
+
+        assertEquals(3, ring.size());
+        MealPreferenceRing decoded = MealPreferenceRing.decode(ring.encode(), 3);
+        assertEquals(ring.encode(), decoded.encode());
+        assertEquals(List.of("Nohut", "Mercimek", "Elma dilimi"),
+                decoded.newestFirst().stream().map(MealPreferenceRing.Entry::mealName).toList());
+        assertNull(decoded.newestFirst().get(2).mealType());
+
+        // Daha küçük kapasiteyle okununca en yeni kayıtlar kalır
+        MealPreferenceRing shrunk = MealPreferenceRing.decode(ring.encode(), 2);
+        assertEquals(List.of("Nohut", "Mercimek"),
+                shrunk.newestFirst().stream().map(MealPreferenceRing.Entry::mealName).toList());
+
+        // Eşitlikte daha yeni öğün öne geçer
+        assertEquals("Kullanıcı geçmişte şunları tercih etti: vegan. En sık tercih edilen öğün: DINNER",
+                decoded.summary());
+    }
+
+    @Test
+    public void testRecordPreferenceKeepsLastTwentyAndPrecomputesSummary() {
+        for (int i = 0; i < 25; i++) {
+            preferenceService.recordPreference(userId, "Yemek " + i,
+                    i < 5 ? List.of("tatlı") : List.of("yüksek protein", "düşük karbonhidrat"),
+                    i % 2 == 0 ? "LUNCH" : "DINNER");
+        }
+
+        UserMealProfile profile = QuarkusTransaction.requiringNew().call(
+                () -> UserMealProfile.<UserMealProfile>findById(userId));
+        assertEquals(25L, profile.feedbackCount);
+        MealPreferenceRing ring = MealPreferenceRing.decode(profile.recent, 20);
+        assertEquals(20, ring.size());
+        assertEquals("Yemek 24", ring.newestFirst().get(0).mealName());
+        assertEquals("Yemek 5", ring.newestFirst().get(19).mealName());
+
+        // İlk beş "tatlı" kaydı halkadan çıktı ama ağırlığı (sönümlenerek) profilde kalır
+        TasteProfile tagWeights = TasteProfile.decode(profile.tagWeights);
+        assertEquals(20.0, tagWeights.weight("yüksek protein"), 0.01);
+        assertEquals(5.0, tagWeights.weight("tatlı"), 0.01);
+        String expected = "Kullanıcı geçmişte şunları tercih etti: yüksek protein, düşük karbonhidrat, tatlı."
+                + " En sık tercih edilen öğün: LUNCH";
+        assertEquals(expected, profile.summary);
+        assertEquals(expected, preferenceService.getPreferenceSummary(userId));
+    }
+
+    @Test
+    public void testTasteProfileDecaysPrunesAndRoundTrips() {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 12, 0);
+        assertEquals(0.5, TasteProfile.decayFactor(start, start.plusDays(30), Duration.ofDays(30)), 1e-9);
+        assertEquals(1.0, TasteProfile.decayFactor(start, start.minusDays(1), Duration.ofDays(30)), 1e-9);
+
+        TasteProfile profile = new TasteProfile();
+        profile.add("tatlı", 4.0);
+        profile.add("vegan", 1.0);
+        profile.add("az=tuz;", 0.04);
+        profile.decay(0.25);
+        // 4 → 1.0 ve 1 → 0.25 kalır; eşik altındaki anahtar silinir
+        assertEquals(2, profile.size());
+        profile.add("vegan", 1.0);
+        assertEquals(List.of("vegan", "tatlı"), profile.top(5));
+
+        profile.add("glutensiz", 0.5);
+        profile.prune(2);
+        assertEquals(List.of("vegan", "tatlı"), profile.top(5));
+
+        TasteProfile decoded = TasteProfile.decode(profile.encode());
+        assertEquals(profile.encode(), decoded.encode());
+        assertEquals(1.25, decoded.weight("vegan"), 1e-4);
+        assertEquals(0.0, TasteProfile.decode("bozuk;=1;x=abc;y=-2").size());
+    }
+
+    @Test
+    public void testOldPreferencesFadeBehindRecentOnes() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            UserMealProfile profile = new UserMealProfile();
+            profile.userId = userId;
+            profile.recent = "DINNER\ttatlı\tSütlaç";
+            profile.tagWeights = "tatlı=5.0000";
+            profile.mealTypeWeights = "DINNER=5.0000";
+            profile.weightsAt = LocalDateTime.now().minusDays(90); // 3 yarılanma ömrü: 5 → 0.625
+            profile.feedbackCount = 5L;
+            profile.updatedAt = profile.weightsAt;
+            profile.persist();
+        });
+
+        preferenceService.recordPreference(userId, "Mercimek", List.of("Vegan"), "LUNCH");
+
+        assertEquals("Kullanıcı geçmişte şunları tercih etti: vegan, tatlı. En sık tercih edilen öğün: LUNCH",
+                preferenceService.getPreferenceSummary(userId));
+        UserMealProfile profile = QuarkusTransaction.requiringNew().call(
+                () -> UserMealProfile.<UserMealProfile>findById(userId));
+        assertEquals(0.625, TasteProfile.decode(profile.tagWeights).weight("tatlı"), 0.01);
+    }
+
+    @Test
+    public void testMigratedProfileWithoutSummaryIsSummarizedOnRead() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            UserMealProfile profile = new UserMealProfile();
+            profile.userId = userId;
+            profile.recent = "BREAKFAST\tvegan\tYulaf\nBREAKFAST\tvegan,glutensiz\tChia";
+            profile.feedbackCount = 2L;
+            profile.updatedAt = LocalDateTime.now();
+            profile.persist();
+        });
+
+        assertEquals("Kullanıcı geçmişte şunları tercih etti: vegan, glutensiz. En sık tercih edilen öğün: BREAKFAST",
+                preferenceService.getPreferenceSummary(userId));
+        assertEquals("", preferenceService.getPreferenceSummary(-1L));
+
+        // İlk geri bildirim ağırlıkları mevcut son tercihlerden başlatır
+        preferenceService.recordPreference(userId, "Smoothie", List.of("vegan"), "SNACK");
+        UserMealProfile profile = QuarkusTransaction.requiringNew().call(
+                () -> UserMealProfile.<UserMealProfile>findById(userId));
+        TasteProfile tagWeights = TasteProfile.decode(profile.tagWeights);
+        assertEquals(3.0, tagWeights.weight("vegan"), 0.01);
+        assertEquals(1.0, tagWeights.weight("glutensiz"), 0.01);
+        assertEquals(2.0, TasteProfile.decode(profile.mealTypeWeights).weight("BREAKFAST"), 0.01);
+    }
+}